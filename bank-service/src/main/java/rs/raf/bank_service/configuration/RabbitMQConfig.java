@@ -1,35 +1,65 @@
 package rs.raf.bank_service.configuration;
 
-import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import rs.raf.bank_service.messaging.RetryPolicy;
+import rs.raf.bank_service.messaging.RetryableQueues;
+import rs.raf.bank_service.messaging.RetryingMessageRecoverer;
 
 @Configuration
 public class RabbitMQConfig {
     public static final String TRANSACTION_QUEUE = "transaction-queue";
+    public static final String VERIFICATION_DECISION_QUEUE = "verification-decision";
+    public static final String VERIFICATION_RESULT_QUEUE = "verification-result";
 
     @Bean
-    public Queue transactionQueue() {
-        return new Queue(TRANSACTION_QUEUE, true);
+    public RetryPolicy messagingRetryPolicy(@Value("${messaging.retry.max-attempts:3}") int maxAttempts,
+                                            @Value("${messaging.retry.initial-delay-ms:1000}") long initialDelay,
+                                            @Value("${messaging.retry.multiplier:5}") double multiplier,
+                                            @Value("${messaging.retry.max-delay-ms:60000}") long maxDelay) {
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay);
+    }
+
+    @Bean
+    public Declarables transactionQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare(TRANSACTION_QUEUE, messagingRetryPolicy);
+    }
+
+    @Bean
+    public Declarables verificationDecisionQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare(VERIFICATION_DECISION_QUEUE, messagingRetryPolicy);
     }
 
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        converter.setCreateMessageIds(true);
+        return converter;
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               AmqpTemplate amqpTemplate,
+                                                                               RetryPolicy messagingRetryPolicy) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         factory.setPrefetchCount(1);
         factory.setConcurrentConsumers(1);
         factory.setMaxConcurrentConsumers(1);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(new RetryingMessageRecoverer(amqpTemplate, messagingRetryPolicy))
+                .build());
         return factory;
     }
-}
\ No newline at end of file
+}
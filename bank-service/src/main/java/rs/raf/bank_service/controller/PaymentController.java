@@ -17,6 +17,7 @@ import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.enums.PaymentStatus;
 import rs.raf.bank_service.domain.enums.TransactionType;
 import rs.raf.bank_service.exceptions.*;
+import rs.raf.bank_service.service.FundsReservationService;
 import rs.raf.bank_service.service.PaymentService;
 import rs.raf.bank_service.service.TransactionQueueService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
@@ -24,6 +25,7 @@ import rs.raf.bank_service.utils.JwtTokenUtil;
 import javax.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/payment")
@@ -33,6 +35,7 @@ public class PaymentController {
     private final PaymentService paymentService;
     private final TransactionQueueService transactionQueueService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final FundsReservationService fundsReservationService;
 
     @PreAuthorize("hasRole('CLIENT')")
     @PostMapping("/transfer")
@@ -134,6 +137,56 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/tax/batch")
+    @Operation(summary = "Settle taxes in bulk", description = "Creates one tax payment per entry and reports, per account, whether it was charged.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-account status")
+    })
+    public ResponseEntity<List<TaxSettlementResultDto>> settleTaxes(@RequestBody List<TaxDto> taxes) {
+        return ResponseEntity.ok(paymentService.settleTaxes(taxes));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reservations")
+    @Operation(summary = "Reserve funds for a transfer", description = "Debits the sender now and holds the amount until the reservation is committed or released. Repeating a reference returns the existing reservation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation result, REJECTED if the funds are not available"),
+            @ApiResponse(responseCode = "404", description = "Sender account not found")
+    })
+    public ResponseEntity<?> reserveFunds(@Valid @RequestBody ReserveFundsDto reserveFundsDto) {
+        try {
+            return ResponseEntity.ok(fundsReservationService.reserve(reserveFundsDto));
+        } catch (SenderAccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reservations/{reference}/commit")
+    @Operation(summary = "Commit a funds reservation", description = "Credits the receiver with the reserved amount.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation committed (or already completed)"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    public ResponseEntity<?> commitFunds(@PathVariable String reference) {
+        try {
+            return ResponseEntity.ok(fundsReservationService.commit(reference));
+        } catch (FundsReservationNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reservations/{reference}/release")
+    @Operation(summary = "Release a funds reservation", description = "Returns the reserved amount to the sender. Releasing an unknown reference blocks a later reserve with it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation released (or already completed)")
+    })
+    public ResponseEntity<FundsReservationDto> releaseFunds(@PathVariable String reference) {
+        return ResponseEntity.ok(fundsReservationService.release(reference));
+    }
+
     // Metoda za potvrdu plaćanja
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/confirm-payment/{paymentId}")
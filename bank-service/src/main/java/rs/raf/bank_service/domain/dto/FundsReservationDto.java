@@ -0,0 +1,20 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.bank_service.domain.enums.FundsReservationStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundsReservationDto {
+    private String reference;
+    private FundsReservationStatus status;
+    private BigDecimal amount; // in the sender account's currency
+    private BigDecimal outAmount; // in the receiver account's currency, set once committed
+    private Long paymentId;
+    private String message;
+}
@@ -0,0 +1,39 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveFundsDto {
+    @NotBlank
+    private String reference;
+
+    @NotBlank
+    private String senderAccountNumber;
+
+    // the sender account has to belong to this client
+    @NotNull
+    private Long senderClientId;
+
+    // one of the two identifies the receiver; with only the client id, the client's active account in the
+    // payment currency is used, or any active account if there is none
+    private String receiverAccountNumber;
+    private Long receiverClientId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    @NotBlank
+    private String currencyCode;
+
+    private String purpose;
+}
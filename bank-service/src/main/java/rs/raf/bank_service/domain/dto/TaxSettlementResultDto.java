@@ -0,0 +1,20 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.bank_service.domain.enums.TaxSettlementStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxSettlementResultDto {
+    private String senderAccountNumber;
+    private TaxSettlementStatus status;
+    private BigDecimal chargedAmount; // in the sender account's currency
+    private Long paymentId;
+    private String message;
+    private String settlementId;
+}
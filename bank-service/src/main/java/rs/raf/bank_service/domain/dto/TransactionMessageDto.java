@@ -13,4 +13,5 @@ public class TransactionMessageDto {
     private String payloadJson;
     private Long userId;
     private Long timestamp;
+    private String idempotencyKey;
 }
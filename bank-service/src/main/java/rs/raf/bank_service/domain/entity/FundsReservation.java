@@ -0,0 +1,50 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.*;
+import rs.raf.bank_service.domain.enums.FundsReservationStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Money held for a transfer that another service has not decided on yet. Reserving debits the sender
+ * right away, so later payments (which reset availableBalance to balance) cannot spend it; committing
+ * credits the receiver and releasing credits the sender back. The reference is chosen by the caller and
+ * makes every step idempotent.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "funds_reservations")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_funds_reservations_reference", columnNames = "reference"))
+public class FundsReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String reference;
+
+    private String senderAccountNumber;
+    private String receiverAccountNumber;
+    private Long clientId;
+    private Long receiverClientId;
+    private String purpose;
+
+    // u valuti racuna posiljaoca
+    private BigDecimal amount;
+    // u valuti racuna primaoca, poznato tek posle commit-a
+    private BigDecimal outAmount;
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FundsReservationStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
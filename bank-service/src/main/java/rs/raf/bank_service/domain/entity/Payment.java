@@ -65,6 +65,10 @@ public class Payment {
     @Column()
     private Long receiverClientId;
 
+    // settlement id sent by stock-service for tax payments, see PaymentService.settleTaxes
+    @Column(unique = true)
+    private String taxSettlementId;
+
     @Override
     public String toString() {
         return "Payment{" +
@@ -0,0 +1,27 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "processed_messages")
+public class ProcessedMessage {
+
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,6 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum FundsReservationStatus {
+    RESERVED, COMMITTED, RELEASED,
+    REJECTED // returned when the funds cannot be reserved, never stored
+}
@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class FundsReservationNotFoundException extends RuntimeException {
+    public FundsReservationNotFoundException(String reference) {
+        super("Funds reservation not found with reference: " + reference);
+    }
+}
@@ -0,0 +1,29 @@
+package rs.raf.bank_service.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.domain.entity.ProcessedMessage;
+import rs.raf.bank_service.repository.ProcessedMessageRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records idempotency keys of applied messages. {@link #markProcessed} should run in the same
+ * transaction as the work itself, so a key is stored exactly when the work is committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private final ProcessedMessageRepository processedMessageRepository;
+
+    public boolean isProcessed(String key) {
+        return key != null && processedMessageRepository.existsById(key);
+    }
+
+    public void markProcessed(String key) {
+        if (key != null) {
+            processedMessageRepository.save(new ProcessedMessage(key, LocalDateTime.now()));
+        }
+    }
+}
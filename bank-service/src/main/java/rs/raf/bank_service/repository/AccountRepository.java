@@ -3,13 +3,17 @@ package rs.raf.bank_service.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
 import rs.raf.bank_service.domain.entity.Currency;
 
 import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +24,8 @@ public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpec
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
     Optional<Account> findByAccountNumberAndClientId(String accountNumber, Long clientId);
 
     List<Account> findByClientId(Long clientId);
@@ -32,5 +38,18 @@ public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpec
     @Query("SELECT a FROM accounts a WHERE a.accountNumber = :accountNumber")
     Account findByIdForUpdate(@Param("accountNumber") String accountNumber);
 
+    // check and debit in one statement, so two reservations cannot both spend the same funds
+    @Transactional
+    @Modifying
+    @Query("UPDATE accounts a SET a.balance = a.balance - :amount, a.availableBalance = a.availableBalance - :amount " +
+            "WHERE a.accountNumber = :accountNumber AND a.availableBalance >= :amount")
+    int debitIfAvailable(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE accounts a SET a.balance = a.balance + :delta, a.availableBalance = a.availableBalance + :delta " +
+            "WHERE a.accountNumber = :accountNumber")
+    int adjustBalance(@Param("accountNumber") String accountNumber, @Param("delta") BigDecimal delta);
+
 
 }
@@ -0,0 +1,25 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.domain.entity.FundsReservation;
+import rs.raf.bank_service.domain.enums.FundsReservationStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface FundsReservationRepository extends JpaRepository<FundsReservation, Long> {
+
+    Optional<FundsReservation> findByReference(String reference);
+
+    // only one of concurrent commit/release calls moves a reservation out of RESERVED
+    @Transactional
+    @Modifying
+    @Query("UPDATE funds_reservations r SET r.status = :status, r.updatedAt = :now " +
+            "WHERE r.reference = :reference AND r.status = rs.raf.bank_service.domain.enums.FundsReservationStatus.RESERVED")
+    int completeReserved(@Param("reference") String reference, @Param("status") FundsReservationStatus status,
+                         @Param("now") LocalDateTime now);
+}
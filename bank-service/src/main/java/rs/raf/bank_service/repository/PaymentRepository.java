@@ -4,8 +4,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import rs.raf.bank_service.domain.entity.Payment;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
     Optional<Payment> findByIdAndClientId(Long id, Long clientId);
+
+    List<Payment> findAllByTaxSettlementIdIn(Collection<String> taxSettlementIds);
 }
\ No newline at end of file
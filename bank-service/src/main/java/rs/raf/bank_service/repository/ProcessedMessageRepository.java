@@ -0,0 +1,9 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.ProcessedMessage;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+}
@@ -1,13 +1,10 @@
 package rs.raf.bank_service.security;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import rs.raf.bank_service.utils.JwtTokenUtil;
@@ -17,14 +14,11 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.security.Key;
 import java.util.List;
 
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private static final Key secret = Keys.hmacShaKeyFor("si-2024-banka-3-tajni-kljuc-za-jwt-generisanje-tokena-mora-biti-512-bitova-valjda-je-dovoljno".getBytes());
-
     private final JwtTokenUtil jwtTokenUtil;
 
     public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil) {
@@ -36,20 +30,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         String token = getJwtFromRequest(request);
 
-        if (token != null && jwtTokenUtil.validateToken(token)) {
-            Claims claims = jwtTokenUtil.getClaimsFromToken(token);
-            String email = claims.getSubject();
+        Claims claims = token != null ? jwtTokenUtil.getVerifiedClaims(token) : null;
 
+        if (claims != null) {
+            String email = claims.getSubject();
+            Long userId = claims.get("userId", Long.class);
             String role = claims.get("role", String.class);
             GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role.toUpperCase());
             List<GrantedAuthority> authorities = List.of(authority);
 
-            System.out.println("Token roles: " + authorities);
-
-            UserDetails userDetails = new org.springframework.security.core.userdetails.User(email, "", authorities);
+            JwtPrincipal principal = new JwtPrincipal(email, userId, role, authorities);
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, authorities);
+                    principal, null, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
@@ -64,22 +57,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-
-    public boolean validateToken(String token) {
-        try {
-            getClaimsFromToken(token);
-            return true;
-        } catch (Exception e) {
-            System.out.println(e);
-            return false;
-        }
-    }
-
-    public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
 }
@@ -0,0 +1,186 @@
+package rs.raf.bank_service.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.domain.dto.FundsReservationDto;
+import rs.raf.bank_service.domain.dto.ReserveFundsDto;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.entity.CompanyAccount;
+import rs.raf.bank_service.domain.entity.FundsReservation;
+import rs.raf.bank_service.domain.entity.Payment;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.FundsReservationStatus;
+import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.exceptions.BankAccountNotFoundException;
+import rs.raf.bank_service.exceptions.FundsReservationNotFoundException;
+import rs.raf.bank_service.exceptions.ReceiverAccountNotFoundException;
+import rs.raf.bank_service.exceptions.SenderAccountNotFoundException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.FundsReservationRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reserve / commit / release of a transfer on behalf of a saga in another service (OTC option
+ * exercise). All three are idempotent on the caller's reference.
+ */
+@Service
+@AllArgsConstructor
+public class FundsReservationService {
+
+    private final FundsReservationRepository fundsReservationRepository;
+    private final AccountRepository accountRepository;
+    private final PaymentRepository paymentRepository;
+    private final ExchangeRateService exchangeRateService;
+
+    @Transactional
+    public FundsReservationDto reserve(ReserveFundsDto dto) {
+        Optional<FundsReservation> existing = fundsReservationRepository.findByReference(dto.getReference());
+        if (existing.isPresent()) {
+            return toDto(existing.get());
+        }
+
+        Account sender = accountRepository.findByAccountNumber(dto.getSenderAccountNumber())
+                .orElseThrow(() -> new SenderAccountNotFoundException(dto.getSenderAccountNumber()));
+        if (!Objects.equals(sender.getClientId(), dto.getSenderClientId())) {
+            return rejected(dto.getReference(), null, "Sender account does not belong to the client");
+        }
+        Optional<Account> receiver = resolveReceiver(dto);
+        if (receiver.isEmpty()) {
+            return rejected(dto.getReference(), null, "Receiver account not found");
+        }
+
+        BigDecimal amount = dto.getAmount();
+        String senderCurrency = sender.getCurrency().getCode();
+        if (!senderCurrency.equals(dto.getCurrencyCode())) {
+            amount = amount.multiply(exchangeRateService.getExchangeRate(dto.getCurrencyCode(), senderCurrency).getExchangeRate());
+        }
+
+        if (accountRepository.debitIfAvailable(sender.getAccountNumber(), amount) == 0) {
+            return rejected(dto.getReference(), amount, "Insufficient funds");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        FundsReservation reservation = fundsReservationRepository.save(FundsReservation.builder()
+                .reference(dto.getReference())
+                .senderAccountNumber(sender.getAccountNumber())
+                .receiverAccountNumber(receiver.get().getAccountNumber())
+                .clientId(sender.getClientId())
+                .receiverClientId(receiver.get().getClientId())
+                .purpose(dto.getPurpose())
+                .amount(amount)
+                .status(FundsReservationStatus.RESERVED)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        return toDto(reservation);
+    }
+
+    @Transactional
+    public FundsReservationDto commit(String reference) {
+        FundsReservation reservation = fundsReservationRepository.findByReference(reference)
+                .orElseThrow(() -> new FundsReservationNotFoundException(reference));
+        if (fundsReservationRepository.completeReserved(reference, FundsReservationStatus.COMMITTED, LocalDateTime.now()) == 0) {
+            return toDto(reservation);
+        }
+
+        Account sender = accountRepository.findByAccountNumber(reservation.getSenderAccountNumber())
+                .orElseThrow(() -> new SenderAccountNotFoundException(reservation.getSenderAccountNumber()));
+        Account receiver = accountRepository.findByAccountNumber(reservation.getReceiverAccountNumber())
+                .orElseThrow(() -> new ReceiverAccountNotFoundException(reservation.getReceiverAccountNumber()));
+
+        // the sender was already debited when reserving
+        BigDecimal amount = reservation.getAmount();
+        BigDecimal outAmount = amount;
+        if (!sender.getCurrency().getCode().equals(receiver.getCurrency().getCode())) {
+            //  Kao i kod placanja, konverzija ide preko bankovnih racuna (companyId = 1)
+            CompanyAccount bankAccountFrom = accountRepository.findFirstByCurrencyAndCompanyId(sender.getCurrency(), 1L)
+                    .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + sender.getCurrency().getCode()));
+            CompanyAccount bankAccountTo = accountRepository.findFirstByCurrencyAndCompanyId(receiver.getCurrency(), 1L)
+                    .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + receiver.getCurrency().getCode()));
+
+            outAmount = amount.multiply(exchangeRateService.getExchangeRate(sender.getCurrency().getCode(),
+                    receiver.getCurrency().getCode()).getExchangeRate());
+            accountRepository.adjustBalance(bankAccountFrom.getAccountNumber(), amount);
+            accountRepository.adjustBalance(bankAccountTo.getAccountNumber(), outAmount.negate());
+        }
+        accountRepository.adjustBalance(receiver.getAccountNumber(), outAmount);
+
+        reservation.setStatus(FundsReservationStatus.COMMITTED);
+        reservation.setOutAmount(outAmount);
+        reservation.setUpdatedAt(LocalDateTime.now());
+        // company accounts have no client, so there is no statement to show the transfer on
+        if (sender.getClientId() != null) {
+            reservation.setPaymentId(paymentRepository.save(payment(reservation, sender, outAmount)).getId());
+        }
+        fundsReservationRepository.save(reservation);
+        return toDto(reservation);
+    }
+
+    @Transactional
+    public FundsReservationDto release(String reference) {
+        Optional<FundsReservation> found = fundsReservationRepository.findByReference(reference);
+        if (found.isEmpty()) {
+            // the reserve call may still be in flight; the tombstone makes it a no-op when it arrives
+            LocalDateTime now = LocalDateTime.now();
+            FundsReservation tombstone = fundsReservationRepository.save(FundsReservation.builder()
+                    .reference(reference)
+                    .amount(BigDecimal.ZERO)
+                    .status(FundsReservationStatus.RELEASED)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            return toDto(tombstone);
+        }
+
+        FundsReservation reservation = found.get();
+        if (fundsReservationRepository.completeReserved(reference, FundsReservationStatus.RELEASED, LocalDateTime.now()) == 1) {
+            accountRepository.adjustBalance(reservation.getSenderAccountNumber(), reservation.getAmount());
+            reservation.setStatus(FundsReservationStatus.RELEASED);
+        }
+        return toDto(reservation);
+    }
+
+    private Optional<Account> resolveReceiver(ReserveFundsDto dto) {
+        if (dto.getReceiverAccountNumber() != null) {
+            return accountRepository.findByAccountNumber(dto.getReceiverAccountNumber());
+        }
+        if (dto.getReceiverClientId() == null) {
+            return Optional.empty();
+        }
+        return accountRepository.findAllByClientId(dto.getReceiverClientId()).stream()
+                .filter(account -> account.getStatus() == AccountStatus.ACTIVE)
+                .min(Comparator.comparing(account -> !account.getCurrency().getCode().equals(dto.getCurrencyCode())));
+    }
+
+    private Payment payment(FundsReservation reservation, Account sender, BigDecimal outAmount) {
+        Payment payment = new Payment();
+        payment.setClientId(sender.getClientId());
+        payment.setSenderAccount(sender);
+        payment.setAccountNumberReceiver(reservation.getReceiverAccountNumber());
+        payment.setAmount(reservation.getAmount());
+        payment.setOutAmount(outAmount);
+        payment.setPaymentCode("N/A");
+        payment.setPurposeOfPayment(reservation.getPurpose() != null ? reservation.getPurpose() : "N/A");
+        payment.setReferenceNumber(reservation.getReference());
+        payment.setDate(LocalDateTime.now());
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setReceiverClientId(reservation.getReceiverClientId());
+        return payment;
+    }
+
+    private FundsReservationDto rejected(String reference, BigDecimal amount, String message) {
+        return new FundsReservationDto(reference, FundsReservationStatus.REJECTED, amount, null, null, message);
+    }
+
+    private FundsReservationDto toDto(FundsReservation reservation) {
+        return new FundsReservationDto(reservation.getReference(), reservation.getStatus(), reservation.getAmount(),
+                reservation.getOutAmount(), reservation.getPaymentId(), null);
+    }
+}
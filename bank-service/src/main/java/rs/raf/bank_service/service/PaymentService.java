@@ -8,6 +8,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import rs.raf.bank_service.client.UserClient;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.Account;
@@ -15,6 +17,7 @@ import rs.raf.bank_service.domain.entity.CompanyAccount;
 import rs.raf.bank_service.domain.entity.Payment;
 import rs.raf.bank_service.domain.entity.PersonalAccount;
 import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.domain.enums.TaxSettlementStatus;
 import rs.raf.bank_service.domain.enums.TransactionType;
 import rs.raf.bank_service.domain.enums.VerificationType;
 import rs.raf.bank_service.domain.mapper.PaymentMapper;
@@ -28,6 +31,9 @@ import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -263,6 +269,137 @@ public class PaymentService {
         transactionQueueService.queueTransaction(TransactionType.CONFIRM_PAYMENT, paymentDto.getId());
     }
 
+    /**
+     * Charges one tax payment per entry, normally one per account with that account's taxes summed.
+     * All accounts are loaded in one query and each exchange rate is looked up once per batch. The debit
+     * is initiated by the bank, so no verification request is created; payments are confirmed through
+     * the transaction queue like any other, once the payments are committed. Accounts that cannot cover
+     * their tax are reported back and nothing is charged to them.
+     * <p>
+     * An entry whose settlement id already has a payment is not charged again and is reported as settled
+     * with that payment, so stock-service can retry a batch whose response it did not receive.
+     */
+    @Transactional
+    public List<TaxSettlementResultDto> settleTaxes(List<TaxDto> taxes) {
+        Account stateAccount = companyAccountRepository.findByCompanyId(2L);
+        Map<String, Account> accounts = accountRepository.findAllByAccountNumberIn(
+                        taxes.stream().map(TaxDto::getSenderAccountNumber).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        Set<String> settlementIds = taxes.stream().map(TaxDto::getSettlementId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Payment> previous = settlementIds.isEmpty() ? Map.of()
+                : paymentRepository.findAllByTaxSettlementIdIn(settlementIds).stream()
+                .collect(Collectors.toMap(Payment::getTaxSettlementId, Function.identity()));
+        Map<String, ExchangeRateDto> rates = new HashMap<>();
+        Map<String, BigDecimal> charged = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        List<TaxSettlementResultDto> results = new ArrayList<>(taxes.size());
+        List<Payment> payments = new ArrayList<>();
+        List<TaxSettlementResultDto> settled = new ArrayList<>();
+        for (TaxDto tax : taxes) {
+            String settlementId = tax.getSettlementId();
+            if (settlementId != null) {
+                Payment payment = previous.get(settlementId);
+                if (payment != null) {
+                    results.add(new TaxSettlementResultDto(tax.getSenderAccountNumber(), TaxSettlementStatus.SETTLED,
+                            payment.getAmount(), payment.getId(), "Already settled", settlementId));
+                    continue;
+                }
+                if (!seen.add(settlementId)) {
+                    results.add(new TaxSettlementResultDto(tax.getSenderAccountNumber(), TaxSettlementStatus.FAILED,
+                            null, null, "Duplicate settlement id", settlementId));
+                    continue;
+                }
+            }
+
+            Account sender = accounts.get(tax.getSenderAccountNumber());
+            if (sender == null) {
+                results.add(new TaxSettlementResultDto(tax.getSenderAccountNumber(), TaxSettlementStatus.FAILED,
+                        null, null, "Account not found", settlementId));
+                continue;
+            }
+
+            try {
+                String currency = sender.getCurrency().getCode();
+                BigDecimal amount = tax.getAmount();
+                if (tax.getCurrencyCode() != null && !tax.getCurrencyCode().equals(currency)) {
+                    amount = amount.multiply(rate(rates, tax.getCurrencyCode(), currency).getExchangeRate());
+                }
+
+                BigDecimal alreadyCharged = charged.getOrDefault(sender.getAccountNumber(), BigDecimal.ZERO);
+                if (sender.getAvailableBalance().subtract(alreadyCharged).compareTo(amount) < 0) {
+                    results.add(new TaxSettlementResultDto(sender.getAccountNumber(),
+                            TaxSettlementStatus.INSUFFICIENT_FUNDS, amount, null, "Insufficient funds", settlementId));
+                    continue;
+                }
+
+                BigDecimal outAmount = amount;
+                if (!currency.equals(stateAccount.getCurrency().getCode())) {
+                    outAmount = amount.multiply(rate(rates, currency, stateAccount.getCurrency().getCode()).getSellRate());
+                }
+                Payment payment = taxPayment(sender, stateAccount, tax.getClientId(), amount, outAmount);
+                payment.setTaxSettlementId(settlementId);
+                payments.add(payment);
+                charged.put(sender.getAccountNumber(), alreadyCharged.add(amount));
+                TaxSettlementResultDto result = new TaxSettlementResultDto(sender.getAccountNumber(),
+                        TaxSettlementStatus.SETTLED, amount, null, null, settlementId);
+                settled.add(result);
+                results.add(result);
+            } catch (RuntimeException e) {
+                results.add(new TaxSettlementResultDto(sender.getAccountNumber(), TaxSettlementStatus.FAILED,
+                        null, null, e.getMessage(), settlementId));
+            }
+        }
+
+        paymentRepository.saveAll(payments);
+        List<Long> paymentIds = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            Long paymentId = payments.get(i).getId();
+            settled.get(i).setPaymentId(paymentId);
+            paymentIds.add(paymentId);
+        }
+        // queued only once committed, so the confirmation always finds its payment
+        afterCommit(() -> paymentIds.forEach(paymentId ->
+                transactionQueueService.queueTransaction(TransactionType.CONFIRM_PAYMENT, paymentId)));
+        return results;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private ExchangeRateDto rate(Map<String, ExchangeRateDto> rates, String from, String to) {
+        return rates.computeIfAbsent(from + "/" + to, key -> exchangeRateService.getExchangeRate(from, to));
+    }
+
+    private Payment taxPayment(Account sender, Account stateAccount, Long clientId, BigDecimal amount,
+                               BigDecimal outAmount) {
+        Payment payment = new Payment();
+        payment.setClientId(clientId);
+        payment.setSenderAccount(sender);
+        payment.setAccountNumberReceiver(stateAccount.getAccountNumber());
+        payment.setAmount(amount);
+        payment.setPaymentCode("N/A");
+        payment.setPurposeOfPayment("tax");
+        payment.setReferenceNumber("N/A");
+        payment.setDate(LocalDateTime.now());
+        payment.setStatus(PaymentStatus.PENDING_CONFIRMATION);
+        payment.setOutAmount(outAmount);
+        payment.setReceiverClientId(stateAccount.getClientId());
+        return payment;
+    }
+
     @Transactional
     public void confirmPayment(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
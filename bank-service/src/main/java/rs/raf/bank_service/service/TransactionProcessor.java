@@ -1,13 +1,15 @@
 package rs.raf.bank_service.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.TransactionMessageDto;
-import rs.raf.bank_service.domain.enums.TransactionType;
+import rs.raf.bank_service.messaging.IdempotencyStore;
 
 @Service
 @Slf4j
@@ -19,44 +21,51 @@ public class TransactionProcessor {
     private final TransactionQueueService transactionQueueService;
     private final LoanService loanService;
     private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
 
-    @RabbitListener(queues = "transaction-queue")
+    /**
+     * Failures are not swallowed: the transaction rolls back and the listener container moves the
+     * message to a delayed retry queue, and finally to the dead-letter queue.
+     */
+    @RabbitListener(queues = RabbitMQConfig.TRANSACTION_QUEUE)
     @Transactional
-    public void processTransaction(TransactionMessageDto message) {
-        try {
-            switch (message.getType()) {
-                case CONFIRM_PAYMENT:
-                    Long paymentId = objectMapper.readValue(message.getPayloadJson(), Long.class);
-                    paymentService.confirmPayment(paymentId);
-                    log.info("Processed payment confirmation for id: {}", paymentId);
-                    break;
-
-                case CONFIRM_TRANSFER:
-                    Long transferId = objectMapper.readValue(message.getPayloadJson(), Long.class);
-                    paymentService.confirmTransferAndExecute(transferId);
-                    log.info("Processed transfer confirmation for user {}", message.getUserId());
-                    break;
-
-                case APPROVE_LOAN:
-                    Long requestId = objectMapper.readValue(message.getPayloadJson(), Long.class);
-
-                    loanRequestService.approveLoan(requestId);
-                    log.info("Processed loan approval for loan request id {}", requestId);
-
-                    break;
-
-                case PAY_INSTALLMENT:
-                    Long loanid = objectMapper.readValue(message.getPayloadJson(), Long.class);
-                    loanService.payInstallment(loanid);
-                    log.info("Processed PAY_INSTALLMENT for loan id {}", loanid);
-                    break;
-
-                default:
-                    log.warn("Unknown transaction type: {}", message.getType());
-            }
-
-        } catch (Exception e) {
-            log.error("Failed to process transaction: {}", message, e);
+    public void processTransaction(TransactionMessageDto message) throws JsonProcessingException {
+        if (idempotencyStore.isProcessed(message.getIdempotencyKey())) {
+            log.info("Skipping already processed transaction message {}", message.getIdempotencyKey());
+            return;
         }
+
+        switch (message.getType()) {
+            case CONFIRM_PAYMENT:
+                Long paymentId = objectMapper.readValue(message.getPayloadJson(), Long.class);
+                paymentService.confirmPayment(paymentId);
+                log.info("Processed payment confirmation for id: {}", paymentId);
+                break;
+
+            case CONFIRM_TRANSFER:
+                Long transferId = objectMapper.readValue(message.getPayloadJson(), Long.class);
+                paymentService.confirmTransferAndExecute(transferId);
+                log.info("Processed transfer confirmation for user {}", message.getUserId());
+                break;
+
+            case APPROVE_LOAN:
+                Long requestId = objectMapper.readValue(message.getPayloadJson(), Long.class);
+
+                loanRequestService.approveLoan(requestId);
+                log.info("Processed loan approval for loan request id {}", requestId);
+
+                break;
+
+            case PAY_INSTALLMENT:
+                Long loanid = objectMapper.readValue(message.getPayloadJson(), Long.class);
+                loanService.payInstallment(loanid);
+                log.info("Processed PAY_INSTALLMENT for loan id {}", loanid);
+                break;
+
+            default:
+                log.warn("Unknown transaction type: {}", message.getType());
+        }
+
+        idempotencyStore.markProcessed(message.getIdempotencyKey());
     }
 }
@@ -5,15 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.LoanDto;
 import rs.raf.bank_service.domain.dto.TransactionMessageDto;
 import rs.raf.bank_service.domain.enums.TransactionType;
 
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class TransactionQueueService {
 
-    private static final String QUEUE_NAME = "transaction-queue";
     private final RabbitTemplate rabbitTemplate;
     private final ObjectMapper objectMapper;
     private final LoanRequestService loanRequestService;
@@ -21,8 +23,9 @@ public class TransactionQueueService {
     public boolean queueTransaction(TransactionType type, Object dto, Long userId) {
         try {
             String jsonPayload = objectMapper.writeValueAsString(dto);
-            TransactionMessageDto message = new TransactionMessageDto(type, jsonPayload, userId, System.currentTimeMillis());
-            rabbitTemplate.convertAndSend(QUEUE_NAME, message);
+            TransactionMessageDto message = new TransactionMessageDto(type, jsonPayload, userId, System.currentTimeMillis(),
+                    UUID.randomUUID().toString());
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TRANSACTION_QUEUE, message);
             return true;
         } catch (JsonProcessingException e) {
             return false;
@@ -0,0 +1,58 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.VerificationDecisionMessageDto;
+import rs.raf.bank_service.domain.dto.VerificationResultMessageDto;
+import rs.raf.bank_service.messaging.RetryPolicy;
+import rs.raf.bank_service.messaging.RetryingMessageRecoverer;
+
+/**
+ * Consumes verification decisions published by user-service and reports the outcome back.
+ * Transient database failures go through the retry tiers; business failures (and the last attempt)
+ * are reported to user-service as failed, so the request never stays queued forever.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VerificationDecisionProcessor {
+
+    private final VerificationDecisionService verificationDecisionService;
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryPolicy messagingRetryPolicy;
+
+    @RabbitListener(queues = RabbitMQConfig.VERIFICATION_DECISION_QUEUE)
+    public void processDecision(VerificationDecisionMessageDto decision,
+                                @Header(name = RetryingMessageRecoverer.RETRY_COUNT_HEADER, required = false) Integer retryCount) {
+        try {
+            verificationDecisionService.apply(decision);
+        } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+            if (retryCount == null || retryCount < messagingRetryPolicy.getMaxAttempts()) {
+                throw e;
+            }
+            reportFailure(decision, e);
+            return;
+        } catch (RuntimeException e) {
+            reportFailure(decision, e);
+            return;
+        }
+
+        rabbitTemplate.convertAndSend(RabbitMQConfig.VERIFICATION_RESULT_QUEUE,
+                new VerificationResultMessageDto(decision.getVerificationRequestId(), true, null));
+    }
+
+    private void reportFailure(VerificationDecisionMessageDto decision, RuntimeException cause) {
+        log.warn("Verification request {} ({}) could not be applied", decision.getVerificationRequestId(),
+                decision.getVerificationType(), cause);
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        rabbitTemplate.convertAndSend(RabbitMQConfig.VERIFICATION_RESULT_QUEUE,
+                new VerificationResultMessageDto(decision.getVerificationRequestId(), false, message));
+    }
+}
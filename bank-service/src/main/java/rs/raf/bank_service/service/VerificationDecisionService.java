@@ -0,0 +1,59 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.domain.dto.VerificationDecisionMessageDto;
+import rs.raf.bank_service.messaging.IdempotencyStore;
+
+/**
+ * Applies a client's approve/deny decision for a verification request. Each request is applied at most
+ * once: the idempotency key is stored in the same transaction as the change itself.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VerificationDecisionService {
+
+    private final PaymentService paymentService;
+    private final AccountService accountService;
+    private final CardService cardService;
+    private final IdempotencyStore idempotencyStore;
+
+    @Transactional
+    public void apply(VerificationDecisionMessageDto decision) {
+        String key = idempotencyKey(decision);
+        if (idempotencyStore.isProcessed(key)) {
+            log.info("Verification request {} already applied", decision.getVerificationRequestId());
+            return;
+        }
+
+        Long targetId = decision.getTargetId();
+        if (decision.isApproved()) {
+            switch (decision.getVerificationType()) {
+                case PAYMENT -> paymentService.confirmPayment(targetId);
+                case TRANSFER -> paymentService.confirmTransferAndExecute(targetId);
+                case CHANGE_LIMIT -> accountService.changeAccountLimit(targetId);
+                case CARD_REQUEST -> cardService.approveCardRequest(targetId);
+                default -> log.warn("No bank action for approved {} request {}",
+                        decision.getVerificationType(), decision.getVerificationRequestId());
+            }
+        } else {
+            switch (decision.getVerificationType()) {
+                case PAYMENT -> paymentService.rejectPayment(targetId);
+                case TRANSFER -> paymentService.rejectTransfer(targetId);
+                case CHANGE_LIMIT -> accountService.rejectAccountLimitChange(targetId);
+                case CARD_REQUEST -> cardService.rejectCardRequest(targetId);
+                default -> log.warn("No bank action for denied {} request {}",
+                        decision.getVerificationType(), decision.getVerificationRequestId());
+            }
+        }
+
+        idempotencyStore.markProcessed(key);
+    }
+
+    private String idempotencyKey(VerificationDecisionMessageDto decision) {
+        return "verification-" + decision.getVerificationRequestId();
+    }
+}
@@ -0,0 +1,187 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.bank_service.domain.dto.FundsReservationDto;
+import rs.raf.bank_service.domain.dto.ReserveFundsDto;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.FundsReservationStatus;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.FundsReservationRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+import rs.raf.bank_service.service.ExchangeRateService;
+import rs.raf.bank_service.service.FundsReservationService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FundsReservationServiceTest {
+
+    @Mock
+    private FundsReservationRepository fundsReservationRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private FundsReservationService fundsReservationService;
+
+    private Account buyer;
+    private Account seller;
+
+    @BeforeEach
+    void setUp() {
+        buyer = account("111", 1L);
+        seller = account("222", 2L);
+    }
+
+    @Test
+    void reserve_DebitsSenderAndStoresReservation() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber("111")).thenReturn(Optional.of(buyer));
+        when(accountRepository.findAllByClientId(2L)).thenReturn(List.of(seller));
+        when(accountRepository.debitIfAvailable("111", BigDecimal.valueOf(500))).thenReturn(1);
+        when(fundsReservationRepository.save(any(FundsReservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        FundsReservationDto result = fundsReservationService.reserve(request());
+
+        assertEquals(FundsReservationStatus.RESERVED, result.getStatus());
+        verify(fundsReservationRepository).save(argThat(r -> "222".equals(r.getReceiverAccountNumber())
+                && r.getAmount().compareTo(BigDecimal.valueOf(500)) == 0));
+    }
+
+    @Test
+    void reserve_InsufficientFunds_IsRejectedWithoutReservation() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber("111")).thenReturn(Optional.of(buyer));
+        when(accountRepository.findAllByClientId(2L)).thenReturn(List.of(seller));
+        when(accountRepository.debitIfAvailable("111", BigDecimal.valueOf(500))).thenReturn(0);
+
+        FundsReservationDto result = fundsReservationService.reserve(request());
+
+        assertEquals(FundsReservationStatus.REJECTED, result.getStatus());
+        verify(fundsReservationRepository, never()).save(any());
+    }
+
+    @Test
+    void reserve_AfterRelease_DoesNotDebit() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.of(reservation(FundsReservationStatus.RELEASED)));
+
+        FundsReservationDto result = fundsReservationService.reserve(request());
+
+        assertEquals(FundsReservationStatus.RELEASED, result.getStatus());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void commit_CreditsReceiverOnce() {
+        FundsReservation reservation = reservation(FundsReservationStatus.RESERVED);
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.of(reservation));
+        when(fundsReservationRepository.completeReserved(eq("ref-1"), eq(FundsReservationStatus.COMMITTED), any())).thenReturn(1);
+        when(accountRepository.findByAccountNumber("111")).thenReturn(Optional.of(buyer));
+        when(accountRepository.findByAccountNumber("222")).thenReturn(Optional.of(seller));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        FundsReservationDto result = fundsReservationService.commit("ref-1");
+
+        assertEquals(FundsReservationStatus.COMMITTED, result.getStatus());
+        verify(accountRepository).adjustBalance("222", BigDecimal.valueOf(500));
+        verify(accountRepository, never()).debitIfAvailable(any(), any());
+    }
+
+    @Test
+    void commit_AlreadyCompleted_IsNoOp() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.of(reservation(FundsReservationStatus.COMMITTED)));
+        when(fundsReservationRepository.completeReserved(eq("ref-1"), eq(FundsReservationStatus.COMMITTED), any())).thenReturn(0);
+
+        fundsReservationService.commit("ref-1");
+
+        verifyNoInteractions(accountRepository, paymentRepository);
+    }
+
+    @Test
+    void release_ReturnsFundsToSender() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.of(reservation(FundsReservationStatus.RESERVED)));
+        when(fundsReservationRepository.completeReserved(eq("ref-1"), eq(FundsReservationStatus.RELEASED), any())).thenReturn(1);
+
+        FundsReservationDto result = fundsReservationService.release("ref-1");
+
+        assertEquals(FundsReservationStatus.RELEASED, result.getStatus());
+        verify(accountRepository).adjustBalance("111", BigDecimal.valueOf(500));
+    }
+
+    @Test
+    void release_UnknownReference_LeavesTombstone() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.empty());
+        when(fundsReservationRepository.save(any(FundsReservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        FundsReservationDto result = fundsReservationService.release("ref-1");
+
+        assertEquals(FundsReservationStatus.RELEASED, result.getStatus());
+        verify(fundsReservationRepository).save(argThat(r -> r.getStatus() == FundsReservationStatus.RELEASED));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void reserve_AccountOfAnotherClient_IsRejectedWithoutDebit() {
+        when(fundsReservationRepository.findByReference("ref-1")).thenReturn(Optional.empty());
+        when(accountRepository.findByAccountNumber("111")).thenReturn(Optional.of(buyer));
+        ReserveFundsDto dto = request();
+        dto.setSenderClientId(3L);
+
+        FundsReservationDto result = fundsReservationService.reserve(dto);
+
+        assertEquals(FundsReservationStatus.REJECTED, result.getStatus());
+        verify(accountRepository, never()).debitIfAvailable(any(), any());
+    }
+
+    private ReserveFundsDto request() {
+        ReserveFundsDto dto = new ReserveFundsDto();
+        dto.setReference("ref-1");
+        dto.setSenderAccountNumber("111");
+        dto.setSenderClientId(1L);
+        dto.setReceiverClientId(2L);
+        dto.setAmount(BigDecimal.valueOf(500));
+        dto.setCurrencyCode("USD");
+        dto.setPurpose("OTC option exercise");
+        return dto;
+    }
+
+    private FundsReservation reservation(FundsReservationStatus status) {
+        return FundsReservation.builder()
+                .reference("ref-1")
+                .senderAccountNumber("111")
+                .receiverAccountNumber("222")
+                .clientId(1L)
+                .receiverClientId(2L)
+                .amount(BigDecimal.valueOf(500))
+                .status(status)
+                .build();
+    }
+
+    private Account account(String accountNumber, Long clientId) {
+        Account account = new PersonalAccount();
+        account.setAccountNumber(accountNumber);
+        account.setClientId(clientId);
+        account.setCurrency(new Currency("USD"));
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(BigDecimal.valueOf(1000));
+        account.setAvailableBalance(BigDecimal.valueOf(1000));
+        return account;
+    }
+}
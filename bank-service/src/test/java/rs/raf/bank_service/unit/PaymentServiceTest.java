@@ -3,6 +3,7 @@ package rs.raf.bank_service.unit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -15,13 +16,17 @@ import rs.raf.bank_service.client.UserClient;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.domain.enums.TaxSettlementStatus;
+import rs.raf.bank_service.domain.enums.TransactionType;
 import rs.raf.bank_service.exceptions.*;
 import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.CardRepository;
+import rs.raf.bank_service.repository.CompanyAccountRepository;
 import rs.raf.bank_service.domain.mapper.PaymentMapper;
 import rs.raf.bank_service.repository.PaymentRepository;
 import rs.raf.bank_service.service.ExchangeRateService;
 import rs.raf.bank_service.service.PaymentService;
+import rs.raf.bank_service.service.TransactionQueueService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -29,6 +34,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -63,6 +69,12 @@ class PaymentServiceTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private CompanyAccountRepository companyAccountRepository;
+
+    @Mock
+    private TransactionQueueService transactionQueueService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -741,7 +753,136 @@ class PaymentServiceTest {
                 paymentService.createTransferPendingConfirmation(transferDto, 1L));
     }
 
+    @Test
+    void settleTaxes_ChargesEachAccountOnceAndConvertsWithOneRateLookup() {
+        CompanyAccount state = new CompanyAccount();
+        state.setAccountNumber("state");
+        state.setCurrency(new Currency("RSD"));
+        when(companyAccountRepository.findByCompanyId(2L)).thenReturn(state);
+
+        Account usdAccount = new PersonalAccount();
+        usdAccount.setAccountNumber("usd-1");
+        usdAccount.setCurrency(new Currency("USD"));
+        usdAccount.setBalance(BigDecimal.valueOf(1000));
+        usdAccount.setAvailableBalance(BigDecimal.valueOf(1000));
+        Account eurAccount = new PersonalAccount();
+        eurAccount.setAccountNumber("eur-1");
+        eurAccount.setCurrency(new Currency("EUR"));
+        eurAccount.setBalance(BigDecimal.valueOf(1000));
+        eurAccount.setAvailableBalance(BigDecimal.valueOf(1000));
+        Account eurAccount2 = new PersonalAccount();
+        eurAccount2.setAccountNumber("eur-2");
+        eurAccount2.setCurrency(new Currency("EUR"));
+        eurAccount2.setBalance(BigDecimal.valueOf(5));
+        eurAccount2.setAvailableBalance(BigDecimal.valueOf(5));
+        when(accountRepository.findAllByAccountNumberIn(any())).thenReturn(List.of(usdAccount, eurAccount, eurAccount2));
+
+        ExchangeRateDto usdToEur = new ExchangeRateDto();
+        usdToEur.setExchangeRate(new BigDecimal("0.9"));
+        ExchangeRateDto toRsd = new ExchangeRateDto();
+        toRsd.setSellRate(new BigDecimal("110"));
+        when(exchangeRateService.getExchangeRate("USD", "EUR")).thenReturn(usdToEur);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(toRsd);
+        when(exchangeRateService.getExchangeRate("EUR", "RSD")).thenReturn(toRsd);
+        when(paymentRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            for (int i = 0; i < payments.size(); i++) {
+                payments.get(i).setId(100L + i);
+            }
+            return payments;
+        });
 
+        List<TaxSettlementResultDto> results = paymentService.settleTaxes(List.of(
+                tax("usd-1", "10"), tax("eur-1", "100"), tax("eur-2", "100"), tax("missing", "1")));
+
+        assertEquals(TaxSettlementStatus.SETTLED, results.get(0).getStatus());
+        assertEquals(0, results.get(0).getChargedAmount().compareTo(BigDecimal.TEN));
+        assertEquals(100L, results.get(0).getPaymentId());
+        assertEquals(TaxSettlementStatus.SETTLED, results.get(1).getStatus());
+        assertEquals(0, results.get(1).getChargedAmount().compareTo(new BigDecimal("90")));
+        assertEquals(101L, results.get(1).getPaymentId());
+        assertEquals(TaxSettlementStatus.INSUFFICIENT_FUNDS, results.get(2).getStatus());
+        assertEquals(TaxSettlementStatus.FAILED, results.get(3).getStatus());
+
+        verify(exchangeRateService, times(1)).getExchangeRate("USD", "EUR");
+        verify(transactionQueueService).queueTransaction(TransactionType.CONFIRM_PAYMENT, 100L);
+        verify(transactionQueueService).queueTransaction(TransactionType.CONFIRM_PAYMENT, 101L);
+        verifyNoInteractions(userClient);
+    }
 
+    @Test
+    void settleTaxes_RepeatedSettlementIdReturnsExistingPayment() {
+        CompanyAccount state = new CompanyAccount();
+        state.setAccountNumber("state");
+        state.setCurrency(new Currency("USD"));
+        when(companyAccountRepository.findByCompanyId(2L)).thenReturn(state);
+
+        Account account = new PersonalAccount();
+        account.setAccountNumber("usd-1");
+        account.setCurrency(new Currency("USD"));
+        account.setBalance(BigDecimal.valueOf(1000));
+        account.setAvailableBalance(BigDecimal.valueOf(1000));
+        when(accountRepository.findAllByAccountNumberIn(any())).thenReturn(List.of(account));
+
+        Payment previous = new Payment();
+        previous.setId(42L);
+        previous.setAmount(BigDecimal.TEN);
+        previous.setTaxSettlementId("settlement-1");
+        when(paymentRepository.findAllByTaxSettlementIdIn(Set.of("settlement-1", "settlement-2")))
+                .thenReturn(List.of(previous));
+        when(paymentRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(43L));
+            return payments;
+        });
+
+        TaxDto repeated = tax("usd-1", "10");
+        repeated.setSettlementId("settlement-1");
+        TaxDto fresh = tax("usd-1", "5");
+        fresh.setSettlementId("settlement-2");
+        List<TaxSettlementResultDto> results = paymentService.settleTaxes(List.of(repeated, fresh));
+
+        assertEquals(TaxSettlementStatus.SETTLED, results.get(0).getStatus());
+        assertEquals(42L, results.get(0).getPaymentId());
+        assertEquals("settlement-1", results.get(0).getSettlementId());
+        assertEquals(TaxSettlementStatus.SETTLED, results.get(1).getStatus());
+        assertEquals(43L, results.get(1).getPaymentId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Payment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals("settlement-2", saved.getValue().get(0).getTaxSettlementId());
+        verify(transactionQueueService, never()).queueTransaction(TransactionType.CONFIRM_PAYMENT, 42L);
+        verify(transactionQueueService).queueTransaction(TransactionType.CONFIRM_PAYMENT, 43L);
+    }
 
-}
\ No newline at end of file
+    @Test
+    void settleTaxes_ChecksAvailableBalanceNotBookBalance() {
+        CompanyAccount state = new CompanyAccount();
+        state.setAccountNumber("state");
+        state.setCurrency(new Currency("USD"));
+        when(companyAccountRepository.findByCompanyId(2L)).thenReturn(state);
+
+        Account account = new PersonalAccount();
+        account.setAccountNumber("usd-1");
+        account.setCurrency(new Currency("USD"));
+        account.setBalance(BigDecimal.valueOf(1000));
+        account.setAvailableBalance(BigDecimal.valueOf(50));
+        when(accountRepository.findAllByAccountNumberIn(any())).thenReturn(List.of(account));
+
+        List<TaxSettlementResultDto> results = paymentService.settleTaxes(List.of(tax("usd-1", "40"), tax("usd-1", "20")));
+
+        assertEquals(TaxSettlementStatus.SETTLED, results.get(0).getStatus());
+        assertEquals(TaxSettlementStatus.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+    }
+
+    private TaxDto tax(String accountNumber, String amount) {
+        TaxDto tax = new TaxDto();
+        tax.setSenderAccountNumber(accountNumber);
+        tax.setAmount(new BigDecimal(amount));
+        tax.setClientId(1L);
+        tax.setCurrencyCode("USD");
+        return tax;
+    }
+}
@@ -0,0 +1,125 @@
+package rs.raf.bank_service.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.domain.enums.TransactionType;
+import rs.raf.bank_service.exceptions.PaymentNotFoundException;
+import rs.raf.bank_service.messaging.IdempotencyStore;
+import rs.raf.bank_service.messaging.RetryPolicy;
+import rs.raf.bank_service.messaging.RetryableQueues;
+import rs.raf.bank_service.messaging.RetryingMessageRecoverer;
+import rs.raf.bank_service.service.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionProcessorTest {
+
+    @Mock private PaymentService paymentService;
+    @Mock private LoanRequestService loanRequestService;
+    @Mock private TransactionQueueService transactionQueueService;
+    @Mock private LoanService loanService;
+    @Mock private IdempotencyStore idempotencyStore;
+    @Mock private AmqpTemplate amqpTemplate;
+
+    private TransactionProcessor transactionProcessor;
+    private RetryingMessageRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        transactionProcessor = new TransactionProcessor(paymentService, loanRequestService, transactionQueueService,
+                loanService, new ObjectMapper(), idempotencyStore);
+        recoverer = new RetryingMessageRecoverer(amqpTemplate, new RetryPolicy(3, 1000, 5, 60000));
+    }
+
+    @Test
+    void testProcessTransaction_MarksKeyAfterSuccess() throws Exception {
+        TransactionMessageDto message = new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT, "42", 1L, 0L, "key-1");
+
+        transactionProcessor.processTransaction(message);
+
+        verify(paymentService).confirmPayment(42L);
+        verify(idempotencyStore).markProcessed("key-1");
+    }
+
+    @Test
+    void testProcessTransaction_SkipsRedelivery() throws Exception {
+        when(idempotencyStore.isProcessed("key-1")).thenReturn(true);
+        TransactionMessageDto message = new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT, "42", 1L, 0L, "key-1");
+
+        transactionProcessor.processTransaction(message);
+
+        verifyNoInteractions(paymentService);
+        verify(idempotencyStore, never()).markProcessed(any());
+    }
+
+    @Test
+    void testProcessTransaction_PropagatesFailure() {
+        doThrow(new PaymentNotFoundException(42L)).when(paymentService).confirmPayment(42L);
+        TransactionMessageDto message = new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT, "42", 1L, 0L, "key-1");
+
+        assertThrows(PaymentNotFoundException.class, () -> transactionProcessor.processTransaction(message));
+        verify(idempotencyStore, never()).markProcessed(any());
+    }
+
+    @Test
+    void testRecoverer_RoutesToNextRetryTier() {
+        Message message = consumed(1);
+
+        recoverer.recover(message, new RuntimeException("db down"));
+
+        verify(amqpTemplate).send("", RetryableQueues.retryQueue("transaction-queue", 2), message);
+        assertEquals(2, (Integer) message.getMessageProperties().getHeader(RetryingMessageRecoverer.RETRY_COUNT_HEADER));
+    }
+
+    @Test
+    void testRecoverer_DeadLettersWhenBudgetSpent() {
+        Message message = consumed(3);
+
+        recoverer.recover(message, new RuntimeException("db down"));
+
+        verify(amqpTemplate).send(RetryableQueues.DEAD_LETTER_EXCHANGE,
+                RetryableQueues.deadLetterQueue("transaction-queue"), message);
+    }
+
+    @Test
+    void testRecoverer_DeadLettersMalformedPayloadImmediately() {
+        Message message = consumed(null);
+
+        recoverer.recover(message, new MessageConversionException("bad json"));
+
+        verify(amqpTemplate).send(eq(RetryableQueues.DEAD_LETTER_EXCHANGE), anyString(), eq(message));
+        verify(amqpTemplate, never()).send(eq(""), anyString(), any(Message.class));
+    }
+
+    @Test
+    void testRetryDelayIsExponentialAndCapped() {
+        RetryPolicy policy = new RetryPolicy(4, 1000, 5, 60000);
+
+        assertEquals(1000, policy.delayFor(1));
+        assertEquals(5000, policy.delayFor(2));
+        assertEquals(25000, policy.delayFor(3));
+        assertEquals(60000, policy.delayFor(4));
+    }
+
+    private Message consumed(Integer retryCount) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("transaction-queue");
+        if (retryCount != null) {
+            properties.setHeader(RetryingMessageRecoverer.RETRY_COUNT_HEADER, retryCount);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+}
@@ -0,0 +1,98 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.QueryTimeoutException;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.VerificationDecisionMessageDto;
+import rs.raf.bank_service.domain.dto.VerificationResultMessageDto;
+import rs.raf.bank_service.domain.enums.VerificationType;
+import rs.raf.bank_service.exceptions.PaymentNotFoundException;
+import rs.raf.bank_service.messaging.IdempotencyStore;
+import rs.raf.bank_service.messaging.RetryPolicy;
+import rs.raf.bank_service.service.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VerificationDecisionProcessorTest {
+
+    @Mock private PaymentService paymentService;
+    @Mock private AccountService accountService;
+    @Mock private CardService cardService;
+    @Mock private IdempotencyStore idempotencyStore;
+    @Mock private RabbitTemplate rabbitTemplate;
+
+    private VerificationDecisionProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        VerificationDecisionService decisionService =
+                new VerificationDecisionService(paymentService, accountService, cardService, idempotencyStore);
+        processor = new VerificationDecisionProcessor(decisionService, rabbitTemplate, new RetryPolicy(3, 1000, 5, 60000));
+    }
+
+    @Test
+    void approvedPayment_ConfirmsPaymentAndReportsSuccess() {
+        processor.processDecision(new VerificationDecisionMessageDto(1L, VerificationType.PAYMENT, 10L, true), null);
+
+        verify(paymentService).confirmPayment(10L);
+        verify(idempotencyStore).markProcessed("verification-1");
+        assertTrue(sentResult().isSuccess());
+    }
+
+    @Test
+    void deniedCardRequest_RejectsCardRequest() {
+        processor.processDecision(new VerificationDecisionMessageDto(2L, VerificationType.CARD_REQUEST, 20L, false), null);
+
+        verify(cardService).rejectCardRequest(20L);
+        verify(cardService, never()).approveCardRequest(anyLong());
+    }
+
+    @Test
+    void alreadyApplied_SkipsBankAction() {
+        when(idempotencyStore.isProcessed("verification-3")).thenReturn(true);
+
+        processor.processDecision(new VerificationDecisionMessageDto(3L, VerificationType.TRANSFER, 30L, true), null);
+
+        verifyNoInteractions(paymentService);
+        assertTrue(sentResult().isSuccess());
+    }
+
+    @Test
+    void businessFailure_ReportsFailureWithoutRetry() {
+        doThrow(new PaymentNotFoundException(10L)).when(paymentService).confirmPayment(10L);
+
+        processor.processDecision(new VerificationDecisionMessageDto(4L, VerificationType.PAYMENT, 10L, true), null);
+
+        VerificationResultMessageDto result = sentResult();
+        assertFalse(result.isSuccess());
+        assertNotNull(result.getMessage());
+        verify(idempotencyStore, never()).markProcessed(anyString());
+    }
+
+    @Test
+    void transientFailure_IsRethrownWhileRetriesRemain() {
+        doThrow(new QueryTimeoutException("timeout")).when(accountService).changeAccountLimit(50L);
+        VerificationDecisionMessageDto decision = new VerificationDecisionMessageDto(5L, VerificationType.CHANGE_LIMIT, 50L, true);
+
+        assertThrows(QueryTimeoutException.class, () -> processor.processDecision(decision, 1));
+        verifyNoInteractions(rabbitTemplate);
+
+        processor.processDecision(decision, 3);
+        assertFalse(sentResult().isSuccess());
+    }
+
+    private VerificationResultMessageDto sentResult() {
+        ArgumentCaptor<VerificationResultMessageDto> captor = ArgumentCaptor.forClass(VerificationResultMessageDto.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.VERIFICATION_RESULT_QUEUE), captor.capture());
+        return captor.getValue();
+    }
+}
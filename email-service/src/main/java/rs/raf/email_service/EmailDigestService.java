@@ -0,0 +1,183 @@
+package rs.raf.email_service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import rs.raf.email_service.data.PendingEmail;
+import rs.raf.email_service.messaging.IdempotencyStore;
+import rs.raf.email_service.messaging.RetryingMessageRecoverer;
+import rs.raf.email_service.utils.EmailUtils;
+import rs.raf.email_service.utils.TokenBucket;
+
+import javax.mail.MessagingException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers notification events per destination and sends them as one digest email once the
+ * destination's window elapses (or the buffer is full). Deliveries stay unacknowledged until the
+ * digest is sent, so the listener prefetch limit pushes back on RabbitMQ while sends are throttled.
+ * Once the buffers together hold {@code maxPending} events (the listener prefetch), the oldest
+ * buffers are sent early so the broker never stops delivering while a window is still open.
+ * Events of a failed digest are handed to the retry tiers; redelivered events that were already
+ * mailed are acknowledged without being buffered again.
+ */
+@Slf4j
+@Service
+public class EmailDigestService {
+
+    private final EmailService emailService;
+    private final TokenBucket emailRateLimiter;
+    private final IdempotencyStore idempotencyStore;
+    private final RetryingMessageRecoverer retryingMessageRecoverer;
+    private final long windowMillis;
+    private final int maxEvents;
+    private final int maxPending;
+
+    private final Map<String, DigestBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public EmailDigestService(EmailService emailService,
+                              TokenBucket emailRateLimiter,
+                              IdempotencyStore idempotencyStore,
+                              RetryingMessageRecoverer retryingMessageRecoverer,
+                              @Value("${email.digest.window-ms:60000}") long windowMillis,
+                              @Value("${email.digest.max-events:50}") int maxEvents,
+                              @Value("${email.digest.prefetch:1000}") int maxPending) {
+        this.emailService = emailService;
+        this.emailRateLimiter = emailRateLimiter;
+        this.idempotencyStore = idempotencyStore;
+        this.retryingMessageRecoverer = retryingMessageRecoverer;
+        this.windowMillis = windowMillis;
+        this.maxEvents = maxEvents;
+        this.maxPending = maxPending;
+    }
+
+    public void enqueue(String destination, PendingEmail email) {
+        if (idempotencyStore.isProcessed(email.getMessageId())) {
+            ack(email);
+            return;
+        }
+
+        DigestBuffer buffer = buffers.compute(destination, (key, current) -> {
+            DigestBuffer target = current != null ? current : new DigestBuffer(System.currentTimeMillis());
+            target.events.add(email);
+            return target;
+        });
+        pending.incrementAndGet();
+
+        if (buffer.events.size() >= maxEvents) {
+            flush(destination);
+        }
+        flushOldestWhileFull();
+    }
+
+    @Scheduled(fixedDelayString = "${email.digest.flush-interval-ms:1000}")
+    public void flushExpired() {
+        long now = System.currentTimeMillis();
+        buffers.forEach((destination, buffer) -> {
+            if (now - buffer.openedAt >= windowMillis) {
+                flush(destination);
+            }
+        });
+    }
+
+    public int getBufferedDestinations() {
+        return buffers.size();
+    }
+
+    private void flushOldestWhileFull() {
+        while (pending.get() >= maxPending) {
+            String oldest = buffers.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().openedAt))
+                    .map(Map.Entry::getKey)
+                    .orElse(null);
+            if (oldest == null) {
+                return;
+            }
+            flush(oldest);
+        }
+    }
+
+    void flush(String destination) {
+        // remove() and compute() lock the same bin, so no event can be added to a buffer once it is taken
+        DigestBuffer buffer = buffers.remove(destination);
+        if (buffer == null || buffer.events.isEmpty()) {
+            return;
+        }
+
+        List<PendingEmail> events = buffer.events;
+        pending.addAndGet(-events.size());
+        try {
+            emailRateLimiter.acquire();
+            send(destination, events);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            events.forEach(this::requeue);
+            return;
+        } catch (Exception e) {
+            log.error("Failed to send digest of {} events to {}", events.size(), destination, e);
+            events.forEach(email -> retry(email, e));
+            return;
+        }
+
+        for (PendingEmail email : events) {
+            idempotencyStore.markProcessed(email.getMessageId());
+            ack(email);
+        }
+    }
+
+    private void send(String destination, List<PendingEmail> events) throws MessagingException {
+        if (events.size() == 1) {
+            PendingEmail email = events.get(0);
+            emailService.sendEmail(destination, email.getSubject(), email.getPlain(), email.getHtml());
+            return;
+        }
+
+        emailService.sendEmail(destination,
+                EmailUtils.getDigestSubject(events.size()),
+                EmailUtils.getDigestPlainContent(events),
+                EmailUtils.getDigestContent(events));
+    }
+
+    private void retry(PendingEmail email, Exception cause) {
+        try {
+            retryingMessageRecoverer.recover(email.getMessage(), cause);
+            ack(email);
+        } catch (Exception e) {
+            log.warn("Failed to schedule retry for delivery {}", email.getDeliveryTag(), e);
+            requeue(email);
+        }
+    }
+
+    private void ack(PendingEmail email) {
+        try {
+            email.getChannel().basicAck(email.getDeliveryTag(), false);
+        } catch (IOException e) {
+            log.warn("Failed to acknowledge delivery {}", email.getDeliveryTag(), e);
+        }
+    }
+
+    private void requeue(PendingEmail email) {
+        try {
+            email.getChannel().basicNack(email.getDeliveryTag(), false, true);
+        } catch (IOException e) {
+            log.warn("Failed to requeue delivery {}", email.getDeliveryTag(), e);
+        }
+    }
+
+    private static class DigestBuffer {
+        private final long openedAt;
+        private final List<PendingEmail> events = new ArrayList<>();
+
+        private DigestBuffer(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
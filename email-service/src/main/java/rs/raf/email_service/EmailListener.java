@@ -1,8 +1,11 @@
 package rs.raf.email_service;
 
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 import rs.raf.email_service.data.EmailType;
+import rs.raf.email_service.data.PendingEmail;
 import rs.raf.email_service.utils.EmailUtils;
 
 import javax.mail.MessagingException;
@@ -11,9 +14,11 @@ import javax.mail.MessagingException;
 public class EmailListener {
 
     private final EmailService emailService;
+    private final EmailDigestService emailDigestService;
 
-    public EmailListener(EmailService emailService) {
+    public EmailListener(EmailService emailService, EmailDigestService emailDigestService) {
         this.emailService = emailService;
+        this.emailDigestService = emailDigestService;
     }
 
     @RabbitListener(queues = "reset-password")
@@ -48,26 +53,38 @@ public class EmailListener {
         emailService.sendEmail(dto.getDestination(), subject, plain, content);
     }
 
-    @RabbitListener(queues = "card-status-change")
-    public void handleCardStatusChange(EmailRequestDto dto) throws MessagingException {
+    @RabbitListener(queues = "card-status-change", containerFactory = "digestListenerContainerFactory")
+    public void handleCardStatusChange(EmailRequestDto dto, Channel channel, Message message) {
         String subject = "Card Status Changed";
         String content = "Your card status has been changed to: " + dto.getCode();
         String plain = "Your card status is now: " + dto.getCode();
-        emailService.sendEmail(dto.getDestination(), subject, plain, content);
+        emailDigestService.enqueue(dto.getDestination(), new PendingEmail(subject, plain, content, channel, message));
     }
 
-    @RabbitListener(queues = "card-creation")
-    public void handleCardCreation(EmailRequestDto dto) throws MessagingException {
+    @RabbitListener(queues = "card-creation", containerFactory = "digestListenerContainerFactory")
+    public void handleCardCreation(EmailRequestDto dto, Channel channel, Message message) {
         String subject = "Card Created Successfully";
         String content = "Your new card has been created successfully.";
         String plain = "Your new card has been created successfully.";
-        emailService.sendEmail(dto.getDestination(), subject, plain, content);
+        emailDigestService.enqueue(dto.getDestination(), new PendingEmail(subject, plain, content, channel, message));
     }
-    @RabbitListener(queues = "insufficient-funds")
-    public void handleInsufficientFunds(EmailRequestDto dto) throws MessagingException {
+
+    @RabbitListener(queues = "insufficient-funds", containerFactory = "digestListenerContainerFactory")
+    public void handleInsufficientFunds(EmailRequestDto dto, Channel channel, Message message) {
         String subject = "Insufficient funds";
         String content = "Please pay your loans.";
         String plain = "Please pay your loans.";
-        emailService.sendEmail(dto.getDestination(), subject, plain, content);
+        emailDigestService.enqueue(dto.getDestination(), new PendingEmail(subject, plain, content, channel, message));
+    }
+
+    // several alerts crossed by one refresh reach the user as one digest
+    @RabbitListener(queues = "price-alert", containerFactory = "digestListenerContainerFactory")
+    public void handlePriceAlert(PriceAlertMessageDto dto, Channel channel, Message message) {
+        String subject = "Price alert";
+        String plain = String.format("%s is at %s, %s your alert price of %s.", dto.getTicker(),
+                dto.getTriggeredPrice().toPlainString(), "BELOW".equals(dto.getDirection()) ? "at or below" : "at or above",
+                dto.getTargetPrice().toPlainString());
+        String content = plain;
+        emailDigestService.enqueue(dto.getDestination(), new PendingEmail(subject, plain, content, channel, message));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package rs.raf.email_service;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * A triggered price alert from stock-service; the email text is built here.
+ */
+@Setter
+@Getter
+public class PriceAlertMessageDto implements Serializable {
+    private Long alertId;
+    private String ticker;
+    // ABOVE or BELOW
+    private String direction;
+    private BigDecimal targetPrice;
+    private BigDecimal triggeredPrice;
+    private String destination;
+}
@@ -0,0 +1,16 @@
+package rs.raf.email_service.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.raf.email_service.utils.TokenBucket;
+
+@Configuration
+public class EmailDigestConfig {
+
+    @Bean
+    public TokenBucket emailRateLimiter(@Value("${email.rate.burst:10}") long burst,
+                                        @Value("${email.rate.permits-per-second:5}") double permitsPerSecond) {
+        return new TokenBucket(burst, permitsPerSecond);
+    }
+}
@@ -1,49 +1,73 @@
 package rs.raf.email_service.configuration;
 
-import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import rs.raf.email_service.messaging.*;
 
 @Configuration
 public class RabbitMQConfig {
 
     @Bean
-    public Queue resetPasswordQueue() {
-        return new Queue("reset-password", false);
+    public RetryPolicy messagingRetryPolicy(@Value("${messaging.retry.max-attempts:3}") int maxAttempts,
+                                            @Value("${messaging.retry.initial-delay-ms:1000}") long initialDelay,
+                                            @Value("${messaging.retry.multiplier:5}") double multiplier,
+                                            @Value("${messaging.retry.max-delay-ms:60000}") long maxDelay) {
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay);
     }
 
     @Bean
-    public Queue setPasswordQueue() {
-        return new Queue("set-password", false);
+    public RetryingMessageRecoverer retryingMessageRecoverer(AmqpTemplate amqpTemplate, RetryPolicy messagingRetryPolicy) {
+        return new RetryingMessageRecoverer(amqpTemplate, messagingRetryPolicy);
     }
 
     @Bean
-    public Queue activateClientAccountQueue() {
-        return new Queue("activate-client-account", false);
+    public Declarables resetPasswordQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("reset-password", messagingRetryPolicy);
     }
 
     @Bean
-    public Queue cardStatusChangeQueue() {
-        return new Queue("card-status-change", false);
+    public Declarables setPasswordQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("set-password", messagingRetryPolicy);
     }
 
     @Bean
-    public Queue requestCardQueue() {
-        return new Queue("request-card", false);
+    public Declarables activateClientAccountQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("activate-client-account", messagingRetryPolicy);
     }
 
     @Bean
-    public Queue cardCreationQueue() {
-        return new Queue("card-creation", false);
+    public Declarables cardStatusChangeQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("card-status-change", messagingRetryPolicy);
     }
 
     @Bean
-    public Queue insufficientFundsQueue() {
-        return new Queue("insufficient-funds", false);
+    public Declarables requestCardQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("request-card", messagingRetryPolicy);
+    }
+
+    @Bean
+    public Declarables cardCreationQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("card-creation", messagingRetryPolicy);
+    }
+
+    @Bean
+    public Declarables insufficientFundsQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("insufficient-funds", messagingRetryPolicy);
+    }
+
+    @Bean
+    public Declarables priceAlertQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare("price-alert", messagingRetryPolicy);
     }
 
     @Bean
@@ -52,10 +76,40 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               RetryingMessageRecoverer retryingMessageRecoverer,
+                                                                               IdempotencyStore idempotencyStore) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(
+                RetryInterceptorBuilder.stateless().maxAttempts(1).recoverer(retryingMessageRecoverer).build(),
+                new IdempotentMessageInterceptor(idempotencyStore));
+        return factory;
+    }
+
+    /**
+     * Listener factory for the digested notification queues. Messages are acknowledged only after
+     * their digest is sent, so the prefetch has to cover a full window: at least max-events times the
+     * destinations expected per window. {@link rs.raf.email_service.EmailDigestService} sends the
+     * oldest digests early once this many events are buffered.
+     * Deliveries that cannot even be converted are rejected straight to the dead-letter queue.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory digestListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               @Value("${email.digest.prefetch:1000}") int prefetch) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(prefetch);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer((message, cause) -> {
+                    throw new AmqpRejectAndDontRequeueException("Rejecting undeliverable digest event", true, cause);
+                })
+                .build());
         return factory;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package rs.raf.email_service.data;
+
+import com.rabbitmq.client.Channel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.amqp.core.Message;
+
+/**
+ * Email event buffered for a digest, together with the unacknowledged delivery it came from.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingEmail {
+    private String subject;
+    private String plain;
+    private String html;
+    private Channel channel;
+    private Message message;
+
+    public long getDeliveryTag() {
+        return message.getMessageProperties().getDeliveryTag();
+    }
+
+    public String getMessageId() {
+        return message.getMessageProperties().getMessageId();
+    }
+}
@@ -0,0 +1,27 @@
+package rs.raf.email_service.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "email_processed_messages")
+public class ProcessedMessage {
+
+    @Id
+    private String messageId;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,29 @@
+package rs.raf.email_service.messaging;
+
+import org.springframework.stereotype.Component;
+import rs.raf.email_service.data.ProcessedMessage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records message ids of emails that were already sent, so redelivered messages are not mailed twice.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final ProcessedMessageRepository processedMessageRepository;
+
+    public IdempotencyStore(ProcessedMessageRepository processedMessageRepository) {
+        this.processedMessageRepository = processedMessageRepository;
+    }
+
+    public boolean isProcessed(String key) {
+        return key != null && processedMessageRepository.existsById(key);
+    }
+
+    public void markProcessed(String key) {
+        if (key != null) {
+            processedMessageRepository.save(new ProcessedMessage(key, LocalDateTime.now()));
+        }
+    }
+}
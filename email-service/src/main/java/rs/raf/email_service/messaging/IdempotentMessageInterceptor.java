@@ -0,0 +1,35 @@
+package rs.raf.email_service.messaging;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.core.Message;
+
+/**
+ * Listener advice that skips deliveries whose message id was already handled and records the id
+ * once the listener returns normally. Used for listeners that complete their work synchronously.
+ */
+public class IdempotentMessageInterceptor implements MethodInterceptor {
+
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotentMessageInterceptor(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object data = invocation.getArguments()[1];
+        if (!(data instanceof Message message)) {
+            return invocation.proceed();
+        }
+
+        String messageId = message.getMessageProperties().getMessageId();
+        if (idempotencyStore.isProcessed(messageId)) {
+            return null;
+        }
+
+        Object result = invocation.proceed();
+        idempotencyStore.markProcessed(messageId);
+        return result;
+    }
+}
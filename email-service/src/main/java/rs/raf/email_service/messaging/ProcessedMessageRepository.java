@@ -0,0 +1,9 @@
+package rs.raf.email_service.messaging;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.email_service.data.ProcessedMessage;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+}
@@ -0,0 +1,58 @@
+package rs.raf.email_service.messaging;
+
+import org.springframework.amqp.core.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares a durable work queue together with its retry tiers and dead-letter queue.
+ * <p>
+ * Retry tier {@code n} is a consumer-less queue whose TTL is {@code initialDelay * multiplier^(n-1)};
+ * expired messages are dead-lettered back onto the work queue. Messages that exhaust all tiers, or
+ * are rejected by the broker, end up in {@code <queue>.dlq} behind the {@link #DEAD_LETTER_EXCHANGE}.
+ */
+public final class RetryableQueues {
+
+    public static final String DEAD_LETTER_EXCHANGE = "dead-letter";
+
+    private RetryableQueues() {
+    }
+
+    public static String retryQueue(String queue, int attempt) {
+        return queue + ".retry." + attempt;
+    }
+
+    public static String deadLetterQueue(String queue) {
+        return queue + ".dlq";
+    }
+
+    public static long retryDelay(long initialDelay, double multiplier, long maxDelay, int attempt) {
+        return Math.min(maxDelay, (long) (initialDelay * Math.pow(multiplier, attempt - 1)));
+    }
+
+    public static Declarables declare(String queue, RetryPolicy policy) {
+        List<Declarable> declarables = new ArrayList<>();
+
+        DirectExchange deadLetterExchange = new DirectExchange(DEAD_LETTER_EXCHANGE, true, false);
+        Queue deadLetterQueue = QueueBuilder.durable(deadLetterQueue(queue)).build();
+        declarables.add(deadLetterExchange);
+        declarables.add(deadLetterQueue);
+        declarables.add(BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(deadLetterQueue(queue)));
+
+        declarables.add(QueueBuilder.durable(queue)
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(deadLetterQueue(queue))
+                .build());
+
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            declarables.add(QueueBuilder.durable(retryQueue(queue, attempt))
+                    .ttl((int) policy.delayFor(attempt))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queue)
+                    .build());
+        }
+
+        return new Declarables(declarables);
+    }
+}
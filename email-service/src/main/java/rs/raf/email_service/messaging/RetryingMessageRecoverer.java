@@ -0,0 +1,67 @@
+package rs.raf.email_service.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+/**
+ * Routes a failed delivery to the next retry tier of its queue, or to the dead-letter queue once the
+ * retry budget is spent or the failure cannot succeed on redelivery (malformed payload).
+ * The original delivery is acknowledged afterwards, so the consumer moves on instead of blocking.
+ */
+@Slf4j
+public class RetryingMessageRecoverer implements MessageRecoverer {
+
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+
+    private final AmqpTemplate amqpTemplate;
+    private final RetryPolicy retryPolicy;
+
+    public RetryingMessageRecoverer(AmqpTemplate amqpTemplate, RetryPolicy retryPolicy) {
+        this.amqpTemplate = amqpTemplate;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        Integer previous = properties.getHeader(RETRY_COUNT_HEADER);
+        int attempt = (previous == null ? 0 : previous) + 1;
+
+        if (isRetryable(cause) && attempt <= retryPolicy.getMaxAttempts()) {
+            properties.setHeader(RETRY_COUNT_HEADER, attempt);
+            log.warn("Delivery {} from {} failed, retry {} of {} in {} ms", properties.getMessageId(), queue,
+                    attempt, retryPolicy.getMaxAttempts(), retryPolicy.delayFor(attempt), cause);
+            amqpTemplate.send("", RetryableQueues.retryQueue(queue, attempt), message);
+            return;
+        }
+
+        properties.setHeader(EXCEPTION_HEADER, rootMessage(cause));
+        log.error("Delivery {} from {} moved to dead-letter queue after {} attempts", properties.getMessageId(),
+                queue, attempt, cause);
+        amqpTemplate.send(RetryableQueues.DEAD_LETTER_EXCHANGE, RetryableQueues.deadLetterQueue(queue), message);
+    }
+
+    private boolean isRetryable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException || t instanceof JsonProcessingException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String rootMessage(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+}
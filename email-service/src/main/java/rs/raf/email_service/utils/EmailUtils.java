@@ -1,6 +1,9 @@
 package rs.raf.email_service.utils;
 
 import rs.raf.email_service.data.EmailType;
+import rs.raf.email_service.data.PendingEmail;
+
+import java.util.List;
 
 public class EmailUtils {
     public static String getEmailPlainContent(EmailType type, String token) {
@@ -24,6 +27,28 @@ public class EmailUtils {
         };
     }
 
+    public static String getDigestSubject(int count) {
+        return "You have " + count + " new notifications";
+    }
+
+    public static String getDigestPlainContent(List<PendingEmail> events) {
+        StringBuilder plain = new StringBuilder();
+        for (PendingEmail event : events) {
+            plain.append("- ").append(event.getSubject()).append(": ").append(event.getPlain()).append('\n');
+        }
+        return plain.toString();
+    }
+
+    public static String getDigestContent(List<PendingEmail> events) {
+        StringBuilder html = new StringBuilder("<html><body><h2>You have ")
+                .append(events.size())
+                .append(" new notifications</h2><ul>");
+        for (PendingEmail event : events) {
+            html.append("<li><b>").append(event.getSubject()).append("</b><br>").append(event.getHtml()).append("</li>");
+        }
+        return html.append("</ul><p>© 2025 Banka-3. All rights reserved.</p></body></html>").toString();
+    }
+
     public static String getEmailContent(EmailType type, String token) {
         String title;
         String link;
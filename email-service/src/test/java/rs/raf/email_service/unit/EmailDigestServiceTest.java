@@ -0,0 +1,166 @@
+package rs.raf.email_service.unit;
+
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import rs.raf.email_service.EmailDigestService;
+import rs.raf.email_service.EmailService;
+import rs.raf.email_service.data.PendingEmail;
+import rs.raf.email_service.messaging.IdempotencyStore;
+import rs.raf.email_service.messaging.RetryingMessageRecoverer;
+import rs.raf.email_service.utils.TokenBucket;
+
+import javax.mail.MessagingException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDigestServiceTest {
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private RetryingMessageRecoverer retryingMessageRecoverer;
+
+    private EmailDigestService digestService;
+
+    @BeforeEach
+    void setUp() {
+        digestService = new EmailDigestService(emailService, new TokenBucket(100, 1000),
+                idempotencyStore, retryingMessageRecoverer, 0, 3, 100);
+    }
+
+    @Test
+    void testSingleEventIsSentUnchanged() throws Exception {
+        digestService.enqueue("a@example.com", new PendingEmail("Subject", "plain", "html", channel, delivery(1L)));
+
+        digestService.flushExpired();
+
+        verify(emailService).sendEmail("a@example.com", "Subject", "plain", "html");
+        verify(channel).basicAck(1L, false);
+        assertEquals(0, digestService.getBufferedDestinations());
+    }
+
+    @Test
+    void testEventsForSameDestinationAreMerged() throws Exception {
+        digestService.enqueue("a@example.com", new PendingEmail("First", "one", "one", channel, delivery(1L)));
+        digestService.enqueue("a@example.com", new PendingEmail("Second", "two", "two", channel, delivery(2L)));
+        digestService.enqueue("b@example.com", new PendingEmail("Other", "other", "other", channel, delivery(3L)));
+
+        digestService.flushExpired();
+
+        verify(emailService).sendEmail(eq("a@example.com"), eq("You have 2 new notifications"),
+                contains("Second: two"), contains("First"));
+        verify(emailService).sendEmail("b@example.com", "Other", "other", "other");
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(2L, false);
+        verify(channel).basicAck(3L, false);
+    }
+
+    @Test
+    void testFullBufferIsFlushedImmediately() throws Exception {
+        digestService = new EmailDigestService(emailService, new TokenBucket(100, 1000),
+                idempotencyStore, retryingMessageRecoverer, 60_000, 2, 100);
+
+        digestService.enqueue("a@example.com", new PendingEmail("First", "one", "one", channel, delivery(1L)));
+        verifyNoInteractions(emailService);
+
+        digestService.enqueue("a@example.com", new PendingEmail("Second", "two", "two", channel, delivery(2L)));
+        verify(emailService).sendEmail(eq("a@example.com"), eq("You have 2 new notifications"), anyString(), anyString());
+    }
+
+    @Test
+    void testOldestBufferIsFlushedWhenPrefetchIsFull() throws Exception {
+        digestService = new EmailDigestService(emailService, new TokenBucket(100, 1000),
+                idempotencyStore, retryingMessageRecoverer, 60_000, 50, 3);
+
+        digestService.enqueue("a@example.com", new PendingEmail("First", "one", "one", channel, delivery(1L)));
+        Thread.sleep(2);
+        digestService.enqueue("b@example.com", new PendingEmail("Second", "two", "two", channel, delivery(2L)));
+        verifyNoInteractions(emailService);
+
+        digestService.enqueue("b@example.com", new PendingEmail("Third", "three", "three", channel, delivery(3L)));
+
+        verify(emailService).sendEmail("a@example.com", "First", "one", "one");
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicAck(2L, false);
+        assertEquals(1, digestService.getBufferedDestinations());
+    }
+
+    @Test
+    void testSentEventsAreMarkedProcessed() {
+        digestService.enqueue("a@example.com", new PendingEmail("Subject", "plain", "html", channel, delivery(1L)));
+
+        digestService.flushExpired();
+
+        verify(idempotencyStore).markProcessed("msg-1");
+    }
+
+    @Test
+    void testRedeliveredEventIsAcknowledgedWithoutSending() throws Exception {
+        when(idempotencyStore.isProcessed("msg-1")).thenReturn(true);
+
+        digestService.enqueue("a@example.com", new PendingEmail("Subject", "plain", "html", channel, delivery(1L)));
+        digestService.flushExpired();
+
+        verify(channel).basicAck(1L, false);
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void testFailedSendIsHandedToRetry() throws Exception {
+        MessagingException failure = new MessagingException("smtp down");
+        doThrow(failure).when(emailService).sendEmail(anyString(), anyString(), anyString(), anyString());
+        Message message = delivery(7L);
+
+        digestService.enqueue("a@example.com", new PendingEmail("Subject", "plain", "html", channel, message));
+        digestService.flushExpired();
+
+        verify(retryingMessageRecoverer).recover(message, failure);
+        verify(channel).basicAck(7L, false);
+        verify(idempotencyStore, never()).markProcessed(any());
+    }
+
+    @Test
+    void testFailedRetryRequeuesEvent() throws Exception {
+        doThrow(new MessagingException("smtp down")).when(emailService)
+                .sendEmail(anyString(), anyString(), anyString(), anyString());
+        doThrow(new RuntimeException("broker down")).when(retryingMessageRecoverer).recover(any(), any());
+
+        digestService.enqueue("a@example.com", new PendingEmail("Subject", "plain", "html", channel, delivery(7L)));
+        digestService.flushExpired();
+
+        verify(channel).basicNack(7L, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testTokenBucketLimitsBurst() {
+        TokenBucket bucket = new TokenBucket(2, 0.001);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    private Message delivery(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setMessageId("msg-" + deliveryTag);
+        return new Message(new byte[0], properties);
+    }
+}
@@ -1,20 +1,32 @@
 package rs.raf.email_service.unit;
 
+import com.rabbitmq.client.Channel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import rs.raf.email_service.EmailDigestService;
 import rs.raf.email_service.EmailListener;
 import rs.raf.email_service.EmailRequestDto;
 import rs.raf.email_service.EmailService;
+import rs.raf.email_service.PriceAlertMessageDto;
 import rs.raf.email_service.data.EmailType;
+import rs.raf.email_service.data.PendingEmail;
 import rs.raf.email_service.utils.EmailUtils;
 
 import javax.mail.MessagingException;
+import java.math.BigDecimal;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class EmailListenerTest {
@@ -22,6 +34,12 @@ class EmailListenerTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private EmailDigestService emailDigestService;
+
+    @Mock
+    private Channel channel;
+
     @InjectMocks
     private EmailListener emailListener;
 
@@ -79,10 +97,10 @@ class EmailListenerTest {
     }
 
     @Test
-    void testHandleCardStatusChange() throws MessagingException {
-        emailListener.handleCardStatusChange(dto);
-        verify(emailService).sendEmail(
-                dto.getDestination(),
+    void testHandleCardStatusChange() {
+        Message message = delivery(1L);
+        emailListener.handleCardStatusChange(dto, channel, message);
+        assertDigested(message,
                 "Card Status Changed",
                 "Your card status is now: " + dto.getCode(),
                 "Your card status has been changed to: " + dto.getCode()
@@ -90,10 +108,10 @@ class EmailListenerTest {
     }
 
     @Test
-    void testHandleCardCreation() throws MessagingException {
-        emailListener.handleCardCreation(dto);
-        verify(emailService).sendEmail(
-                dto.getDestination(),
+    void testHandleCardCreation() {
+        Message message = delivery(2L);
+        emailListener.handleCardCreation(dto, channel, message);
+        assertDigested(message,
                 "Card Created Successfully",
                 "Your new card has been created successfully.",
                 "Your new card has been created successfully."
@@ -101,13 +119,65 @@ class EmailListenerTest {
     }
 
     @Test
-    void testHandleInsufficientFunds() throws MessagingException {
-        emailListener.handleInsufficientFunds(dto);
-        verify(emailService).sendEmail(
-                dto.getDestination(),
+    void testHandleInsufficientFunds() {
+        Message message = delivery(3L);
+        emailListener.handleInsufficientFunds(dto, channel, message);
+        assertDigested(message,
                 "Insufficient funds",
                 "Please pay your loans.",
                 "Please pay your loans."
         );
     }
+
+    @Test
+    void testHandlePriceAlert() {
+        Message message = delivery(4L);
+        emailListener.handlePriceAlert(priceAlert("ABOVE", "190", "190.00"), channel, message);
+        assertDigested(message,
+                "Price alert",
+                "AAPL is at 190.00, at or above your alert price of 190.",
+                "AAPL is at 190.00, at or above your alert price of 190."
+        );
+    }
+
+    @Test
+    void testHandlePriceAlertBelow() {
+        Message message = delivery(5L);
+        emailListener.handlePriceAlert(priceAlert("BELOW", "150", "149.5"), channel, message);
+        assertDigested(message,
+                "Price alert",
+                "AAPL is at 149.5, at or below your alert price of 150.",
+                "AAPL is at 149.5, at or below your alert price of 150."
+        );
+    }
+
+    private PriceAlertMessageDto priceAlert(String direction, String target, String triggered) {
+        PriceAlertMessageDto alert = new PriceAlertMessageDto();
+        alert.setAlertId(1L);
+        alert.setTicker("AAPL");
+        alert.setDirection(direction);
+        alert.setTargetPrice(new BigDecimal(target));
+        alert.setTriggeredPrice(new BigDecimal(triggered));
+        alert.setDestination(dto.getDestination());
+        return alert;
+    }
+
+    private void assertDigested(Message message, String subject, String plain, String html) {
+        ArgumentCaptor<PendingEmail> captor = ArgumentCaptor.forClass(PendingEmail.class);
+        verify(emailDigestService).enqueue(eq(dto.getDestination()), captor.capture());
+        verifyNoInteractions(emailService);
+
+        PendingEmail email = captor.getValue();
+        assertEquals(subject, email.getSubject());
+        assertEquals(plain, email.getPlain());
+        assertEquals(html, email.getHtml());
+        assertSame(channel, email.getChannel());
+        assertSame(message, email.getMessage());
+    }
+
+    private Message delivery(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(new byte[0], properties);
+    }
 }
@@ -35,14 +35,14 @@ public class BootstrapData implements CommandLineRunner {
     @Autowired private ExchangeService exchangeService;
     @Autowired private HolidayService holidayService;
     @Autowired private ListingRepository listingRepository;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private ForexPairRepository forexPairRepository;
     @Autowired private ListingPriceHistoryRepository priceHistoryRepository;
     @Autowired private ExchangeRepository exchangeRepository;
     @Autowired private StocksService stocksService;
     @Autowired private ForexService forexService;
     @Autowired private FuturesService futuresService;
-    @Autowired private OptionService optionService;
     @Autowired private FuturesRepository futuresRepository;
-    @Autowired private OptionRepository optionRepository;
     @Autowired private PortfolioEntryRepository portfolioEntryRepository;
     @Autowired private EntityManager entityManager;
     @Autowired private ListingService listingService;
@@ -50,6 +50,8 @@ public class BootstrapData implements CommandLineRunner {
     @Autowired private ApplicationContext applicationContext;
     @Autowired private AlphavantageClient alphavantageClient;
     @Autowired private OtcOptionRepository otcOptionRepository;
+    @Autowired private BootstrapSnapshot bootstrapSnapshot;
+    @Autowired private PriceHistoryPartitionService priceHistoryPartitionService;
 
     @Value("${bootstrap.thread.pool.size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
     private int threadPoolSize;
@@ -59,11 +61,10 @@ public class BootstrapData implements CommandLineRunner {
     @Override
     public void run(String... args) {
         System.out.println("tu sam");
+        priceHistoryPartitionService.prepare();
         importCoreData();
-        importStocksAndHistory();
-        importForexAndHistory();
+        importListings();
         addFutures();
-        addOptions();
         addPortfolioTestData();
         addOrderTestData();
     }
@@ -74,6 +75,19 @@ public class BootstrapData implements CommandLineRunner {
         exchangeService.importExchanges();
     }
 
+    private void importListings() {
+        if (bootstrapSnapshot.isEnabled() && listingRepository.count() == 0 && bootstrapSnapshot.load()) {
+            return;
+        }
+
+        importStocksAndHistory();
+        importForexAndHistory();
+
+        if (bootstrapSnapshot.isEnabled() && !bootstrapSnapshot.exists()) {
+            bootstrapSnapshot.dump();
+        }
+    }
+
     private void importStocksAndHistory() {
         importStocks();
         importStockPriceHistory();
@@ -128,10 +142,7 @@ public class BootstrapData implements CommandLineRunner {
     }
 
     private void importStockPriceHistory() {
-        List<Stock> stocks = listingRepository.findAll().stream()
-                .filter(s -> s instanceof Stock)
-                .map(s -> (Stock) s)
-                .toList();
+        List<Stock> stocks = stockRepository.findAll();
 
         List<ListingPriceHistory> all = refreshInParallel(stocks, stock -> {
             try {
@@ -183,14 +194,11 @@ public class BootstrapData implements CommandLineRunner {
     }
 
     private void importForexPriceHistory() {
-        List<ForexPair> pairs = listingRepository.findAll().stream()
-                .filter(f -> f instanceof ForexPair)
-                .map(f -> (ForexPair) f)
-                .toList();
+        List<ForexPair> pairs = forexPairRepository.findAll();
 
         List<ListingPriceHistory> all = refreshInParallel(pairs, pair -> {
             try {
-                TimeSeriesDto dto = listingService.getForexPriceHistory(pair.getId(), "5min");
+                TimeSeriesDto dto = listingService.getForexPriceHistory(pair, "5min");
                 Set<LocalDateTime> existing = priceHistoryRepository.findDatesByListingId(pair.getId());
                 return createNewHistory(pair, dto, existing);
             } catch (Exception e) {
@@ -221,43 +229,6 @@ public class BootstrapData implements CommandLineRunner {
         saveInBatches(list, 200, futuresRepository::saveAllAndFlush);
         System.out.println("Zavrsio futures");
 
-    }
-
-    @Transactional
-    public void addOptions() {
-        if (optionRepository.count() > 0) return;
-
-        List<Stock> stocks = listingRepository.findAll().stream()
-                .filter(s -> s instanceof Stock)
-                .map(s -> (Stock) s)
-                .toList();
-
-        List<Option> all = refreshInParallel(stocks, stock -> {
-            try {
-                List<OptionDto> dtos = optionService.generateOptions(stock.getTicker(), stock.getPrice());
-                return dtos.stream().map(dto -> {
-                    Option o = new Option();
-                    o.setUnderlyingStock(stock);
-                    o.setOptionType(dto.getOptionType());
-                    o.setStrikePrice(dto.getStrikePrice());
-                    o.setContractSize(dto.getContractSize());
-                    o.setSettlementDate(dto.getSettlementDate());
-                    o.setMaintenanceMargin(dto.getMaintenanceMargin());
-                    o.setPrice(dto.getPrice());
-                    o.setTicker(dto.getTicker());
-                    o.setImpliedVolatility(BigDecimal.ONE);
-                    o.setOpenInterest(new Random().nextInt(500) + 100);
-                    o.setOnSale(true);
-                    return o;
-                }).toList();
-            } catch (Exception e) {
-                return List.of();
-            }
-        });
-
-        saveInBatches(all, 100, optionRepository::saveAllAndFlush);
-        System.out.println("Zavrsio options");
-
     }
 
      @Transactional
@@ -0,0 +1,165 @@
+package rs.raf.stock_service.bootstrap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import rs.raf.stock_service.domain.entity.*;
+import rs.raf.stock_service.repository.ExchangeRepository;
+import rs.raf.stock_service.repository.ForexPairRepository;
+import rs.raf.stock_service.repository.ListingRepository;
+import rs.raf.stock_service.repository.StockRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot mode for {@link BootstrapData}: stocks, forex pairs and their price history are dumped to a
+ * local file after a live import and reloaded from it on later starts, so the service is ready without
+ * calling the market data APIs. The scheduled refresh fills in whatever changed since the dump.
+ */
+@Slf4j
+@Component
+public class BootstrapSnapshot {
+
+    private static final String INSERT_HISTORY = "INSERT INTO listing_price_history " +
+            "(listing_id, date, open, close, high, low, change, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_HISTORY = "SELECT listing_id, date, open, close, high, low, change, volume " +
+            "FROM listing_price_history ORDER BY listing_id, date";
+
+    private final ListingRepository listingRepository;
+    private final StockRepository stockRepository;
+    private final ForexPairRepository forexPairRepository;
+    private final ExchangeRepository exchangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path path;
+    private final int batchSize;
+
+    public BootstrapSnapshot(ListingRepository listingRepository,
+                             StockRepository stockRepository,
+                             ForexPairRepository forexPairRepository,
+                             ExchangeRepository exchangeRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${bootstrap.snapshot.enabled:false}") boolean enabled,
+                             @Value("${bootstrap.snapshot.path:data/stock-snapshot.bin.gz}") String path,
+                             @Value("${bootstrap.snapshot.batch-size:5000}") int batchSize) {
+        this.listingRepository = listingRepository;
+        this.stockRepository = stockRepository;
+        this.forexPairRepository = forexPairRepository;
+        this.exchangeRepository = exchangeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean exists() {
+        return Files.isReadable(path);
+    }
+
+    /**
+     * Loads the snapshot into an empty listing table. Returns false if the snapshot is missing or
+     * unreadable, in which case the caller falls back to the live import.
+     */
+    public boolean load() {
+        if (!exists()) {
+            return false;
+        }
+
+        SnapshotData data;
+        try (InputStream in = Files.newInputStream(path)) {
+            data = SnapshotCodec.read(in);
+        } catch (IOException e) {
+            log.warn("Could not read listing snapshot {}, falling back to live import", path, e);
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, Exchange> exchanges = exchangeRepository.findAll().stream()
+                .collect(Collectors.toMap(Exchange::getMic, Function.identity()));
+        data.getStocks().forEach(stock -> stock.setExchange(
+                stock.getExchange() != null ? exchanges.get(stock.getExchange().getMic()) : null));
+
+        List<Listing> listings = new ArrayList<>(data.getStocks());
+        listings.addAll(data.getForexPairs());
+        listingRepository.saveAllAndFlush(listings);
+
+        // history rows reference listings by snapshot position, saving has assigned their ids
+        long[] listingIds = listings.stream().mapToLong(Listing::getId).toArray();
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, data.getHistory(), batchSize, (ps, row) -> {
+            ps.setLong(1, listingIds[row.getListingIndex()]);
+            ps.setTimestamp(2, row.getDate() != null ? Timestamp.valueOf(row.getDate()) : null);
+            ps.setBigDecimal(3, row.getOpen());
+            ps.setBigDecimal(4, row.getClose());
+            ps.setBigDecimal(5, row.getHigh());
+            ps.setBigDecimal(6, row.getLow());
+            ps.setBigDecimal(7, row.getChange());
+            if (row.getVolume() != null) {
+                ps.setLong(8, row.getVolume());
+            } else {
+                ps.setNull(8, Types.BIGINT);
+            }
+        });
+
+        log.info("Loaded {} stocks, {} forex pairs and {} history rows from {} in {} ms", data.getStocks().size(),
+                data.getForexPairs().size(), data.getHistory().size(), path, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    public void dump() {
+        SnapshotData data = new SnapshotData();
+        Map<Long, Integer> positions = new HashMap<>();
+
+        stockRepository.findAll().forEach(stock -> {
+            positions.put(stock.getId(), positions.size());
+            data.getStocks().add(stock);
+        });
+        forexPairRepository.findAll().forEach(pair -> {
+            positions.put(pair.getId(), positions.size());
+            data.getForexPairs().add(pair);
+        });
+
+        jdbcTemplate.query(SELECT_HISTORY, rs -> {
+            Integer position = positions.get(rs.getLong("listing_id"));
+            if (position == null) {
+                return;
+            }
+            Timestamp date = rs.getTimestamp("date");
+            long volume = rs.getLong("volume");
+            Long nullableVolume = rs.wasNull() ? null : volume;
+            data.getHistory().add(new SnapshotData.HistoryRow(position,
+                    date != null ? date.toLocalDateTime() : null,
+                    rs.getBigDecimal("open"), rs.getBigDecimal("close"),
+                    rs.getBigDecimal("high"), rs.getBigDecimal("low"),
+                    rs.getBigDecimal("change"), nullableVolume));
+        });
+
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "stock-snapshot", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                SnapshotCodec.write(data, out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote listing snapshot with {} history rows to {}", data.getHistory().size(), path);
+        } catch (IOException e) {
+            log.warn("Could not write listing snapshot {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package rs.raf.stock_service.bootstrap;
+
+import rs.raf.stock_service.domain.entity.Exchange;
+import rs.raf.stock_service.domain.entity.ForexPair;
+import rs.raf.stock_service.domain.entity.Stock;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped binary format for {@link SnapshotData}. Decimals keep their exact scale and timestamps are
+ * stored to the second. Exchanges are stored by MIC only. A decimal's unscaled value is stored with an
+ * unsigned length byte, 255 marking null, so values of up to 254 bytes fit.
+ */
+public final class SnapshotCodec {
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int NULL_DECIMAL = 0xFF;
+
+    private SnapshotCodec() {
+    }
+
+    public static void write(SnapshotData data, OutputStream target) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(data.getStocks().size());
+            for (Stock stock : data.getStocks()) {
+                writeString(out, stock.getTicker());
+                writeString(out, stock.getName());
+                writeString(out, stock.getExchange() != null ? stock.getExchange().getMic() : null);
+                writeDecimal(out, stock.getPrice());
+                writeDecimal(out, stock.getChange());
+                out.writeLong(stock.getVolume());
+                out.writeLong(stock.getOutstandingShares());
+                writeDecimal(out, stock.getDividendYield());
+                writeDecimal(out, stock.getMarketCap());
+                writeDecimal(out, stock.getMaintenanceMargin());
+            }
+
+            out.writeInt(data.getForexPairs().size());
+            for (ForexPair pair : data.getForexPairs()) {
+                writeString(out, pair.getTicker());
+                writeString(out, pair.getName());
+                writeString(out, pair.getBaseCurrency());
+                writeString(out, pair.getQuoteCurrency());
+                writeDecimal(out, pair.getExchangeRate());
+                writeString(out, pair.getLiquidity());
+                writeDecimal(out, pair.getMaintenanceMargin());
+                writeDecimal(out, pair.getNominalValue());
+                writeDecimal(out, pair.getAsk());
+                writeDecimal(out, pair.getPrice());
+                writeDateTime(out, pair.getLastRefresh());
+            }
+
+            out.writeInt(data.getHistory().size());
+            for (SnapshotData.HistoryRow row : data.getHistory()) {
+                out.writeInt(row.getListingIndex());
+                writeDateTime(out, row.getDate());
+                writeDecimal(out, row.getOpen());
+                writeDecimal(out, row.getClose());
+                writeDecimal(out, row.getHigh());
+                writeDecimal(out, row.getLow());
+                writeDecimal(out, row.getChange());
+                out.writeLong(row.getVolume() != null ? row.getVolume() : -1L);
+            }
+        }
+    }
+
+    public static SnapshotData read(InputStream source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(source)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a listing snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            SnapshotData data = new SnapshotData();
+
+            int stockCount = in.readInt();
+            for (int i = 0; i < stockCount; i++) {
+                Stock stock = new Stock();
+                stock.setTicker(readString(in));
+                stock.setName(readString(in));
+                String mic = readString(in);
+                if (mic != null) {
+                    Exchange exchange = new Exchange();
+                    exchange.setMic(mic);
+                    stock.setExchange(exchange);
+                }
+                stock.setPrice(readDecimal(in));
+                stock.setChange(readDecimal(in));
+                stock.setVolume(in.readLong());
+                stock.setOutstandingShares(in.readLong());
+                stock.setDividendYield(readDecimal(in));
+                stock.setMarketCap(readDecimal(in));
+                stock.setMaintenanceMargin(readDecimal(in));
+                data.getStocks().add(stock);
+            }
+
+            int forexCount = in.readInt();
+            for (int i = 0; i < forexCount; i++) {
+                ForexPair pair = new ForexPair();
+                pair.setTicker(readString(in));
+                pair.setName(readString(in));
+                pair.setBaseCurrency(readString(in));
+                pair.setQuoteCurrency(readString(in));
+                pair.setExchangeRate(readDecimal(in));
+                pair.setLiquidity(readString(in));
+                pair.setMaintenanceMargin(readDecimal(in));
+                pair.setNominalValue(readDecimal(in));
+                pair.setAsk(readDecimal(in));
+                pair.setPrice(readDecimal(in));
+                pair.setLastRefresh(readDateTime(in));
+                data.getForexPairs().add(pair);
+            }
+
+            int historyCount = in.readInt();
+            for (int i = 0; i < historyCount; i++) {
+                SnapshotData.HistoryRow row = new SnapshotData.HistoryRow();
+                row.setListingIndex(in.readInt());
+                row.setDate(readDateTime(in));
+                row.setOpen(readDecimal(in));
+                row.setClose(readDecimal(in));
+                row.setHigh(readDecimal(in));
+                row.setLow(readDecimal(in));
+                row.setChange(readDecimal(in));
+                long volume = in.readLong();
+                row.setVolume(volume >= 0 ? volume : null);
+                data.getHistory().add(row);
+            }
+
+            return data;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_DECIMAL);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (unscaled.length >= NULL_DECIMAL || value.scale() != (short) value.scale()) {
+            throw new IOException("Decimal " + value + " does not fit the snapshot format");
+        }
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+        out.writeShort(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = in.readUnsignedByte();
+        if (length == NULL_DECIMAL) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readShort());
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value != null ? value.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC) : null;
+    }
+}
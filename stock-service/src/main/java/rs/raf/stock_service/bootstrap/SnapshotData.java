@@ -0,0 +1,39 @@
+package rs.raf.stock_service.bootstrap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.stock_service.domain.entity.ForexPair;
+import rs.raf.stock_service.domain.entity.Stock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listings and price history captured by {@link BootstrapSnapshot}. History rows point at listings by
+ * position: stocks first, then forex pairs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotData {
+    private List<Stock> stocks = new ArrayList<>();
+    private List<ForexPair> forexPairs = new ArrayList<>();
+    private List<HistoryRow> history = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistoryRow {
+        private int listingIndex;
+        private LocalDateTime date;
+        private BigDecimal open;
+        private BigDecimal close;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal change;
+        private Long volume;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import rs.raf.stock_service.domain.dto.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 /// Klasa koja sluzi za slanje HTTP poziva na bankService
@@ -18,12 +19,21 @@ public interface BankClient {
     @GetMapping("/api/account/{accountNumber}/balance")
     BigDecimal getAccountBalance(@PathVariable("accountNumber") String accountNumber);
 
-    @PostMapping("/api/payment/tax")
-    void handleTax(@RequestBody TaxDto taxDto);
+    @PostMapping("/api/payment/tax/batch")
+    List<TaxSettlementResultDto> settleTaxes(@RequestBody List<TaxDto> taxes);
 
     @PostMapping("api/exchange-rates/convert")
     BigDecimal convert(@RequestBody ConvertDto convertDto);
 
     @GetMapping("api/account/details/{accountNumber}")
     AccountDetailsDto getAccountDetails(@PathVariable("accountNumber") String accountNumber);
+
+    @PostMapping("/api/payment/reservations")
+    FundsReservationDto reserveFunds(@RequestBody ReserveFundsDto reserveFundsDto);
+
+    @PostMapping("/api/payment/reservations/{reference}/commit")
+    FundsReservationDto commitFundsReservation(@PathVariable("reference") String reference);
+
+    @PostMapping("/api/payment/reservations/{reference}/release")
+    FundsReservationDto releaseFundsReservation(@PathVariable("reference") String reference);
 }
@@ -3,9 +3,18 @@ package rs.raf.stock_service.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import rs.raf.stock_service.domain.dto.ActuaryDto;
 import rs.raf.stock_service.domain.dto.ActuaryLimitDto;
 import rs.raf.stock_service.domain.dto.ClientDto;
+import rs.raf.stock_service.domain.dto.LimitReservationDto;
+import rs.raf.stock_service.domain.dto.ReserveLimitDto;
+import rs.raf.stock_service.domain.dto.UserNameDto;
+
+import java.util.Collection;
+import java.util.List;
 
 
 /// Klasa koja sluzi za slanje HTTP poziva na userService
@@ -20,6 +29,18 @@ public interface UserClient {
 
     @GetMapping("/api/admin/employees/{id}")
     ActuaryDto getEmployeeById(@PathVariable("id") Long id);
+
+    @GetMapping("/api/admin/users/names")
+    List<UserNameDto> getUserNames(@RequestParam("ids") Collection<Long> ids);
+
+    @PostMapping("/api/admin/actuaries/{id}/reservations")
+    LimitReservationDto reserveLimit(@PathVariable("id") Long id, @RequestBody ReserveLimitDto reserveLimitDto);
+
+    @PostMapping("/api/admin/actuaries/reservations/{orderId}/commit")
+    LimitReservationDto commitLimitReservation(@PathVariable("orderId") Long orderId);
+
+    @PostMapping("/api/admin/actuaries/reservations/{orderId}/release")
+    LimitReservationDto releaseLimitReservation(@PathVariable("orderId") Long orderId);
 }
 
 
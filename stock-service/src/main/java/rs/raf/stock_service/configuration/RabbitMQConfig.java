@@ -0,0 +1,40 @@
+package rs.raf.stock_service.configuration;
+
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.raf.stock_service.messaging.RetryPolicy;
+import rs.raf.stock_service.messaging.RetryableQueues;
+
+/**
+ * Stock service only publishes. The queues it publishes to are consumed by other services but are
+ * declared here as well, with the same retry tiers and dead-letter queue, so messages are routable
+ * before the consumer has started.
+ */
+@Configuration
+public class RabbitMQConfig {
+    public static final String PRICE_ALERT_QUEUE = "price-alert";
+
+    @Bean
+    public RetryPolicy messagingRetryPolicy(@Value("${messaging.retry.max-attempts:3}") int maxAttempts,
+                                            @Value("${messaging.retry.initial-delay-ms:1000}") long initialDelay,
+                                            @Value("${messaging.retry.multiplier:5}") double multiplier,
+                                            @Value("${messaging.retry.max-delay-ms:60000}") long maxDelay) {
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay);
+    }
+
+    @Bean
+    public Declarables priceAlertQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare(PRICE_ALERT_QUEUE, messagingRetryPolicy);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        converter.setCreateMessageIds(true);
+        return converter;
+    }
+}
@@ -15,7 +15,7 @@ import rs.raf.stock_service.service.FuturesService;
 
 import java.util.List;
 
-@Tag(name = "Futures API", description = "Operations related to futures contracts loaded from CSV file")
+@Tag(name = "Futures API", description = "Operations related to futures contracts from the in-memory futures catalog")
 @RestController
 @AllArgsConstructor
 @RequestMapping("/api/futures")
@@ -23,7 +23,7 @@ public class FuturesController {
 
     private final FuturesService futuresService;
 
-    @Operation(summary = "Get all futures contracts", description = "Returns a list of futures contracts loaded from the CSV file with derived maintenance margin")
+    @Operation(summary = "Get all futures contracts", description = "Returns the futures catalog with derived prices and the current settlement date of each contract")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved futures contracts"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
@@ -5,16 +5,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import rs.raf.stock_service.domain.dto.*;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
 import rs.raf.stock_service.exceptions.ListingNotFoundException;
+import rs.raf.stock_service.exceptions.QuoteStreamFullException;
 import rs.raf.stock_service.service.ListingService;
+import rs.raf.stock_service.service.QuoteStreamService;
 import rs.raf.stock_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -27,6 +34,9 @@ public class ListingController {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+
     @GetMapping
     @Operation(summary = "Get filtered list of securities", description = "Returns a list of stocks, futures, or forex pairs based on filters.")
     @ApiResponses(value = {
@@ -75,6 +85,23 @@ public class ListingController {
         return ResponseEntity.ok(listingService.getListings(filter, role));
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream live quotes", description = "Server-sent events with the current quote of each requested listing, then a 'quote' event whenever its price is refreshed. Replaces polling the listings.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "400", description = "No listings or too many listings requested"),
+            @ApiResponse(responseCode = "503", description = "Too many open streams")
+    })
+    public ResponseEntity<SseEmitter> streamQuotes(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(quoteStreamService.subscribe(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (QuoteStreamFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get details of a security", description = "Returns detailed information about a specific stock, future, or forex pair.")
     @ApiResponses(value = {
@@ -119,4 +146,20 @@ public class ListingController {
         return ResponseEntity.ok(priceHistory);
     }
 
+    @GetMapping("/{id}/price-history/stored")
+    @Operation(summary = "Get stored price history of a security", description = "Returns the bars kept for a listing, newest first: 5-minute bars for the last months, then hourly or daily bars for the time before them. Pass the datetime of the last bar as before to get the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Price history retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Listing not found")
+    })
+    public ResponseEntity<List<PriceHistoryDto>> getStoredPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "DAILY") PriceRollupResolution resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(listingService.getStoredPriceHistory(id, resolution, before,
+                Math.max(1, Math.min(limit, 2000))));
+    }
+
 }
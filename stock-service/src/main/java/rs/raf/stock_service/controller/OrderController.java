@@ -10,12 +10,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import rs.raf.stock_service.domain.dto.ActuaryProfitDto;
 import rs.raf.stock_service.domain.dto.CreateOrderDto;
 import rs.raf.stock_service.domain.dto.OrderDto;
 import rs.raf.stock_service.domain.enums.OrderStatus;
 import rs.raf.stock_service.exceptions.*;
 import rs.raf.stock_service.repository.OrderRepository;
 import rs.raf.stock_service.service.OrderService;
+import rs.raf.stock_service.service.TaxSettlementService;
 
 
 import java.util.List;
@@ -28,6 +30,7 @@ public class OrderController {
 
     private final OrderService orderService;
     private final OrderRepository orderRepository;
+    private final TaxSettlementService taxSettlementService;
 
 
     @Operation(
@@ -125,7 +128,7 @@ public class OrderController {
     @Operation(summary = "Create order.", description = "Creates a new order.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or not enough unreserved shares to sell"),
             @ApiResponse(responseCode = "404", description = "Listing not found")
     })
     public ResponseEntity<?> createOrder(@RequestHeader("Authorization") String authHeader, @RequestBody CreateOrderDto createOrderDto) {
@@ -133,23 +136,36 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(createOrderDto, authHeader));
         } catch (ListingNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InsufficientSharesException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
     @PreAuthorize("hasRole('SUPERVISOR')")
     @PostMapping("/tax")
-    @Operation(summary = "Process taxes.", description = "Pays taxes where possible.")
+    @Operation(summary = "Process taxes.", description = "Pays taxes where possible, one payment per account.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Order created successfully"),
+            @ApiResponse(responseCode = "200", description = "Taxes processed, returns settled and unsettled counts"),
+            @ApiResponse(responseCode = "400", description = "Tax settlement is already running")
     })
     public ResponseEntity<?> processTaxes() {
         try {
-            orderService.processTaxes();
-            return ResponseEntity.status(HttpStatus.OK).body("Taxes processed successfully.");
+            return ResponseEntity.status(HttpStatus.OK).body(taxSettlementService.settle());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
+    @PreAuthorize("hasRole('SUPERVISOR') or hasRole('ADMIN')")
+    @GetMapping("/profit")
+    @Operation(summary = "Get realized profit per user.",
+            description = "Returns the summed profit of executed sell orders for each of the given users. Users without such orders are omitted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profits retrieved successfully")
+    })
+    public ResponseEntity<List<ActuaryProfitDto>> getProfitByUsers(@RequestParam List<Long> userIds) {
+        return ResponseEntity.ok(orderService.getProfitByUsers(userIds));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
     public ResponseEntity<List<OrderDto>> getAllOrders() {
@@ -5,19 +5,26 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import rs.raf.stock_service.domain.dto.CreateOtcOfferDto;
 import rs.raf.stock_service.domain.dto.OtcOfferDto;
+import rs.raf.stock_service.domain.dto.OtcExerciseDto;
 import rs.raf.stock_service.domain.dto.OtcOptionDto;
 import rs.raf.stock_service.domain.entity.OtcOffer;
+import rs.raf.stock_service.exceptions.OtcExerciseException;
+import rs.raf.stock_service.exceptions.OtcOfferConflictException;
+import rs.raf.stock_service.exceptions.UnauthorizedActionException;
+import rs.raf.stock_service.service.OtcExerciseService;
 import rs.raf.stock_service.service.OtcService;
 import rs.raf.stock_service.utils.JwtTokenUtil;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -27,6 +34,7 @@ import java.util.NoSuchElementException;
 public class OtcOfferController {
 
     private final OtcService otcService;
+    private final OtcExerciseService otcExerciseService;
     private final JwtTokenUtil jwtTokenUtil;
 
     @Operation(summary = "Create OTC offer", description = "Allows CLIENT or AGENT to create an OTC offer for a public stock.")
@@ -54,7 +62,7 @@ public class OtcOfferController {
         }
     }
 
-    @Operation(summary = "Get all active OTC offers received by the user", description = "Returns pending offers where the user is the seller.")
+    @Operation(summary = "Get all active OTC offers received by the user", description = "Returns pending offers where the user is buyer or seller, newest first. Pass lastModified and id of the last offer as beforeModified and beforeId to get the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Offers retrieved."),
             @ApiResponse(responseCode = "204", description = "No active offers."),
@@ -63,10 +71,14 @@ public class OtcOfferController {
     })
     @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
     @GetMapping("/received")
-    public ResponseEntity<?> getReceivedOffers(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getReceivedOffers(@RequestHeader("Authorization") String authHeader,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeModified,
+                                               @RequestParam(required = false) Long beforeId,
+                                               @RequestParam(defaultValue = "50") int limit) {
         try {
             Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
-            List<OtcOfferDto> offers = otcService.getAllActiveOffersForUser(userId);
+            List<OtcOfferDto> offers = otcService.getAllActiveOffersForUser(userId, beforeModified, beforeId,
+                    Math.max(1, Math.min(limit, 200)));
             return ResponseEntity.ok(offers);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
@@ -75,13 +87,19 @@ public class OtcOfferController {
 
     @PutMapping("/{id}/accept")
     @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
+    @Operation(summary = "Accept OTC offer", description = "Pass the offer version that was shown to the user; 409 means the other side changed the offer in the meantime.")
     public ResponseEntity<?> acceptOffer(@RequestHeader("Authorization") String authHeader,
-                                         @PathVariable Long id) {
+                                         @PathVariable Long id,
+                                         @RequestParam(required = false) Long version) {
         try {
             Long sellerId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
-            otcService.acceptOffer(id, sellerId);
+            otcService.acceptOffer(id, sellerId, version);
             return ResponseEntity.ok("Offer successfully accepted.");
-        } catch (NoSuchElementException e) {
+        } catch (OtcOfferConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException | NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Offer not found");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
@@ -91,12 +109,17 @@ public class OtcOfferController {
     @PutMapping("/{id}/reject")
     @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
     public ResponseEntity<?> rejectOffer(@RequestHeader("Authorization") String authHeader,
-                                         @PathVariable Long id) {
+                                         @PathVariable Long id,
+                                         @RequestParam(required = false) Long version) {
         try {
             Long sellerId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
-            otcService.rejectOffer(id, sellerId);
+            otcService.rejectOffer(id, sellerId, version);
             return ResponseEntity.ok("Offer successfully rejected.");
-        } catch (NoSuchElementException e) {
+        } catch (OtcOfferConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException | NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Offer not found");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
@@ -107,12 +130,17 @@ public class OtcOfferController {
     @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
     public ResponseEntity<?> counterOffer(@RequestHeader("Authorization") String authHeader,
                                           @PathVariable Long id,
-                                          @Valid @RequestBody CreateOtcOfferDto dto) {
+                                          @Valid @RequestBody CreateOtcOfferDto dto,
+                                          @RequestParam(required = false) Long version) {
         try {
             Long sellerId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
-            otcService.updateOffer(id, sellerId, dto);
+            otcService.updateOffer(id, sellerId, dto, version);
             return ResponseEntity.ok("Counter-offer sent.");
-        } catch (NoSuchElementException e) {
+        } catch (OtcOfferConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException | NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Offer not found");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
@@ -125,21 +153,47 @@ public class OtcOfferController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Offer successfully cancelled"),
             @ApiResponse(responseCode = "403", description = "Unauthorized to cancel"),
-            @ApiResponse(responseCode = "404", description = "Offer not found")
+            @ApiResponse(responseCode = "404", description = "Offer not found"),
+            @ApiResponse(responseCode = "409", description = "Offer was changed in the meantime")
     })
     public ResponseEntity<?> cancelOffer(@PathVariable("id") Long offerId,
-                                         @RequestHeader("Authorization") String authHeader) {
+                                         @RequestHeader("Authorization") String authHeader,
+                                         @RequestParam(required = false) Long version) {
         try {
             Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
-            otcService.cancelOffer(offerId, userId);
+            otcService.cancelOffer(offerId, userId, version);
             return ResponseEntity.ok("Offer successfully cancelled.");
-        }  catch (NoSuchElementException e) {
+        } catch (OtcOfferConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException | NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Offer not found");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
         }
     }
 
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
+    @Operation(summary = "Get OTC negotiation history", description = "Returns every step of the negotiation, oldest first.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "History retrieved"),
+            @ApiResponse(responseCode = "403", description = "User is not a party to the offer"),
+            @ApiResponse(responseCode = "404", description = "Offer not found")
+    })
+    public ResponseEntity<?> getNegotiationHistory(@PathVariable("id") Long offerId,
+                                                   @RequestHeader("Authorization") String authHeader) {
+        try {
+            Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+            return ResponseEntity.ok(otcService.getNegotiationHistory(offerId, userId));
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Offer not found");
+        }
+    }
+
     @GetMapping("/options")
     @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
     public ResponseEntity<?> getOtcOptions(
@@ -154,4 +208,29 @@ public class OtcOfferController {
 
         return ResponseEntity.ok(options);
     }
+
+    @PostMapping("/options/{id}/exercise")
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT')")
+    @Operation(summary = "Exercise OTC option", description = "Buys the option's shares from the seller at the strike price, paid from the given account. The result is COMMITTED, FAILED with a reason, or COMMITTING if the bank is slow to confirm.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exercise processed"),
+            @ApiResponse(responseCode = "403", description = "User is not the option buyer"),
+            @ApiResponse(responseCode = "404", description = "Option not found"),
+            @ApiResponse(responseCode = "409", description = "Option already used or expired")
+    })
+    public ResponseEntity<?> exerciseOption(@PathVariable("id") Long optionId,
+                                            @RequestParam String accountNumber,
+                                            @RequestHeader("Authorization") String authHeader) {
+        try {
+            Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+            OtcExerciseDto result = otcExerciseService.exercise(optionId, userId, accountNumber);
+            return ResponseEntity.ok(result);
+        } catch (OtcExerciseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnauthorizedActionException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
 }
@@ -48,6 +48,26 @@ public class PortfolioController {
         }
     }
 
+    @Operation(
+            summary = "Get portfolio valuation for authenticated user",
+            description = "Returns market value, cost basis, unrealized profit of open positions and realized profit of executed sell orders."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Valuation retrieved successfully."),
+            @ApiResponse(responseCode = "403", description = "Access denied – only CLIENT, AGENT and SUPERVISOR roles allowed."),
+            @ApiResponse(responseCode = "500", description = "Unexpected server error.")
+    })
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT', 'SUPERVISOR')")
+    @GetMapping("/valuation")
+    public ResponseEntity<?> getValuation(@RequestHeader("Authorization") String authHeader) {
+        try {
+            Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+            return ResponseEntity.ok(portfolioService.getValuation(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @Operation(
             summary = "Set public amount for a specific stock in user's portfolio",
             description = "Allows CLIENT, AGENT, and SUPERVISOR roles to set the number of shares marked as public for a specific listing."
@@ -0,0 +1,69 @@
+package rs.raf.stock_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.stock_service.domain.dto.CreatePriceAlertDto;
+import rs.raf.stock_service.domain.dto.PriceAlertDto;
+import rs.raf.stock_service.service.PriceAlertService;
+import rs.raf.stock_service.utils.JwtTokenUtil;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+public class PriceAlertController {
+
+    private final PriceAlertService priceAlertService;
+    private final JwtTokenUtil jwtTokenUtil;
+
+    @Operation(
+            summary = "Create a price alert",
+            description = "Emails the user once when the listing's price reaches the target from the given direction. " +
+                    "An alert whose condition already holds fires on the next price refresh."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Alert created."),
+            @ApiResponse(responseCode = "400", description = "Invalid input."),
+            @ApiResponse(responseCode = "404", description = "Listing not found.")
+    })
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT', 'SUPERVISOR')")
+    @PostMapping
+    public ResponseEntity<PriceAlertDto> createAlert(@RequestHeader("Authorization") String authHeader,
+                                                     @RequestBody @Valid CreatePriceAlertDto dto) {
+        Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+        String email = jwtTokenUtil.getEmailFromAuthHeader(authHeader);
+        return ResponseEntity.status(HttpStatus.CREATED).body(priceAlertService.createAlert(userId, email, dto));
+    }
+
+    @Operation(summary = "Get my price alerts", description = "Active and triggered alerts of the authenticated user, newest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Alerts retrieved successfully.")
+    })
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT', 'SUPERVISOR')")
+    @GetMapping
+    public ResponseEntity<List<PriceAlertDto>> getAlerts(@RequestHeader("Authorization") String authHeader) {
+        Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+        return ResponseEntity.ok(priceAlertService.getAlerts(userId));
+    }
+
+    @Operation(summary = "Delete a price alert")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Alert deleted."),
+            @ApiResponse(responseCode = "404", description = "Alert not found.")
+    })
+    @PreAuthorize("hasAnyRole('CLIENT', 'AGENT', 'SUPERVISOR')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAlert(@RequestHeader("Authorization") String authHeader, @PathVariable Long id) {
+        Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+        priceAlertService.deleteAlert(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import rs.raf.stock_service.domain.dto.StockOptionDto;
@@ -34,4 +35,15 @@ public class StockOptionController {
     public ResponseEntity<List<StockOptionDto>> getStockOptionsByDate(@PathVariable Long id, @PathVariable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
         return ResponseEntity.ok(stockOptionService.getStockOptionsByDate(id, date));
     }
+
+    @PreAuthorize("hasAnyRole('CLIENT', 'SUPERVISOR', 'AGENT', 'EMPLOYEE', 'ADMIN')")
+    @PostMapping("/options/{ticker}")
+    @Operation(summary = "Get tradable option listing", description = "Returns the listing for an option contract from a chain, creating it on first trade so it can be ordered by listing id.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Option listing returned"),
+            @ApiResponse(responseCode = "404", description = "Option contract not found in the current chain")
+    })
+    public ResponseEntity<StockOptionDto> getOrCreateOption(@PathVariable String ticker) {
+        return ResponseEntity.ok(stockOptionService.getOrCreateOption(ticker));
+    }
 }
@@ -0,0 +1,26 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreatePriceAlertDto {
+
+    @NotNull
+    private Long listingId;
+
+    @NotNull
+    private PriceAlertDirection direction;
+
+    @NotNull
+    @DecimalMin("0.00000001")
+    private BigDecimal targetPrice;
+}
@@ -0,0 +1,20 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.stock_service.domain.enums.FundsReservationStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundsReservationDto {
+    private String reference;
+    private FundsReservationStatus status;
+    private BigDecimal amount;
+    private BigDecimal outAmount;
+    private Long paymentId;
+    private String message;
+}
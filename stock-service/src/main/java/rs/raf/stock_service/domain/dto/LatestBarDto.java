@@ -0,0 +1,16 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Date of the newest stored price bar of a listing, so a refresh only inserts bars after it.
+ */
+@Getter
+@AllArgsConstructor
+public class LatestBarDto {
+    private Long listingId;
+    private LocalDateTime date;
+}
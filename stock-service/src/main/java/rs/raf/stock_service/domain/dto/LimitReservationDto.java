@@ -0,0 +1,18 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.stock_service.domain.enums.LimitReservationStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimitReservationDto {
+    private Long orderId;
+    private Long employeeId;
+    private BigDecimal amount;
+    private LimitReservationStatus status;
+}
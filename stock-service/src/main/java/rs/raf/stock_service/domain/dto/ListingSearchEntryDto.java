@@ -0,0 +1,18 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.raf.stock_service.domain.enums.ListingType;
+
+/**
+ * The columns of a listing the search index needs; region is the exchange's country, when known.
+ */
+@Getter
+@AllArgsConstructor
+public class ListingSearchEntryDto {
+    private Long id;
+    private String ticker;
+    private String name;
+    private ListingType type;
+    private String region;
+}
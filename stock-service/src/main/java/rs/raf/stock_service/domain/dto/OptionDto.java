@@ -17,4 +17,9 @@ public class OptionDto {
     private BigDecimal price;
     private String ticker;
     private boolean onSale;
+    private BigDecimal impliedVolatility;
+    private BigDecimal delta;
+    private BigDecimal gamma;
+    private BigDecimal vega;
+    private BigDecimal theta;
 }
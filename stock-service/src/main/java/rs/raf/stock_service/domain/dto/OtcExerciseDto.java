@@ -0,0 +1,22 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OtcExerciseDto {
+    private Long id;
+    private Long optionId;
+    private Integer amount;
+    private BigDecimal totalPrice;
+    private OtcExerciseStatus status;
+    private String failureReason;
+    private LocalDateTime updatedAt;
+}
@@ -5,6 +5,7 @@ import rs.raf.stock_service.domain.enums.OtcOfferStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -22,6 +23,8 @@ public class OtcOfferDto {
     private LocalDate settlementDate;
 
     private OtcOfferStatus status;
+    private LocalDateTime lastModified; // zajedno sa id sluzi kao kursor za sledecu stranu
+    private Long version; // salje se nazad uz accept/reject/counter/cancel
 
     private Boolean canInteract; // true ako je lastModifiedById različit od userId pozivaoca
     private String name;
@@ -0,0 +1,24 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.OtcOfferEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtcOfferEventDto {
+    private OtcOfferEventType type;
+    private Long actorId;
+    private Integer amount;
+    private BigDecimal pricePerStock;
+    private BigDecimal premium;
+    private LocalDate settlementDate;
+    private Long offerVersion;
+    private LocalDateTime createdAt;
+}
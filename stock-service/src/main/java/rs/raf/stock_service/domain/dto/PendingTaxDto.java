@@ -0,0 +1,19 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Order columns needed to settle its tax, selected without loading the order or its listing.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingTaxDto {
+    private Long orderId;
+    private String accountNumber;
+    private Long userId;
+    private BigDecimal taxAmount;
+    private String settlementId;
+}
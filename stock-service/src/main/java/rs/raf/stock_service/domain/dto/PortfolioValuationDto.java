@@ -0,0 +1,19 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioValuationDto {
+    private BigDecimal marketValue;
+    private BigDecimal costBasis;
+    private BigDecimal unrealizedProfit;
+    private BigDecimal realizedProfit; // RSD, summed from executed sell orders like Order.profit
+}
@@ -0,0 +1,26 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAlertDto {
+    private Long id;
+    private Long listingId;
+    private String ticker;
+    private PriceAlertDirection direction;
+    private BigDecimal targetPrice;
+    private boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime triggeredAt;
+    private BigDecimal triggeredPrice;
+}
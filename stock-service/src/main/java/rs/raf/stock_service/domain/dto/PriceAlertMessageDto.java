@@ -0,0 +1,25 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+
+import java.math.BigDecimal;
+
+/**
+ * Message for the email-service {@code price-alert} queue, same shape as its {@code PriceAlertMessageDto}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAlertMessageDto {
+    private Long alertId;
+    private String ticker;
+    private PriceAlertDirection direction;
+    private BigDecimal targetPrice;
+    private BigDecimal triggeredPrice;
+    private String destination;
+}
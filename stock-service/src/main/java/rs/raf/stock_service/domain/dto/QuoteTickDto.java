@@ -0,0 +1,26 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest quote of one listing as pushed to stream subscribers; volume and change are set for stocks only.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteTickDto {
+    private Long listingId;
+    private String ticker;
+    private BigDecimal price;
+    private BigDecimal ask;
+    private BigDecimal change;
+    private Long volume;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,29 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Per-stage counters of one listing refresh run.
+ */
+@Getter
+@Setter
+@ToString
+public class RefreshStatsDto {
+    // fetch stage
+    private int fetched;
+    private int failed;
+    private long fetchMillis;          // summed over fetcher threads
+    private long backpressureMillis;   // fetchers blocked on a full queue
+    private int maxQueueDepth;
+    private int triangulated;          // forex pairs quoted from the pivot rates
+
+    // write stage
+    private int pricesWritten;
+    private int barsWritten;
+    private int writeBatches;
+    private long writeMillis;
+
+    private long totalMillis;
+}
@@ -0,0 +1,21 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveFundsDto {
+    private String reference;
+    private String senderAccountNumber;
+    private Long senderClientId;
+    private String receiverAccountNumber;
+    private Long receiverClientId;
+    private BigDecimal amount;
+    private String currencyCode;
+    private String purpose;
+}
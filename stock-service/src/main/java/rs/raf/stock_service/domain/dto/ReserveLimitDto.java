@@ -0,0 +1,16 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveLimitDto {
+    private Long orderId;
+    private BigDecimal amount;
+    private boolean override;
+}
@@ -12,6 +12,13 @@ public class StockOptionDto {
     private BigDecimal impliedVolatility;
     private Integer openInterest;
     private String optionType;
+    private String ticker;
+    private BigDecimal price;
+    private Long listingId; // null until the contract is traded or held
+    private BigDecimal delta;
+    private BigDecimal gamma;
+    private BigDecimal vega;  // per 1% volatility move
+    private BigDecimal theta; // per calendar day
 
     public StockOptionDto() {
     }
@@ -9,4 +9,6 @@ public class TaxDto {
     private String senderAccountNumber;
     private BigDecimal amount;
     private Long clientId;
+    private String currencyCode; // currency of amount; null means the sender account's currency
+    private String settlementId; // idempotency key, resent unchanged when the same orders are retried
 }
@@ -0,0 +1,14 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxSettlementSummaryDto {
+    private int settledAccounts;
+    private int settledOrders;
+    private int unsettledAccounts;
+}
@@ -0,0 +1,14 @@
+package rs.raf.stock_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserNameDto {
+    private Long id;
+    private String firstName;
+    private String lastName;
+}
@@ -0,0 +1,44 @@
+package rs.raf.stock_service.domain.entity;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One hourly or daily OHLCV bar aggregated from 5-minute {@link ListingPriceHistory} bars before their
+ * monthly partition is dropped. Written only by {@code PriceHistoryPartitionService}.
+ */
+@Entity
+@Table(name = "listing_price_rollup", uniqueConstraints = @UniqueConstraint(
+        name = "uk_listing_price_rollup", columnNames = {"listing_id", "resolution", "bucket"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingPriceRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "listing_id", nullable = false)
+    private Long listingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PriceRollupResolution resolution;
+
+    // start of the hour or day
+    @Column(nullable = false)
+    private LocalDateTime bucket;
+
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal change;
+    private Long volume;
+}
@@ -13,7 +13,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_tax_modification", columnList = "userId, taxStatus, lastModification"),
+        @Index(name = "idx_orders_tax_status", columnList = "taxStatus, id"),
+        @Index(name = "idx_orders_user_direction_done", columnList = "userId, direction, isDone")
+})
 @Getter
 @Setter
 @Builder
@@ -74,8 +78,15 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private TaxStatus taxStatus;
     private BigDecimal taxAmount;
+    // set before the tax is sent to bank-service, so a retry after a lost response is not charged twice
+    private String taxSettlementId;
     private BigDecimal profit;
 
+    // agent orders count against the agent's daily limit through a reservation in user-service keyed by order id
+    @Column(updatable = false)
+    private Boolean agentOrder;
+    private Boolean limitReserved;
+
     public Order(Long userId, Listing listing, OrderType orderType, Integer quantity, Integer contractSize, OrderDirection direction, boolean afterHours, String accountNumber) {
         this.userId = userId;
         this.listing = listing;
@@ -0,0 +1,63 @@
+package rs.raf.stock_service.domain.entity;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Saga log of one option exercise. The status is written before each remote step, so after a crash
+ * the recovery job knows whether to finish the exercise or undo it.
+ */
+@Entity
+@Table(name = "otc_exercises", indexes = @Index(name = "idx_otc_exercises_status_updated", columnList = "status, updatedAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OtcExercise {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "option_id", nullable = false, updatable = false)
+    private OtcOption option;
+
+    @Column(nullable = false, updatable = false)
+    private Long buyerId;
+
+    @Column(nullable = false, updatable = false)
+    private Long sellerId;
+
+    private Long sellerEntryId;
+
+    @Column(nullable = false, updatable = false)
+    private String buyerAccountNumber;
+
+    @Column(nullable = false, updatable = false)
+    private Integer amount;
+
+    // strike * amount, USD
+    @Column(nullable = false, updatable = false)
+    private BigDecimal totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OtcExerciseStatus status;
+
+    // true once the seller's shares were moved to reserved, so compensation knows to give them back
+    private boolean sharesReserved;
+
+    private String failureReason;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public String getFundsReference() {
+        return "OTC-EX-" + id;
+    }
+}
@@ -10,6 +10,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_otc_offer_status_seller", columnList = "status, sellerId, lastModified, id"),
+        @Index(name = "idx_otc_offer_status_buyer", columnList = "status, buyerId, lastModified, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,4 +45,8 @@ public class OtcOffer {
     @OneToOne
     private OtcOption otcOption;
 
+    // optimisticko zakljucavanje: istovremene kontraponude ne gaze jedna drugu
+    @Version
+    private Long version;
+
 }
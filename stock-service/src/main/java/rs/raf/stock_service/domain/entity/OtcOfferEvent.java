@@ -0,0 +1,63 @@
+package rs.raf.stock_service.domain.entity;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.OtcOfferEventType;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One step of an OTC negotiation. Events are only ever inserted; the {@link OtcOffer} row holds the
+ * state after the latest event and is updated only through {@link #applyTo(OtcOffer)}.
+ */
+@Entity
+@Table(name = "otc_offer_events", indexes = @Index(name = "idx_otc_offer_events_offer", columnList = "offer_id, id"))
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OtcOfferEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "offer_id", nullable = false, updatable = false)
+    private OtcOffer offer;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OtcOfferEventType type;
+
+    @Column(nullable = false, updatable = false)
+    private Long actorId;
+
+    // uslovi ponude posle ovog dogadjaja
+    @Column(updatable = false)
+    private Integer amount;
+    @Column(updatable = false)
+    private BigDecimal pricePerStock;
+    @Column(updatable = false)
+    private BigDecimal premium;
+    @Column(updatable = false)
+    private LocalDate settlementDate;
+
+    // verzija reda ponude koju je ovaj dogadjaj proizveo
+    @Column(nullable = false, updatable = false)
+    private Long offerVersion;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public void applyTo(OtcOffer target) {
+        target.setAmount(amount);
+        target.setPricePerStock(pricePerStock);
+        target.setPremium(premium);
+        target.setSettlementDate(settlementDate);
+        target.setStatus(type.resultingStatus());
+        target.setLastModified(createdAt);
+        target.setLastModifiedById(actorId);
+    }
+}
@@ -1,6 +1,7 @@
 package rs.raf.stock_service.domain.entity;
 
 import lombok.*;
+import rs.raf.stock_service.domain.enums.OtcOptionStatus;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -31,6 +32,11 @@ public class OtcOption {
 
     private boolean used;
 
+    // EXPIRED is set in bulk by the end of day job once settlementDate has passed unexercised
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    private OtcOptionStatus status = OtcOptionStatus.VALID;
+
     @OneToOne(mappedBy = "otcOption", cascade = CascadeType.ALL)
     private OtcOffer otcOffer;
 }
\ No newline at end of file
@@ -33,11 +33,18 @@ public class PortfolioEntry {
 
     private Integer publicAmount = 0;
 
+    @Builder.Default
+    private Integer reservedAmount = 0;   // javne akcije zakljucane dok traje izvrsenje OTC opcije
+
     private Boolean inTheMoney = false;    // Za opcije
 
     private Boolean used = false;          // Za opcije
 
     private LocalDateTime lastModified;
 
+    // optimisticko zakljucavanje: i bulk rezervacije u PortfolioEntryRepository ga povecavaju
+    @Version
+    private Long version;
+
     // moze se npr i dodati i currentProfit, ali bolje ga izračunavati na getPortfolio pozivu
 }
@@ -0,0 +1,56 @@
+package rs.raf.stock_service.domain.entity;
+
+import lombok.*;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A user's alert on one listing's price. Fires once: when triggered it is deactivated and kept as history.
+ * A triggered alert without {@code notifiedAt} is waiting for its notification to be confirmed by the broker.
+ */
+@Entity
+@Table(name = "price_alerts", indexes = {
+        @Index(name = "idx_price_alerts_user", columnList = "userId"),
+        @Index(name = "idx_price_alerts_active", columnList = "active"),
+        @Index(name = "idx_price_alerts_notified", columnList = "notifiedAt, triggeredAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceAlert {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long userId;
+
+    // where the notification goes, taken from the token when the alert is created
+    @Column(nullable = false, updatable = false)
+    private String email;
+
+    @Column(nullable = false, updatable = false)
+    private Long listingId;
+
+    @Column(nullable = false, updatable = false)
+    private String ticker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private PriceAlertDirection direction;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal targetPrice;
+
+    private boolean active;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime triggeredAt;
+    private BigDecimal triggeredPrice;
+    private LocalDateTime notifiedAt;
+}
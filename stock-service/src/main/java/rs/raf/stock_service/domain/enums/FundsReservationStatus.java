@@ -0,0 +1,6 @@
+package rs.raf.stock_service.domain.enums;
+
+public enum FundsReservationStatus {
+    RESERVED, COMMITTED, RELEASED,
+    REJECTED // returned when the buyer can't cover the amount, never stored
+}
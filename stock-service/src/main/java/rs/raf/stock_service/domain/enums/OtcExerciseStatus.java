@@ -0,0 +1,10 @@
+package rs.raf.stock_service.domain.enums;
+
+public enum OtcExerciseStatus {
+    STARTED,         // option claimed, nothing reserved yet
+    SHARES_RESERVED, // seller's public shares moved to reserved, buyer funds being reserved
+    COMMITTING,      // both sides reserved, the outcome is decided and only moves forward
+    COMPENSATING,    // a reservation failed, everything taken so far is being given back
+    COMMITTED,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package rs.raf.stock_service.domain.enums;
+
+public enum OtcOfferEventType {
+    CREATED,
+    COUNTERED,
+    ACCEPTED,
+    REJECTED,
+    CANCELLED;
+
+    public OtcOfferStatus resultingStatus() {
+        return switch (this) {
+            case CREATED, COUNTERED -> OtcOfferStatus.PENDING;
+            case ACCEPTED -> OtcOfferStatus.ACCEPTED;
+            case REJECTED -> OtcOfferStatus.REJECTED;
+            case CANCELLED -> OtcOfferStatus.CANCELLED;
+        };
+    }
+}
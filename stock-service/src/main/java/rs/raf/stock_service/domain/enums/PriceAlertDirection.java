@@ -0,0 +1,6 @@
+package rs.raf.stock_service.domain.enums;
+
+public enum PriceAlertDirection {
+    ABOVE, // triggers once the price reaches the target or goes over it
+    BELOW  // triggers once the price reaches the target or falls under it
+}
@@ -0,0 +1,27 @@
+package rs.raf.stock_service.domain.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum PriceRollupResolution {
+    HOURLY("hour", ChronoUnit.HOURS),
+    DAILY("day", ChronoUnit.DAYS);
+
+    // date_trunc field the bars are bucketed by
+    private final String truncation;
+    private final ChronoUnit unit;
+
+    PriceRollupResolution(String truncation, ChronoUnit unit) {
+        this.truncation = truncation;
+        this.unit = unit;
+    }
+
+    public String getTruncation() {
+        return truncation;
+    }
+
+    // the same bucket date_trunc puts the time in
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+}
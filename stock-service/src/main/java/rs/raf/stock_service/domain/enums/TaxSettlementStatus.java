@@ -0,0 +1,5 @@
+package rs.raf.stock_service.domain.enums;
+
+public enum TaxSettlementStatus {
+    SETTLED, INSUFFICIENT_FUNDS, FAILED
+}
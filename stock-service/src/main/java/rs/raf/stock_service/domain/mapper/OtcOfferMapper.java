@@ -26,6 +26,8 @@ public class OtcOfferMapper {
                 .premium(offer.getPremium())
                 .settlementDate(offer.getSettlementDate())
                 .status(offer.getStatus())
+                .lastModified(offer.getLastModified())
+                .version(offer.getVersion())
                 .canInteract(canInteract)
                 .build();
     }
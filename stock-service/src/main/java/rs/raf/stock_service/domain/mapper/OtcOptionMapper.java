@@ -34,7 +34,8 @@ public class OtcOptionMapper {
                         .format(DateTimeFormatter.ofPattern("dd.MM.yyyy")))
                 .sellerInfo(sellerInfo)
                 .profit(profit)
-                .status(option.getSettlementDate().isBefore(LocalDate.now()) ? OtcOptionStatus.EXPIRED : OtcOptionStatus.VALID)
+                .status(option.getStatus() == OtcOptionStatus.EXPIRED || option.getSettlementDate().isBefore(LocalDate.now())
+                        ? OtcOptionStatus.EXPIRED : OtcOptionStatus.VALID)
                 .used(option.isUsed())
                 .build();
     }
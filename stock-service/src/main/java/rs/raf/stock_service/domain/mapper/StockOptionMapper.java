@@ -1,6 +1,7 @@
 package rs.raf.stock_service.domain.mapper;
 
 import org.springframework.stereotype.Component;
+import rs.raf.stock_service.domain.dto.OptionDto;
 import rs.raf.stock_service.domain.dto.StockDto;
 import rs.raf.stock_service.domain.dto.StockOptionDto;
 import rs.raf.stock_service.domain.entity.Option;
@@ -10,11 +11,52 @@ import rs.raf.stock_service.domain.entity.Stock;
 public class StockOptionMapper {
 
     public StockOptionDto toDto(Option option) {
-        return new StockOptionDto(
+        StockOptionDto dto = new StockOptionDto(
                 option.getStrikePrice(),
                 option.getImpliedVolatility(),
                 option.getOpenInterest(),
                 option.getOptionType().name()
         );
+        dto.setTicker(option.getTicker());
+        dto.setPrice(option.getPrice());
+        dto.setListingId(option.getId());
+        return dto;
+    }
+
+    public StockOptionDto toDto(OptionDto option) {
+        StockOptionDto dto = new StockOptionDto(
+                option.getStrikePrice(),
+                option.getImpliedVolatility(),
+                openInterest(option.getTicker()),
+                option.getOptionType().name()
+        );
+        dto.setTicker(option.getTicker());
+        dto.setPrice(option.getPrice());
+        dto.setDelta(option.getDelta());
+        dto.setGamma(option.getGamma());
+        dto.setVega(option.getVega());
+        dto.setTheta(option.getTheta());
+        return dto;
+    }
+
+    public Option toEntity(OptionDto dto, Stock underlyingStock) {
+        Option option = new Option();
+        option.setUnderlyingStock(underlyingStock);
+        option.setOptionType(dto.getOptionType());
+        option.setStrikePrice(dto.getStrikePrice());
+        option.setContractSize(dto.getContractSize());
+        option.setSettlementDate(dto.getSettlementDate());
+        option.setMaintenanceMargin(dto.getMaintenanceMargin());
+        option.setPrice(dto.getPrice());
+        option.setTicker(dto.getTicker());
+        option.setImpliedVolatility(dto.getImpliedVolatility());
+        option.setOpenInterest(openInterest(dto.getTicker()));
+        option.setOnSale(true);
+        return option;
+    }
+
+    // generated contracts have no real open interest; derive a stable value so it doesn't change per request
+    private int openInterest(String ticker) {
+        return Math.floorMod(ticker.hashCode(), 500) + 100;
     }
 }
@@ -1,58 +1,37 @@
 package rs.raf.stock_service.domain.mapper;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import rs.raf.stock_service.domain.dto.TimeSeriesDto;
 import rs.raf.stock_service.domain.entity.ForexPair;
 import rs.raf.stock_service.domain.entity.Listing;
+import rs.raf.stock_service.utils.PriceBarBuffer;
+import rs.raf.stock_service.utils.TimeSeriesDecoder;
 
-import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @AllArgsConstructor
 public class TimeSeriesMapper {
 
-    private final ObjectMapper objectMapper;
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public TimeSeriesDto mapJsonToCustomTimeSeries(String jsonResponse, Listing listing) {
         try {
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-
-            // Provera da li je JSON prazan ili sadrži grešku
-            if (rootNode.has("Error Message")) {
-                throw new IllegalArgumentException("API Error: " + rootNode.get("Error Message").asText());
-            }
-
-            // Dohvatanje time series podataka (prva ključna vrednost)
-            String timeSeriesKey = getTimeSeriesKey(rootNode);
-            JsonNode timeSeriesData = rootNode.get(timeSeriesKey);
-
-            List<TimeSeriesDto.TimeSeriesValueDto> values = new ArrayList<>();
-            for (String datetime : getDateKeys(timeSeriesData)) {
-                JsonNode data = timeSeriesData.get(datetime);
-
-                TimeSeriesDto.TimeSeriesValueDto valueDto = new TimeSeriesDto.TimeSeriesValueDto();
-                valueDto.setDatetime(datetime);
-                valueDto.setOpen(new BigDecimal(data.get("1. open").asText()));
-                valueDto.setHigh(new BigDecimal(data.get("2. high").asText()));
-                valueDto.setLow(new BigDecimal(data.get("3. low").asText()));
-                valueDto.setClose(new BigDecimal(data.get("4. close").asText()));
-                valueDto.setVolume(data.has("5. volume") ? data.get("5. volume").asLong() : 0L);
-
-                values.add(valueDto);
-            }
+            PriceBarBuffer bars = new PriceBarBuffer();
+            Map<String, String> meta = new HashMap<>();
+            TimeSeriesDecoder.decode(jsonResponse, bars, meta);
 
             TimeSeriesDto timeSeriesDto = new TimeSeriesDto();
-            timeSeriesDto.setValues(values);
+            timeSeriesDto.setValues(toValues(bars));
             timeSeriesDto.setStatus("success");
 
             // Dodavanje meta podataka
-            timeSeriesDto.setMeta(createMetaData(rootNode, listing));
+            timeSeriesDto.setMeta(createMetaData(meta, listing));
 
             return timeSeriesDto;
         } catch (Exception e) {
@@ -60,15 +39,32 @@ public class TimeSeriesMapper {
         }
     }
 
+    /**
+     * DTO view of decoded bars, for the API responses that still return {@link TimeSeriesDto}.
+     */
+    public static List<TimeSeriesDto.TimeSeriesValueDto> toValues(PriceBarBuffer bars) {
+        List<TimeSeriesDto.TimeSeriesValueDto> values = new ArrayList<>(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            TimeSeriesDto.TimeSeriesValueDto valueDto = new TimeSeriesDto.TimeSeriesValueDto();
+            valueDto.setDatetime(bars.dateTime(i).format(DATETIME));
+            valueDto.setOpen(bars.open(i));
+            valueDto.setHigh(bars.high(i));
+            valueDto.setLow(bars.low(i));
+            valueDto.setClose(bars.close(i));
+            valueDto.setVolume(bars.volume(i));
+            values.add(valueDto);
+        }
+        return values;
+    }
+
     // Kreiranje meta podataka na osnovu odgovora iz API-ja
-    private TimeSeriesDto.MetaDto createMetaData(JsonNode rootNode, Listing listing) {
+    private TimeSeriesDto.MetaDto createMetaData(Map<String, String> meta, Listing listing) {
         TimeSeriesDto.MetaDto metaDto = new TimeSeriesDto.MetaDto();
-        JsonNode metaNode = rootNode.path("Meta Data");
 
-        if (!metaNode.isMissingNode()) {
-            metaDto.setSymbol(metaNode.path("2. From Symbol").asText() + "/" + metaNode.path("3. To Symbol").asText());
-            metaDto.setInterval(metaNode.path("4. Interval").asText());
-            metaDto.setCurrency(metaNode.path("5. Output Size").asText());
+        if (meta.containsKey("2. From Symbol")) {
+            metaDto.setSymbol(meta.get("2. From Symbol") + "/" + meta.getOrDefault("3. To Symbol", ""));
+            metaDto.setInterval(meta.getOrDefault("4. Interval", ""));
+            metaDto.setCurrency(meta.getOrDefault("5. Output Size", ""));
             metaDto.setType("Forex");
             metaDto.setExchange("Forex Exchange");
 
@@ -79,22 +75,4 @@ public class TimeSeriesMapper {
         }
         return metaDto;
     }
-
-    // Vraća ključ za time series podatke (npr. "Time Series FX (5min)")
-    private String getTimeSeriesKey(JsonNode rootNode) {
-        for (Iterator<String> it = rootNode.fieldNames(); it.hasNext(); ) {
-            String key = it.next();
-            if (key.startsWith("Time Series FX")) {
-                return key;
-            }
-        }
-        throw new IllegalArgumentException("Time Series data not found in API response.");
-    }
-
-    // Dobijanje ključeva koji predstavljaju datume (timestampove) u JSON-u
-    private List<String> getDateKeys(JsonNode timeSeriesData) {
-        List<String> dateKeys = new ArrayList<>();
-        timeSeriesData.fieldNames().forEachRemaining(dateKeys::add);
-        return dateKeys;
-    }
 }
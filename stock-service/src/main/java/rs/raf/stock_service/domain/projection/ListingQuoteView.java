@@ -0,0 +1,15 @@
+package rs.raf.stock_service.domain.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns a price refresh reads from a listing row, so refresh cycles select three columns
+ * instead of loading whole entities together with their exchange.
+ */
+public interface ListingQuoteView {
+    Long getId();
+
+    String getTicker();
+
+    BigDecimal getPrice();
+}
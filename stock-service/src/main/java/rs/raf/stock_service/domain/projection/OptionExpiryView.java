@@ -0,0 +1,7 @@
+package rs.raf.stock_service.domain.projection;
+
+public interface OptionExpiryView {
+    Long getId();
+
+    String getTicker();
+}
@@ -0,0 +1,8 @@
+package rs.raf.stock_service.domain.projection;
+
+/**
+ * A stock's quote columns; the volume is needed to tell whether a fetched quote changed.
+ */
+public interface StockQuoteView extends ListingQuoteView {
+    long getVolume();
+}
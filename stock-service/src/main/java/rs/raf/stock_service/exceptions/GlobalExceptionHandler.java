@@ -34,6 +34,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(OptionNotFoundException.class)
+    public ResponseEntity<ErrorMessageDto> handleOptionNotFoundException(OptionNotFoundException ex) {
+        ErrorMessageDto error = new ErrorMessageDto(ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler({ApiException.class, ExchangeRateConversionException.class, LatestRatesNotFoundException.class})
     public ResponseEntity<ErrorMessageDto> handleApiException(ApiException ex) {
         ErrorMessageDto error = new ErrorMessageDto(ex.getMessage());
@@ -0,0 +1,7 @@
+package rs.raf.stock_service.exceptions;
+
+public class InsufficientSharesException extends RuntimeException {
+    public InsufficientSharesException(int requested, int available) {
+        super("Cannot sell " + requested + " shares, only " + available + " are owned and not reserved for OTC exercises.");
+    }
+}
@@ -0,0 +1,7 @@
+package rs.raf.stock_service.exceptions;
+
+public class OtcExerciseException extends RuntimeException {
+    public OtcExerciseException(String message) {
+        super(message);
+    }
+}
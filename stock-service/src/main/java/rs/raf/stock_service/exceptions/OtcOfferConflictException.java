@@ -0,0 +1,7 @@
+package rs.raf.stock_service.exceptions;
+
+public class OtcOfferConflictException extends RuntimeException {
+    public OtcOfferConflictException(Long offerId) {
+        super("Offer " + offerId + " was changed in the meantime, reload it and try again.");
+    }
+}
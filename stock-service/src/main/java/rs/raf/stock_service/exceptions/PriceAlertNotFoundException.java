@@ -0,0 +1,11 @@
+package rs.raf.stock_service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PriceAlertNotFoundException extends RuntimeException {
+    public PriceAlertNotFoundException(Long id) {
+        super("Price alert with ID " + id + " not found.");
+    }
+}
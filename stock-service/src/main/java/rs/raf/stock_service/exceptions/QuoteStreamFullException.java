@@ -0,0 +1,7 @@
+package rs.raf.stock_service.exceptions;
+
+public class QuoteStreamFullException extends RuntimeException {
+    public QuoteStreamFullException(int maxSubscribers) {
+        super("All " + maxSubscribers + " quote streams are in use, try again later.");
+    }
+}
@@ -0,0 +1,7 @@
+package rs.raf.stock_service.exceptions;
+
+public class TaxSettlementInProgressException extends RuntimeException {
+    public TaxSettlementInProgressException() {
+        super("Tax settlement is already running.");
+    }
+}
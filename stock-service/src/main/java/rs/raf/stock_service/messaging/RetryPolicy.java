@@ -0,0 +1,20 @@
+package rs.raf.stock_service.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Bounded exponential retry schedule shared by queue declarations and the recoverer.
+ */
+@Getter
+@AllArgsConstructor
+public class RetryPolicy {
+    private int maxAttempts;
+    private long initialDelay;
+    private double multiplier;
+    private long maxDelay;
+
+    public long delayFor(int attempt) {
+        return RetryableQueues.retryDelay(initialDelay, multiplier, maxDelay, attempt);
+    }
+}
@@ -1,10 +1,12 @@
 package rs.raf.stock_service.repository;
 
-
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import rs.raf.stock_service.domain.entity.Country;
+import rs.raf.stock_service.domain.projection.CountryIdView;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +15,8 @@ public interface CountryRepository extends JpaRepository<Country, Long> {
     Long countByName(String name);
 
     Optional<Country> findByName(String name);
+
+    // ids by name for bulk imports, without loading the countries' holidays
+    @Query("SELECT c.id AS id, c.name AS name FROM Country c")
+    List<CountryIdView> findAllIds();
 }
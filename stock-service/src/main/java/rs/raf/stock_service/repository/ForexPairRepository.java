@@ -0,0 +1,15 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.entity.ForexPair;
+import rs.raf.stock_service.domain.projection.ListingQuoteView;
+
+import java.util.List;
+
+@Repository
+public interface ForexPairRepository extends JpaRepository<ForexPair, Long> {
+    @Query("SELECT f.id AS id, f.ticker AS ticker, f.price AS price FROM ForexPair f")
+    List<ListingQuoteView> findAllQuotes();
+}
@@ -1,10 +1,15 @@
 package rs.raf.stock_service.repository;
 
-
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import rs.raf.stock_service.domain.entity.Holiday;
 
+import java.util.Set;
+
 @Repository
 public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+
+    @Query("SELECT DISTINCT h.country.id FROM Holiday h")
+    Set<Long> findAllCountryIds();
 }
@@ -1,9 +1,11 @@
 package rs.raf.stock_service.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.dto.LatestBarDto;
 import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.ListingPriceHistory;
 
@@ -15,10 +17,18 @@ import java.util.Set;
 public interface ListingPriceHistoryRepository extends JpaRepository<ListingPriceHistory, Long> {
     ListingPriceHistory findTopByListingOrderByDateDesc(Listing listing);
 
-    List<ListingPriceHistory> findAllByListingOrderByDateDesc(Listing listing);
+    List<ListingPriceHistory> findAllByListingAndDateBeforeOrderByDateDesc(Listing listing, LocalDateTime before,
+                                                                          Pageable pageable);
+
+    ListingPriceHistory findTopByListingOrderByDateAsc(Listing listing);
+
     boolean existsByListingAndDate(Listing listing, LocalDateTime date);
 
     @Query("SELECT l.date FROM ListingPriceHistory l WHERE l.listing.id = :listingId")
     Set<LocalDateTime> findDatesByListingId(@Param("listingId") Long listingId);
 
+    @Query("SELECT new rs.raf.stock_service.domain.dto.LatestBarDto(l.listing.id, MAX(l.date)) " +
+            "FROM ListingPriceHistory l GROUP BY l.listing.id")
+    List<LatestBarDto> findLatestDates();
+
 }
@@ -0,0 +1,16 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.entity.ListingPriceRollup;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ListingPriceRollupRepository extends JpaRepository<ListingPriceRollup, Long> {
+    List<ListingPriceRollup> findAllByListingIdAndResolutionAndBucketBeforeOrderByBucketDesc(
+            Long listingId, PriceRollupResolution resolution, LocalDateTime before, Pageable pageable);
+}
@@ -2,13 +2,23 @@ package rs.raf.stock_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.dto.ListingSearchEntryDto;
 import rs.raf.stock_service.domain.entity.Listing;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {
     Optional<Listing> findByTicker(String ticker);
 
+    // options are generated per underlying and never searched by name, so they stay out of the index
+    @Query("SELECT new rs.raf.stock_service.domain.dto.ListingSearchEntryDto(l.id, l.ticker, l.name, l.type, c.name) " +
+            "FROM Listing l LEFT JOIN l.exchange e LEFT JOIN e.polity c " +
+            "WHERE l.id > :afterId AND l.type <> rs.raf.stock_service.domain.enums.ListingType.OPTION ORDER BY l.id")
+    List<ListingSearchEntryDto> findSearchEntriesAfter(@Param("afterId") Long afterId);
+
 }
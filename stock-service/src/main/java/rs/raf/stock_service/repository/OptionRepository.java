@@ -5,12 +5,15 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.Option;
 import rs.raf.stock_service.domain.entity.Stock;
 import rs.raf.stock_service.domain.enums.OptionType;
+import rs.raf.stock_service.domain.projection.OptionExpiryView;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -36,4 +39,12 @@ public interface OptionRepository extends JpaRepository<Option, Long> {
     @Query("SELECT o.ticker FROM Option o")
     Set<String> findAllTickers();
 
+    @Query("SELECT o.id AS id, o.ticker AS ticker FROM Option o WHERE o.settlementDate < :date")
+    List<OptionExpiryView> findAllExpiredBefore(@Param("date") LocalDate date);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Option o SET o.onSale = false WHERE o.onSale = true AND o.ticker IN :tickers")
+    int takeOffSale(@Param("tickers") Collection<String> tickers);
+
 }
@@ -3,10 +3,20 @@ package rs.raf.stock_service.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.stock_service.domain.dto.ActuaryProfitDto;
+import rs.raf.stock_service.domain.dto.PendingTaxDto;
 import rs.raf.stock_service.domain.entity.Order;
 import rs.raf.stock_service.domain.enums.OrderDirection;
 import rs.raf.stock_service.domain.enums.OrderStatus;
+import rs.raf.stock_service.domain.enums.TaxStatus;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -15,5 +25,33 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findAllByUserId(Long userId);
     List<Order> findAllByDirection(OrderDirection orderDirection);
 
-}
+    @Query("SELECT COALESCE(SUM(o.taxAmount), 0) FROM Order o WHERE o.userId = :userId AND o.taxStatus = :taxStatus " +
+            "AND o.lastModification >= :from AND o.lastModification < :to")
+    BigDecimal sumTaxAmount(@Param("userId") Long userId, @Param("taxStatus") TaxStatus taxStatus,
+                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(o.profit), 0) FROM Order o WHERE o.userId = :userId " +
+            "AND o.direction = rs.raf.stock_service.domain.enums.OrderDirection.SELL AND o.isDone = true")
+    BigDecimal sumRealizedProfit(@Param("userId") Long userId);
+
+    @Query("SELECT new rs.raf.stock_service.domain.dto.ActuaryProfitDto(o.userId, COALESCE(SUM(o.profit), 0)) " +
+            "FROM Order o WHERE o.userId IN :userIds " +
+            "AND o.direction = rs.raf.stock_service.domain.enums.OrderDirection.SELL AND o.isDone = true " +
+            "GROUP BY o.userId")
+    List<ActuaryProfitDto> sumRealizedProfitByUserIds(@Param("userIds") Collection<Long> userIds);
 
+    @Query("SELECT new rs.raf.stock_service.domain.dto.PendingTaxDto(o.id, o.accountNumber, o.userId, o.taxAmount, o.taxSettlementId) " +
+            "FROM Order o WHERE o.taxStatus = rs.raf.stock_service.domain.enums.TaxStatus.PENDING " +
+            "AND o.id > :afterId ORDER BY o.id")
+    List<PendingTaxDto> findPendingTaxes(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.taxStatus = :taxStatus WHERE o.id IN :ids")
+    int updateTaxStatus(@Param("ids") Collection<Long> ids, @Param("taxStatus") TaxStatus taxStatus);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.taxSettlementId = :settlementId WHERE o.id IN :ids")
+    int assignTaxSettlement(@Param("ids") Collection<Long> ids, @Param("settlementId") String settlementId);
+}
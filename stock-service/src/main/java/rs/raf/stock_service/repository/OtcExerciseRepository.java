@@ -0,0 +1,37 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.stock_service.domain.entity.OtcExercise;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OtcExerciseRepository extends JpaRepository<OtcExercise, Long> {
+
+    List<OtcExercise> findAllByStatusInAndUpdatedAtBefore(Collection<OtcExerciseStatus> statuses, LocalDateTime before);
+
+    /**
+     * Moves the exercise on only if it is still in {@code from}; 0 means someone else (the request
+     * thread or the recovery job) already did, and the caller must not repeat the step's side effects.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtcExercise e SET e.status = :to, e.updatedAt = :now WHERE e.id = :id AND e.status = :from")
+    int transition(@Param("id") Long id, @Param("from") OtcExerciseStatus from, @Param("to") OtcExerciseStatus to,
+                   @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtcExercise e SET e.status = 'COMPENSATING', e.failureReason = :reason, e.updatedAt = :now " +
+            "WHERE e.id = :id AND e.status = :from")
+    int startCompensation(@Param("id") Long id, @Param("from") OtcExerciseStatus from, @Param("reason") String reason,
+                          @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,13 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.entity.OtcOfferEvent;
+
+import java.util.List;
+
+@Repository
+public interface OtcOfferEventRepository extends JpaRepository<OtcOfferEvent, Long> {
+
+    List<OtcOfferEvent> findAllByOfferIdOrderByIdAsc(Long offerId);
+}
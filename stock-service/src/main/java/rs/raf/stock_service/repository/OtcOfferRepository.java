@@ -1,18 +1,34 @@
 package rs.raf.stock_service.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.OtcOffer;
-import rs.raf.stock_service.domain.entity.PortfolioEntry;
 import rs.raf.stock_service.domain.enums.OtcOfferStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface OtcOfferRepository extends JpaRepository<OtcOffer, Long> {
 
+    // keyset pages ordered newest first, served by idx_otc_offer_status_seller / idx_otc_offer_status_buyer
+    @EntityGraph(attributePaths = "stock")
+    @Query("SELECT o FROM OtcOffer o WHERE o.status = :status AND o.sellerId = :userId " +
+            "AND (o.lastModified < :beforeModified OR (o.lastModified = :beforeModified AND o.id < :beforeId)) " +
+            "ORDER BY o.lastModified DESC, o.id DESC")
+    List<OtcOffer> findSellerInbox(@Param("status") OtcOfferStatus status, @Param("userId") Long userId,
+                                   @Param("beforeModified") LocalDateTime beforeModified,
+                                   @Param("beforeId") Long beforeId, Pageable pageable);
 
-    List<OtcOffer> findAllByStatus(OtcOfferStatus status);
+    @EntityGraph(attributePaths = "stock")
+    @Query("SELECT o FROM OtcOffer o WHERE o.status = :status AND o.buyerId = :userId " +
+            "AND (o.lastModified < :beforeModified OR (o.lastModified = :beforeModified AND o.id < :beforeId)) " +
+            "ORDER BY o.lastModified DESC, o.id DESC")
+    List<OtcOffer> findBuyerInbox(@Param("status") OtcOfferStatus status, @Param("userId") Long userId,
+                                  @Param("beforeModified") LocalDateTime beforeModified,
+                                  @Param("beforeId") Long beforeId, Pageable pageable);
 }
@@ -1,10 +1,13 @@
 package rs.raf.stock_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.stock_service.domain.entity.OtcOption;
+import rs.raf.stock_service.domain.enums.OtcOptionStatus;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,11 +24,32 @@ public interface OtcOptionRepository extends JpaRepository<OtcOption, Long> {
             @Param("currentDate") LocalDate currentDate
     );
 
+    // opcija se moze iskoristiti i na sam dan poravnanja
     @Query("SELECT o FROM OtcOption o WHERE " +
             "o.buyerId = :buyerId AND " +
-            "o.used = false AND o.settlementDate > :currentDate")
+            "o.used = false AND o.settlementDate >= :currentDate")
     List<OtcOption> findAllValid(
             @Param("buyerId") Long buyerId,
             @Param("currentDate") LocalDate currentDate
     );
+
+    /**
+     * Marks the option used if nobody did so first; 0 means another exercise already holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtcOption o SET o.used = true WHERE o.id = :id AND o.used = false " +
+            "AND o.status = :valid AND o.settlementDate >= :today")
+    int claim(@Param("id") Long id, @Param("valid") OtcOptionStatus valid, @Param("today") LocalDate today);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtcOption o SET o.used = false WHERE o.id = :id AND o.used = true")
+    int unclaim(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtcOption o SET o.status = :expired WHERE o.used = false AND o.status <> :expired " +
+            "AND o.settlementDate < :today")
+    int expireUnused(@Param("expired") OtcOptionStatus expired, @Param("today") LocalDate today);
 }
@@ -1,8 +1,12 @@
 package rs.raf.stock_service.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.enums.ListingType;
 import rs.raf.stock_service.domain.entity.PortfolioEntry;
@@ -15,6 +19,7 @@ import java.util.Set;
 @Repository
 public interface PortfolioEntryRepository extends JpaRepository<PortfolioEntry, Long> {
 
+    @EntityGraph(attributePaths = "listing")
     List<PortfolioEntry> findAllByUserId(Long userId);
 
     Optional<PortfolioEntry> findByUserIdAndListing(Long userId, Listing listing);
@@ -29,4 +34,23 @@ public interface PortfolioEntryRepository extends JpaRepository<PortfolioEntry,
 
     @Query("SELECT e.listing.ticker FROM PortfolioEntry e WHERE e.type = 'OPTION'")
     Set<String> findAllOptionTickersInUse();
+
+    @Query("SELECT DISTINCT e.listing.id FROM PortfolioEntry e WHERE e.type = 'FOREX' AND e.amount > 0")
+    Set<Long> findAllHeldForexListingIds();
+
+    // javne akcije -> rezervisane, samo ako ih ima dovoljno; 0 znaci da nema
+    // bulk update zaobilazi entitet: verzija se povecava rucno, a valuaciju osvezava pozivalac
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PortfolioEntry e SET e.publicAmount = e.publicAmount - :amount, " +
+            "e.reservedAmount = COALESCE(e.reservedAmount, 0) + :amount, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.publicAmount >= :amount")
+    int reservePublic(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PortfolioEntry e SET e.publicAmount = e.publicAmount + :amount, " +
+            "e.reservedAmount = e.reservedAmount - :amount, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.reservedAmount >= :amount")
+    int releaseReserved(@Param("id") Long id, @Param("amount") Integer amount);
 }
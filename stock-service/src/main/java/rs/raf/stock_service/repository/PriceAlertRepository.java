@@ -0,0 +1,40 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.stock_service.domain.entity.PriceAlert;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+
+    List<PriceAlert> findAllByActiveTrue();
+
+    List<PriceAlert> findAllByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Optional<PriceAlert> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT a FROM PriceAlert a WHERE a.notifiedAt IS NULL AND a.triggeredAt IS NOT NULL ORDER BY a.id")
+    List<PriceAlert> findUnnotified(Pageable pageable);
+
+    /**
+     * Deactivates the alerts that are still active and returns how many were; already triggered or
+     * deleted ones are left alone.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PriceAlert a SET a.active = false, a.triggeredAt = :now, a.triggeredPrice = :price " +
+            "WHERE a.id IN :ids AND a.active = true")
+    int markTriggered(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price,
+                      @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package rs.raf.stock_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.projection.StockQuoteView;
+
+import java.util.List;
+
+@Repository
+public interface StockRepository extends JpaRepository<Stock, Long> {
+    @Query("SELECT s.id AS id, s.ticker AS ticker, s.price AS price, s.volume AS volume FROM Stock s")
+    List<StockQuoteView> findAllQuotes();
+}
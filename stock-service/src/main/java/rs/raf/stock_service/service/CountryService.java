@@ -2,48 +2,51 @@ package rs.raf.stock_service.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import rs.raf.stock_service.domain.entity.Country;
 import rs.raf.stock_service.repository.CountryRepository;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.sql.Time;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
 public class CountryService {
 
+    private static final String INSERT_COUNTRY = "INSERT INTO country (name, open_time, close_time) VALUES (?, ?, ?)";
+
     private CountryRepository countryRepository;
+    private JdbcTemplate jdbcTemplate;
 
+    /**
+     * Countries of the exchanges in {@code exchanges2.csv}, read in one pass and written as one JDBC batch.
+     * The first exchange listed for a country sets its trading hours.
+     */
     public void importCountries() {
-        BufferedReader bufferedReader;
-        String line;
         if (countryRepository.count() == 0) {
-            try {
-                bufferedReader = new BufferedReader(new InputStreamReader(new ClassPathResource("exchanges2.csv").getInputStream()));
-                line = bufferedReader.readLine();
+            Map<String, Object[]> countries = new LinkedHashMap<>();
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ClassPathResource("exchanges2.csv").getInputStream()))) {
+                bufferedReader.readLine();
 
+                String line;
                 while ((line = bufferedReader.readLine()) != null) {
-                    Country country = new Country();
                     String[] attributes = line.split(",");
-
-                    if (attributes[3].equalsIgnoreCase("usa")) {
-                        country.setName("United States");
-                    } else {
-                        country.setName(attributes[3]);
-                    }
-                    country.setOpenTime(LocalTime.parse(attributes[6].trim()));
-                    country.setCloseTime(LocalTime.parse(attributes[7].trim()));
-                    if (countryRepository.countByName(country.getName()) == 0) {
-                        countryRepository.save(country);
-                    }
+                    String name = attributes[3].equalsIgnoreCase("usa") ? "United States" : attributes[3];
+                    countries.putIfAbsent(name, new Object[]{name,
+                            Time.valueOf(LocalTime.parse(attributes[6].trim())),
+                            Time.valueOf(LocalTime.parse(attributes[7].trim()))});
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
 
+            jdbcTemplate.batchUpdate(INSERT_COUNTRY, new ArrayList<>(countries.values()));
         }
     }
 }
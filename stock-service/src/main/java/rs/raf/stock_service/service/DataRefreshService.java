@@ -1,259 +1,586 @@
 package rs.raf.stock_service.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import rs.raf.stock_service.domain.dto.*;
-import rs.raf.stock_service.domain.entity.*;
-import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.domain.projection.ListingQuoteView;
+import rs.raf.stock_service.domain.projection.OptionExpiryView;
+import rs.raf.stock_service.domain.projection.StockQuoteView;
 import rs.raf.stock_service.repository.*;
+import rs.raf.stock_service.utils.PriceBarBuffer;
 
-import javax.persistence.EntityManager;
-import javax.transaction.Transactional;
+import javax.annotation.PreDestroy;
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Scheduled listing refresh, run as a two stage pipeline. Fetchers on a long-lived pool call the
+ * market data APIs and put parsed quotes and bars on a bounded queue; when the queue is full they
+ * block, so a slow database slows the fetching down instead of piling results up in memory. The
+ * scheduler thread is the only writer: it drains the queue into JDBC batches, so one refresh holds a
+ * single connection, and only while a batch is being written.
+ * <p>
+ * Listings are read through quote projections of the stock and forex rows only (id, ticker, price),
+ * never as entities: the writer updates rows by id, so nothing else needs to be loaded.
+ * <p>
+ * Forex quotes do not go through the fetchers: all pairs are cross-rated from one pivot rates lookup
+ * ({@link ForexCrossRateService}) on the scheduler thread. Only pairs somebody recently viewed or holds
+ * get their bars fetched, plus pairs the pivot table cannot quote, which fall back to a per-pair quote.
+ */
 @Slf4j
 @Component
 public class DataRefreshService {
 
-    @Autowired private ListingRepository listingRepository;
-    @Autowired private ListingPriceHistoryRepository priceHistoryRepository;
-    @Autowired private PortfolioEntryRepository portfolioEntryRepository;
-    @Autowired private OptionRepository optionRepository;
-    @Autowired private OptionService optionService;
-    @Autowired private StocksService stocksService;
-    @Autowired private ForexService forexService;
-    @Autowired private ListingService listingService;
-    @Autowired private EntityManager entityManager;
+    private static final String UPDATE_STOCK = "UPDATE listing SET price = ?, volume = ?, change = ? WHERE id = ?";
+    private static final String UPDATE_FOREX = "UPDATE listing SET price = ?, ask = ?, liquidity = ?, exchange_rate = ?, " +
+            "last_refresh = ? WHERE id = ?";
+    private static final String INSERT_HISTORY = "INSERT INTO listing_price_history " +
+            "(listing_id, date, open, close, high, low, change, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final StockRepository stockRepository;
+    private final ForexPairRepository forexPairRepository;
+    private final ListingPriceHistoryRepository priceHistoryRepository;
+    private final PortfolioEntryRepository portfolioEntryRepository;
+    private final OptionRepository optionRepository;
+    private final OptionChainCache optionChainCache;
+    private final PortfolioValuationService portfolioValuationService;
+    private final QuoteStreamService quoteStreamService;
+    private final PriceAlertService priceAlertService;
+    private final StocksService stocksService;
+    private final ForexService forexService;
+    private final ForexCrossRateService forexCrossRateService;
+    private final ListingViewTracker listingViewTracker;
+    private final ListingService listingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long fetchTimeoutMillis;
+
+    private final ThreadPoolExecutor fetchers;
+    private final BlockingQueue<Fetched> queue;
+    // results of a run that timed out may still arrive during the next one, they are told apart by run
+    private final AtomicLong runs = new AtomicLong();
+    private volatile boolean stopping = false;
 
-    @Value("${refresh.thread.pool.size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
-    private int threadPoolSize;
-
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final List<String> problematicTickers = List.of("ZTST", "IGZ");
 
-    @Scheduled(initialDelay = 150000, fixedRate = 300000) // 2.5min delay zbog bootstrap data, 5min interval
-    @Transactional
+    private volatile boolean bootstrapFinished = false;
+    private volatile RefreshStatsDto lastRun;
+
+    public DataRefreshService(StockRepository stockRepository,
+                              ForexPairRepository forexPairRepository,
+                              ListingPriceHistoryRepository priceHistoryRepository,
+                              PortfolioEntryRepository portfolioEntryRepository,
+                              OptionRepository optionRepository,
+                              OptionChainCache optionChainCache,
+                              PortfolioValuationService portfolioValuationService,
+                              QuoteStreamService quoteStreamService,
+                              PriceAlertService priceAlertService,
+                              StocksService stocksService,
+                              ForexService forexService,
+                              ForexCrossRateService forexCrossRateService,
+                              ListingViewTracker listingViewTracker,
+                              ListingService listingService,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${refresh.thread.pool.size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threadPoolSize,
+                              @Value("${refresh.queue.capacity:256}") int queueCapacity,
+                              @Value("${refresh.writer.batch-size:5000}") int batchSize,
+                              @Value("${refresh.fetch-timeout-ms:600000}") long fetchTimeoutMillis) {
+        this.stockRepository = stockRepository;
+        this.forexPairRepository = forexPairRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.portfolioEntryRepository = portfolioEntryRepository;
+        this.optionRepository = optionRepository;
+        this.optionChainCache = optionChainCache;
+        this.portfolioValuationService = portfolioValuationService;
+        this.quoteStreamService = quoteStreamService;
+        this.priceAlertService = priceAlertService;
+        this.stocksService = stocksService;
+        this.forexService = forexService;
+        this.forexCrossRateService = forexCrossRateService;
+        this.listingViewTracker = listingViewTracker;
+        this.listingService = listingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchers = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "refresh-fetcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // CommandLineRunner-i (BootstrapData) se zavrsavaju pre ApplicationReadyEvent-a
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        bootstrapFinished = true;
+    }
+
+    @Scheduled(initialDelayString = "${refresh.initial-delay-ms:10000}", fixedRateString = "${refresh.interval-ms:300000}")
     public void refreshListings() {
+        if (!bootstrapFinished) {
+            log.info("Bootstrap still running, skipping listing refresh");
+            return;
+        }
+
         log.info("---- Starting scheduled listing refresh ----");
+        RefreshStatsDto stats = refresh();
+        refreshOptions();
+        log.info("---- Finished scheduled listing refresh: {} ----", stats);
+    }
+
+    public RefreshStatsDto getLastRun() {
+        return lastRun;
+    }
+
+    public RefreshStatsDto refresh() {
+        long start = System.currentTimeMillis();
+        long run = runs.incrementAndGet();
+        RefreshStatsDto stats = new RefreshStatsDto();
+        FetchStats fetchStats = new FetchStats();
+
+        List<StockQuoteView> stocks = stockRepository.findAllQuotes();
+        List<ListingQuoteView> forexPairs = forexPairRepository.findAllQuotes();
+        Map<Long, LocalDateTime> latest = priceHistoryRepository.findLatestDates().stream()
+                .collect(Collectors.toMap(LatestBarDto::getListingId, LatestBarDto::getDate));
+
+        Map<String, ForexPairDto> crossQuotes = crossQuotes(forexPairs);
+        Set<Long> historyWanted = forexPairs.isEmpty() ? Set.of() : forexHistoryWanted();
+        // cross-rated prices go into the first write batch together with whatever the fetchers return
+        List<PriceUpdate> changedForex = new ArrayList<>();
+
+        int submitted = 0;
+        for (StockQuoteView stock : stocks) {
+            submit(run, () -> fetchStock(stock, latest.get(stock.getId())), fetchStats);
+            submitted++;
+        }
+        for (ListingQuoteView pair : forexPairs) {
+            ForexPairDto quote = crossQuotes.get(pair.getTicker());
+            if (quote != null) {
+                stats.setTriangulated(stats.getTriangulated() + 1);
+                PriceUpdate update = PriceUpdate.forex(pair, quote);
+                if (update != null) {
+                    changedForex.add(update);
+                }
+            }
+            if (quote == null || historyWanted.contains(pair.getId())) {
+                submit(run, () -> fetchForex(pair, quote == null, latest.get(pair.getId())), fetchStats);
+                submitted++;
+            }
+        }
+
+        write(run, submitted, changedForex, start, stats);
+
+        stats.setFetched(fetchStats.fetched.get());
+        stats.setFailed(fetchStats.failed.get());
+        stats.setFetchMillis(fetchStats.fetchMillis.get());
+        stats.setBackpressureMillis(fetchStats.backpressureMillis.get());
+        stats.setTotalMillis(System.currentTimeMillis() - start);
+        lastRun = stats;
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        fetchers.shutdownNow();
+        try {
+            if (!fetchers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Refresh fetchers did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    private void submit(long run, Callable<Fetched> fetch, FetchStats fetchStats) {
+        fetchers.execute(() -> {
+            if (stopping) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Fetched result;
+            try {
+                result = fetch.call();
+                fetchStats.fetched.incrementAndGet();
+            } catch (Exception e) {
+                result = Fetched.EMPTY;
+                fetchStats.failed.incrementAndGet();
+            }
+            long fetched = System.currentTimeMillis();
+            fetchStats.fetchMillis.addAndGet(fetched - start);
+
+            try {
+                // every task puts exactly one item, so the writer knows when the run is complete
+                queue.put(result.forRun(run));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            fetchStats.backpressureMillis.addAndGet(System.currentTimeMillis() - fetched);
+        });
+    }
+
+    private void write(long run, int expected, List<PriceUpdate> forexPairs, long start, RefreshStatsDto stats) {
+        List<PriceUpdate> stocks = new ArrayList<>();
+        Bars bars = new Bars();
+        long deadline = start + fetchTimeoutMillis;
+
+        int received = 0;
+        while (received < expected && !stopping) {
+            stats.setMaxQueueDepth(Math.max(stats.getMaxQueueDepth(), queue.size()));
+            Fetched item;
+            try {
+                item = queue.poll(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (item == null) {
+                log.error("Listing refresh timed out with {} of {} listings fetched", received, expected);
+                break;
+            }
+            if (item.run != run) {
+                continue;
+            }
+            received++;
 
-        List<Listing> listings = listingRepository.findAll();
-        List<Stock> stocks = listings.stream().filter(s -> s instanceof Stock).map(s -> (Stock) s).toList();
-        List<ForexPair> forexPairs = listings.stream().filter(f -> f instanceof ForexPair).map(f -> (ForexPair) f).toList();
+            if (item.update != null) {
+                (item.update.stock ? stocks : forexPairs).add(item.update);
+            }
+            bars.add(item.listingId, item.bars);
 
-        refreshInParallel(stocks, this::refreshStock);
-        refreshInParallel(forexPairs, this::refreshForex);
-        refreshOptions(stocks);
+            if (bars.rows >= batchSize || stocks.size() + forexPairs.size() >= batchSize) {
+                flush(stocks, forexPairs, bars, stats);
+            }
+        }
+        flush(stocks, forexPairs, bars, stats);
+    }
+
+    private void flush(List<PriceUpdate> stocks, List<PriceUpdate> forexPairs, Bars bars, RefreshStatsDto stats) {
+        if (stocks.isEmpty() && forexPairs.isEmpty() && bars.rows == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            if (!stocks.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_STOCK, stocks, batchSize, (ps, stock) -> {
+                    ps.setBigDecimal(1, stock.price);
+                    ps.setLong(2, stock.volume);
+                    ps.setBigDecimal(3, stock.change);
+                    ps.setLong(4, stock.listingId);
+                });
+            }
+            if (!forexPairs.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_FOREX, forexPairs, batchSize, (ps, pair) -> {
+                    ps.setBigDecimal(1, pair.price);
+                    ps.setBigDecimal(2, pair.ask);
+                    ps.setString(3, pair.liquidity);
+                    ps.setBigDecimal(4, pair.exchangeRate);
+                    ps.setTimestamp(5, pair.lastRefresh != null ? Timestamp.valueOf(pair.lastRefresh) : null);
+                    ps.setLong(6, pair.listingId);
+                });
+            }
+            if (bars.rows > 0) {
+                jdbcTemplate.batchUpdate(INSERT_HISTORY, bars);
+            }
 
-        log.info("---- Finished scheduled listing refresh ----");
+            stats.setPricesWritten(stats.getPricesWritten() + stocks.size() + forexPairs.size());
+            stats.setBarsWritten(stats.getBarsWritten() + bars.rows);
+            stats.setWriteBatches(stats.getWriteBatches() + 1);
+            // valuations, streams and alerts follow the database, so only written prices are published
+            stocks.forEach(this::publishPrice);
+            forexPairs.forEach(this::publishPrice);
+        } catch (Exception e) {
+            log.error("Writing refresh batch of {} prices and {} bars failed", stocks.size() + forexPairs.size(),
+                    bars.rows, e);
+        } finally {
+            stats.setWriteMillis(stats.getWriteMillis() + System.currentTimeMillis() - start);
+            stocks.clear();
+            forexPairs.clear();
+            bars.clear();
+        }
     }
 
-    private void refreshStock(Stock stock) {
+    private void publishPrice(PriceUpdate update) {
+        portfolioValuationService.onPrice(update.listingId, update.price);
+        quoteStreamService.publish(update.toTick());
+        priceAlertService.onPrice(update.listingId, update.price);
+    }
+
+    private Fetched fetchStock(StockQuoteView stock, LocalDateTime latest) {
         if (problematicTickers.contains(stock.getTicker())) {
             log.warn("Skipping problematic stock: {}", stock.getTicker());
-            return;
+            return Fetched.EMPTY;
         }
 
         try {
+            PriceUpdate changed = null;
             StockDto dto = stocksService.getStockData(stock.getTicker());
             if (dto != null && (!dto.getPrice().equals(stock.getPrice()) || dto.getVolume() != stock.getVolume())) {
-                stock.setPrice(dto.getPrice());
-                stock.setVolume(dto.getVolume());
-                stock.setChange(dto.getChange());
-                listingRepository.save(stock);
+                changed = PriceUpdate.stock(stock, dto);
             }
 
-            TimeSeriesDto series = listingService.getPriceHistoryFromAlphaVantage(stock.getTicker(), "5min", "compact");
-            Set<LocalDateTime> existing = priceHistoryRepository.findDatesByListingId(stock.getId());
-            List<ListingPriceHistory> history = createNewHistory(stock, series, existing);
-            saveInBatches(history, 100, priceHistoryRepository::saveAllAndFlush);
-
+            PriceBarBuffer bars = listingService.getPriceBarsFromAlphaVantage(stock.getTicker(), "5min", "compact");
+            return new Fetched(stock.getId(), changed, newBars(bars, latest));
         } catch (Exception e) {
             log.error("Failed to refresh stock {}", stock.getTicker(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cross rates for all pairs from one pivot lookup; if that fails every pair is quoted on its own.
+     */
+    private Map<String, ForexPairDto> crossQuotes(List<ListingQuoteView> forexPairs) {
+        try {
+            return forexCrossRateService.quote(forexPairs.stream().map(ListingQuoteView::getTicker).toList());
+        } catch (Exception e) {
+            log.error("Pivot rates lookup failed, quoting {} forex pairs one by one", forexPairs.size(), e);
+            return Map.of();
+        }
+    }
+
+    private Set<Long> forexHistoryWanted() {
+        Set<Long> wanted = new HashSet<>(listingViewTracker.recentlyViewed());
+        try {
+            wanted.addAll(portfolioEntryRepository.findAllHeldForexListingIds());
+        } catch (Exception e) {
+            log.error("Failed to load held forex pairs", e);
         }
+        return wanted;
     }
 
-    private void refreshForex(ForexPair forex) {
+    private Fetched fetchForex(ListingQuoteView forex, boolean quote, LocalDateTime latest) {
         try {
             if (forex.getTicker() == null || !forex.getTicker().contains("/")) {
                 log.warn("Skipping invalid forex ticker: {}", forex.getTicker());
-                return;
+                return Fetched.EMPTY;
             }
 
             String[] parts = forex.getTicker().split("/");
-            System.out.println(Arrays.toString(parts));
             if (parts.length != 2) {
                 log.warn("Skipping malformed forex ticker: {}", forex.getTicker());
-                return;
+                return Fetched.EMPTY;
             }
 
-            ForexPairDto dto = forexService.getForexPair(parts[0], parts[1]);
-            if (dto != null && !dto.getPrice().equals(forex.getPrice())) {
-                forex.setPrice(dto.getPrice());
-                forex.setLiquidity(dto.getLiquidity());
-                forex.setExchangeRate(dto.getExchangeRate());
-                forex.setLastRefresh(dto.getLastRefresh());
-                listingRepository.save(forex);
+            PriceUpdate changed = null;
+            if (quote) {
+                ForexPairDto dto = forexService.getForexPair(parts[0], parts[1]);
+                if (dto != null) {
+                    changed = PriceUpdate.forex(forex, dto);
+                }
             }
 
-            TimeSeriesDto series = listingService.getForexPriceHistory(forex.getId(), "5min");
-            Set<LocalDateTime> existing = priceHistoryRepository.findDatesByListingId(forex.getId());
-            List<ListingPriceHistory> history = createNewHistory(forex, series, existing);
-            saveInBatches(history, 100, priceHistoryRepository::saveAllAndFlush);
-
+            PriceBarBuffer bars = listingService.getForexPriceBars(parts[0], parts[1], "5min");
+            return new Fetched(forex.getId(), changed, newBars(bars, latest));
         } catch (Exception e) {
             log.error("Failed to refresh forex {}", forex.getTicker(), e);
+            throw e;
         }
     }
 
-    private void refreshOptions(List<Stock> stocks) {
+    /**
+     * Option chains are generated on demand, so only stored contracts are maintained here: held ones
+     * are taken off sale and expired ones nobody holds are removed. Neither needs the contracts loaded:
+     * the first is one bulk update, the second reads only the ids and tickers of expired ones.
+     */
+    private void refreshOptions() {
         log.info("Refreshing options...");
 
         try {
             Set<String> usedOptionTickers = portfolioEntryRepository.findAllOptionTickersInUse();
+            LocalDate today = LocalDate.now();
 
-            List<Option> allOptions = optionRepository.findAll();
-
-            List<Option> usedOptions = allOptions.stream()
-                    .filter(opt -> usedOptionTickers.contains(opt.getTicker()))
-                    .toList();
-
-            usedOptions.forEach(option -> option.setOnSale(false));
-            optionRepository.saveAllAndFlush(usedOptions);
+            if (!usedOptionTickers.isEmpty()) {
+                optionRepository.takeOffSale(usedOptionTickers);
+            }
 
-            List<Option> toDelete = allOptions.stream()
+            List<Long> toDelete = optionRepository.findAllExpiredBefore(today).stream()
                     .filter(opt -> !usedOptionTickers.contains(opt.getTicker()))
+                    .map(OptionExpiryView::getId)
                     .toList();
 
             if (!toDelete.isEmpty()) {
-                optionRepository.deleteByIdInBatch(toDelete.stream().map(Option::getId).toList());
-                log.info("Deleted {} unused options (by IDs).", toDelete.size());
+                optionRepository.deleteByIdInBatch(toDelete);
+                log.info("Deleted {} expired unused options (by IDs).", toDelete.size());
             }
 
-            Set<String> tickersToRegenerate = toDelete.stream()
-                    .map(opt -> opt.getUnderlyingStock().getTicker())
-                    .collect(Collectors.toSet());
-
-            log.info("Tickers needing regeneration: {}", tickersToRegenerate);
-
-            List<Stock> stocksToRegenerate = stocks.stream()
-                    .filter(s -> tickersToRegenerate.contains(s.getTicker()))
-                    .toList();
-
-            log.info("Found {} stocks to regenerate options for.", stocksToRegenerate.size());
-
-            Set<String> existingTickers = optionRepository.findAllTickers();
-
-            List<Option> newOptions = refreshInParallel(stocksToRegenerate, stock -> {
-                try {
-                    List<OptionDto> dtos = optionService.generateOptions(stock.getTicker(), stock.getPrice());
-
-                    return dtos.stream()
-                            .filter(dto -> !existingTickers.contains(dto.getTicker()))
-                            .map(dto -> {
-                                Option o = new Option();
-                                o.setUnderlyingStock(stock);
-                                o.setOptionType(dto.getOptionType());
-                                o.setStrikePrice(dto.getStrikePrice());
-                                o.setContractSize(dto.getContractSize());
-                                o.setSettlementDate(dto.getSettlementDate());
-                                o.setMaintenanceMargin(dto.getMaintenanceMargin());
-                                o.setPrice(dto.getPrice());
-                                o.setTicker(dto.getTicker());
-                                o.setImpliedVolatility(BigDecimal.ONE);
-                                o.setOpenInterest(new Random().nextInt(500) + 100);
-                                o.setOnSale(true);
-                                return o;
-                            }).toList();
-
-                } catch (Exception e) {
-                    log.error("Failed to generate options for stock {}", stock.getTicker(), e);
-                    return List.of();
-                }
-            });
-
-            saveInBatches(newOptions, 100, optionRepository::saveAllAndFlush);
-            log.info("Inserted {} new options.", newOptions.size());
+            optionChainCache.evictExpired(today);
 
         } catch (Exception e) {
             log.error("Failed refreshing options", e);
         }
     }
 
+    // only bars after the latest stored one are new
+    private PriceBarBuffer newBars(PriceBarBuffer bars, LocalDateTime latest) {
+        if (latest != null) {
+            bars.retainAfter(PriceBarBuffer.toEpochSecond(latest));
+        }
+        return bars;
+    }
 
-    private List<ListingPriceHistory> createNewHistory(Listing listing, TimeSeriesDto dto, Set<LocalDateTime> existingDates) {
-        return dto.getValues().stream()
-                .map(value -> {
-                    LocalDateTime date = LocalDateTime.parse(value.getDatetime(), formatter);
-                    if (existingDates.contains(date)) return null;
-                    return ListingPriceHistory.builder()
-                            .listing(listing)
-                            .date(date)
-                            .open(value.getOpen())
-                            .high(value.getHigh())
-                            .low(value.getLow())
-                            .close(value.getClose())
-                            .volume(value.getVolume())
-                            .change(value.getClose().subtract(value.getOpen()))
-                            .build();
-                }).filter(Objects::nonNull).toList();
+    private static final class FetchStats {
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong fetchMillis = new AtomicLong();
+        private final AtomicLong backpressureMillis = new AtomicLong();
     }
 
-    private <T> void saveInBatches(List<T> items, int batchSize, Consumer<List<T>> saver) {
-        for (int i = 0; i < items.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, items.size());
-            saver.accept(items.subList(i, end));
-            entityManager.clear();
+    private static final class Fetched {
+        private static final Fetched EMPTY = new Fetched(null, null, new PriceBarBuffer(1));
+
+        private final long run;
+        private final Long listingId;
+        private final PriceUpdate update; // null if the quote did not change
+        private final PriceBarBuffer bars;
+
+        private Fetched(Long listingId, PriceUpdate update, PriceBarBuffer bars) {
+            this(0, listingId, update, bars);
+        }
+
+        private Fetched(long run, Long listingId, PriceUpdate update, PriceBarBuffer bars) {
+            this.run = run;
+            this.listingId = listingId;
+            this.update = update;
+            this.bars = bars;
+        }
+
+        private Fetched forRun(long run) {
+            return new Fetched(run, listingId, update, bars);
         }
     }
 
-    private <T> void refreshInParallel(List<T> items, Consumer<T> task) {
-        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize);
-        for (T item : items) {
-            executor.submit(() -> {
-                try {
-                    task.accept(item);
-                } catch (Exception e) {
-                    log.error("Parallel task error", e);
-                }
-            });
+    /**
+     * A changed quote on its way to the listing row; carries exactly the columns the update writes.
+     */
+    private static final class PriceUpdate {
+        private final long listingId;
+        private final String ticker;
+        private final boolean stock;
+        private final BigDecimal price;
+        private BigDecimal ask;
+        private long volume;
+        private BigDecimal change;
+        private String liquidity;
+        private BigDecimal exchangeRate;
+        private LocalDateTime lastRefresh;
+
+        private PriceUpdate(ListingQuoteView listing, boolean stock, BigDecimal price) {
+            this.listingId = listing.getId();
+            this.ticker = listing.getTicker();
+            this.stock = stock;
+            this.price = price;
         }
-        executor.shutdown();
-        try {
-            executor.awaitTermination(10, TimeUnit.MINUTES);
-        } catch (InterruptedException e) {
-            log.error("Parallel task timeout", e);
+
+        private static PriceUpdate stock(StockQuoteView stock, StockDto dto) {
+            PriceUpdate update = new PriceUpdate(stock, true, dto.getPrice());
+            update.volume = dto.getVolume();
+            update.change = dto.getChange();
+            return update;
+        }
+
+        // null if the quote has no price or the price did not move
+        private static PriceUpdate forex(ListingQuoteView pair, ForexPairDto dto) {
+            if (dto.getPrice() == null || dto.getPrice().equals(pair.getPrice())) {
+                return null;
+            }
+            PriceUpdate update = new PriceUpdate(pair, false, dto.getPrice());
+            update.ask = dto.getAsk();
+            update.liquidity = dto.getLiquidity();
+            update.exchangeRate = dto.getExchangeRate();
+            update.lastRefresh = dto.getLastRefresh();
+            return update;
+        }
+
+        private QuoteTickDto toTick() {
+            QuoteTickDto.QuoteTickDtoBuilder tick = QuoteTickDto.builder()
+                    .listingId(listingId)
+                    .ticker(ticker)
+                    .price(price)
+                    .ask(ask)
+                    .timestamp(lastRefresh != null ? lastRefresh : LocalDateTime.now());
+            if (stock) {
+                tick.volume(volume).change(change);
+            }
+            return tick.build();
         }
     }
 
-    private <T, R> List<R> refreshInParallel(List<T> items, Function<T, List<R>> task) {
-        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize);
-        List<Future<List<R>>> futures = new ArrayList<>();
+    /**
+     * Bars of several listings written as one JDBC batch, row i is found through the buffers' offsets.
+     */
+    private static final class Bars implements BatchPreparedStatementSetter {
+        private final List<Long> listingIds = new ArrayList<>();
+        private final List<PriceBarBuffer> buffers = new ArrayList<>();
+        private int rows;
 
-        for (T item : items) {
-            futures.add(executor.submit(() -> task.apply(item)));
+        // cursor into buffers, rows are set in order
+        private int buffer;
+        private int firstRow;
+
+        private void add(Long listingId, PriceBarBuffer bars) {
+            if (bars.isEmpty()) {
+                return;
+            }
+            listingIds.add(listingId);
+            buffers.add(bars);
+            rows += bars.size();
         }
 
-        List<R> result = new ArrayList<>();
-        for (Future<List<R>> future : futures) {
-            try {
-                result.addAll(future.get());
-            } catch (Exception e) {
-                log.error("Parallel fetch failed", e);
+        private void clear() {
+            listingIds.clear();
+            buffers.clear();
+            rows = 0;
+            buffer = 0;
+            firstRow = 0;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int row) throws SQLException {
+            if (row < firstRow) {
+                buffer = 0;
+                firstRow = 0;
+            }
+            while (row - firstRow >= buffers.get(buffer).size()) {
+                firstRow += buffers.get(buffer).size();
+                buffer++;
             }
+            PriceBarBuffer bars = buffers.get(buffer);
+            int i = row - firstRow;
+            ps.setLong(1, listingIds.get(buffer));
+            ps.setTimestamp(2, Timestamp.valueOf(bars.dateTime(i)));
+            ps.setBigDecimal(3, bars.open(i));
+            ps.setBigDecimal(4, bars.close(i));
+            ps.setBigDecimal(5, bars.high(i));
+            ps.setBigDecimal(6, bars.low(i));
+            ps.setBigDecimal(7, bars.change(i));
+            ps.setLong(8, bars.volume(i));
         }
 
-        executor.shutdown();
-        return result;
+        @Override
+        public int getBatchSize() {
+            return rows;
+        }
     }
 }
@@ -3,9 +3,11 @@ package rs.raf.stock_service.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import rs.raf.stock_service.domain.entity.Country;
 import rs.raf.stock_service.domain.entity.Exchange;
+import rs.raf.stock_service.domain.projection.CountryIdView;
 import rs.raf.stock_service.exceptions.ExchangesNotLoadedException;
 import rs.raf.stock_service.repository.CountryRepository;
 import rs.raf.stock_service.repository.ExchangeRepository;
@@ -16,42 +18,50 @@ import java.io.InputStreamReader;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class ExchangeService {
 
+    private static final String INSERT_EXCHANGE = "INSERT INTO exchange " +
+            "(mic, name, acronym, polity_id, currency_code, time_zone, test_mode) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     private ExchangeRepository exchangeRepository;
     private CountryRepository countryRepository;
+    private JdbcTemplate jdbcTemplate;
 
+    /**
+     * Exchanges from {@code exchanges2.csv} in one JDBC batch; countries are resolved from one lookup of
+     * all country ids, so {@link CountryService#importCountries()} has to run first.
+     */
     public void importExchanges() {
-        BufferedReader bufferedReader;
-        String line;
         if (exchangeRepository.count() == 0) {
-            try {
-                bufferedReader = new BufferedReader(new InputStreamReader(new ClassPathResource("exchanges2.csv").getInputStream()));
-                line = bufferedReader.readLine();
+            Map<String, Long> countryIds = countryRepository.findAllIds().stream()
+                    .collect(Collectors.toMap(CountryIdView::getName, CountryIdView::getId, (first, second) -> first));
+            List<Object[]> rows = new ArrayList<>();
+
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ClassPathResource("exchanges2.csv").getInputStream()))) {
+                bufferedReader.readLine();
 
+                String line;
                 while ((line = bufferedReader.readLine()) != null) {
-                    Exchange exchange = new Exchange();
                     String[] attributes = line.split(",");
 
-                    exchange.setMic(attributes[2]);
-                    exchange.setName(attributes[0]);
-                    exchange.setAcronym(attributes[1]);
-                    if (attributes[3].equalsIgnoreCase("usa")) {
-                        exchange.setPolity(countryRepository.findByName("United States").get());
-                    } else {
-                        exchange.setPolity(countryRepository.findByName(attributes[3]).get());
+                    String country = attributes[3].equalsIgnoreCase("usa") ? "United States" : attributes[3];
+                    Long countryId = countryIds.get(country);
+                    if (countryId == null) {
+                        throw new IllegalStateException("Country " + country + " of exchange " + attributes[2] + " is not imported");
                     }
-                    exchange.setCurrencyCode(attributes[4]);
-                    exchange.setTimeZone(getUtcOffset(attributes[5]));
-
-                    exchangeRepository.save(exchange);
+                    rows.add(new Object[]{attributes[2], attributes[0], attributes[1], countryId, attributes[4],
+                            getUtcOffset(attributes[5]), false});
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+
+            jdbcTemplate.batchUpdate(INSERT_EXCHANGE, rows);
         }
     }
 
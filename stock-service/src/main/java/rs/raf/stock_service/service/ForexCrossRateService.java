@@ -0,0 +1,97 @@
+package rs.raf.stock_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import rs.raf.stock_service.domain.dto.ForexPairDto;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quotes forex pairs from a single table of rates against a pivot currency instead of one API call per
+ * pair: the mid of BASE/QUOTE is {@code rate(QUOTE) / rate(BASE)} with both rates in units per one
+ * pivot, and bid / ask sit half the configured spread below / above it.
+ */
+@Service
+public class ForexCrossRateService {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+    private static final int SCALE = 6;
+    private static final BigDecimal BPS = BigDecimal.valueOf(10_000);
+
+    private final ForexService forexService;
+    private final String pivotCurrency;
+    private final BigDecimal halfSpread;
+
+    public ForexCrossRateService(ForexService forexService,
+                                 @Value("${forex.cross.pivot-currency:USD}") String pivotCurrency,
+                                 @Value("${forex.cross.spread-bps:10}") int spreadBps) {
+        this.forexService = forexService;
+        this.pivotCurrency = pivotCurrency;
+        this.halfSpread = BigDecimal.valueOf(spreadBps).divide(BPS.multiply(BigDecimal.valueOf(2)), PRECISION);
+    }
+
+    /**
+     * Quotes every {@code BASE/QUOTE} ticker with one rates lookup. Tickers that are malformed or name a
+     * currency missing from the pivot table are left out of the result, the caller quotes them directly.
+     */
+    public Map<String, ForexPairDto> quote(Collection<String> tickers) {
+        Map<String, ForexPairDto> quotes = new HashMap<>();
+        if (tickers.isEmpty()) {
+            return quotes;
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>(forexService.getLatestRates(pivotCurrency));
+        rates.put(pivotCurrency, BigDecimal.ONE);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (String ticker : tickers) {
+            if (ticker == null) {
+                continue;
+            }
+            String[] parts = ticker.split("/");
+            if (parts.length != 2) {
+                continue;
+            }
+            ForexPairDto dto = cross(rates, parts[0], parts[1], now);
+            if (dto != null) {
+                quotes.put(ticker, dto);
+            }
+        }
+        return quotes;
+    }
+
+    private ForexPairDto cross(Map<String, BigDecimal> rates, String base, String quote, LocalDateTime now) {
+        BigDecimal baseRate = rates.get(base);
+        BigDecimal quoteRate = rates.get(quote);
+        if (baseRate == null || quoteRate == null || baseRate.signum() <= 0 || quoteRate.signum() <= 0) {
+            return null;
+        }
+
+        BigDecimal mid = quoteRate.divide(baseRate, PRECISION);
+        BigDecimal bid = mid.multiply(BigDecimal.ONE.subtract(halfSpread), PRECISION).setScale(SCALE, RoundingMode.DOWN);
+        BigDecimal ask = mid.multiply(BigDecimal.ONE.add(halfSpread), PRECISION).setScale(SCALE, RoundingMode.UP);
+        mid = mid.setScale(SCALE, RoundingMode.HALF_EVEN);
+
+        // same contract terms as ForexService#getForexPair
+        int contractSize = 1000;
+        ForexPairDto dto = new ForexPairDto();
+        dto.setName(base + "/" + quote);
+        dto.setTicker(base + "/" + quote);
+        dto.setBaseCurrency(base);
+        dto.setQuoteCurrency(quote);
+        dto.setExchangeRate(mid);
+        dto.setLiquidity("Medium");
+        dto.setLastRefresh(now);
+        dto.setMaintenanceMargin(BigDecimal.valueOf(contractSize).multiply(mid).multiply(BigDecimal.valueOf(0.10)));
+        dto.setNominalValue(BigDecimal.valueOf(contractSize).multiply(mid));
+        dto.setAsk(ask);
+        dto.setPrice(bid);
+        return dto;
+    }
+}
@@ -0,0 +1,214 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rs.raf.stock_service.domain.dto.FuturesContractDto;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Futures reference data from {@code futures.catalog.location} (the bundled {@code future_data.csv} by
+ * default), parsed once into an immutable snapshot indexed by ticker. The file is checked every
+ * {@code futures.catalog.reload-ms} and re-parsed when it changed; a file that does not parse leaves the
+ * previous snapshot in place.
+ * <p>
+ * Settlement dates are not stored: every contract rolls to the front contract month of its cycle whose
+ * third Friday is at least {@code futures.catalog.min-days-to-settlement} days away, so a ticker has the
+ * same date on every call on a given day.
+ */
+@Slf4j
+@Component
+public class FuturesCatalog {
+
+    private static final BigDecimal INITIAL_MARGIN_RATE = new BigDecimal("0.10");
+
+    // listed contract months per catalog type, types not listed here trade the quarterly cycle
+    private static final Map<String, Set<Month>> CYCLES = Map.of(
+            "AGRICULTURE", EnumSet.of(Month.MARCH, Month.MAY, Month.JULY, Month.SEPTEMBER, Month.DECEMBER),
+            "SOFTS", EnumSet.of(Month.MARCH, Month.MAY, Month.JULY, Month.SEPTEMBER, Month.DECEMBER),
+            "ENERGY", EnumSet.allOf(Month.class),
+            "MEATS", EnumSet.of(Month.FEBRUARY, Month.APRIL, Month.JUNE, Month.AUGUST, Month.OCTOBER, Month.DECEMBER),
+            "METALS", EnumSet.of(Month.FEBRUARY, Month.APRIL, Month.JUNE, Month.AUGUST, Month.OCTOBER, Month.DECEMBER));
+    private static final Set<Month> QUARTERLY = EnumSet.of(Month.MARCH, Month.JUNE, Month.SEPTEMBER, Month.DECEMBER);
+
+    private final Resource resource;
+    private final int minDaysToSettlement;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), -1);
+
+    public FuturesCatalog(ResourceLoader resourceLoader,
+                          @Value("${futures.catalog.location:classpath:future_data.csv}") String location,
+                          @Value("${futures.catalog.min-days-to-settlement:30}") int minDaysToSettlement) {
+        this.resource = resourceLoader.getResource(location);
+        this.minDaysToSettlement = minDaysToSettlement;
+    }
+
+    @PostConstruct
+    public void load() {
+        long lastModified = lastModified();
+        try {
+            snapshot = new Snapshot(parse(), lastModified);
+            log.info("Loaded {} futures contracts from {}", snapshot.contracts.size(), resource.getDescription());
+        } catch (Exception e) {
+            throw new IllegalStateException("Error reading futures catalog " + resource.getDescription() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${futures.catalog.reload-ms:60000}", fixedDelayString = "${futures.catalog.reload-ms:60000}")
+    public void reloadIfChanged() {
+        long lastModified = lastModified();
+        if (lastModified == snapshot.lastModified) {
+            return;
+        }
+        try {
+            snapshot = new Snapshot(parse(), lastModified);
+            log.info("Futures catalog changed, reloaded {} contracts", snapshot.contracts.size());
+        } catch (Exception e) {
+            log.error("Futures catalog {} changed but could not be parsed, keeping the previous one",
+                    resource.getDescription(), e);
+        }
+    }
+
+    public List<FuturesContractDto> getContracts(LocalDate today) {
+        Snapshot current = snapshot;
+        List<FuturesContractDto> dtos = new ArrayList<>(current.contracts.size());
+        for (Contract contract : current.contracts) {
+            dtos.add(contract.toDto(today, minDaysToSettlement));
+        }
+        return dtos;
+    }
+
+    public Optional<FuturesContractDto> findByTicker(String ticker, LocalDate today) {
+        Contract contract = snapshot.byTicker.get(ticker.toUpperCase(Locale.ROOT));
+        return contract == null ? Optional.empty() : Optional.of(contract.toDto(today, minDaysToSettlement));
+    }
+
+    public int size() {
+        return snapshot.contracts.size();
+    }
+
+    /**
+     * Third Friday of the first contract month of the type's cycle that is at least {@code minDays} after
+     * {@code today}.
+     */
+    public static LocalDate settlementDate(String type, LocalDate today, int minDays) {
+        Set<Month> cycle = type != null ? CYCLES.getOrDefault(type.toUpperCase(Locale.ROOT), QUARTERLY) : QUARTERLY;
+        LocalDate earliest = today.plusDays(minDays);
+        YearMonth month = YearMonth.from(earliest);
+        while (true) {
+            if (cycle.contains(month.getMonth())) {
+                LocalDate settlement = month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(3, DayOfWeek.FRIDAY));
+                if (!settlement.isBefore(earliest)) {
+                    return settlement;
+                }
+            }
+            month = month.plusMonths(1);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // not backed by a file (e.g. inside the jar), loaded once
+            return 0;
+        }
+    }
+
+    private List<Contract> parse() throws IOException {
+        List<Contract> contracts = new ArrayList<>();
+        try (InputStream is = resource.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 5) continue;
+
+                String ticker = fields[0].trim().toUpperCase(Locale.ROOT).replaceAll("\\s+", "_");
+                int contractSize = Integer.parseInt(fields[1].trim());
+                BigDecimal maintenanceMargin = new BigDecimal(fields[3].trim());
+
+                // margin / (contractSize * 0.10)
+                BigDecimal price = maintenanceMargin
+                        .divide(new BigDecimal(contractSize), 10, RoundingMode.HALF_UP)
+                        .divide(INITIAL_MARGIN_RATE, 2, RoundingMode.HALF_UP);
+
+                contracts.add(new Contract(ticker, contractSize, fields[2].trim(), maintenanceMargin, price,
+                        fields[4].trim()));
+            }
+        }
+        return contracts;
+    }
+
+    private static final class Snapshot {
+        private final List<Contract> contracts;
+        private final Map<String, Contract> byTicker;
+        private final long lastModified;
+
+        private Snapshot(List<Contract> contracts, long lastModified) {
+            Map<String, Contract> byTicker = new HashMap<>();
+            List<Contract> unique = new ArrayList<>(contracts.size());
+            for (Contract contract : contracts) {
+                if (byTicker.putIfAbsent(contract.ticker, contract) == null) {
+                    unique.add(contract);
+                } else {
+                    log.warn("Duplicate futures ticker {} in catalog, keeping the first one", contract.ticker);
+                }
+            }
+            this.contracts = List.copyOf(unique);
+            this.byTicker = Map.copyOf(byTicker);
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class Contract {
+        private final String ticker;
+        private final int contractSize;
+        private final String contractUnit;
+        private final BigDecimal maintenanceMargin;
+        private final BigDecimal price;
+        private final String type;
+
+        private Contract(String ticker, int contractSize, String contractUnit, BigDecimal maintenanceMargin,
+                         BigDecimal price, String type) {
+            this.ticker = ticker;
+            this.contractSize = contractSize;
+            this.contractUnit = contractUnit;
+            this.maintenanceMargin = maintenanceMargin;
+            this.price = price;
+            this.type = type;
+        }
+
+        // a new dto per call, callers may change it without touching the catalog
+        private FuturesContractDto toDto(LocalDate today, int minDaysToSettlement) {
+            FuturesContractDto dto = new FuturesContractDto();
+            dto.setTicker(ticker);
+            dto.setContractSize(contractSize);
+            dto.setContractUnit(contractUnit);
+            dto.setMaintenanceMargin(maintenanceMargin);
+            dto.setPrice(price);
+            dto.setSettlementDate(settlementDate(type, today, minDaysToSettlement));
+            return dto;
+        }
+    }
+}
@@ -1,79 +1,66 @@
 package rs.raf.stock_service.service;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import rs.raf.stock_service.domain.dto.FuturesContractDto;
 import rs.raf.stock_service.domain.entity.FuturesContract;
+import rs.raf.stock_service.exceptions.FuturesContractNotFoundException;
 import rs.raf.stock_service.repository.FuturesRepository;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class FuturesService {
 
+    private final FuturesCatalog futuresCatalog;
     private final FuturesRepository futuresRepository;
 
     public FuturesContractDto getFuturesContractByTicker(String ticker) {
-        FuturesContract fc = futuresRepository.findByTicker(ticker.toUpperCase())
-                .orElseThrow(() -> new RuntimeException("Futures contract not found for ticker: " + ticker));
-
-        FuturesContractDto dto = new FuturesContractDto();
-        dto.setTicker(fc.getTicker());
-        dto.setContractSize(fc.getContractSize());
-        dto.setContractUnit(fc.getContractUnit());
-        dto.setMaintenanceMargin(fc.getMaintenanceMargin());
-        dto.setSettlementDate(fc.getSettlementDate());
-        dto.setPrice(fc.getPrice());
-
-        return dto;
+        return futuresCatalog.findByTicker(ticker, LocalDate.now())
+                .orElseThrow(() -> new FuturesContractNotFoundException("Futures contract not found for ticker: " + ticker));
     }
 
-    @Transactional
     public List<FuturesContractDto> getFuturesContracts() {
-        List<FuturesContractDto> dtos = new ArrayList<>();
-        try (InputStream is = getClass().getResourceAsStream("/future_data.csv");
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-
-            reader.readLine();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-                if (fields.length < 5) continue;
-
-                String contractName = fields[0].trim();
-                int contractSize = Integer.parseInt(fields[1].trim());
-                String contractUnit = fields[2].trim();
-                BigDecimal maintenanceMargin = new BigDecimal(fields[3].trim());
-
-                // margin / (contractSize * 0.10)
-                BigDecimal price = maintenanceMargin
-                        .divide(new BigDecimal(contractSize), 10, BigDecimal.ROUND_HALF_UP)
-                        .divide(new BigDecimal("0.10"), 2, BigDecimal.ROUND_HALF_UP);
-
-                // Generate random future settlement date (30 to 210 days from now)
-                LocalDate settlementDate = LocalDate.now().plusDays((int) (Math.random() * 180) + 30);
+        return futuresCatalog.getContracts(LocalDate.now());
+    }
 
-                FuturesContractDto dto = new FuturesContractDto();
-                dto.setTicker(contractName.toUpperCase().replaceAll("\\s+", "_"));
-                dto.setContractSize(contractSize);
-                dto.setContractUnit(contractUnit);
-                dto.setMaintenanceMargin(maintenanceMargin);
-                dto.setPrice(price);
-                dto.setSettlementDate(settlementDate);
+    /**
+     * Stored futures listings keep the settlement date they were created with, while the catalog rolls to
+     * the next contract month. Moves them to the catalog's date on startup and every night, so listings,
+     * the settlement date filter and {@code /api/futures} agree.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${futures.roll-cron:0 5 0 * * *}")
+    @Transactional
+    public void rollSettlementDates() {
+        rollSettlementDates(LocalDate.now());
+    }
 
-                dtos.add(dto);
+    @Transactional
+    public int rollSettlementDates(LocalDate today) {
+        List<FuturesContract> rolled = new ArrayList<>();
+        for (FuturesContract contract : futuresRepository.findAllFuturesContracts()) {
+            Optional<FuturesContractDto> current = futuresCatalog.findByTicker(contract.getTicker(), today);
+            if (current.isPresent() && !Objects.equals(current.get().getSettlementDate(), contract.getSettlementDate())) {
+                contract.setSettlementDate(current.get().getSettlementDate());
+                rolled.add(contract);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error reading futures CSV file: " + e.getMessage(), e);
         }
-        return dtos;
+        if (!rolled.isEmpty()) {
+            futuresRepository.saveAll(rolled);
+            log.info("Rolled the settlement date of {} futures contracts", rolled.size());
+        }
+        return rolled.size();
     }
 }
@@ -4,28 +4,38 @@ package rs.raf.stock_service.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import rs.raf.stock_service.domain.dto.CountryHolidayDto;
 import rs.raf.stock_service.domain.dto.CountryHolidaysDto;
-import rs.raf.stock_service.domain.entity.Country;
-import rs.raf.stock_service.domain.entity.Holiday;
+import rs.raf.stock_service.domain.projection.CountryIdView;
 import rs.raf.stock_service.repository.CountryRepository;
 import rs.raf.stock_service.repository.HolidayRepository;
 
 import java.io.IOException;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class HolidayService {
 
+    private static final String INSERT_HOLIDAY = "INSERT INTO holiday (date, country_id) VALUES (?, ?)";
+
     private final CountryRepository countryRepository;
     private final HolidayRepository holidayRepository;
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
 
-
+    /**
+     * Holidays of countries that have none yet, written as one JDBC batch. Countries are resolved from one
+     * lookup of all country ids, unknown ones are skipped.
+     */
     public void importHolidays() {
         CountryHolidaysDto countryHolidaysDto;
         ClassPathResource resource = new ClassPathResource("holidaysUSA.json");
@@ -35,30 +45,27 @@ public class HolidayService {
         } catch (IOException e) {
             throw new RuntimeException("Error reading the JSON file", e);
         }
-        if (countryHolidaysDto.getCountries() != null) {
-            for (CountryHolidayDto countryHolidayDto : countryHolidaysDto.getCountries()) {
-                String countryName = countryHolidayDto.getName();
-                List<String> holidayDates = countryHolidayDto.getHolidays();
-
-                Optional<Country> countryOptional = countryRepository.findByName(countryName);
-                if (countryOptional.isEmpty()) {
-                    continue;
-                }
+        if (countryHolidaysDto.getCountries() == null) {
+            return;
+        }
 
-                Country country = countryOptional.get();
+        Map<String, Long> countryIds = countryRepository.findAllIds().stream()
+                .collect(Collectors.toMap(CountryIdView::getName, CountryIdView::getId, (first, second) -> first));
+        Set<Long> withHolidays = holidayRepository.findAllCountryIds();
 
-                if (country.getHolidays().isEmpty()) {
-                    for (String dateStr : holidayDates) {
-                        LocalDate date = LocalDate.parse(dateStr);
-                        Holiday holiday = new Holiday();
-                        holiday.setDate(date);
-                        holiday.setCountry(country);
-                        holidayRepository.save(holiday);
-                        country.getHolidays().add(holiday);
-                    }
-                    countryRepository.save(country);
-                }
+        List<Object[]> rows = new ArrayList<>();
+        for (CountryHolidayDto countryHolidayDto : countryHolidaysDto.getCountries()) {
+            Long countryId = countryIds.get(countryHolidayDto.getName());
+            if (countryId == null || withHolidays.contains(countryId) || countryHolidayDto.getHolidays() == null) {
+                continue;
             }
+            for (String dateStr : countryHolidayDto.getHolidays()) {
+                rows.add(new Object[]{Date.valueOf(LocalDate.parse(dateStr)), countryId});
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_HOLIDAY, rows);
         }
     }
 }
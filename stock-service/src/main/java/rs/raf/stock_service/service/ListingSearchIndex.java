@@ -0,0 +1,335 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rs.raf.stock_service.domain.dto.ListingSearchEntryDto;
+import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.repository.ListingRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index over listing tickers and names, so searches do not run {@code LIKE '%term%'} over
+ * the listing table and type-ahead does not call the market data API on every keystroke.
+ * <ul>
+ *     <li>Substring search ({@link #matchingIds}) intersects trigram posting lists and checks the few
+ *     candidates left, which is what {@code lower(ticker) LIKE '%term%' OR lower(name) LIKE '%term%'}
+ *     answers.</li>
+ *     <li>Type-ahead ({@link #suggest}) walks a prefix trie over tickers and name words. Each trie node
+ *     keeps at most {@code search.index.prefix-hits} listings per kind, so the trie stays bounded no
+ *     matter how many listings share a short prefix. Exact tickers are looked up in a separate map, so an
+ *     exact match is found even when earlier listings filled the node.</li>
+ * </ul>
+ * Loaded when the application is ready; new listings are picked up incrementally by id.
+ */
+@Slf4j
+@Component
+public class ListingSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ListingRepository listingRepository;
+    private final int prefixHits;
+    private final int maxMatchingIds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Node root = new Node();
+    private final Map<String, IntList> exactTickers = new HashMap<>();
+    private long lastListingId = 0;
+    private volatile boolean ready = false;
+
+    public ListingSearchIndex(ListingRepository listingRepository,
+                              @Value("${search.index.prefix-hits:32}") int prefixHits,
+                              @Value("${search.index.max-matching-ids:1000}") int maxMatchingIds) {
+        this.listingRepository = listingRepository;
+        this.prefixHits = prefixHits;
+        this.maxMatchingIds = maxMatchingIds;
+    }
+
+    // CommandLineRunner-i (BootstrapData) se zavrsavaju pre ApplicationReadyEvent-a
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+        ready = true;
+        log.info("Listing search index ready with {} listings and {} trigrams", docs.size(), postings.size());
+    }
+
+    @Scheduled(initialDelayString = "${search.index.sync-ms:60000}", fixedDelayString = "${search.index.sync-ms:60000}")
+    public void sync() {
+        long after;
+        lock.readLock().lock();
+        try {
+            after = lastListingId;
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ListingSearchEntryDto> entries = listingRepository.findSearchEntriesAfter(after);
+        if (!entries.isEmpty()) {
+            addAll(entries);
+        }
+    }
+
+    public void addAll(Collection<ListingSearchEntryDto> entries) {
+        lock.writeLock().lock();
+        try {
+            for (ListingSearchEntryDto entry : entries) {
+                if (entry.getId() <= lastListingId) {
+                    continue;
+                }
+                add(entry);
+                lastListingId = entry.getId();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of listings whose ticker or name contains {@code term}, ignoring case. Returns null when the
+     * caller should search the database instead: the index is not loaded yet, or more than
+     * {@code search.index.max-matching-ids} listings match and an IN list would cost more than a scan.
+     */
+    public List<Long> matchingIds(String term) {
+        if (!ready) {
+            return null;
+        }
+        String needle = term.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                // too short for a trigram, the whole index is still only an in-memory scan
+                for (Doc doc : docs) {
+                    if (doc.contains(needle) && !add(ids, doc)) {
+                        return null;
+                    }
+                }
+                return ids;
+            }
+
+            IntList candidates = candidates(needle);
+            for (int i = 0; i < candidates.size; i++) {
+                Doc doc = docs.get(candidates.values[i]);
+                if (doc.contains(needle) && !add(ids, doc)) {
+                    return null;
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Type-ahead: up to {@code limit} listings of the given type (any type if null) whose ticker or a word
+     * of whose name starts with {@code prefix}. Exact ticker first, then ticker prefixes from the shortest
+     * ticker, then name matches.
+     */
+    public List<ListingSearchEntryDto> suggest(String prefix, ListingType type, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT).trim();
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            List<Doc> exact = new ArrayList<>();
+            IntList exactDocs = exactTickers.get(key);
+            for (int i = 0; exactDocs != null && i < exactDocs.size; i++) {
+                Doc doc = docs.get(exactDocs.values[i]);
+                if (type == null || doc.type == type) {
+                    exact.add(doc);
+                }
+            }
+
+            List<Doc> byTicker = new ArrayList<>();
+            for (int i = 0; i < node.tickerDocs.size; i++) {
+                Doc doc = docs.get(node.tickerDocs.values[i]);
+                if (type == null || doc.type == type) {
+                    byTicker.add(doc);
+                }
+            }
+            byTicker.sort(Comparator.comparingInt((Doc doc) -> doc.ticker.length()).thenComparing(doc -> doc.ticker));
+
+            LinkedHashSet<Doc> hits = new LinkedHashSet<>(exact);
+            hits.addAll(byTicker);
+            for (int i = 0; i < node.nameDocs.size && hits.size() < limit; i++) {
+                Doc doc = docs.get(node.nameDocs.values[i]);
+                if (type == null || doc.type == type) {
+                    hits.add(doc);
+                }
+            }
+            return hits.stream().limit(limit).map(Doc::toEntry).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean add(List<Long> ids, Doc doc) {
+        ids.add(doc.listingId);
+        return ids.size() <= maxMatchingIds;
+    }
+
+    // caller holds the write lock
+    private void add(ListingSearchEntryDto entry) {
+        Doc doc = new Doc(entry);
+        int number = docs.size();
+        docs.add(doc);
+
+        Set<Long> grams = new HashSet<>();
+        collectGrams(doc.tickerLower, grams);
+        collectGrams(doc.nameLower, grams);
+        for (Long gram : grams) {
+            // documents are numbered in insertion order, so every posting list stays sorted
+            postings.computeIfAbsent(gram, key -> new IntList(4)).add(number);
+        }
+
+        insert(doc.tickerLower, number, true);
+        if (!doc.tickerLower.isEmpty()) {
+            exactTickers.computeIfAbsent(doc.tickerLower, key -> new IntList(1)).add(number);
+        }
+        for (String word : doc.nameLower.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                insert(word, number, false);
+            }
+        }
+    }
+
+    private void insert(String key, int number, boolean ticker) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            IntList hits = ticker ? node.tickerDocs : node.nameDocs;
+            if (hits.size < prefixHits && (hits.size == 0 || hits.values[hits.size - 1] != number)) {
+                hits.add(number);
+            }
+        }
+    }
+
+    // documents containing every trigram of the needle, smallest posting list first
+    private IntList candidates(String needle) {
+        Set<Long> grams = new HashSet<>();
+        collectGrams(needle, grams);
+        List<IntList> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                return new IntList(0);
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        IntList result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+
+    private static void collectGrams(String text, Set<Long> out) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            out.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static final class Doc {
+        private final long listingId;
+        private final String ticker;
+        private final String name;
+        private final ListingType type;
+        private final String region;
+        private final String tickerLower;
+        private final String nameLower;
+
+        private Doc(ListingSearchEntryDto entry) {
+            this.listingId = entry.getId();
+            this.ticker = entry.getTicker() != null ? entry.getTicker() : "";
+            this.name = entry.getName() != null ? entry.getName() : "";
+            this.type = entry.getType();
+            this.region = entry.getRegion();
+            this.tickerLower = ticker.toLowerCase(Locale.ROOT);
+            this.nameLower = name.toLowerCase(Locale.ROOT);
+        }
+
+        private boolean contains(String needle) {
+            return tickerLower.contains(needle) || nameLower.contains(needle);
+        }
+
+        private ListingSearchEntryDto toEntry() {
+            return new ListingSearchEntryDto(listingId, ticker, name, type, region);
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final IntList tickerDocs = new IntList(1);
+        private final IntList nameDocs = new IntList(1);
+    }
+
+    /**
+     * Growable sorted array of document numbers.
+     */
+    private static final class IntList {
+        private int[] values;
+        private int size;
+
+        private IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        private IntList intersect(IntList other) {
+            IntList result = new IntList(Math.min(size, other.size));
+            int i = 0, j = 0;
+            while (i < size && j < other.size) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result.add(values[i]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
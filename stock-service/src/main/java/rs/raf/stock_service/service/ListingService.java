@@ -1,40 +1,52 @@
 package rs.raf.stock_service.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import rs.raf.stock_service.client.AlphavantageClient;
 import rs.raf.stock_service.client.TwelveDataClient;
 import rs.raf.stock_service.domain.dto.*;
 import rs.raf.stock_service.domain.entity.*;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
 import rs.raf.stock_service.domain.mapper.ListingMapper;
 import rs.raf.stock_service.domain.mapper.TimeSeriesMapper;
 import rs.raf.stock_service.exceptions.ListingNotFoundException;
 import rs.raf.stock_service.exceptions.UnauthorizedException;
+import rs.raf.stock_service.repository.ForexPairRepository;
 import rs.raf.stock_service.repository.ListingPriceHistoryRepository;
+import rs.raf.stock_service.repository.ListingPriceRollupRepository;
 import rs.raf.stock_service.repository.ListingRepository;
 import rs.raf.stock_service.repository.OptionRepository;
 import rs.raf.stock_service.specification.ListingSpecification;
 import rs.raf.stock_service.utils.JwtTokenUtil;
+import rs.raf.stock_service.utils.PriceBarBuffer;
+import rs.raf.stock_service.utils.TimeSeriesDecoder;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 public class ListingService {
+    // kursor prve strane, posle svakog sacuvanog bara
+    private static final LocalDateTime FIRST_PAGE_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    // detalji nose samo prvu stranu istorije, ostatak ide preko /price-history/stored
+    private static final int DETAILS_HISTORY_BARS = 500;
+
     @Autowired
     private ListingRepository listingRepository;
     @Autowired
+    private ForexPairRepository forexPairRepository;
+    @Autowired
     private ListingPriceHistoryRepository dailyPriceInfoRepository;
+    @Autowired
+    private ListingPriceRollupRepository listingPriceRollupRepository;
 
     private TwelveDataClient twelveDataClient;
     private AlphavantageClient alphavantageClient;
@@ -50,8 +62,16 @@ public class ListingService {
     @Autowired
     private OptionRepository optionRepository;
 
+    @Autowired
+    private ListingViewTracker listingViewTracker;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
     public List<ListingDto> getListings(ListingFilterDto filter, String role) {
-        var spec = ListingSpecification.buildSpecification(filter, role);
+        List<Long> searchIds = filter.getSearch() == null || filter.getSearch().isEmpty()
+                ? null : listingSearchIndex.matchingIds(filter.getSearch());
+        var spec = ListingSpecification.buildSpecification(filter, role, searchIds);
         return listingRepository.findAll(spec).stream()
                 .map(listing -> listingMapper.toDto(listing, dailyPriceInfoRepository.findTopByListingOrderByDateDesc(listing)))
                 .collect(Collectors.toList());
@@ -60,15 +80,26 @@ public class ListingService {
     public ListingDetailsDto getListingDetails(Long id) {
         Listing listing = listingRepository.findById(id)
                 .orElseThrow(() -> new ListingNotFoundException(id));
+        listingViewTracker.touch(id);
 
-        List<ListingPriceHistory> priceHistory = dailyPriceInfoRepository.findAllByListingOrderByDateDesc(listing);
+        List<ListingPriceHistory> priceHistory = dailyPriceInfoRepository.findAllByListingAndDateBeforeOrderByDateDesc(
+                listing, FIRST_PAGE_CURSOR, PageRequest.of(0, DETAILS_HISTORY_BARS));
 
         ListingDetailsDto dto = listingMapper.toDetailsDto(listing, priceHistory);
+        List<PriceHistoryDto> history = new ArrayList<>(dto.getPriceHistory());
+        if (priceHistory.size() < DETAILS_HISTORY_BARS) {
+            history.addAll(rollupsBefore(listing, PriceRollupResolution.DAILY, FIRST_PAGE_CURSOR,
+                    DETAILS_HISTORY_BARS - priceHistory.size()));
+        }
+        dto.setPriceHistory(history);
 
         if (listing instanceof Stock) {
-            List<LocalDate> optionDates = optionRepository.findAllByUnderlyingStock((Stock) listing).stream()
-                    .filter(Option::isOnSale)
-                    .map(Option::getSettlementDate)
+            // chains are generated on demand, stored contracts may still carry older expiries
+            List<LocalDate> optionDates = Stream.concat(
+                            OptionService.expiryDates(LocalDate.now()).stream(),
+                            optionRepository.findAllByUnderlyingStock((Stock) listing).stream()
+                                    .filter(Option::isOnSale)
+                                    .map(Option::getSettlementDate))
                     .distinct()
                     .sorted()
                     .collect(Collectors.toList());
@@ -96,9 +127,52 @@ public class ListingService {
         return listingMapper.toDto(listing, dailyPriceInfoRepository.findTopByListingOrderByDateDesc(listing));
     }
 
+    /**
+     * Bars stored for a listing, newest first: the 5-minute bars still in the raw retention window,
+     * then hourly or daily rollups for the time before them. At most {@code limit} bars older than
+     * {@code before} are returned; pass the datetime of the last bar as {@code before} for the next page.
+     */
+    public List<PriceHistoryDto> getStoredPriceHistory(Long id, PriceRollupResolution resolution,
+                                                       LocalDateTime before, int limit) {
+        Listing listing = listingRepository.findById(id)
+                .orElseThrow(() -> new ListingNotFoundException(id));
+        listingViewTracker.touch(id);
+        LocalDateTime cursor = before != null ? before : FIRST_PAGE_CURSOR;
+
+        List<ListingPriceHistory> raw = dailyPriceInfoRepository
+                .findAllByListingAndDateBeforeOrderByDateDesc(listing, cursor, PageRequest.of(0, limit));
+        List<PriceHistoryDto> history = new ArrayList<>(raw.size());
+        for (ListingPriceHistory bar : raw) {
+            history.add(new PriceHistoryDto(bar.getDate(), bar.getOpen(), bar.getHigh(), bar.getLow(),
+                    bar.getClose(), bar.getVolume()));
+        }
+        if (history.size() < limit) {
+            history.addAll(rollupsBefore(listing, resolution, cursor, limit - history.size()));
+        }
+        return history;
+    }
+
+    // rollups only for buckets that end before the oldest raw bar, so no time is counted twice
+    private List<PriceHistoryDto> rollupsBefore(Listing listing, PriceRollupResolution resolution,
+                                                LocalDateTime cursor, int limit) {
+        ListingPriceHistory oldest = dailyPriceInfoRepository.findTopByListingOrderByDateAsc(listing);
+        LocalDateTime before = cursor;
+        if (oldest != null && resolution.bucketOf(oldest.getDate()).isBefore(cursor)) {
+            before = resolution.bucketOf(oldest.getDate());
+        }
+        return listingPriceRollupRepository
+                .findAllByListingIdAndResolutionAndBucketBeforeOrderByBucketDesc(listing.getId(), resolution, before,
+                        PageRequest.of(0, limit))
+                .stream()
+                .map(bar -> new PriceHistoryDto(bar.getBucket(), bar.getOpen(), bar.getHigh(), bar.getLow(),
+                        bar.getClose(), bar.getVolume()))
+                .collect(Collectors.toList());
+    }
+
     public TimeSeriesDto getPriceHistory(Long id, String interval) {
         Listing listing = listingRepository.findById(id)
                 .orElseThrow(() -> new ListingNotFoundException(id));
+        listingViewTracker.touch(id);
 
         if (interval == null || interval.isEmpty()) {
             interval = "1day";
@@ -110,66 +184,38 @@ public class ListingService {
     }
 
     public TimeSeriesDto getPriceHistoryFromAlphaVantage(String symbol, String interval, String outputsize) {
-
-        // Call the API
-        String response = alphavantageClient.getIntradayData(symbol, interval, outputsize, "json");
-
-        // Map response to TimeSeriesDto
-        return mapAlphaVantageResponseToDto(response, symbol, interval);
+        PriceBarBuffer bars = getPriceBarsFromAlphaVantage(symbol, interval, outputsize);
+
+        TimeSeriesDto timeSeriesDto = new TimeSeriesDto();
+        TimeSeriesDto.MetaDto metaDto = new TimeSeriesDto.MetaDto();
+        metaDto.setSymbol(symbol);
+        metaDto.setInterval(interval);
+        metaDto.setType("Equity");
+
+        timeSeriesDto.setMeta(metaDto);
+        timeSeriesDto.setValues(TimeSeriesMapper.toValues(bars));
+        timeSeriesDto.setStatus("success");
+        return timeSeriesDto;
     }
 
-    // Helper method to map Alpha Vantage response to TimeSeriesDto
-    private TimeSeriesDto mapAlphaVantageResponseToDto(String response, String symbol, String interval) {
+    /**
+     * Intraday bars straight from the Alpha Vantage payload, without an intermediate JSON tree or DTOs.
+     */
+    public PriceBarBuffer getPriceBarsFromAlphaVantage(String symbol, String interval, String outputsize) {
+        String response = alphavantageClient.getIntradayData(symbol, interval, outputsize, "json");
+        PriceBarBuffer bars = new PriceBarBuffer("full".equals(outputsize) ? 4096 : 128);
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(response);
-
-            // Get time series data (e.g., "Time Series (5min)" or other interval)
-            JsonNode timeSeriesNode = rootNode.get("Time Series (" + interval + ")");
-            if (timeSeriesNode == null) {
-                throw new RuntimeException("Invalid response format from Alpha Vantage");
-            }
-
-            List<TimeSeriesDto.TimeSeriesValueDto> values = new ArrayList<>();
-            for (Iterator<String> it = timeSeriesNode.fieldNames(); it.hasNext(); ) {
-                String datetime = it.next();
-                JsonNode data = timeSeriesNode.get(datetime);
-
-                TimeSeriesDto.TimeSeriesValueDto dto = new TimeSeriesDto.TimeSeriesValueDto();
-                dto.setDatetime(datetime);
-                dto.setOpen(new BigDecimal(data.get("1. open").asText()));
-                dto.setHigh(new BigDecimal(data.get("2. high").asText()));
-                dto.setLow(new BigDecimal(data.get("3. low").asText()));
-                dto.setClose(new BigDecimal(data.get("4. close").asText()));
-                dto.setVolume(data.get("5. volume").asLong());
-
-                values.add(dto);
-            }
-
-            // Create and return TimeSeriesDto
-            TimeSeriesDto timeSeriesDto = new TimeSeriesDto();
-            TimeSeriesDto.MetaDto metaDto = new TimeSeriesDto.MetaDto();
-            metaDto.setSymbol(symbol);
-            metaDto.setInterval(interval);
-            metaDto.setType("Equity");
-
-            timeSeriesDto.setMeta(metaDto);
-            timeSeriesDto.setValues(values);
-            timeSeriesDto.setStatus("success");
-
-            return timeSeriesDto;
+            TimeSeriesDecoder.decode(response, bars, null);
         } catch (Exception e) {
             throw new RuntimeException("Error parsing Alpha Vantage response: " + e.getMessage());
         }
+        return bars;
     }
 
     private void importForexPriceHistory() {
         System.out.println("Fetching intraday price history for all forex pairs...");
 
-        List<ForexPair> forexPairs = listingRepository.findAll().stream()
-                .filter(listing -> listing instanceof ForexPair)
-                .map(listing -> (ForexPair) listing)
-                .collect(Collectors.toList());
+        List<ForexPair> forexPairs = forexPairRepository.findAll();
 
         List<ListingPriceHistory> allPriceHistoryEntities = new ArrayList<>();
 
@@ -226,7 +272,10 @@ public class ListingService {
     public TimeSeriesDto getForexPriceHistory(Long id, String interval) {
         ForexPair forexPair = (ForexPair) listingRepository.findById(id)
                 .orElseThrow(() -> new ListingNotFoundException(1L));
+        return getForexPriceHistory(forexPair, interval);
+    }
 
+    public TimeSeriesDto getForexPriceHistory(ForexPair forexPair, String interval) {
         String fromSymbol = forexPair.getBaseCurrency();
         String toSymbol = forexPair.getQuoteCurrency();
 
@@ -235,4 +284,15 @@ public class ListingService {
         return timeSeriesMapper.mapJsonToCustomTimeSeries(response, forexPair);
     }
 
+    public PriceBarBuffer getForexPriceBars(String fromSymbol, String toSymbol, String interval) {
+        String response = alphavantageClient.getForexPriceHistory(fromSymbol, toSymbol, interval, "compact");
+        PriceBarBuffer bars = new PriceBarBuffer();
+        try {
+            TimeSeriesDecoder.decode(response, bars, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Error mapping JSON to Time Series DTO: " + e.getMessage(), e);
+        }
+        return bars;
+    }
+
 }
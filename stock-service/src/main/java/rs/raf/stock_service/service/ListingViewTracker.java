@@ -0,0 +1,38 @@
+package rs.raf.stock_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers which listings were opened recently, so background work such as the forex history refresh
+ * can be limited to listings somebody is looking at. In memory only; after a restart a listing counts
+ * as viewed again from its next view.
+ */
+@Component
+public class ListingViewTracker {
+
+    private final Map<Long, Long> lastViewed = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ListingViewTracker(@Value("${listing.views.window-ms:3600000}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void touch(Long listingId) {
+        lastViewed.put(listingId, System.currentTimeMillis());
+    }
+
+    /**
+     * Listings viewed within the window; older entries are dropped on the way.
+     */
+    public Set<Long> recentlyViewed() {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        lastViewed.values().removeIf(viewedAt -> viewedAt < cutoff);
+        return lastViewed.keySet().stream().collect(Collectors.toSet());
+    }
+}
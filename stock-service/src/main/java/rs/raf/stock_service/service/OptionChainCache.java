@@ -0,0 +1,63 @@
+package rs.raf.stock_service.service;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rs.raf.stock_service.domain.dto.OptionDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of generated option chains keyed by (underlying ticker, spot bucket, expiry).
+ * Spot prices are bucketed on a log scale, so a chain is reused until the underlying moves by more
+ * than the bucket width and is regenerated from the new spot after that.
+ */
+@Component
+public class OptionChainCache {
+
+    private final Map<ChainKey, List<OptionDto>> chains;
+    private final double logBucketWidth;
+
+    public OptionChainCache(@Value("${options.chain-cache.max-entries:2000}") int maxEntries,
+                            @Value("${options.chain-cache.spot-bucket-percent:0.5}") double bucketPercent) {
+        this.logBucketWidth = Math.log1p(bucketPercent / 100);
+        this.chains = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChainKey, List<OptionDto>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized List<OptionDto> getChain(String ticker, BigDecimal spot, LocalDate expiry,
+                                                 Supplier<List<OptionDto>> generator) {
+        return chains.computeIfAbsent(new ChainKey(ticker, spotBucket(spot), expiry), key -> List.copyOf(generator.get()));
+    }
+
+    public synchronized void evictExpired(LocalDate today) {
+        chains.keySet().removeIf(key -> key.expiry.isBefore(today));
+    }
+
+    public synchronized int size() {
+        return chains.size();
+    }
+
+    long spotBucket(BigDecimal spot) {
+        double price = spot.doubleValue();
+        return price > 0 ? (long) Math.floor(Math.log(price) / logBucketWidth) : Long.MIN_VALUE;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class ChainKey {
+        private final String ticker;
+        private final long spotBucket;
+        private final LocalDate expiry;
+    }
+}
@@ -7,10 +7,12 @@ import rs.raf.stock_service.domain.dto.OptionDto;
 import rs.raf.stock_service.domain.entity.Option;
 import rs.raf.stock_service.domain.enums.OptionType;
 import rs.raf.stock_service.repository.OptionRepository;
+import rs.raf.stock_service.utils.BlackScholes;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,16 +21,72 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class OptionService {
 
+    // no implied volatility feed is available, so generated chains are priced off one flat model volatility
+    static final double MODEL_VOLATILITY = 0.25;
+    static final double RISK_FREE_RATE = 0.04;
+    private static final double DAYS_PER_YEAR = 365.0;
+    private static final double MIN_PRICE = 0.01;
+
     private OptionRepository optionRepository;
 
     @Transactional
     public List<OptionDto> generateOptions(String stockListing, BigDecimal currentPrice) {
         List<OptionDto> options = new ArrayList<>();
+        for (LocalDate exp : expiryDates(LocalDate.now())) {
+            options.addAll(generateChain(stockListing, currentPrice, exp));
+        }
+        return options;
+    }
+
+    /**
+     * Calls and puts for one expiry, with strikes from 5 below to 5 above the rounded spot price.
+     */
+    public List<OptionDto> generateChain(String stockListing, BigDecimal currentPrice, LocalDate expiry) {
         int roundedPrice = currentPrice.setScale(0, RoundingMode.HALF_UP).intValue();
-        int lowerBound = roundedPrice - 5;
-        int upperBound = roundedPrice + 5;
+        // strikes must stay positive for the pricing model, so penny stocks get a shorter chain
+        int lowerBound = Math.max(roundedPrice - 5, 1);
+        int upperBound = Math.max(roundedPrice + 5, lowerBound);
+
+        // call and put per strike, in that order
+        int size = (upperBound - lowerBound + 1) * 2;
+        double[] strikes = new double[size];
+        boolean[] calls = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            strikes[i] = lowerBound + i / 2;
+            calls[i] = i % 2 == 0;
+        }
+
+        double[] prices = new double[size];
+        double[] deltas = new double[size];
+        double[] gammas = new double[size];
+        double[] vegas = new double[size];
+        double[] thetas = new double[size];
+        double time = ChronoUnit.DAYS.between(LocalDate.now(), expiry) / DAYS_PER_YEAR;
+        BlackScholes.priceChain(currentPrice.doubleValue(), time, RISK_FREE_RATE, RISK_FREE_RATE, MODEL_VOLATILITY,
+                strikes, calls, prices, deltas, gammas, vegas, thetas);
 
-        LocalDate firstExpiry = LocalDate.now().plusDays(6);
+        BigDecimal margin = currentPrice.multiply(new BigDecimal("50"));
+        List<OptionDto> options = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OptionDto option = createOption(stockListing, calls[i] ? OptionType.CALL : OptionType.PUT,
+                    BigDecimal.valueOf((long) strikes[i]), expiry, margin);
+            option.setPrice(BigDecimal.valueOf(Math.max(prices[i], MIN_PRICE)).setScale(2, RoundingMode.HALF_UP));
+            option.setImpliedVolatility(BigDecimal.valueOf(MODEL_VOLATILITY));
+            option.setDelta(BigDecimal.valueOf(deltas[i]).setScale(4, RoundingMode.HALF_UP));
+            option.setGamma(BigDecimal.valueOf(gammas[i]).setScale(6, RoundingMode.HALF_UP));
+            // quoted per 1% volatility move and per calendar day
+            option.setVega(BigDecimal.valueOf(vegas[i] / 100).setScale(4, RoundingMode.HALF_UP));
+            option.setTheta(BigDecimal.valueOf(thetas[i] / DAYS_PER_YEAR).setScale(4, RoundingMode.HALF_UP));
+            options.add(option);
+        }
+        return options;
+    }
+
+    /**
+     * Listed expiries: weekly for the first month, then monthly for six months.
+     */
+    public static List<LocalDate> expiryDates(LocalDate today) {
+        LocalDate firstExpiry = today.plusDays(6);
         List<LocalDate> expiryDates = new ArrayList<>();
 
         LocalDate expiry = firstExpiry;
@@ -40,26 +98,11 @@ public class OptionService {
         for (int i = 1; i <= 6; i++) {
             expiryDates.add(expiry.plusDays((long) (i - 1) * 30));
         }
-
-        BigDecimal margin = currentPrice.multiply(new BigDecimal("50"));
-
-        for (LocalDate exp : expiryDates) {
-            for (int strike = lowerBound; strike <= upperBound; strike++) {
-                BigDecimal strikePrice = BigDecimal.valueOf(strike);
-                long daysUntilExpiry = LocalDate.now().until(exp).getDays();
-
-                OptionDto callOption = createOption(stockListing, OptionType.CALL, currentPrice, strikePrice, exp, margin, daysUntilExpiry);
-                options.add(callOption);
-
-                OptionDto putOption = createOption(stockListing, OptionType.PUT, currentPrice, strikePrice, exp, margin, daysUntilExpiry);
-                options.add(putOption);
-            }
-        }
-        return options;
+        return expiryDates;
     }
 
-    private OptionDto createOption(String stockListing, OptionType type, BigDecimal currentPrice,
-                                   BigDecimal strikePrice, LocalDate expiry, BigDecimal margin, long daysUntilExpiry) {
+    private OptionDto createOption(String stockListing, OptionType type, BigDecimal strikePrice, LocalDate expiry,
+                                   BigDecimal margin) {
         OptionDto option = new OptionDto();
         option.setStockListing(stockListing);
         option.setOptionType(type);
@@ -67,7 +110,6 @@ public class OptionService {
         option.setContractSize(BigDecimal.valueOf(100));
         option.setSettlementDate(expiry);
         option.setMaintenanceMargin(margin);
-        option.setPrice(calculateOptionPrice(type, currentPrice, strikePrice, daysUntilExpiry));
 
         String ticker = stockListing + expiry.getYear() % 100 +
                 String.format("%02d", expiry.getMonthValue()) +
@@ -79,29 +121,6 @@ public class OptionService {
         return option;
     }
 
-    private BigDecimal calculateOptionPrice(OptionType type, BigDecimal currentPrice, BigDecimal strikePrice, long daysUntilExpiry) {
-        BigDecimal timeValue = currentPrice.multiply(BigDecimal.valueOf(0.05))
-                .multiply(BigDecimal.valueOf(Math.sqrt((double) daysUntilExpiry / 365)));
-
-        BigDecimal optionPrice;
-        if (type == OptionType.CALL) {
-            BigDecimal intrinsicValue = currentPrice.subtract(strikePrice).max(BigDecimal.ZERO);
-            optionPrice = intrinsicValue.add(timeValue);
-        } else if (type == OptionType.PUT) {
-            BigDecimal intrinsicValue = strikePrice.subtract(currentPrice).max(BigDecimal.ZERO);
-            optionPrice = intrinsicValue.add(timeValue);
-        } else {
-            return BigDecimal.ZERO;
-        }
-
-        // Ovo je fallback da ne bi imali 0.00 za svaki slucaj zbog ovih kalkulacija
-        if (optionPrice.compareTo(BigDecimal.valueOf(0.01)) < 0) {
-            return BigDecimal.valueOf(0.01);
-        }
-
-        return optionPrice.setScale(2, RoundingMode.HALF_UP);
-    }
-
     public OptionDto getOptionByTicker(String ticker) {
         Option option = optionRepository.findByTicker(ticker.toUpperCase())
                 .orElseThrow(() -> new RuntimeException("Option not found for ticker: " + ticker));
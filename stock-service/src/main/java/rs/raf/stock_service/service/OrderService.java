@@ -1,6 +1,7 @@
 package rs.raf.stock_service.service;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
@@ -12,6 +13,7 @@ import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.Order;
 import rs.raf.stock_service.domain.entity.PortfolioEntry;
 import rs.raf.stock_service.domain.entity.Transaction;
+import rs.raf.stock_service.domain.enums.LimitReservationStatus;
 import rs.raf.stock_service.domain.enums.OrderDirection;
 import rs.raf.stock_service.domain.enums.OrderStatus;
 import rs.raf.stock_service.domain.enums.TaxStatus;
@@ -28,10 +30,12 @@ import rs.raf.stock_service.utils.JwtTokenUtil;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class OrderService {
@@ -86,6 +90,7 @@ public class OrderService {
                 order.setLastModification(LocalDateTime.now());
 
                 orderRepository.save(order);
+                releaseLimit(order);
             } else {
                 throw new CantCancelOrderInCurrentOrderState(id);
             }
@@ -102,6 +107,10 @@ public class OrderService {
 
         Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
+        // supervisor approval lets the order through even if it does not fit into the agent's remaining limit
+        if (Boolean.TRUE.equals(order.getAgentOrder()) && !Boolean.TRUE.equals(order.getLimitReserved()))
+            reserveLimit(order, true);
+
         order.setStatus(OrderStatus.APPROVED);
         order.setApprovedBy(userId);
         order.setLastModification(LocalDateTime.now());
@@ -120,10 +129,12 @@ public class OrderService {
         order.setApprovedBy(jwtTokenUtil.getUserIdFromAuthHeader(authHeader));
         order.setLastModification(LocalDateTime.now());
         orderRepository.save(order);
+        releaseLimit(order);
     }
 
     public OrderDto createOrder(CreateOrderDto createOrderDto, String authHeader) {
         Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
+        String role = jwtTokenUtil.getUserRoleFromAuthHeader(authHeader);
         Listing listing = listingRepository.findById(createOrderDto.getListingId())
                 .orElseThrow(() -> new ListingNotFoundException(createOrderDto.getListingId()));
 
@@ -132,23 +143,25 @@ public class OrderService {
 
         Order order = OrderMapper.toOrder(createOrderDto, userId, listing, afterHours);
 
-        BigDecimal approxPrice = BigDecimal.valueOf(order.getContractSize()).multiply(order.getPricePerUnit().
-                multiply(BigDecimal.valueOf(order.getQuantity())));
-
-        if (jwtTokenUtil.getUserRoleFromAuthHeader(authHeader).equals("CLIENT") || jwtTokenUtil.getUserRoleFromAuthHeader(authHeader).equals("SUPERVISOR")
-                || jwtTokenUtil.getUserRoleFromAuthHeader(authHeader).equals("ADMIN")) {
+        boolean reserveLimit = false;
+        if (role.equals("CLIENT") || role.equals("SUPERVISOR") || role.equals("ADMIN")) {
             order.setStatus(verifyBalance(order) ? OrderStatus.APPROVED : OrderStatus.DECLINED);
         } else {
             ActuaryLimitDto actuaryLimitDto = userClient.getActuaryByEmployeeId(userId); // throw agentNotFound
 
-            if (!actuaryLimitDto.isNeedsApproval()) {
-                if (actuaryLimitDto.getLimitAmount().subtract(actuaryLimitDto.getUsedLimit()).compareTo(approxPrice) >= 0)
-                    order.setStatus(OrderStatus.APPROVED);
-            }
+            order.setAgentOrder(true);
+            order.setLimitReserved(false);
+            // the limit check itself happens atomically in user-service once the order has an id
+            reserveLimit = !actuaryLimitDto.isNeedsApproval();
         }
         if (order.getDirection().equals(OrderDirection.SELL)) {
             PortfolioEntry portfolioEntry = portfolioEntryRepository.findByUserIdAndListing(userId, listing).
                     orElseThrow(PortfolioEntryNotFoundException::new);
+            // shares reserved for OTC exercises cannot be sold
+            int shares = order.getQuantity() * order.getContractSize();
+            if (shares > PortfolioService.availableAmount(portfolioEntry)) {
+                throw new InsufficientSharesException(shares, PortfolioService.availableAmount(portfolioEntry));
+            }
             BigDecimal buyingPrice = portfolioEntry.getAveragePrice().multiply(BigDecimal.valueOf(order.getQuantity()));
             BigDecimal sellPrice = order.getPricePerUnit().multiply(BigDecimal.valueOf(order.getQuantity()));
             BigDecimal potentialProfit = sellPrice.subtract(buyingPrice);
@@ -169,6 +182,12 @@ public class OrderService {
 
         orderRepository.save(order);
 
+        // a rejected reservation leaves the order pending for a supervisor
+        if (reserveLimit && reserveLimit(order, false)) {
+            order.setStatus(OrderStatus.APPROVED);
+            orderRepository.save(order);
+        }
+
         if (order.getStatus() == OrderStatus.APPROVED)
             executeOrder(order);
 
@@ -187,6 +206,48 @@ public class OrderService {
         return price.compareTo(bankClient.getAccountBalance(order.getAccountNumber())) <= 0;
     }
 
+    private boolean reserveLimit(Order order, boolean override) {
+        BigDecimal amount = BigDecimal.valueOf(order.getContractSize()).multiply(order.getPricePerUnit())
+                .multiply(BigDecimal.valueOf(order.getQuantity()));
+        LimitReservationDto reservation;
+        try {
+            reservation = userClient.reserveLimit(order.getUserId(), new ReserveLimitDto(order.getId(), amount, override));
+        } catch (Exception e) {
+            // the reservation may still have gone through (e.g. a read timeout); reserve is idempotent by
+            // order id, approval asks again and decline/cancel always release
+            log.error("Limit reservation for order {} failed", order.getId(), e);
+            return false;
+        }
+        if (reservation == null || reservation.getStatus() != LimitReservationStatus.RESERVED)
+            return false;
+
+        order.setLimitReserved(true);
+        return true;
+    }
+
+    // a failed commit or release leaves the reservation counted as used, so the agent can never overspend
+    private void commitLimit(Order order) {
+        if (!Boolean.TRUE.equals(order.getLimitReserved()))
+            return;
+        try {
+            userClient.commitLimitReservation(order.getId());
+        } catch (Exception e) {
+            log.warn("Committing limit reservation for order {} failed", order.getId(), e);
+        }
+    }
+
+    // agent orders release even without a known reservation, a lost reserve response may have left one;
+    // user-service treats an unknown order id as released
+    private void releaseLimit(Order order) {
+        if (!Boolean.TRUE.equals(order.getAgentOrder()))
+            return;
+        try {
+            userClient.releaseLimitReservation(order.getId());
+        } catch (Exception e) {
+            log.warn("Releasing limit reservation for order {} failed", order.getId(), e);
+        }
+    }
+
     //async da bi se vratio OrderDto response paralelno sa izvrsenjem ordera,
     @Async
     public void executeOrder(Order order) {
@@ -194,13 +255,22 @@ public class OrderService {
         if (order.getStatus() != OrderStatus.APPROVED)
             return;
 
+        // an OTC exercise may have reserved the shares since the order was created or approved
+        if (order.getDirection() == OrderDirection.SELL && !hasSellableShares(order)) {
+            log.warn("Declining order {}, its shares are no longer available to sell", order.getId());
+            order.setStatus(OrderStatus.DECLINED);
+            orderRepository.save(order);
+            releaseLimit(order);
+            return;
+        }
+
         switch (order.getOrderType()) {
             case MARKET -> executeMarketOrder(order);
         }
 
         order.setIsDone(true);
         orderRepository.save(order);
-
+        commitLimit(order);
 
         portfolioService.updateHoldingsOnOrderExecution(order);
 
@@ -208,6 +278,12 @@ public class OrderService {
         //mozda uvesti neko slanje notifikacije da je order zavrsen, nzm da li smo igde uveli notifikacije ili da li je opste scope
     }
 
+    private boolean hasSellableShares(Order order) {
+        return portfolioEntryRepository.findByUserIdAndListing(order.getUserId(), order.getListing())
+                .map(entry -> order.getQuantity() * order.getContractSize() <= PortfolioService.availableAmount(entry))
+                .orElse(false);
+    }
+
     private void executeMarketOrder(Order order) {
         Random random = new Random();
 
@@ -240,31 +316,10 @@ public class OrderService {
     private void transferCommissionToBankAccount() {
     }
 
-    //@Scheduled(cron = "0 0 0 * * *")
-    public void processTaxes() {
-        for (Order order : orderRepository.findAll()) {
-            if (order.getTaxAmount() != null && order.getTaxStatus().equals(TaxStatus.PENDING)) {
-                AccountDetailsDto accountDetailsDto = bankClient.getAccountDetails(order.getAccountNumber());
-                BigDecimal taxAmount;
-                if (!accountDetailsDto.getCurrencyCode().equals("USD")) {
-                    ConvertDto convertDto = new ConvertDto("USD", accountDetailsDto.getCurrencyCode(), order.getTaxAmount());
-                    taxAmount = bankClient.convert(convertDto);
-                } else
-                    taxAmount = order.getTaxAmount();
-
-                if (accountDetailsDto.getBalance().compareTo(taxAmount) >= 0) {
-                    TaxDto taxDto = new TaxDto();
-                    taxDto.setAmount(taxAmount);
-                    taxDto.setClientId(order.getUserId());
-                    taxDto.setSenderAccountNumber(order.getAccountNumber());
-                    order.setTaxStatus(TaxStatus.PAID);
-                    orderRepository.save(order);
-                    bankClient.handleTax(taxDto);
-                } else {
-                    System.out.println("Not enough funds to pay taxes for account: " + order.getAccountNumber());
-                }
-            }
-        }
+    public List<ActuaryProfitDto> getProfitByUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty())
+            return List.of();
+        return orderRepository.sumRealizedProfitByUserIds(userIds);
     }
 
     public List<OrderDto> getAllOrders() {
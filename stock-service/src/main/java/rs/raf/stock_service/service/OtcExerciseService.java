@@ -0,0 +1,194 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import rs.raf.stock_service.client.BankClient;
+import rs.raf.stock_service.domain.dto.FundsReservationDto;
+import rs.raf.stock_service.domain.dto.OtcExerciseDto;
+import rs.raf.stock_service.domain.dto.ReserveFundsDto;
+import rs.raf.stock_service.domain.entity.OtcExercise;
+import rs.raf.stock_service.domain.entity.OtcOption;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.enums.FundsReservationStatus;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+import rs.raf.stock_service.domain.enums.OtcOptionStatus;
+import rs.raf.stock_service.exceptions.OtcExerciseException;
+import rs.raf.stock_service.exceptions.UnauthorizedActionException;
+import rs.raf.stock_service.repository.OtcExerciseRepository;
+import rs.raf.stock_service.repository.OtcOptionRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+
+import javax.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Exercises OTC options as a saga across stock-service and bank-service: claim the option, reserve the
+ * seller's public shares, reserve the buyer's funds in bank-service, then commit both or compensate
+ * both. Every step is recorded on an {@link OtcExercise} row first, and exercises left unfinished by a
+ * crash or an unreachable bank are driven to COMMITTED or FAILED by {@link #recover()}.
+ */
+@Slf4j
+@Service
+public class OtcExerciseService {
+
+    // strike cene su u USD, kao i cene akcija
+    private static final String CURRENCY = "USD";
+    private static final List<OtcExerciseStatus> UNFINISHED = List.of(OtcExerciseStatus.STARTED,
+            OtcExerciseStatus.SHARES_RESERVED, OtcExerciseStatus.COMMITTING, OtcExerciseStatus.COMPENSATING);
+
+    private final OtcOptionRepository otcOptionRepository;
+    private final OtcExerciseRepository otcExerciseRepository;
+    private final PortfolioEntryRepository portfolioEntryRepository;
+    private final OtcShareLedger otcShareLedger;
+    private final BankClient bankClient;
+    private final long staleMillis;
+
+    public OtcExerciseService(OtcOptionRepository otcOptionRepository,
+                              OtcExerciseRepository otcExerciseRepository,
+                              PortfolioEntryRepository portfolioEntryRepository,
+                              OtcShareLedger otcShareLedger,
+                              BankClient bankClient,
+                              @Value("${otc.exercise.stale-ms:300000}") long staleMillis) {
+        this.otcOptionRepository = otcOptionRepository;
+        this.otcExerciseRepository = otcExerciseRepository;
+        this.portfolioEntryRepository = portfolioEntryRepository;
+        this.otcShareLedger = otcShareLedger;
+        this.bankClient = bankClient;
+        this.staleMillis = staleMillis;
+    }
+
+    public OtcExerciseDto exercise(Long optionId, Long buyerId, String accountNumber) {
+        OtcOption option = otcOptionRepository.findById(optionId)
+                .orElseThrow(() -> new EntityNotFoundException("Option not found"));
+        if (!buyerId.equals(option.getBuyerId())) {
+            throw new UnauthorizedActionException("Not allowed to exercise this option");
+        }
+        // only one exercise can hold the option, a second click or a concurrent request stops here
+        if (otcOptionRepository.claim(optionId, OtcOptionStatus.VALID, LocalDate.now()) == 0) {
+            throw new OtcExerciseException("Option is already used or has expired");
+        }
+
+        PortfolioEntry sellerEntry = portfolioEntryRepository
+                .findByUserIdAndListingId(option.getSellerId(), option.getUnderlyingStock().getId())
+                .orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        OtcExercise exercise = otcExerciseRepository.save(OtcExercise.builder()
+                .option(option)
+                .buyerId(buyerId)
+                .sellerId(option.getSellerId())
+                .sellerEntryId(sellerEntry != null ? sellerEntry.getId() : null)
+                .buyerAccountNumber(accountNumber)
+                .amount(option.getAmount())
+                .totalPrice(option.getStrikePrice().multiply(BigDecimal.valueOf(option.getAmount())))
+                .status(OtcExerciseStatus.STARTED)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        if (sellerEntry == null || !otcShareLedger.reserveShares(exercise)) {
+            return fail(exercise.getId(), OtcExerciseStatus.STARTED, "Seller does not have enough public shares");
+        }
+
+        FundsReservationDto funds;
+        try {
+            funds = bankClient.reserveFunds(new ReserveFundsDto(exercise.getFundsReference(), accountNumber, buyerId,
+                    null, exercise.getSellerId(), exercise.getTotalPrice(), CURRENCY, "OTC option exercise"));
+        } catch (Exception e) {
+            log.warn("Reserving funds for OTC exercise {} failed", exercise.getId(), e);
+            return fail(exercise.getId(), OtcExerciseStatus.SHARES_RESERVED, "Funds could not be reserved");
+        }
+        if (funds == null || funds.getStatus() != FundsReservationStatus.RESERVED) {
+            String reason = funds != null && funds.getMessage() != null ? funds.getMessage() : "Funds could not be reserved";
+            return fail(exercise.getId(), OtcExerciseStatus.SHARES_RESERVED, reason);
+        }
+
+        // od ove tacke se izvrsenje samo zavrsava, nikad ne ponistava
+        if (otcExerciseRepository.transition(exercise.getId(), OtcExerciseStatus.SHARES_RESERVED,
+                OtcExerciseStatus.COMMITTING, LocalDateTime.now()) == 1) {
+            commit(exercise.getId());
+        }
+        return toDto(exercise.getId());
+    }
+
+    /**
+     * Finishes exercises whose request thread died or could not reach bank-service. Ones that had both
+     * sides reserved are committed, everything earlier is compensated. Both paths are safe to repeat.
+     */
+    @Scheduled(fixedDelayString = "${otc.exercise.recovery-interval-ms:60000}")
+    public void recover() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(staleMillis));
+        for (OtcExercise exercise : otcExerciseRepository.findAllByStatusInAndUpdatedAtBefore(UNFINISHED, cutoff)) {
+            switch (exercise.getStatus()) {
+                case COMMITTING -> commit(exercise.getId());
+                case COMPENSATING -> compensate(exercise.getId());
+                default -> {
+                    if (otcExerciseRepository.startCompensation(exercise.getId(), exercise.getStatus(),
+                            "Interrupted before both sides were reserved", LocalDateTime.now()) == 1) {
+                        compensate(exercise.getId());
+                    }
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "${otc.exercise.expiry-cron:0 5 0 * * *}")
+    public void expireOptions() {
+        int expired = otcOptionRepository.expireUnused(OtcOptionStatus.EXPIRED, LocalDate.now());
+        log.info("Expired {} unexercised OTC options", expired);
+    }
+
+    private OtcExerciseDto fail(Long exerciseId, OtcExerciseStatus from, String reason) {
+        if (otcExerciseRepository.startCompensation(exerciseId, from, reason, LocalDateTime.now()) == 1) {
+            compensate(exerciseId);
+        }
+        return toDto(exerciseId);
+    }
+
+    private void commit(Long exerciseId) {
+        OtcExercise exercise = otcExerciseRepository.findById(exerciseId).orElseThrow();
+        try {
+            FundsReservationDto funds = bankClient.commitFundsReservation(exercise.getFundsReference());
+            if (funds == null || funds.getStatus() != FundsReservationStatus.COMMITTED) {
+                log.error("Bank did not commit funds for OTC exercise {}: {}", exerciseId, funds);
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Committing funds for OTC exercise {} failed, will retry", exerciseId, e);
+            return;
+        }
+        otcShareLedger.commit(exerciseId);
+    }
+
+    private void compensate(Long exerciseId) {
+        OtcExercise exercise = otcExerciseRepository.findById(exerciseId).orElseThrow();
+        // funds are only ever reserved after the shares, so without shares there is nothing in the bank
+        if (exercise.isSharesReserved()) {
+            try {
+                bankClient.releaseFundsReservation(exercise.getFundsReference());
+            } catch (Exception e) {
+                log.warn("Releasing funds for OTC exercise {} failed, will retry", exerciseId, e);
+                return;
+            }
+        }
+        otcShareLedger.compensate(exerciseId);
+    }
+
+    private OtcExerciseDto toDto(Long exerciseId) {
+        OtcExercise exercise = otcExerciseRepository.findById(exerciseId).orElseThrow();
+        return OtcExerciseDto.builder()
+                .id(exercise.getId())
+                .optionId(exercise.getOption().getId())
+                .amount(exercise.getAmount())
+                .totalPrice(exercise.getTotalPrice())
+                .status(exercise.getStatus())
+                .failureReason(exercise.getFailureReason())
+                .updatedAt(exercise.getUpdatedAt())
+                .build();
+    }
+}
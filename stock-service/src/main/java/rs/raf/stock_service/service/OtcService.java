@@ -2,19 +2,26 @@ package rs.raf.stock_service.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import rs.raf.stock_service.client.UserClient;
 import rs.raf.stock_service.domain.dto.*;
 import rs.raf.stock_service.domain.entity.OtcOffer;
+import rs.raf.stock_service.domain.entity.OtcOfferEvent;
 import rs.raf.stock_service.domain.entity.OtcOption;
 import rs.raf.stock_service.domain.entity.PortfolioEntry;
 import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.OtcOfferEventType;
 import rs.raf.stock_service.domain.enums.OtcOfferStatus;
 import rs.raf.stock_service.domain.mapper.OtcOfferMapper;
 import rs.raf.stock_service.domain.mapper.OtcOptionMapper;
 import rs.raf.stock_service.exceptions.InvalidPublicAmountException;
+import rs.raf.stock_service.exceptions.OtcOfferConflictException;
 import rs.raf.stock_service.exceptions.PortfolioEntryNotFoundException;
 import rs.raf.stock_service.exceptions.UnauthorizedActionException;
+import rs.raf.stock_service.repository.OtcOfferEventRepository;
 import rs.raf.stock_service.repository.OtcOfferRepository;
 import rs.raf.stock_service.repository.OtcOptionRepository;
 import rs.raf.stock_service.repository.PortfolioEntryRepository;
@@ -24,15 +31,23 @@ import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class OtcService {
 
+    // kursor prve strane, posle svake realne ponude
+    private static final LocalDateTime FIRST_PAGE_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    // ponude bez lastModified idu na kraj umesto da obore sortiranje
+    private static final Comparator<OtcOffer> NEWEST_FIRST = Comparator
+            .comparing(OtcOffer::getLastModified, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(OtcOffer::getId, Comparator.reverseOrder());
+    private static final String UNKNOWN_USER = "Unknown User";
+
     private final OtcOfferRepository otcOfferRepository;
     private final PortfolioEntryRepository portfolioEntryRepository;
     private final OtcOfferMapper otcOfferMapper;
@@ -40,6 +55,7 @@ public class OtcService {
     private final OtcOptionRepository optionRepository;
     private final OtcOptionRepository otcOptionRepository;
     private final OtcOptionMapper otcOptionMapper;
+    private final OtcOfferEventRepository otcOfferEventRepository;
 
     public OtcOfferDto createOffer(CreateOtcOfferDto dto, Long buyerId) {
         PortfolioEntry sellerEntry = portfolioEntryRepository.findById(dto.getPortfolioEntryId())
@@ -56,107 +72,163 @@ public class OtcService {
                 .stock(stock)
                 .buyerId(buyerId)
                 .sellerId(sellerId)
-                .amount(dto.getAmount().intValue())
-                .pricePerStock(dto.getPricePerStock())
-                .premium(dto.getPremium())
-                .settlementDate(dto.getSettlementDate())
-                .status(OtcOfferStatus.PENDING)
-                .lastModified(LocalDateTime.now())
-                .lastModifiedById(buyerId)
                 .build();
+        OtcOfferEvent event = event(offer, OtcOfferEventType.CREATED, buyerId, dto.getAmount().intValue(),
+                dto.getPricePerStock(), dto.getPremium(), dto.getSettlementDate());
+        event.applyTo(offer);
 
-        return otcOfferMapper.toDto(otcOfferRepository.save(offer), buyerId);
+        offer = otcOfferRepository.save(offer);
+        otcOfferEventRepository.save(event);
+        return otcOfferMapper.toDto(offer, buyerId);
     }
 
-    public List<OtcOfferDto> getAllActiveOffersForUser(Long userId) {
-        return otcOfferRepository.findAllByStatus(OtcOfferStatus.PENDING).stream()
-                .filter(offer -> offer.getSellerId().equals(userId) || offer.getBuyerId().equals(userId))
-                .sorted(Comparator.comparing(OtcOffer::getLastModified).reversed())
+    /**
+     * Pending offers where the user is buyer or seller, newest first. The next page is requested with
+     * the lastModified and id of the last offer returned; both are null for the first page.
+     */
+    public List<OtcOfferDto> getAllActiveOffersForUser(Long userId, LocalDateTime beforeModified, Long beforeId, int limit) {
+        if (beforeModified == null || beforeId == null) {
+            beforeModified = FIRST_PAGE_CURSOR;
+            beforeId = Long.MAX_VALUE;
+        }
+        Pageable page = PageRequest.of(0, limit);
+
+        // each side is one index range scan, at most `limit` rows from each are merged here
+        List<OtcOffer> offers = Stream.concat(
+                        otcOfferRepository.findSellerInbox(OtcOfferStatus.PENDING, userId, beforeModified, beforeId, page).stream(),
+                        otcOfferRepository.findBuyerInbox(OtcOfferStatus.PENDING, userId, beforeModified, beforeId, page).stream())
+                .sorted(NEWEST_FIRST)
+                .distinct()
+                .limit(limit)
+                .toList();
+
+        Map<OtcOffer, Long> counterparties = new LinkedHashMap<>();
+        for (OtcOffer offer : offers) {
+            if (!offer.getLastModifiedById().equals(userId)) {
+                counterparties.put(offer, offer.getLastModifiedById()); // Onaj koji je poslednji slao
+            } else {
+                counterparties.put(offer, userId.equals(offer.getBuyerId()) ? offer.getSellerId() : offer.getBuyerId()); // druga strana
+            }
+        }
+        Map<Long, String> names = resolveUserNames(new HashSet<>(counterparties.values()));
+
+        return offers.stream()
                 .map(offer -> {
                     OtcOfferDto dto = otcOfferMapper.toDto(offer, userId);
-
-                    boolean canInteract = !offer.getLastModifiedById().equals(userId);
-                    dto.setCanInteract(canInteract);
-
-                    Long nameUserId;
-                    if (canInteract) {
-                        nameUserId = offer.getLastModifiedById(); // Onaj koji je poslednji slao
-                    } else {
-                        nameUserId = userId.equals(offer.getBuyerId()) ? offer.getSellerId() : offer.getBuyerId(); // druga strana
-                    }
-
-                    dto.setName(resolveUserName(nameUserId));
+                    dto.setCanInteract(!offer.getLastModifiedById().equals(userId));
+                    dto.setName(names.getOrDefault(counterparties.get(offer), UNKNOWN_USER));
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    // expectedVersion je verzija ponude koju je korisnik video; null preskace proveru (stari klijenti)
     @Transactional
-    public void acceptOffer(Long offerId, Long userId) {
-        OtcOffer offer = otcOfferRepository.findById(offerId)
-                .orElseThrow(() -> new EntityNotFoundException("Offer not found"));
+    public void acceptOffer(Long offerId, Long userId, Long expectedVersion) {
+        OtcOffer offer = findForCounterparty(offerId, userId, expectedVersion);
+        record(offer, event(offer, OtcOfferEventType.ACCEPTED, userId, offer.getAmount(), offer.getPricePerStock(),
+                offer.getPremium(), offer.getSettlementDate()));
+    }
 
-        if (!(userId.equals(offer.getSellerId()) || userId.equals(offer.getBuyerId()))
-                || offer.getLastModifiedById().equals(userId)) {
-            throw new UnauthorizedActionException("Not allowed to update this offer");
-        }
+    @Transactional
+    public void rejectOffer(Long offerId, Long userId, Long expectedVersion) {
+        OtcOffer offer = findForCounterparty(offerId, userId, expectedVersion);
+        record(offer, event(offer, OtcOfferEventType.REJECTED, userId, offer.getAmount(), offer.getPricePerStock(),
+                offer.getPremium(), offer.getSettlementDate()));
+    }
 
-        offer.setStatus(OtcOfferStatus.ACCEPTED);
-        offer.setLastModified(LocalDateTime.now());
-        offer.setLastModifiedById(userId);
-        otcOfferRepository.save(offer);
+    @Transactional
+    public void updateOffer(Long offerId, Long userId, CreateOtcOfferDto dto, Long expectedVersion) {
+        OtcOffer offer = findForCounterparty(offerId, userId, expectedVersion);
+        record(offer, event(offer, OtcOfferEventType.COUNTERED, userId, dto.getAmount().intValue(),
+                dto.getPricePerStock(), dto.getPremium(), dto.getSettlementDate()));
     }
 
     @Transactional
-    public void rejectOffer(Long offerId, Long userId) {
-        OtcOffer offer = otcOfferRepository.findById(offerId)
-                .orElseThrow(() -> new EntityNotFoundException("Offer not found"));
+    public void cancelOffer(Long offerId, Long userId, Long expectedVersion) {
+        OtcOffer offer = findPending(offerId, expectedVersion);
 
-        if (!(userId.equals(offer.getSellerId()) || userId.equals(offer.getBuyerId()))
-                || offer.getLastModifiedById().equals(userId)) {
-            throw new UnauthorizedActionException("Not allowed to update this offer");
+        //  samo ako je korisnik poslednji modifikovao ponudu
+        if (!offer.getLastModifiedById().equals(userId)) {
+            throw new UnauthorizedActionException("Not allowed to cancel this offer");
         }
 
-        offer.setStatus(OtcOfferStatus.REJECTED);
-        offer.setLastModified(LocalDateTime.now());
-        offer.setLastModifiedById(userId);
-        otcOfferRepository.save(offer);
+        record(offer, event(offer, OtcOfferEventType.CANCELLED, userId, offer.getAmount(), offer.getPricePerStock(),
+                offer.getPremium(), offer.getSettlementDate()));
     }
 
-    @Transactional
-    public void updateOffer(Long offerId, Long userId, CreateOtcOfferDto dto) {
+    public List<OtcOfferEventDto> getNegotiationHistory(Long offerId, Long userId) {
         OtcOffer offer = otcOfferRepository.findById(offerId)
                 .orElseThrow(() -> new EntityNotFoundException("Offer not found"));
+        if (!(userId.equals(offer.getSellerId()) || userId.equals(offer.getBuyerId()))) {
+            throw new UnauthorizedActionException("Not allowed to view this offer");
+        }
+
+        return otcOfferEventRepository.findAllByOfferIdOrderByIdAsc(offerId).stream()
+                .map(event -> OtcOfferEventDto.builder()
+                        .type(event.getType())
+                        .actorId(event.getActorId())
+                        .amount(event.getAmount())
+                        .pricePerStock(event.getPricePerStock())
+                        .premium(event.getPremium())
+                        .settlementDate(event.getSettlementDate())
+                        .offerVersion(event.getOfferVersion())
+                        .createdAt(event.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private OtcOffer findForCounterparty(Long offerId, Long userId, Long expectedVersion) {
+        OtcOffer offer = findPending(offerId, expectedVersion);
 
         if (!(userId.equals(offer.getSellerId()) || userId.equals(offer.getBuyerId()))
                 || offer.getLastModifiedById().equals(userId)) {
             throw new UnauthorizedActionException("Not allowed to update this offer");
         }
-
-        offer.setAmount(dto.getAmount().intValue());
-        offer.setPricePerStock(dto.getPricePerStock());
-        offer.setPremium(dto.getPremium());
-        offer.setSettlementDate(dto.getSettlementDate());
-        offer.setLastModified(LocalDateTime.now());
-        offer.setLastModifiedById(userId);
-        offer.setStatus(OtcOfferStatus.PENDING);
-        otcOfferRepository.save(offer);
+        return offer;
     }
 
-    @Transactional
-    public void cancelOffer(Long offerId, Long userId) {
+    private OtcOffer findPending(Long offerId, Long expectedVersion) {
         OtcOffer offer = otcOfferRepository.findById(offerId)
                 .orElseThrow(() -> new EntityNotFoundException("Offer not found"));
 
-        //  samo ako je korisnik poslednji modifikovao ponudu
-        if (!offer.getLastModifiedById().equals(userId)) {
-            throw new UnauthorizedActionException("Not allowed to cancel this offer");
+        // the user acted on a version the other side has already replaced
+        if (expectedVersion != null && !expectedVersion.equals(offer.getVersion())) {
+            throw new OtcOfferConflictException(offerId);
         }
+        if (offer.getStatus() != OtcOfferStatus.PENDING) {
+            throw new UnauthorizedActionException("Offer is no longer pending");
+        }
+        return offer;
+    }
 
-        offer.setStatus(OtcOfferStatus.CANCELLED);
-        offer.setLastModified(LocalDateTime.now());
-        offer.setLastModifiedById(userId);
-        otcOfferRepository.save(offer);
+    private OtcOfferEvent event(OtcOffer offer, OtcOfferEventType type, Long actorId, Integer amount,
+                                BigDecimal pricePerStock, BigDecimal premium, LocalDate settlementDate) {
+        return OtcOfferEvent.builder()
+                .offer(offer)
+                .type(type)
+                .actorId(actorId)
+                .amount(amount)
+                .pricePerStock(pricePerStock)
+                .premium(premium)
+                .settlementDate(settlementDate)
+                .offerVersion(offer.getVersion() == null ? 0L : offer.getVersion() + 1)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Appends the event and projects it onto the offer row. The flush runs the versioned UPDATE here,
+     * so a concurrent change is reported as a conflict instead of being overwritten.
+     */
+    private void record(OtcOffer offer, OtcOfferEvent event) {
+        event.applyTo(offer);
+        try {
+            otcOfferRepository.saveAndFlush(offer);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new OtcOfferConflictException(offer.getId());
+        }
+        otcOfferEventRepository.save(event);
     }
 
     public List<OtcOptionDto> getOtcOptionsForUser(Boolean valid, Long userId) {
@@ -177,22 +249,21 @@ public class OtcService {
     }
 
 
-    private String resolveUserName(Long userId) {
+    private Map<Long, String> resolveUserNames(Set<Long> userIds) {
+        if (userIds.isEmpty())
+            return Map.of();
         try {
-            ClientDto client = userClient.getClientById(userId);
-            return formatName(client.getFirstName(), client.getLastName());
-        } catch (Exception e1) {
-            try {
-                ActuaryDto actuary = userClient.getEmployeeById(userId);
-                return formatName(actuary.getFirstName(), actuary.getLastName());
-            } catch (Exception e2) {
-                return "Unknown User";
-            }
+            return userClient.getUserNames(userIds).stream()
+                    .collect(Collectors.toMap(UserNameDto::getId, user -> formatName(user.getFirstName(), user.getLastName()),
+                            (first, second) -> first));
+        } catch (Exception e) {
+            log.warn("Resolving names of {} OTC counterparties failed", userIds.size(), e);
+            return Map.of();
         }
     }
 
     private String formatName(String firstName, String lastName) {
-        if (firstName == null && lastName == null) return "Unknown User";
+        if (firstName == null && lastName == null) return UNKNOWN_USER;
         return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
     }
 }
@@ -0,0 +1,127 @@
+package rs.raf.stock_service.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import rs.raf.stock_service.domain.entity.Listing;
+import rs.raf.stock_service.domain.entity.OtcExercise;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+import rs.raf.stock_service.exceptions.PortfolioEntryNotFoundException;
+import rs.raf.stock_service.repository.OtcExerciseRepository;
+import rs.raf.stock_service.repository.OtcOptionRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+
+import javax.transaction.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Local (stock-service database) steps of an OTC option exercise. Each method is one transaction that
+ * changes the shares together with the exercise status, so a step is applied at most once even when
+ * the request thread and the recovery job race on the same exercise.
+ */
+@Service
+@AllArgsConstructor
+public class OtcShareLedger {
+
+    private final OtcExerciseRepository otcExerciseRepository;
+    private final OtcOptionRepository otcOptionRepository;
+    private final PortfolioEntryRepository portfolioEntryRepository;
+    private final PortfolioValuationService portfolioValuationService;
+
+    /**
+     * Moves the seller's public shares to reserved. Returns false, leaving the exercise STARTED, if the
+     * seller no longer has enough of them public.
+     */
+    @Transactional
+    public boolean reserveShares(OtcExercise exercise) {
+        LocalDateTime now = LocalDateTime.now();
+        if (otcExerciseRepository.transition(exercise.getId(), OtcExerciseStatus.STARTED,
+                OtcExerciseStatus.SHARES_RESERVED, now) == 0) {
+            return false;
+        }
+        if (portfolioEntryRepository.reservePublic(exercise.getSellerEntryId(), exercise.getAmount()) == 0) {
+            otcExerciseRepository.transition(exercise.getId(), OtcExerciseStatus.SHARES_RESERVED,
+                    OtcExerciseStatus.STARTED, now);
+            return false;
+        }
+        portfolioEntryRepository.findById(exercise.getSellerEntryId()).ifPresent(portfolioValuationService::onEntryUpdated);
+        exercise.setSharesReserved(true);
+        exercise.setStatus(OtcExerciseStatus.SHARES_RESERVED);
+        exercise.setUpdatedAt(now);
+        otcExerciseRepository.save(exercise);
+        return true;
+    }
+
+    /**
+     * Gives the seller's shares back and frees the option. The bank reservation must already be released.
+     */
+    @Transactional
+    public void compensate(Long exerciseId) {
+        if (otcExerciseRepository.transition(exerciseId, OtcExerciseStatus.COMPENSATING, OtcExerciseStatus.FAILED,
+                LocalDateTime.now()) == 0) {
+            return;
+        }
+        OtcExercise exercise = otcExerciseRepository.findById(exerciseId).orElseThrow();
+        if (exercise.isSharesReserved()) {
+            portfolioEntryRepository.releaseReserved(exercise.getSellerEntryId(), exercise.getAmount());
+            portfolioEntryRepository.findById(exercise.getSellerEntryId()).ifPresent(portfolioValuationService::onEntryUpdated);
+        }
+        otcOptionRepository.unclaim(exercise.getOption().getId());
+    }
+
+    /**
+     * Moves the reserved shares from the seller to the buyer at the strike price. The buyer has already paid.
+     */
+    @Transactional
+    public void commit(Long exerciseId) {
+        if (otcExerciseRepository.transition(exerciseId, OtcExerciseStatus.COMMITTING, OtcExerciseStatus.COMMITTED,
+                LocalDateTime.now()) == 0) {
+            return;
+        }
+        OtcExercise exercise = otcExerciseRepository.findById(exerciseId).orElseThrow();
+        int amount = exercise.getAmount();
+        BigDecimal strike = exercise.getOption().getStrikePrice();
+
+        PortfolioEntry seller = portfolioEntryRepository.findById(exercise.getSellerEntryId())
+                .orElseThrow(PortfolioEntryNotFoundException::new);
+        Listing listing = seller.getListing();
+        seller.setAmount(seller.getAmount() - amount);
+        seller.setReservedAmount(seller.getReservedAmount() - amount);
+        seller.setLastModified(LocalDateTime.now());
+        if (seller.getAmount() <= 0) {
+            portfolioEntryRepository.delete(seller);
+            portfolioValuationService.onEntryRemoved(seller.getUserId(), listing.getId());
+        } else {
+            portfolioEntryRepository.save(seller);
+            portfolioValuationService.onEntryUpdated(seller);
+        }
+
+        PortfolioEntry buyer = portfolioEntryRepository.findByUserIdAndListingId(exercise.getBuyerId(), listing.getId())
+                .orElse(null);
+        if (buyer == null) {
+            buyer = PortfolioEntry.builder()
+                    .userId(exercise.getBuyerId())
+                    .listing(listing)
+                    .type(listing.getType())
+                    .amount(amount)
+                    .averagePrice(strike)
+                    .publicAmount(0)
+                    .reservedAmount(0)
+                    .inTheMoney(false)
+                    .used(false)
+                    .lastModified(LocalDateTime.now())
+                    .build();
+        } else {
+            int newAmount = buyer.getAmount() + amount;
+            BigDecimal oldTotal = buyer.getAveragePrice().multiply(BigDecimal.valueOf(buyer.getAmount()));
+            BigDecimal newTotal = strike.multiply(BigDecimal.valueOf(amount));
+            buyer.setAmount(newAmount);
+            buyer.setAveragePrice(oldTotal.add(newTotal).divide(BigDecimal.valueOf(newAmount), RoundingMode.HALF_UP));
+            buyer.setLastModified(LocalDateTime.now());
+        }
+        portfolioEntryRepository.save(buyer);
+        portfolioValuationService.onEntryUpdated(buyer);
+    }
+}
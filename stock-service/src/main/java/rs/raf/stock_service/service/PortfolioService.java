@@ -10,6 +10,7 @@ import rs.raf.stock_service.domain.dto.*;
 import rs.raf.stock_service.domain.entity.*;
 import rs.raf.stock_service.domain.enums.ListingType;
 import rs.raf.stock_service.domain.enums.OrderDirection;
+import rs.raf.stock_service.exceptions.InsufficientSharesException;
 import rs.raf.stock_service.exceptions.InvalidListingTypeException;
 import rs.raf.stock_service.exceptions.InvalidPublicAmountException;
 import rs.raf.stock_service.exceptions.PortfolioEntryNotFoundException;
@@ -25,7 +26,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -42,6 +42,7 @@ public class PortfolioService {
     private final ListingPriceHistoryRepository dailyPriceInfoRepository;
     private final OrderRepository orderRepository;
     private final JwtTokenUtil jwtTokenUtil;
+    private final PortfolioValuationService portfolioValuationService;
 
     public void updateHoldingsOnOrderExecution(Order order) {
         if (!order.getIsDone()) return;
@@ -77,39 +78,38 @@ public class PortfolioService {
                 entry.setLastModified(LocalDateTime.now());
             }
             portfolioEntryRepository.save(entry);
+            portfolioValuationService.onEntryUpdated(entry);
 
         } else if (order.getDirection() == OrderDirection.SELL && entry != null) {
+            // shares locked for an OTC exercise are the buyer's once it commits, a sale cannot take them;
+            // OrderService checks this before the order is created and executed
+            int reserved = reservedAmount(entry);
+            if (totalQuantity > availableAmount(entry)) {
+                throw new InsufficientSharesException(totalQuantity, availableAmount(entry));
+            }
             int remaining = entry.getAmount() - totalQuantity;
             if (remaining <= 0) {
                 portfolioEntryRepository.delete(entry);
+                portfolioValuationService.onEntryRemoved(order.getUserId(), order.getListing().getId());
             } else {
                 entry.setAmount(remaining);
+                if (entry.getPublicAmount() != null && entry.getPublicAmount() > remaining - reserved) {
+                    entry.setPublicAmount(remaining - reserved);
+                }
                 entry.setLastModified(LocalDateTime.now());
                 portfolioEntryRepository.save(entry);
+                portfolioValuationService.onEntryUpdated(entry);
             }
+            portfolioValuationService.onRealizedProfit(order.getUserId(), order.getProfit());
         }
     }
 
     public List<PortfolioEntryDto> getPortfolioForUser(Long userId) {
-        return portfolioEntryRepository.findAllByUserId(userId).stream()
-                .map(entry -> {
-                    // Dohvatanje poslednjeg zapisa sa podacima o cenama
-                    BigDecimal latestPrice = entry.getListing().getPrice();
-                    BigDecimal profit = BigDecimal.ZERO;
-
-                    if (latestPrice != null && entry.getAveragePrice() != null ) {
-                        // Profit sada koristi `close` umesto `price`
-                        profit = latestPrice
-                                .subtract(entry.getAveragePrice())
-                                .multiply(BigDecimal.valueOf(entry.getAmount()));
-                    }
-
-                    // Mapiranje PortfolioEntry u PortfolioEntryDto
-                    return PortfolioMapper.toDto(entry,
-                            entry.getListing().getName(),
-                            entry.getListing().getTicker(),
-                            profit);
-                }).collect(Collectors.toList());
+        return portfolioValuationService.getPositions(userId);
+    }
+
+    public PortfolioValuationDto getValuation(Long userId) {
+        return portfolioValuationService.getValuation(userId);
     }
 
     public void setPublicAmount(Long userId, SetPublicAmountDto dto) {
@@ -122,14 +122,16 @@ public class PortfolioService {
         }
 
 
-        if (dto.getPublicAmount() > entry.getAmount()) {
-            throw new InvalidPublicAmountException("Public amount cannot exceed owned amount.");
+        // reserved shares were public before an OTC exercise locked them
+        if (dto.getPublicAmount() > availableAmount(entry)) {
+            throw new InvalidPublicAmountException("Public amount cannot exceed owned amount not reserved for OTC exercises.");
         }
 
         entry.setPublicAmount(dto.getPublicAmount());
         entry.setLastModified(LocalDateTime.now());
 
         portfolioEntryRepository.save(entry);
+        portfolioValuationService.onEntryUpdated(entry);
     }
 
 
@@ -169,21 +171,25 @@ public class PortfolioService {
     public TaxGetResponseDto getTaxes(String authHeader){
         Long userId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
-        List<Order> orders = orderRepository.findAllByUserId(userId);
-        TaxGetResponseDto taxGetResponseDto = new TaxGetResponseDto();
-
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneMonthAgo = now.minus(1, ChronoUnit.MONTHS);
+        LocalDateTime startOfYear = now.toLocalDate().withDayOfYear(1).atStartOfDay();
 
-        for(Order currOrder : orders){
-            LocalDateTime currOrderDate = currOrder.getLastModification();
-            if(currOrderDate.isAfter(oneMonthAgo) && currOrderDate.isBefore(now) && currOrder.getTaxStatus().equals(TaxStatus.PENDING)){
-                taxGetResponseDto.setUnpaidForThisMonth(taxGetResponseDto.getUnpaidForThisMonth().add(currOrder.getTaxAmount()));
-            }
-            if(currOrderDate.getYear() == now.getYear() && currOrder.getTaxStatus().equals(TaxStatus.PAID)){
-                taxGetResponseDto.setPaidForThisYear(taxGetResponseDto.getPaidForThisYear().add(currOrder.getTaxAmount()));
-            }
-        }
+        TaxGetResponseDto taxGetResponseDto = new TaxGetResponseDto();
+        taxGetResponseDto.setUnpaidForThisMonth(
+                orderRepository.sumTaxAmount(userId, TaxStatus.PENDING, now.minusMonths(1), now));
+        taxGetResponseDto.setPaidForThisYear(
+                orderRepository.sumTaxAmount(userId, TaxStatus.PAID, startOfYear, startOfYear.plusYears(1)));
         return taxGetResponseDto;
     }
+
+    /**
+     * Shares of the entry that can be sold or made public, i.e. not reserved for OTC exercises.
+     */
+    public static int availableAmount(PortfolioEntry entry) {
+        return entry.getAmount() - reservedAmount(entry);
+    }
+
+    private static int reservedAmount(PortfolioEntry entry) {
+        return entry.getReservedAmount() != null ? entry.getReservedAmount() : 0;
+    }
 }
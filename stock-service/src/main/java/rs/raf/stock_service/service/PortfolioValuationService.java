@@ -0,0 +1,330 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.stock_service.domain.dto.PortfolioEntryDto;
+import rs.raf.stock_service.domain.dto.PortfolioValuationDto;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.repository.OrderRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Running positions, cost basis and profit per user, kept in memory once the user's portfolio has
+ * been read. Fills replace the affected position and price refreshes revalue only the users holding
+ * that listing, so the totals are adjusted incrementally instead of being recomputed per request.
+ * Users that are not loaded are skipped by both and picked up from the database on the next read;
+ * books not read for {@code portfolio.valuation.idle-ms} are dropped. Changes made inside a transaction
+ * reach the books only once it commits.
+ */
+@Slf4j
+@Service
+public class PortfolioValuationService {
+
+    private final PortfolioEntryRepository portfolioEntryRepository;
+    private final OrderRepository orderRepository;
+    private final long idleMillis;
+
+    private final Map<Long, Book> books = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> holdersByListing = new ConcurrentHashMap<>();
+    // updates for users without a book, see book()
+    private final AtomicLong missedUpdates = new AtomicLong();
+
+    public PortfolioValuationService(PortfolioEntryRepository portfolioEntryRepository,
+                                     OrderRepository orderRepository,
+                                     @Value("${portfolio.valuation.idle-ms:1800000}") long idleMillis) {
+        this.portfolioEntryRepository = portfolioEntryRepository;
+        this.orderRepository = orderRepository;
+        this.idleMillis = idleMillis;
+    }
+
+    public List<PortfolioEntryDto> getPositions(Long userId) {
+        Book book = book(userId);
+        synchronized (book) {
+            return book.positions.values().stream().map(Position::toDto).collect(Collectors.toList());
+        }
+    }
+
+    public PortfolioValuationDto getValuation(Long userId) {
+        Book book = book(userId);
+        synchronized (book) {
+            return PortfolioValuationDto.builder()
+                    .marketValue(book.marketValue)
+                    .costBasis(book.costBasis)
+                    .unrealizedProfit(book.marketValue.subtract(book.costBasis))
+                    .realizedProfit(book.realizedProfit)
+                    .build();
+        }
+    }
+
+    public void onEntryUpdated(PortfolioEntry entry) {
+        // copied now, the entity may be changed again before the transaction commits
+        Position position = new Position(entry);
+        Long userId = entry.getUserId();
+        afterCommit(() -> {
+            Book book = books.computeIfPresent(userId, (id, current) -> {
+                synchronized (current) {
+                    current.put(position);
+                }
+                return current;
+            });
+            if (book != null) {
+                addHolder(position.listingId, userId);
+            } else {
+                missedUpdates.incrementAndGet();
+            }
+        });
+    }
+
+    public void onEntryRemoved(Long userId, Long listingId) {
+        afterCommit(() -> {
+            Book book = books.computeIfPresent(userId, (id, current) -> {
+                synchronized (current) {
+                    current.remove(listingId);
+                }
+                return current;
+            });
+            if (book != null) {
+                removeHolder(listingId, userId, true);
+            } else {
+                missedUpdates.incrementAndGet();
+            }
+        });
+    }
+
+    public void onRealizedProfit(Long userId, BigDecimal profit) {
+        if (profit == null) {
+            return;
+        }
+        afterCommit(() -> {
+            Book book = books.computeIfPresent(userId, (id, current) -> {
+                synchronized (current) {
+                    current.realizedProfit = current.realizedProfit.add(profit);
+                }
+                return current;
+            });
+            if (book == null) {
+                missedUpdates.incrementAndGet();
+            }
+        });
+    }
+
+    public void onPrice(Long listingId, BigDecimal price) {
+        Set<Long> holders = holdersByListing.get(listingId);
+        if (holders == null || price == null) {
+            return;
+        }
+        for (Long userId : holders) {
+            Book book = books.get(userId);
+            if (book == null) {
+                continue;
+            }
+            synchronized (book) {
+                book.reprice(listingId, price);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.valuation.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        List<Long> idle = books.entrySet().stream()
+                .filter(e -> e.getValue().lastRead < cutoff)
+                .map(Map.Entry::getKey)
+                .toList();
+        idle.forEach(this::evict);
+        if (!idle.isEmpty()) {
+            log.debug("Evicted {} idle portfolio books", idle.size());
+        }
+    }
+
+    public void evict(Long userId) {
+        Book book = books.remove(userId);
+        if (book == null) {
+            return;
+        }
+        List<Long> listingIds;
+        synchronized (book) {
+            listingIds = new ArrayList<>(book.positions.keySet());
+        }
+        listingIds.forEach(listingId -> removeHolder(listingId, userId, false));
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    private Book book(Long userId) {
+        Book book = books.get(userId);
+        if (book == null) {
+            // loaded outside the map so the queries do not hold a lock on it; a book that may have missed
+            // an update committed while it was read is returned but not kept
+            long missed = missedUpdates.get();
+            Book loaded = load(userId);
+            if (missedUpdates.get() != missed) {
+                return loaded;
+            }
+            book = books.putIfAbsent(userId, loaded);
+            if (book == null) {
+                book = loaded;
+                List<Long> listingIds;
+                synchronized (book) {
+                    listingIds = new ArrayList<>(book.positions.keySet());
+                }
+                listingIds.forEach(listingId -> addHolder(listingId, userId));
+            }
+        }
+        book.lastRead = System.currentTimeMillis();
+        return book;
+    }
+
+    private Book load(Long userId) {
+        BigDecimal realized = orderRepository.sumRealizedProfit(userId);
+        Book book = new Book(realized != null ? realized : BigDecimal.ZERO);
+        for (PortfolioEntry entry : portfolioEntryRepository.findAllByUserId(userId)) {
+            book.put(new Position(entry));
+        }
+        return book;
+    }
+
+    // books only ever show committed state, a rolled back fill leaves them untouched
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private void addHolder(Long listingId, Long userId) {
+        holdersByListing.compute(listingId, (id, holders) -> {
+            Set<Long> target = holders != null ? holders : ConcurrentHashMap.newKeySet();
+            target.add(userId);
+            return target;
+        });
+    }
+
+    private void removeHolder(Long listingId, Long userId, boolean loaded) {
+        holdersByListing.computeIfPresent(listingId, (id, holders) -> {
+            // an evicted user may have been loaded again in the meantime
+            if (loaded || !books.containsKey(userId)) {
+                holders.remove(userId);
+            }
+            return holders.isEmpty() ? null : holders;
+        });
+    }
+
+    private static final class Book {
+        private final Map<Long, Position> positions = new LinkedHashMap<>();
+        private BigDecimal costBasis = BigDecimal.ZERO;
+        private BigDecimal marketValue = BigDecimal.ZERO;
+        private BigDecimal realizedProfit;
+        private volatile long lastRead;
+
+        private Book(BigDecimal realizedProfit) {
+            this.realizedProfit = realizedProfit;
+        }
+
+        private void put(Position position) {
+            Position previous = positions.put(position.listingId, position);
+            if (previous != null) {
+                subtract(previous);
+            }
+            costBasis = costBasis.add(position.costBasis());
+            marketValue = marketValue.add(position.marketValue());
+        }
+
+        private void remove(Long listingId) {
+            Position previous = positions.remove(listingId);
+            if (previous != null) {
+                subtract(previous);
+            }
+        }
+
+        private void reprice(Long listingId, BigDecimal price) {
+            Position position = positions.get(listingId);
+            if (position == null) {
+                return;
+            }
+            marketValue = marketValue.subtract(position.marketValue());
+            position.price = price;
+            marketValue = marketValue.add(position.marketValue());
+        }
+
+        private void subtract(Position position) {
+            costBasis = costBasis.subtract(position.costBasis());
+            marketValue = marketValue.subtract(position.marketValue());
+        }
+    }
+
+    private static final class Position {
+        private final Long listingId;
+        private final Long entryId;
+        private final String name;
+        private final String ticker;
+        private final ListingType type;
+        private final Integer amount;
+        private final BigDecimal averagePrice;
+        private final Integer publicAmount;
+        private final Boolean inTheMoney;
+        private final Boolean used;
+        private final LocalDateTime lastModified;
+        private BigDecimal price;
+
+        private Position(PortfolioEntry entry) {
+            this.listingId = entry.getListing().getId();
+            this.entryId = entry.getId();
+            this.name = entry.getListing().getName();
+            this.ticker = entry.getListing().getTicker();
+            this.type = entry.getType();
+            this.amount = entry.getAmount();
+            this.averagePrice = entry.getAveragePrice();
+            this.publicAmount = entry.getPublicAmount();
+            this.inTheMoney = entry.getInTheMoney();
+            this.used = entry.getUsed();
+            this.lastModified = entry.getLastModified();
+            this.price = entry.getListing().getPrice();
+        }
+
+        private BigDecimal costBasis() {
+            return averagePrice != null ? averagePrice.multiply(BigDecimal.valueOf(amount)) : BigDecimal.ZERO;
+        }
+
+        // without a price (or a cost) the position is carried at cost, i.e. with zero profit
+        private BigDecimal marketValue() {
+            return price != null && averagePrice != null ? price.multiply(BigDecimal.valueOf(amount)) : costBasis();
+        }
+
+        private PortfolioEntryDto toDto() {
+            return PortfolioEntryDto.builder()
+                    .id(entryId)
+                    .securityName(name)
+                    .ticker(ticker)
+                    .type(type)
+                    .amount(amount)
+                    .averagePrice(averagePrice)
+                    .profit(marketValue().subtract(costBasis()))
+                    .lastModified(lastModified)
+                    .publicAmount(publicAmount)
+                    .inTheMoney(inTheMoney)
+                    .used(used)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.stock_service.configuration.RabbitMQConfig;
+import rs.raf.stock_service.domain.dto.CreatePriceAlertDto;
+import rs.raf.stock_service.domain.dto.PriceAlertDto;
+import rs.raf.stock_service.domain.dto.PriceAlertMessageDto;
+import rs.raf.stock_service.domain.entity.Listing;
+import rs.raf.stock_service.domain.entity.PriceAlert;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+import rs.raf.stock_service.exceptions.ListingNotFoundException;
+import rs.raf.stock_service.exceptions.PriceAlertNotFoundException;
+import rs.raf.stock_service.repository.ListingRepository;
+import rs.raf.stock_service.repository.PriceAlertRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Price alerts and their trigger engine. Active alerts are indexed in memory per listing in two maps
+ * sorted by target price, one per direction, so a price update finds the crossed alerts with a range
+ * view ({@code O(log n + k)}) instead of scanning all alerts.
+ * <p>
+ * A triggered alert is deactivated in the database, and that row is the outbox of its notification: a
+ * relay publishes triggered alerts without {@code notifiedAt} to the email-service queue and sets it once
+ * the broker confirmed the message and did not return it as unroutable. The message id is derived from
+ * the alert id, so a resend after a crash carries the same id.
+ */
+@Slf4j
+@Service
+public class PriceAlertService {
+
+    private final PriceAlertRepository priceAlertRepository;
+    private final ListingRepository listingRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final int notifyBatchSize;
+    private final long confirmTimeoutMillis;
+
+    private final Map<Long, Book> books = new ConcurrentHashMap<>();
+
+    public PriceAlertService(PriceAlertRepository priceAlertRepository,
+                             ListingRepository listingRepository,
+                             RabbitTemplate rabbitTemplate,
+                             @Value("${price-alerts.notify-batch-size:100}") int notifyBatchSize,
+                             @Value("${price-alerts.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        this.priceAlertRepository = priceAlertRepository;
+        this.listingRepository = listingRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.notifyBatchSize = notifyBatchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveAlerts() {
+        List<PriceAlert> alerts = priceAlertRepository.findAllByActiveTrue();
+        alerts.forEach(this::index);
+        log.info("Indexed {} active price alerts", alerts.size());
+    }
+
+    public PriceAlertDto createAlert(Long userId, String email, CreatePriceAlertDto dto) {
+        Listing listing = listingRepository.findById(dto.getListingId())
+                .orElseThrow(() -> new ListingNotFoundException(dto.getListingId()));
+
+        PriceAlert alert = priceAlertRepository.save(PriceAlert.builder()
+                .userId(userId)
+                .email(email)
+                .listingId(listing.getId())
+                .ticker(listing.getTicker())
+                .direction(dto.getDirection())
+                .targetPrice(dto.getTargetPrice())
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+        index(alert);
+        return toDto(alert);
+    }
+
+    public List<PriceAlertDto> getAlerts(Long userId) {
+        return priceAlertRepository.findAllByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    public void deleteAlert(Long userId, Long alertId) {
+        PriceAlert alert = priceAlertRepository.findByIdAndUserId(alertId, userId)
+                .orElseThrow(() -> new PriceAlertNotFoundException(alertId));
+        books.computeIfPresent(alert.getListingId(), (listingId, book) -> {
+            book.remove(alert);
+            return book.isEmpty() ? null : book;
+        });
+        priceAlertRepository.delete(alert);
+    }
+
+    /**
+     * Fires the alerts of the listing that {@code price} reached or crossed. Called for every written
+     * price, so listings without alerts cost a single map lookup; notifications go out with the next
+     * {@link #notifyTriggered} run.
+     */
+    public void onPrice(Long listingId, BigDecimal price) {
+        if (price == null) {
+            return;
+        }
+        List<PriceAlert> crossed = new ArrayList<>();
+        books.computeIfPresent(listingId, (id, book) -> {
+            book.takeCrossed(price, crossed);
+            return book.isEmpty() ? null : book;
+        });
+        if (crossed.isEmpty()) {
+            return;
+        }
+
+        try {
+            priceAlertRepository.markTriggered(crossed.stream().map(PriceAlert::getId).toList(), price, LocalDateTime.now());
+        } catch (Exception e) {
+            // back into the index, the next price update tries again
+            log.error("Failed to mark {} price alerts of listing {} as triggered", crossed.size(), listingId, e);
+            crossed.forEach(this::index);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${price-alerts.notify-interval-ms:1000}")
+    @Transactional
+    public void notifyTriggered() {
+        for (PriceAlert alert : priceAlertRepository.findUnnotified(PageRequest.of(0, notifyBatchSize))) {
+            // the rest waits for the next run
+            if (!publish(alert)) {
+                return;
+            }
+            alert.setNotifiedAt(LocalDateTime.now());
+        }
+    }
+
+    private boolean publish(PriceAlert alert) {
+        PriceAlertMessageDto message = new PriceAlertMessageDto(alert.getId(), alert.getTicker(), alert.getDirection(),
+                alert.getTargetPrice(), alert.getTriggeredPrice(), alert.getEmail());
+        CorrelationData correlation = new CorrelationData(String.valueOf(alert.getId()));
+        try {
+            rabbitTemplate.convertAndSend("", RabbitMQConfig.PRICE_ALERT_QUEUE, message, m -> {
+                m.getMessageProperties().setMessageId("price-alert-" + alert.getId());
+                return m;
+            }, correlation);
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+            // a returned message is set before the confirm completes
+            if (confirm.isAck() && correlation.getReturned() == null) {
+                return true;
+            }
+            log.warn("Notification for price alert {} was not accepted by the broker ({}), will retry", alert.getId(),
+                    correlation.getReturned() != null ? "unroutable" : confirm.getReason());
+        } catch (AmqpException | ExecutionException | TimeoutException e) {
+            log.warn("Failed to send notification for price alert {}, will retry", alert.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void index(PriceAlert alert) {
+        books.compute(alert.getListingId(), (listingId, book) -> {
+            Book target = book != null ? book : new Book();
+            target.add(alert);
+            return target;
+        });
+    }
+
+    private PriceAlertDto toDto(PriceAlert alert) {
+        return PriceAlertDto.builder()
+                .id(alert.getId())
+                .listingId(alert.getListingId())
+                .ticker(alert.getTicker())
+                .direction(alert.getDirection())
+                .targetPrice(alert.getTargetPrice())
+                .active(alert.isActive())
+                .createdAt(alert.getCreatedAt())
+                .triggeredAt(alert.getTriggeredAt())
+                .triggeredPrice(alert.getTriggeredPrice())
+                .build();
+    }
+
+    /**
+     * Active alerts of one listing; only touched inside the owning map's compute calls.
+     */
+    private static final class Book {
+        // ABOVE fires for targets <= price, BELOW for targets >= price
+        private final NavigableMap<BigDecimal, List<PriceAlert>> above = new TreeMap<>();
+        private final NavigableMap<BigDecimal, List<PriceAlert>> below = new TreeMap<>();
+
+        private void add(PriceAlert alert) {
+            side(alert.getDirection()).computeIfAbsent(alert.getTargetPrice(), price -> new ArrayList<>()).add(alert);
+        }
+
+        private void remove(PriceAlert alert) {
+            side(alert.getDirection()).computeIfPresent(alert.getTargetPrice(), (price, alerts) -> {
+                alerts.removeIf(indexed -> indexed.getId().equals(alert.getId()));
+                return alerts.isEmpty() ? null : alerts;
+            });
+        }
+
+        private void takeCrossed(BigDecimal price, List<PriceAlert> out) {
+            take(above.headMap(price, true), out);
+            take(below.tailMap(price, true), out);
+        }
+
+        private static void take(Map<BigDecimal, List<PriceAlert>> range, List<PriceAlert> out) {
+            range.values().forEach(out::addAll);
+            range.clear();
+        }
+
+        private boolean isEmpty() {
+            return above.isEmpty() && below.isEmpty();
+        }
+
+        private NavigableMap<BigDecimal, List<PriceAlert>> side(PriceAlertDirection direction) {
+            return direction == PriceAlertDirection.ABOVE ? above : below;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code listing_price_history} range-partitioned by month (PostgreSQL declarative partitioning):
+ * <ul>
+ *     <li>on startup the table Hibernate created is replaced by a partitioned one, with partitions from
+ *     the start of the raw retention window up to {@code price-history.partitions-ahead} months ahead and a
+ *     default partition for bars outside of them;</li>
+ *     <li>a nightly job creates upcoming partitions, rolls every partition older than
+ *     {@code price-history.raw-retention-months} up into hourly and daily {@code listing_price_rollup} bars
+ *     and drops it, and deletes hourly bars older than {@code price-history.hourly-retention-months}.
+ *     Daily bars are kept.</li>
+ * </ul>
+ * Rollup and drop of one partition happen in one transaction, so a failed run leaves the raw bars in place.
+ */
+@Slf4j
+@Service
+public class PriceHistoryPartitionService {
+
+    static final String TABLE = "listing_price_history";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(Pattern.quote(PARTITION_PREFIX) + "(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    static final String SELECT_PARTITIONED = "SELECT count(*) FROM pg_partitioned_table pt " +
+            "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = '" + TABLE + "'";
+    static final String SELECT_PARTITIONS = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = '" + TABLE + "'";
+
+    // column types are the ones Hibernate generates for ListingPriceHistory; the partition key has to be
+    // part of the primary key, and SERIAL rather than IDENTITY because partitioned tables take no identity
+    private static final String CREATE_PARTITIONED = "CREATE TABLE " + TABLE + " (" +
+            "id BIGSERIAL, date TIMESTAMP NOT NULL, listing_id BIGINT NOT NULL REFERENCES listing (id), " +
+            "open NUMERIC(19, 2), close NUMERIC(19, 2), high NUMERIC(19, 2), low NUMERIC(19, 2), " +
+            "change NUMERIC(19, 2), volume BIGINT, " +
+            "CONSTRAINT " + TABLE + "_part_pkey PRIMARY KEY (id, date)) PARTITION BY RANGE (date)";
+    private static final String CREATE_INDEX = "CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_listing_date " +
+            "ON " + TABLE + " (listing_id, date)";
+    private static final String COLUMNS = "id, date, listing_id, open, close, high, low, change, volume";
+
+    private static final String ROLLUP = "INSERT INTO listing_price_rollup " +
+            "(listing_id, resolution, bucket, open, high, low, close, change, volume) " +
+            "SELECT listing_id, ?, date_trunc('%s', date) AS bucket, " +
+            "(array_agg(open ORDER BY date))[1], max(high), min(low), (array_agg(close ORDER BY date DESC))[1], " +
+            "(array_agg(close ORDER BY date DESC))[1] - (array_agg(open ORDER BY date))[1], sum(volume) " +
+            "FROM %s WHERE date < ? GROUP BY listing_id, bucket " +
+            "ON CONFLICT (listing_id, resolution, bucket) DO NOTHING";
+    static final String DELETE_HOURLY = "DELETE FROM listing_price_rollup WHERE resolution = ? AND bucket < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int partitionsAhead;
+    private final int rawRetentionMonths;
+    private final int hourlyRetentionMonths;
+
+    private volatile boolean partitioned = false;
+
+    public PriceHistoryPartitionService(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${price-history.partitioning.enabled:true}") boolean enabled,
+                                        @Value("${price-history.partitions-ahead:2}") int partitionsAhead,
+                                        @Value("${price-history.raw-retention-months:3}") int rawRetentionMonths,
+                                        @Value("${price-history.hourly-retention-months:24}") int hourlyRetentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.partitionsAhead = partitionsAhead;
+        this.rawRetentionMonths = rawRetentionMonths;
+        this.hourlyRetentionMonths = hourlyRetentionMonths;
+    }
+
+    /**
+     * Called by {@code BootstrapData} before any bars are written.
+     */
+    public void prepare() {
+        prepare(YearMonth.now());
+    }
+
+    public void prepare(YearMonth current) {
+        if (!enabled) {
+            return;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.info("Price history partitioning needs PostgreSQL, {} keeps a plain table", database);
+            return;
+        }
+
+        Integer count = jdbcTemplate.queryForObject(SELECT_PARTITIONED, Integer.class);
+        if (count == null || count == 0) {
+            transactionTemplate.executeWithoutResult(status -> convert(current));
+        }
+        createPartitions(current.minusMonths(rawRetentionMonths), current.plusMonths(partitionsAhead));
+        partitioned = true;
+    }
+
+    @Scheduled(cron = "${price-history.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        if (partitioned) {
+            maintain(YearMonth.now());
+        }
+    }
+
+    public void maintain(YearMonth current) {
+        createPartitions(current, current.plusMonths(partitionsAhead));
+
+        YearMonth oldestKept = current.minusMonths(rawRetentionMonths);
+        Timestamp cutoff = Timestamp.valueOf(oldestKept.atDay(1).atStartOfDay());
+        for (String partition : jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class)) {
+            try {
+                if (partition.equals(DEFAULT_PARTITION)) {
+                    transactionTemplate.executeWithoutResult(status -> retireDefaultRows(cutoff));
+                    continue;
+                }
+                YearMonth month = monthOf(partition);
+                if (month != null && month.isBefore(oldestKept)) {
+                    transactionTemplate.executeWithoutResult(status -> retirePartition(partition, cutoff));
+                    log.info("Rolled up and dropped price history partition {}", partition);
+                }
+            } catch (Exception e) {
+                log.error("Retiring price history partition {} failed", partition, e);
+            }
+        }
+
+        Timestamp hourlyCutoff = Timestamp.valueOf(current.minusMonths(hourlyRetentionMonths).atDay(1).atStartOfDay());
+        int deleted = jdbcTemplate.update(DELETE_HOURLY, PriceRollupResolution.HOURLY.name(), hourlyCutoff);
+        if (deleted > 0) {
+            log.info("Deleted {} hourly price rollups before {}", deleted, hourlyCutoff);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX);
+    }
+
+    static YearMonth monthOf(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        return matcher.matches() ? YearMonth.parse(matcher.group(1), SUFFIX) : null;
+    }
+
+    private void createPartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE +
+                    " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    // bars already in the table Hibernate created (only with a persistent ddl-auto) go to the new one
+    private void convert(YearMonth current) {
+        String legacy = TABLE + "_legacy";
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + legacy);
+        jdbcTemplate.execute(CREATE_PARTITIONED);
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+        jdbcTemplate.execute(CREATE_INDEX);
+        createPartitions(current.minusMonths(rawRetentionMonths), current.plusMonths(partitionsAhead));
+
+        int copied = jdbcTemplate.update("INSERT INTO " + TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS +
+                " FROM " + legacy + " WHERE date IS NOT NULL");
+        if (copied > 0) {
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + TABLE + "', 'id'), " +
+                    "(SELECT max(id) FROM " + TABLE + "))");
+        }
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+        log.info("Partitioned {} by month, {} existing bars moved", TABLE, copied);
+    }
+
+    private void retirePartition(String partition, Timestamp cutoff) {
+        rollup(partition, cutoff);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    // the default partition holds bars older than the first monthly partition, they are rolled up row by row
+    private void retireDefaultRows(Timestamp cutoff) {
+        rollup(DEFAULT_PARTITION, cutoff);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE date < ?", cutoff);
+    }
+
+    private void rollup(String source, Timestamp before) {
+        for (PriceRollupResolution resolution : PriceRollupResolution.values()) {
+            jdbcTemplate.update(String.format(ROLLUP, resolution.getTruncation(), source), resolution.name(), before);
+        }
+    }
+}
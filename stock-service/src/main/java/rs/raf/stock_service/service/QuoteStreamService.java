@@ -0,0 +1,255 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import rs.raf.stock_service.domain.dto.QuoteTickDto;
+import rs.raf.stock_service.domain.entity.Listing;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.exceptions.QuoteStreamFullException;
+import rs.raf.stock_service.repository.ListingRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes quote ticks to clients over server-sent events instead of having them poll the listings.
+ * Subscribers are registered per listing id, so a tick only touches the subscribers of its listing.
+ * Each subscriber keeps at most one pending tick per listing: while a slow client is still being
+ * written to, newer ticks replace the pending ones (latest wins), so its backlog is bounded by the
+ * number of listings it follows and it never holds up the publisher.
+ * <p>
+ * The stream is open to anonymous clients, so at most {@code quotes.stream.max-subscribers} streams are
+ * held at a time.
+ */
+@Slf4j
+@Service
+public class QuoteStreamService {
+
+    private final ListingRepository listingRepository;
+    private final long emitterTimeoutMillis;
+    private final int maxListingsPerSubscriber;
+    private final int maxSubscribers;
+
+    private final Map<Long, Set<Subscriber>> subscribersByListing = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicInteger openSubscribers = new AtomicInteger();
+
+    public QuoteStreamService(ListingRepository listingRepository,
+                              @Value("${quotes.stream.sender-threads:4}") int senderThreads,
+                              @Value("${quotes.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                              @Value("${quotes.stream.max-listings:200}") int maxListingsPerSubscriber,
+                              @Value("${quotes.stream.max-subscribers:1000}") int maxSubscribers) {
+        this.listingRepository = listingRepository;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxListingsPerSubscriber = maxListingsPerSubscriber;
+        this.maxSubscribers = maxSubscribers;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "quote-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream of ticks for the given listings. The current quotes are sent first, read with one
+     * query; after that the stream only carries changes.
+     *
+     * @throws IllegalArgumentException if no listing or more than {@code quotes.stream.max-listings} are requested
+     * @throws QuoteStreamFullException if {@code quotes.stream.max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe(Collection<Long> listingIds) {
+        return subscribe(listingIds, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    public SseEmitter subscribe(Collection<Long> listingIds, SseEmitter emitter) {
+        Set<Long> ids = new LinkedHashSet<>(listingIds);
+        if (ids.isEmpty() || ids.size() > maxListingsPerSubscriber) {
+            throw new IllegalArgumentException("Between 1 and " + maxListingsPerSubscriber + " listings can be streamed at once");
+        }
+        if (openSubscribers.incrementAndGet() > maxSubscribers) {
+            openSubscribers.decrementAndGet();
+            throw new QuoteStreamFullException(maxSubscribers);
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        for (Long id : ids) {
+            subscribersByListing.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        for (Listing listing : listingRepository.findAllById(ids)) {
+            offer(subscriber, toTick(listing));
+        }
+        return emitter;
+    }
+
+    public void publish(QuoteTickDto tick) {
+        Set<Subscriber> listeners = subscribersByListing.get(tick.getListingId());
+        if (listeners == null) {
+            return;
+        }
+        for (Subscriber subscriber : listeners) {
+            offer(subscriber, tick);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // a comment line keeps proxies from closing idle streams and finds clients that went away
+    @Scheduled(fixedRateString = "${quotes.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.requestHeartbeat()) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        subscribersByListing.clear();
+        openSubscribers.set(0);
+    }
+
+    private void offer(Subscriber subscriber, QuoteTickDto tick) {
+        if (subscriber.offer(tick)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Runs on a sender thread, at most one per subscriber at a time; sends until nothing is pending.
+     */
+    private void drain(Subscriber subscriber) {
+        List<QuoteTickDto> batch;
+        while ((batch = subscriber.take()) != null) {
+            try {
+                if (batch.isEmpty()) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (QuoteTickDto tick : batch) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(eventIds.incrementAndGet()))
+                            .name("quote")
+                            .data(tick));
+                }
+            } catch (Exception e) {
+                log.debug("Closing quote stream: {}", e.getMessage());
+                unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        openSubscribers.decrementAndGet();
+        subscriber.close();
+        for (Long id : subscriber.listingIds) {
+            subscribersByListing.computeIfPresent(id, (key, listeners) -> {
+                listeners.remove(subscriber);
+                return listeners.isEmpty() ? null : listeners;
+            });
+        }
+    }
+
+    private QuoteTickDto toTick(Listing listing) {
+        QuoteTickDto.QuoteTickDtoBuilder tick = QuoteTickDto.builder()
+                .listingId(listing.getId())
+                .ticker(listing.getTicker())
+                .price(listing.getPrice())
+                .ask(listing.getAsk())
+                .timestamp(listing.getLastRefresh() != null ? listing.getLastRefresh() : LocalDateTime.now());
+        if (listing instanceof Stock stock) {
+            tick.volume(stock.getVolume()).change(stock.getChange());
+        }
+        return tick.build();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> listingIds;
+
+        // guarded by this
+        private final Map<Long, QuoteTickDto> pending = new LinkedHashMap<>();
+        private boolean heartbeat;
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Long> listingIds) {
+            this.emitter = emitter;
+            this.listingIds = listingIds;
+        }
+
+        /**
+         * Replaces the pending tick of the listing; true if the caller has to start a sender.
+         */
+        private synchronized boolean offer(QuoteTickDto tick) {
+            if (closed) {
+                return false;
+            }
+            pending.put(tick.getListingId(), tick);
+            return startSending();
+        }
+
+        private synchronized boolean requestHeartbeat() {
+            if (closed || sending) {
+                return false;
+            }
+            heartbeat = true;
+            return startSending();
+        }
+
+        /**
+         * Everything pending (an empty list is a heartbeat), or null once there is nothing left and the
+         * sender stops.
+         */
+        private synchronized List<QuoteTickDto> take() {
+            if (closed || (pending.isEmpty() && !heartbeat)) {
+                sending = false;
+                return null;
+            }
+            heartbeat = false;
+            List<QuoteTickDto> batch = new ArrayList<>(pending.values());
+            pending.clear();
+            return batch;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        private boolean startSending() {
+            if (sending) {
+                return false;
+            }
+            sending = true;
+            return true;
+        }
+    }
+}
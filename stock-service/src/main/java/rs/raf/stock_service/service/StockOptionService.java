@@ -2,30 +2,119 @@ package rs.raf.stock_service.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.stock_service.domain.dto.OptionDto;
 import rs.raf.stock_service.domain.dto.StockOptionDto;
+import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.Option;
+import rs.raf.stock_service.domain.entity.Stock;
 import rs.raf.stock_service.domain.mapper.StockOptionMapper;
+import rs.raf.stock_service.exceptions.OptionNotFoundException;
+import rs.raf.stock_service.repository.ListingRepository;
 import rs.raf.stock_service.repository.OptionRepository;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Option chains are generated on first access and cached in {@link OptionChainCache}; only contracts
+ * somebody trades or holds are stored as {@link Option} listings.
+ */
 @Service
 public class StockOptionService {
 
+    // <underlying><yyMMdd><C|P><strike * 100, 8 digits>, see OptionService.createOption
+    private static final int TICKER_SUFFIX_LENGTH = 15;
+    private static final DateTimeFormatter TICKER_DATE = DateTimeFormatter.ofPattern("yyMMdd");
+
     @Autowired
     private OptionRepository optionRepository;
 
     @Autowired
     private StockOptionMapper stockOptionMapper;
 
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private OptionService optionService;
+
+    @Autowired
+    private OptionChainCache optionChainCache;
+
 
     public List<StockOptionDto> getStockOptionsByDate(Long stockId, LocalDate settlementDate) {
-        List<Option> options = optionRepository.findByUnderlyingStockIdAndSettlementDate(stockId, settlementDate);
-        return options.stream()
+        Map<String, Option> stored = optionRepository.findByUnderlyingStockIdAndSettlementDate(stockId, settlementDate).stream()
+                .collect(Collectors.toMap(Option::getTicker, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+
+        List<StockOptionDto> result = new ArrayList<>();
+        Optional<Listing> listing = listingRepository.findById(stockId);
+        if (listing.isPresent() && listing.get() instanceof Stock stock
+                && OptionService.expiryDates(LocalDate.now()).contains(settlementDate)) {
+            for (OptionDto generated : getChain(stock, settlementDate)) {
+                Option option = stored.remove(generated.getTicker());
+                if (option == null) {
+                    result.add(stockOptionMapper.toDto(generated));
+                } else if (option.isOnSale()) {
+                    result.add(stockOptionMapper.toDto(option));
+                }
+            }
+        }
+
+        // stored contracts that are no longer in the current chain, e.g. strikes around an older spot price
+        stored.values().stream()
                 .filter(Option::isOnSale)
                 .map(stockOptionMapper::toDto)
-                .collect(Collectors.toList());
+                .forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Returns the stored listing for an option contract, storing it from the generated chain first if
+     * nobody has traded it yet.
+     */
+    @Transactional
+    public StockOptionDto getOrCreateOption(String ticker) {
+        String normalized = ticker.toUpperCase();
+        Optional<Option> existing = optionRepository.findByTicker(normalized);
+        if (existing.isPresent()) {
+            return stockOptionMapper.toDto(existing.get());
+        }
+
+        if (normalized.length() <= TICKER_SUFFIX_LENGTH) {
+            throw new OptionNotFoundException("Option not found for ticker: " + ticker);
+        }
+        String underlying = normalized.substring(0, normalized.length() - TICKER_SUFFIX_LENGTH);
+        LocalDate expiry;
+        try {
+            expiry = LocalDate.parse(normalized.substring(underlying.length(), underlying.length() + 6), TICKER_DATE);
+        } catch (DateTimeParseException e) {
+            throw new OptionNotFoundException("Option not found for ticker: " + ticker);
+        }
+        // only expiries of the current chain are listed, older or made-up dates would be stored for good
+        if (!OptionService.expiryDates(LocalDate.now()).contains(expiry)) {
+            throw new OptionNotFoundException("Option not found for ticker: " + ticker);
+        }
+
+        Stock stock = listingRepository.findByTicker(underlying)
+                .filter(Stock.class::isInstance)
+                .map(Stock.class::cast)
+                .orElseThrow(() -> new OptionNotFoundException("Option not found for ticker: " + ticker));
+
+        OptionDto generated = getChain(stock, expiry).stream()
+                .filter(option -> option.getTicker().equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new OptionNotFoundException("Option not found for ticker: " + ticker));
+
+        return stockOptionMapper.toDto(optionRepository.save(stockOptionMapper.toEntity(generated, stock)));
+    }
+
+    private List<OptionDto> getChain(Stock stock, LocalDate expiry) {
+        return optionChainCache.getChain(stock.getTicker(), stock.getPrice(), expiry,
+                () -> optionService.generateChain(stock.getTicker(), stock.getPrice(), expiry));
     }
 }
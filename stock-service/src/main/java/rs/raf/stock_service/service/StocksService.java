@@ -14,9 +14,11 @@ import rs.raf.stock_service.domain.dto.StockDto;
 import rs.raf.stock_service.domain.dto.StockSearchDto;
 import rs.raf.stock_service.domain.entity.Exchange;
 import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.ListingType;
 import rs.raf.stock_service.exceptions.StockNotFoundException;
 import rs.raf.stock_service.exceptions.StocksNotFoundException;
 import rs.raf.stock_service.exceptions.SymbolSearchException;
+import rs.raf.stock_service.utils.ExpiringLruCache;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -29,9 +31,42 @@ public class StocksService {
     private final AlphavantageClient alphavantageClient;
     private final TwelveDataClient twelveDataClient;
     private final ExchangeService exchangeService;
+    private final ListingSearchIndex listingSearchIndex;
     private final ObjectMapper objectMapper = new ObjectMapper();
-
+    // remote symbol search answers for keywords the local index does not know, per keyword
+    private final ExpiringLruCache<String, List<StockSearchDto>> symbolSearchCache =
+            new ExpiringLruCache<>(1000, 6 * 60 * 60 * 1000L);
+
+    /**
+     * Stocks we list are answered from the local search index; the market data API is asked only when
+     * nothing local matches, and its answers are cached.
+     */
     public List<StockSearchDto> searchByTicker(String keyword) {
+        List<StockSearchDto> local = listingSearchIndex.suggest(keyword, ListingType.STOCK, 10).stream()
+                .map(entry -> {
+                    StockSearchDto dto = new StockSearchDto();
+                    dto.setTicker(entry.getTicker());
+                    dto.setName(entry.getName());
+                    dto.setRegion(entry.getRegion());
+                    dto.setMatchScore(matchScore(keyword, entry.getTicker()));
+                    return dto;
+                })
+                .toList();
+        if (!local.isEmpty()) {
+            return local;
+        }
+        return symbolSearchCache.get(keyword.trim().toUpperCase(), () -> searchRemote(keyword));
+    }
+
+    // same 0..1 scale as the SYMBOL_SEARCH matchScore
+    private String matchScore(String keyword, String ticker) {
+        if (ticker.equalsIgnoreCase(keyword.trim())) {
+            return "1.0000";
+        }
+        return ticker.toLowerCase().startsWith(keyword.trim().toLowerCase()) ? "0.8000" : "0.6000";
+    }
+
+    private List<StockSearchDto> searchRemote(String keyword) {
         try {
             String response = alphavantageClient.searchByTicker(keyword);
             JsonNode root = objectMapper.readTree(response);
@@ -47,7 +82,7 @@ public class StocksService {
                     result.add(dto);
                 }
             }
-            return result;
+            return List.copyOf(result);
         } catch (Exception e) {
             throw new SymbolSearchException("Error searching for symbol with keyword '" + keyword + "': " + e.getMessage());
         }
@@ -0,0 +1,175 @@
+package rs.raf.stock_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import rs.raf.stock_service.client.BankClient;
+import rs.raf.stock_service.domain.dto.PendingTaxDto;
+import rs.raf.stock_service.domain.dto.TaxDto;
+import rs.raf.stock_service.domain.dto.TaxSettlementResultDto;
+import rs.raf.stock_service.domain.dto.TaxSettlementSummaryDto;
+import rs.raf.stock_service.domain.enums.TaxSettlementStatus;
+import rs.raf.stock_service.domain.enums.TaxStatus;
+import rs.raf.stock_service.exceptions.TaxSettlementInProgressException;
+import rs.raf.stock_service.repository.OrderRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly capital gains tax settlement. Pending tax rows are read in id-ordered pages, summed per
+ * account, and sent to bank-service in batches of accounts; bank-service converts and charges one
+ * payment per account. Orders are marked paid only for accounts the bank reports as settled, the
+ * rest stay pending for the next run.
+ * <p>
+ * Each group of orders gets a settlement id that is stored on the orders before the batch is sent and
+ * resent for as long as they stay pending. bank-service charges a settlement id once, so orders it has
+ * already charged (e.g. when its response was lost) are reported as settled again instead of charged twice.
+ */
+@Slf4j
+@Service
+public class TaxSettlementService {
+
+    // tax is computed on USD profit (see OrderService.createOrder)
+    private static final String TAX_CURRENCY = "USD";
+
+    private final OrderRepository orderRepository;
+    private final BankClient bankClient;
+    private final int pageSize;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public TaxSettlementService(OrderRepository orderRepository,
+                                BankClient bankClient,
+                                @Value("${tax.settlement.page-size:1000}") int pageSize,
+                                @Value("${tax.settlement.batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.bankClient = bankClient;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${tax.settlement.cron:0 0 0 * * *}")
+    public void settleNightly() {
+        try {
+            TaxSettlementSummaryDto summary = settle();
+            log.info("Tax settlement finished: {} accounts ({} orders) settled, {} accounts left pending",
+                    summary.getSettledAccounts(), summary.getSettledOrders(), summary.getUnsettledAccounts());
+        } catch (TaxSettlementInProgressException e) {
+            log.warn("Skipping scheduled tax settlement, a run is already in progress");
+        }
+    }
+
+    public TaxSettlementSummaryDto settle() {
+        // a second concurrent run would read the same pending rows and charge them twice
+        if (!running.compareAndSet(false, true)) {
+            throw new TaxSettlementInProgressException();
+        }
+        try {
+            List<AccountTax> accounts = new ArrayList<>(collectPending().values());
+            TaxSettlementSummaryDto summary = new TaxSettlementSummaryDto();
+            for (int i = 0; i < accounts.size(); i += batchSize) {
+                submit(accounts.subList(i, Math.min(i + batchSize, accounts.size())), summary);
+            }
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, AccountTax> collectPending() {
+        Map<String, AccountTax> groups = new LinkedHashMap<>();
+        long afterId = 0;
+        List<PendingTaxDto> page;
+        do {
+            page = orderRepository.findPendingTaxes(afterId, PageRequest.of(0, pageSize));
+            for (PendingTaxDto tax : page) {
+                if (tax.getAccountNumber() != null && tax.getTaxAmount() != null) {
+                    // orders already sent under a settlement id are resent as that same group
+                    String key = tax.getSettlementId() != null ? tax.getSettlementId() : "account:" + tax.getAccountNumber();
+                    groups.computeIfAbsent(key, k -> new AccountTax(tax.getAccountNumber(), tax.getUserId(),
+                                    tax.getSettlementId()))
+                            .add(tax);
+                }
+                afterId = tax.getOrderId();
+            }
+        } while (page.size() == pageSize);
+        return groups;
+    }
+
+    private void submit(List<AccountTax> batch, TaxSettlementSummaryDto summary) {
+        List<TaxSettlementResultDto> results;
+        try {
+            for (AccountTax account : batch) {
+                if (account.settlementId == null) {
+                    account.settlementId = UUID.randomUUID().toString();
+                    orderRepository.assignTaxSettlement(account.orderIds, account.settlementId);
+                }
+            }
+            results = bankClient.settleTaxes(batch.stream().map(AccountTax::toDto).toList());
+        } catch (Exception e) {
+            log.error("Tax settlement batch of {} accounts failed", batch.size(), e);
+            summary.setUnsettledAccounts(summary.getUnsettledAccounts() + batch.size());
+            return;
+        }
+
+        Map<String, AccountTax> bySettlement = new HashMap<>();
+        batch.forEach(account -> bySettlement.put(account.settlementId, account));
+
+        List<Long> paidOrderIds = new ArrayList<>();
+        int settled = 0;
+        for (TaxSettlementResultDto result : results) {
+            AccountTax account = bySettlement.get(result.getSettlementId());
+            if (account == null) {
+                continue;
+            }
+            if (result.getStatus() == TaxSettlementStatus.SETTLED) {
+                paidOrderIds.addAll(account.orderIds);
+                settled++;
+            } else {
+                log.warn("Tax for account {} not settled: {} {}", account.accountNumber, result.getStatus(),
+                        result.getMessage());
+            }
+        }
+
+        if (!paidOrderIds.isEmpty()) {
+            orderRepository.updateTaxStatus(paidOrderIds, TaxStatus.PAID);
+        }
+        summary.setSettledAccounts(summary.getSettledAccounts() + settled);
+        summary.setSettledOrders(summary.getSettledOrders() + paidOrderIds.size());
+        summary.setUnsettledAccounts(summary.getUnsettledAccounts() + batch.size() - settled);
+    }
+
+    private static final class AccountTax {
+        private final String accountNumber;
+        private final Long userId;
+        private final List<Long> orderIds = new ArrayList<>();
+        private BigDecimal amount = BigDecimal.ZERO;
+        private String settlementId;
+
+        private AccountTax(String accountNumber, Long userId, String settlementId) {
+            this.accountNumber = accountNumber;
+            this.userId = userId;
+            this.settlementId = settlementId;
+        }
+
+        private void add(PendingTaxDto tax) {
+            orderIds.add(tax.getOrderId());
+            amount = amount.add(tax.getTaxAmount());
+        }
+
+        private TaxDto toDto() {
+            TaxDto dto = new TaxDto();
+            dto.setSenderAccountNumber(accountNumber);
+            dto.setClientId(userId);
+            dto.setAmount(amount);
+            dto.setCurrencyCode(TAX_CURRENCY);
+            dto.setSettlementId(settlementId);
+            return dto;
+        }
+    }
+}
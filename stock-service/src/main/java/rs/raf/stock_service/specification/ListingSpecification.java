@@ -8,11 +8,20 @@ import javax.persistence.criteria.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class ListingSpecification {
 
     public static Specification<Listing> buildSpecification(ListingFilterDto filter, String role) {
+        return buildSpecification(filter, role, null);
+    }
+
+    /**
+     * @param searchIds listings matching {@code filter.search}, already resolved by the search index;
+     *                  null to match the search term with LIKE instead
+     */
+    public static Specification<Listing> buildSpecification(ListingFilterDto filter, String role, Collection<Long> searchIds) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -40,7 +49,9 @@ public class ListingSpecification {
             Predicate isNotOption = cb.notEqual(root.type(), cb.literal(Option.class));
             predicates.add(isNotOption);
 
-            if (filter.getSearch() != null && !filter.getSearch().isEmpty()) {
+            if (filter.getSearch() != null && !filter.getSearch().isEmpty() && searchIds != null) {
+                predicates.add(searchIds.isEmpty() ? cb.disjunction() : root.get("id").in(searchIds));
+            } else if (filter.getSearch() != null && !filter.getSearch().isEmpty()) {
                 String searchTerm = "%" + filter.getSearch().toLowerCase() + "%";
                 Predicate tickerPredicate = cb.like(cb.lower(root.get("ticker")), searchTerm);
                 Predicate namePredicate = cb.like(cb.lower(root.get("name")), searchTerm);
@@ -0,0 +1,186 @@
+package rs.raf.stock_service.utils;
+
+/**
+ * Generalized Black-Scholes-Merton pricing on primitive doubles.
+ * <p>
+ * {@code carry} is the cost of carry b: {@code r - q} for a stock paying dividend yield q, and 0 for
+ * Black-76, where {@code spot} is the forward price. Time is in years, volatility and rates are
+ * annualized decimals. Vega is per 1.00 of volatility and theta is per year; scaling to percent or
+ * per-day values, and conversion to BigDecimal, is left to the caller.
+ */
+public final class BlackScholes {
+
+    private static final double INV_SQRT_2PI = 0.3989422804014327;
+    private static final double MIN_VOLATILITY = 1e-6;
+    private static final double MAX_VOLATILITY = 5.0;
+    private static final double IV_TOLERANCE = 1e-8;
+    private static final int IV_MAX_ITERATIONS = 100;
+
+    private BlackScholes() {
+    }
+
+    public static double price(boolean call, double spot, double strike, double time, double rate, double carry,
+                               double volatility) {
+        if (time <= 0 || volatility <= 0) {
+            return intrinsic(call, spot * Math.exp((carry - rate) * Math.max(time, 0)),
+                    strike * Math.exp(-rate * Math.max(time, 0)));
+        }
+        double sqrtT = Math.sqrt(time);
+        double volSqrtT = volatility * sqrtT;
+        double d1 = (Math.log(spot / strike) + (carry + 0.5 * volatility * volatility) * time) / volSqrtT;
+        double d2 = d1 - volSqrtT;
+        double carriedSpot = spot * Math.exp((carry - rate) * time);
+        double discountedStrike = strike * Math.exp(-rate * time);
+        return call
+                ? carriedSpot * cnd(d1) - discountedStrike * cnd(d2)
+                : discountedStrike * cnd(-d2) - carriedSpot * cnd(-d1);
+    }
+
+    public static double black76(boolean call, double forward, double strike, double time, double rate,
+                                 double volatility) {
+        return price(call, forward, strike, time, rate, 0, volatility);
+    }
+
+    /**
+     * Prices a whole chain for one underlying and expiry. Terms that depend only on the underlying are
+     * computed once; output arrays must be at least {@code strikes.length} long and any of the Greek
+     * arrays may be null if not needed.
+     */
+    public static void priceChain(double spot, double time, double rate, double carry, double volatility,
+                                  double[] strikes, boolean[] calls,
+                                  double[] price, double[] delta, double[] gamma, double[] vega, double[] theta) {
+        int n = strikes.length;
+        if (time <= 0 || volatility <= 0) {
+            for (int i = 0; i < n; i++) {
+                boolean call = calls[i];
+                double intrinsic = intrinsic(call, spot, strikes[i]);
+                price[i] = intrinsic;
+                if (delta != null) delta[i] = intrinsic > 0 ? (call ? 1 : -1) : 0;
+                if (gamma != null) gamma[i] = 0;
+                if (vega != null) vega[i] = 0;
+                if (theta != null) theta[i] = 0;
+            }
+            return;
+        }
+
+        double sqrtT = Math.sqrt(time);
+        double volSqrtT = volatility * sqrtT;
+        double drift = (carry + 0.5 * volatility * volatility) * time;
+        double logSpot = Math.log(spot);
+        double carryFactor = Math.exp((carry - rate) * time);
+        double discount = Math.exp(-rate * time);
+        double carriedSpot = spot * carryFactor;
+
+        for (int i = 0; i < n; i++) {
+            double strike = strikes[i];
+            double d1 = (logSpot - Math.log(strike) + drift) / volSqrtT;
+            double d2 = d1 - volSqrtT;
+            double nd1 = cnd(d1);
+            double nd2 = cnd(d2);
+            double pdf = INV_SQRT_2PI * Math.exp(-0.5 * d1 * d1);
+            double discountedStrike = strike * discount;
+            double decay = -carriedSpot * pdf * volatility / (2 * sqrtT);
+
+            if (calls[i]) {
+                price[i] = carriedSpot * nd1 - discountedStrike * nd2;
+                if (delta != null) delta[i] = carryFactor * nd1;
+                if (theta != null) theta[i] = decay - (carry - rate) * carriedSpot * nd1 - rate * discountedStrike * nd2;
+            } else {
+                price[i] = discountedStrike * (1 - nd2) - carriedSpot * (1 - nd1);
+                if (delta != null) delta[i] = carryFactor * (nd1 - 1);
+                if (theta != null) theta[i] = decay + (carry - rate) * carriedSpot * (1 - nd1) + rate * discountedStrike * (1 - nd2);
+            }
+            if (gamma != null) gamma[i] = carryFactor * pdf / (spot * volSqrtT);
+            if (vega != null) vega[i] = carriedSpot * pdf * sqrtT;
+        }
+    }
+
+    /**
+     * Volatility that reproduces {@code targetPrice}, or NaN if the price lies outside what any
+     * volatility between 0.0001% and 500% can produce. Newton steps are used while they stay inside
+     * the current bracket; otherwise the bracket is bisected.
+     */
+    public static double impliedVolatility(boolean call, double targetPrice, double spot, double strike, double time,
+                                           double rate, double carry) {
+        if (time <= 0 || targetPrice <= 0) {
+            return Double.NaN;
+        }
+        double low = MIN_VOLATILITY;
+        double high = MAX_VOLATILITY;
+        if (targetPrice < price(call, spot, strike, time, rate, carry, low) - IV_TOLERANCE
+                || targetPrice > price(call, spot, strike, time, rate, carry, high) + IV_TOLERANCE) {
+            return Double.NaN;
+        }
+
+        // Brenner-Subrahmanyam at-the-money estimate as the starting point
+        double sigma = Math.sqrt(2 * Math.PI / time) * targetPrice / spot;
+        if (!(sigma > low && sigma < high)) {
+            sigma = 0.5 * (low + high);
+        }
+
+        double sqrtT = Math.sqrt(time);
+        for (int i = 0; i < IV_MAX_ITERATIONS; i++) {
+            double diff = price(call, spot, strike, time, rate, carry, sigma) - targetPrice;
+            if (Math.abs(diff) < IV_TOLERANCE) {
+                return sigma;
+            }
+            if (diff > 0) {
+                high = sigma;
+            } else {
+                low = sigma;
+            }
+
+            double d1 = (Math.log(spot / strike) + (carry + 0.5 * sigma * sigma) * time) / (sigma * sqrtT);
+            double vega = spot * Math.exp((carry - rate) * time) * INV_SQRT_2PI * Math.exp(-0.5 * d1 * d1) * sqrtT;
+            double next = vega > 1e-12 ? sigma - diff / vega : Double.NaN;
+            sigma = next > low && next < high ? next : 0.5 * (low + high);
+
+            if (high - low < IV_TOLERANCE) {
+                return sigma;
+            }
+        }
+        return sigma;
+    }
+
+    /**
+     * Cumulative standard normal distribution, double precision (Hart 1968, as given by West 2005).
+     */
+    public static double cnd(double x) {
+        double xAbs = Math.abs(x);
+        double c;
+        if (xAbs > 37) {
+            c = 0;
+        } else {
+            double e = Math.exp(-xAbs * xAbs / 2);
+            if (xAbs < 7.07106781186547) {
+                double b = 3.52624965998911E-02 * xAbs + 0.700383064443688;
+                b = b * xAbs + 6.37396220353165;
+                b = b * xAbs + 33.912866078383;
+                b = b * xAbs + 112.079291497871;
+                b = b * xAbs + 221.213596169931;
+                b = b * xAbs + 220.206867912376;
+                c = e * b;
+                b = 8.83883476483184E-02 * xAbs + 1.75566716318264;
+                b = b * xAbs + 16.064177579207;
+                b = b * xAbs + 86.7807322029461;
+                b = b * xAbs + 296.564248779674;
+                b = b * xAbs + 637.333633378831;
+                b = b * xAbs + 793.826512519948;
+                b = b * xAbs + 440.413735824752;
+                c = c / b;
+            } else {
+                double b = xAbs + 0.65;
+                b = xAbs + 4 / b;
+                b = xAbs + 3 / b;
+                b = xAbs + 2 / b;
+                b = xAbs + 1 / b;
+                c = e / b / 2.506628274631;
+            }
+        }
+        return x > 0 ? 1 - c : c;
+    }
+
+    private static double intrinsic(boolean call, double spot, double strike) {
+        return Math.max(call ? spot - strike : strike - spot, 0);
+    }
+}
@@ -0,0 +1,55 @@
+package rs.raf.stock_service.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Small synchronized LRU cache whose entries also expire after a fixed time. Values are computed by the
+ * caller's loader outside the lock, so a slow load does not block readers of other keys; a failed load
+ * caches nothing.
+ */
+public final class ExpiringLruCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final long ttlMillis;
+
+    public ExpiringLruCache(int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                return entry.value;
+            }
+        }
+        V value = loader.get();
+        synchronized (this) {
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package rs.raf.stock_service.utils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable column store of OHLCV bars: time as epoch seconds of the exchange-local date time (read as
+ * UTC) and prices as longs scaled by 10^{@value #PRICE_SCALE}. Bars keep the order they were added in.
+ * Conversion to {@link BigDecimal} / {@link LocalDateTime} happens only when a value is read through
+ * the typed getters.
+ */
+public final class PriceBarBuffer {
+
+    public static final int PRICE_SCALE = 8;
+
+    private long[] time;
+    private long[] open;
+    private long[] high;
+    private long[] low;
+    private long[] close;
+    private long[] volume;
+    private int size;
+
+    public PriceBarBuffer() {
+        this(128);
+    }
+
+    public PriceBarBuffer(int capacity) {
+        int initial = Math.max(capacity, 1);
+        time = new long[initial];
+        open = new long[initial];
+        high = new long[initial];
+        low = new long[initial];
+        close = new long[initial];
+        volume = new long[initial];
+    }
+
+    public void add(long epochSecond, long open, long high, long low, long close, long volume) {
+        if (size == time.length) {
+            grow();
+        }
+        this.time[size] = epochSecond;
+        this.open[size] = open;
+        this.high[size] = high;
+        this.low[size] = low;
+        this.close[size] = close;
+        this.volume[size] = volume;
+        size++;
+    }
+
+    /**
+     * Keeps only bars strictly after {@code epochSecond}, in place.
+     */
+    public void retainAfter(long epochSecond) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (time[i] > epochSecond) {
+                if (kept != i) {
+                    time[kept] = time[i];
+                    open[kept] = open[i];
+                    high[kept] = high[i];
+                    low[kept] = low[i];
+                    close[kept] = close[i];
+                    volume[kept] = volume[i];
+                }
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long epochSecond(int i) {
+        return time[i];
+    }
+
+    public long scaledOpen(int i) {
+        return open[i];
+    }
+
+    public long scaledHigh(int i) {
+        return high[i];
+    }
+
+    public long scaledLow(int i) {
+        return low[i];
+    }
+
+    public long scaledClose(int i) {
+        return close[i];
+    }
+
+    public long volume(int i) {
+        return volume[i];
+    }
+
+    public LocalDateTime dateTime(int i) {
+        return LocalDateTime.ofEpochSecond(time[i], 0, ZoneOffset.UTC);
+    }
+
+    public BigDecimal open(int i) {
+        return decimal(open[i]);
+    }
+
+    public BigDecimal high(int i) {
+        return decimal(high[i]);
+    }
+
+    public BigDecimal low(int i) {
+        return decimal(low[i]);
+    }
+
+    public BigDecimal close(int i) {
+        return decimal(close[i]);
+    }
+
+    public BigDecimal change(int i) {
+        return decimal(close[i] - open[i]);
+    }
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // trailing zeros of the fixed scale are dropped, so 123.45 comes back as 123.45, not 123.45000000
+    private static BigDecimal decimal(long scaled) {
+        BigDecimal value = BigDecimal.valueOf(scaled, PRICE_SCALE).stripTrailingZeros();
+        return value.scale() < 0 ? value.setScale(0) : value;
+    }
+
+    private void grow() {
+        int capacity = time.length * 2;
+        time = Arrays.copyOf(time, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+}
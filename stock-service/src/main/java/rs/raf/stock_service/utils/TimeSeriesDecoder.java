@@ -0,0 +1,279 @@
+package rs.raf.stock_service.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming decoder for time series payloads, writing bars straight into a {@link PriceBarBuffer}
+ * without building a tree or a String per value. Two layouts are understood:
+ * <ul>
+ *     <li>Alpha Vantage: an object under a {@code "Time Series ..."} key, one member per bar keyed by
+ *     its date, with {@code "1. open"} .. {@code "5. volume"} string values;</li>
+ *     <li>Twelve Data: a {@code "values"} array of {@code {datetime, open, high, low, close, volume}}.</li>
+ * </ul>
+ * Top level string members other than the series (Alpha Vantage {@code "Meta Data"} children, Twelve
+ * Data {@code "meta"} children, {@code "Error Message"}, {@code "Note"}) are passed to the meta sink.
+ */
+public final class TimeSeriesDecoder {
+
+    // field names stay canonicalized so "1. open" etc. are not a new String per bar; date keys are not
+    // worth String.intern() and Jackson stops merging a parser's symbols back once there are too many
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+            .build();
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L};
+
+    private static final int OPEN = 0, HIGH = 1, LOW = 2, CLOSE = 3, VOLUME = 4, DATETIME = 5, OTHER = -1;
+
+    private TimeSeriesDecoder() {
+    }
+
+    /**
+     * Appends every bar in {@code json} to {@code out} in document order and returns the number of bars
+     * added. {@code meta} may be null.
+     *
+     * @throws IllegalArgumentException if the payload is an API error or contains no time series
+     */
+    public static int decode(String json, PriceBarBuffer out, Map<String, String> meta) {
+        int before = out.size();
+        boolean seriesFound = false;
+        String error = null;
+        String message = null;
+        boolean statusError = false;
+
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Time series response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if (value == JsonToken.START_OBJECT && name.startsWith("Time Series")) {
+                    readKeyedSeries(parser, out);
+                    seriesFound = true;
+                } else if (value == JsonToken.START_ARRAY && name.equals("values")) {
+                    readArraySeries(parser, out);
+                    seriesFound = true;
+                } else if (value == JsonToken.START_OBJECT) {
+                    readMeta(parser, meta);
+                } else if (value.isScalarValue()) {
+                    if (name.equals("Error Message")) {
+                        error = parser.getText();
+                    } else if (name.equals("message")) {
+                        message = parser.getText();
+                    } else if (name.equals("status")) {
+                        statusError = "error".equals(parser.getText());
+                    }
+                    if (meta != null) {
+                        meta.put(name, parser.getText());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed time series response: " + e.getMessage(), e);
+        }
+
+        if (error == null && statusError) {
+            error = message != null ? message : "status error";
+        }
+        if (error != null) {
+            throw new IllegalArgumentException("API Error: " + error);
+        }
+        if (!seriesFound) {
+            throw new IllegalArgumentException("Time Series data not found in API response.");
+        }
+        return out.size() - before;
+    }
+
+    private static void readKeyedSeries(JsonParser parser, PriceBarBuffer out) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            long time = parseDateTime(parser);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            readBar(parser, out, time);
+        }
+    }
+
+    private static void readArraySeries(JsonParser parser, PriceBarBuffer out) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readBar(parser, out, Long.MIN_VALUE);
+        }
+    }
+
+    // parser is on the bar's START_OBJECT; time is MIN_VALUE when the bar carries its own "datetime"
+    private static void readBar(JsonParser parser, PriceBarBuffer out, long time) throws IOException {
+        long open = 0, high = 0, low = 0, close = 0, volume = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int field = field(parser);
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case OPEN -> open = parseScaled(parser);
+                case HIGH -> high = parseScaled(parser);
+                case LOW -> low = parseScaled(parser);
+                case CLOSE -> close = parseScaled(parser);
+                case VOLUME -> volume = parseWhole(parser);
+                case DATETIME -> time = parseDateTime(parser);
+                default -> {
+                }
+            }
+        }
+        if (time == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Time series bar without a date");
+        }
+        out.add(time, open, high, low, close, volume);
+    }
+
+    /**
+     * Classifies the current field name from its characters: Alpha Vantage numbers its fields
+     * ("1. open" .. "5. volume"), Twelve Data uses the bare names.
+     */
+    private static int field(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length > 3 && chars[offset] >= '1' && chars[offset] <= '5' && chars[offset + 1] == '.') {
+            return chars[offset] - '1';
+        }
+        if (length == 0) {
+            return OTHER;
+        }
+        return switch (chars[offset]) {
+            case 'o' -> OPEN;
+            case 'h' -> HIGH;
+            case 'l' -> LOW;
+            case 'c' -> CLOSE;
+            case 'v' -> VOLUME;
+            case 'd' -> DATETIME;
+            default -> OTHER;
+        };
+    }
+
+    private static void readMeta(JsonParser parser, Map<String, String> meta) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value.isScalarValue()) {
+                if (meta != null) {
+                    meta.put(name, parser.getText());
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parses the current token's text ("123.4500", "-0.5"; neither API sends exponents) into a long
+     * scaled by 10^{@link PriceBarBuffer#PRICE_SCALE}; digits past the scale are truncated.
+     */
+    static long parseScaled(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int fraction = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                fraction = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fraction < 0) {
+                    value = value * 10 + (c - '0');
+                } else if (fraction < PriceBarBuffer.PRICE_SCALE) {
+                    value = value * 10 + (c - '0');
+                    fraction++;
+                }
+            } else {
+                throw new IllegalArgumentException("Not a decimal number: " + new String(chars, offset, end - offset));
+            }
+        }
+        value *= POW10[PriceBarBuffer.PRICE_SCALE - Math.max(fraction, 0)];
+        return negative ? -value : value;
+    }
+
+    // integer part only, volumes are whole numbers though some feeds send "1234.0"
+    static long parseWhole(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        long value = 0;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                break;
+            }
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not a whole number: " + new String(chars, offset, end - offset));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses "yyyy-MM-dd" or "yyyy-MM-dd HH:mm[:ss]" from the current token's characters into epoch
+     * seconds, reading the local date time as UTC like {@link PriceBarBuffer#toEpochSecond}.
+     */
+    static long parseDateTime(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int o = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length < 10 || chars[o + 4] != '-' || chars[o + 7] != '-') {
+            throw new IllegalArgumentException("Not a date: " + new String(chars, o, length));
+        }
+        int year = digits(chars, o, 4);
+        int month = digits(chars, o + 5, 2);
+        int day = digits(chars, o + 8, 2);
+        int hour = length >= 16 ? digits(chars, o + 11, 2) : 0;
+        int minute = length >= 16 ? digits(chars, o + 14, 2) : 0;
+        int second = length >= 19 ? digits(chars, o + 17, 2) : 0;
+        return daysFromCivil(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not a date: " + new String(chars, offset, count));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // days since 1970-01-01 in the proleptic Gregorian calendar (H. Hinnant's days_from_civil)
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,82 @@
+package rs.raf.stock_service.utils;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches claims of tokens whose signature was already verified, keyed by the SHA-256 of the token
+ * so raw bearer tokens are never kept in memory. An entry lives until the token's own expiration,
+ * and the cache never grows past {@code maxEntries}: when full, expired entries are purged and new
+ * tokens are simply not cached until there is room again.
+ */
+public class VerifiedTokenCache {
+
+    private static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Claims get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    public void put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : now + DEFAULT_TTL_MILLIS;
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(hash(token), new Entry(claims, expiresAt));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class Entry {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
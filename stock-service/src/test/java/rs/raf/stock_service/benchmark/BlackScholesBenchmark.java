@@ -0,0 +1,89 @@
+package rs.raf.stock_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rs.raf.stock_service.utils.BlackScholes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Option pricing cost per chain: one contract at a time, the batched chain pricer with Greeks, and
+ * implied volatility. Not part of the test run: after test-compile (which generates the JMH harness) start
+ * {@link #main} from the IDE, or {@code org.openjdk.jmh.Main BlackScholesBenchmark} on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlackScholesBenchmark {
+
+    private static final double SPOT = 100;
+    private static final double TIME = 0.25;
+    private static final double RATE = 0.04;
+    private static final double VOLATILITY = 0.25;
+
+    @Param({"22", "500"})
+    private int chainSize;
+
+    private double[] strikes;
+    private boolean[] calls;
+    private double[] prices;
+    private double[] price;
+    private double[] delta;
+    private double[] gamma;
+    private double[] vega;
+    private double[] theta;
+
+    @Setup
+    public void setUp() {
+        strikes = new double[chainSize];
+        calls = new boolean[chainSize];
+        prices = new double[chainSize];
+        for (int i = 0; i < chainSize; i++) {
+            strikes[i] = SPOT - chainSize / 4.0 + i / 2;
+            calls[i] = i % 2 == 0;
+            prices[i] = BlackScholes.price(calls[i], SPOT, strikes[i], TIME, RATE, RATE, VOLATILITY);
+        }
+        price = new double[chainSize];
+        delta = new double[chainSize];
+        gamma = new double[chainSize];
+        vega = new double[chainSize];
+        theta = new double[chainSize];
+    }
+
+    @Benchmark
+    public double singlePrices() {
+        double sum = 0;
+        for (int i = 0; i < chainSize; i++) {
+            sum += BlackScholes.price(calls[i], SPOT, strikes[i], TIME, RATE, RATE, VOLATILITY);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] chainWithGreeks() {
+        BlackScholes.priceChain(SPOT, TIME, RATE, RATE, VOLATILITY, strikes, calls, price, delta, gamma, vega, theta);
+        return price;
+    }
+
+    @Benchmark
+    public double impliedVolatility() {
+        double sum = 0;
+        for (int i = 0; i < chainSize; i++) {
+            sum += BlackScholes.impliedVolatility(calls[i], prices[i], SPOT, strikes[i], TIME, RATE, RATE);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BlackScholesBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
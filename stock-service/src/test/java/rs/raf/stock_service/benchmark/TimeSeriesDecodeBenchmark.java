@@ -0,0 +1,98 @@
+package rs.raf.stock_service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rs.raf.stock_service.domain.dto.TimeSeriesDto;
+import rs.raf.stock_service.utils.PriceBarBuffer;
+import rs.raf.stock_service.utils.TimeSeriesDecoder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding an Alpha Vantage intraday payload: the previous tree based mapping (new ObjectMapper, JsonNode
+ * tree, BigDecimal per value) against the streaming decoder into a {@link PriceBarBuffer}. Run with
+ * {@code -prof gc} to compare allocation per payload. Not part of the test run: after test-compile start
+ * {@link #main} from the IDE, or {@code org.openjdk.jmh.Main TimeSeriesDecodeBenchmark -prof gc} on the
+ * test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSeriesDecodeBenchmark {
+
+    // compact is 100 bars, full intraday is about a month of 5min bars
+    @Param({"100", "5000"})
+    private int bars;
+
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime time = LocalDateTime.of(2025, 1, 31, 16, 0);
+        StringBuilder json = new StringBuilder("{\"Meta Data\": {\"1. Information\": \"Intraday (5min)\", " +
+                "\"2. Symbol\": \"AAPL\"}, \"Time Series (5min)\": {");
+        for (int i = 0; i < bars; i++) {
+            double open = 240 + (i % 97) * 0.13;
+            json.append(i == 0 ? "" : ",")
+                    .append('"').append(time.minusMinutes(5L * i).format(format)).append("\": {")
+                    .append("\"1. open\": \"").append(String.format("%.4f", open)).append("\", ")
+                    .append("\"2. high\": \"").append(String.format("%.4f", open + 0.5)).append("\", ")
+                    .append("\"3. low\": \"").append(String.format("%.4f", open - 0.5)).append("\", ")
+                    .append("\"4. close\": \"").append(String.format("%.4f", open + 0.1)).append("\", ")
+                    .append("\"5. volume\": \"").append(10_000 + i).append("\"}");
+        }
+        payload = json.append("}}").toString();
+    }
+
+    @Benchmark
+    public List<TimeSeriesDto.TimeSeriesValueDto> jsonTree() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode timeSeriesNode = objectMapper.readTree(payload).get("Time Series (5min)");
+
+        List<TimeSeriesDto.TimeSeriesValueDto> values = new ArrayList<>();
+        for (Iterator<String> it = timeSeriesNode.fieldNames(); it.hasNext(); ) {
+            String datetime = it.next();
+            JsonNode data = timeSeriesNode.get(datetime);
+
+            TimeSeriesDto.TimeSeriesValueDto dto = new TimeSeriesDto.TimeSeriesValueDto();
+            dto.setDatetime(datetime);
+            dto.setOpen(new BigDecimal(data.get("1. open").asText()));
+            dto.setHigh(new BigDecimal(data.get("2. high").asText()));
+            dto.setLow(new BigDecimal(data.get("3. low").asText()));
+            dto.setClose(new BigDecimal(data.get("4. close").asText()));
+            dto.setVolume(data.get("5. volume").asLong());
+            values.add(dto);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public PriceBarBuffer streaming() {
+        PriceBarBuffer buffer = new PriceBarBuffer(bars);
+        TimeSeriesDecoder.decode(payload, buffer, null);
+        return buffer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimeSeriesDecodeBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
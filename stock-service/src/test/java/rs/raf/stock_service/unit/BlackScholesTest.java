@@ -0,0 +1,95 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.stock_service.utils.BlackScholes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlackScholesTest {
+
+    private static final double SPOT = 100;
+    private static final double STRIKE = 100;
+    private static final double TIME = 1;
+    private static final double RATE = 0.05;
+    private static final double VOLATILITY = 0.2;
+
+    @Test
+    void price_MatchesReferenceValues() {
+        assertEquals(10.4506, BlackScholes.price(true, SPOT, STRIKE, TIME, RATE, RATE, VOLATILITY), 1e-4);
+        assertEquals(5.5735, BlackScholes.price(false, SPOT, STRIKE, TIME, RATE, RATE, VOLATILITY), 1e-4);
+    }
+
+    @Test
+    void price_SatisfiesPutCallParity() {
+        for (double strike = 80; strike <= 120; strike += 5) {
+            double call = BlackScholes.price(true, SPOT, strike, TIME, RATE, RATE, VOLATILITY);
+            double put = BlackScholes.price(false, SPOT, strike, TIME, RATE, RATE, VOLATILITY);
+            assertEquals(SPOT - strike * Math.exp(-RATE * TIME), call - put, 1e-9);
+        }
+    }
+
+    @Test
+    void black76_DiscountsForwardPrice() {
+        double forward = SPOT * Math.exp(RATE * TIME);
+        double call = BlackScholes.black76(true, forward, STRIKE, TIME, RATE, VOLATILITY);
+        assertEquals(BlackScholes.price(true, SPOT, STRIKE, TIME, RATE, RATE, VOLATILITY), call, 1e-9);
+    }
+
+    @Test
+    void price_ExpiredOptionIsIntrinsic() {
+        assertEquals(5, BlackScholes.price(true, 105, STRIKE, 0, RATE, RATE, VOLATILITY), 1e-12);
+        assertEquals(0, BlackScholes.price(false, 105, STRIKE, 0, RATE, RATE, VOLATILITY), 1e-12);
+    }
+
+    @Test
+    void priceChain_MatchesSinglePricesAndGreeks() {
+        double[] strikes = {100, 100, 90, 110};
+        boolean[] calls = {true, false, true, false};
+        double[] price = new double[4];
+        double[] delta = new double[4];
+        double[] gamma = new double[4];
+        double[] vega = new double[4];
+        double[] theta = new double[4];
+
+        BlackScholes.priceChain(SPOT, TIME, RATE, RATE, VOLATILITY, strikes, calls, price, delta, gamma, vega, theta);
+
+        for (int i = 0; i < strikes.length; i++) {
+            assertEquals(BlackScholes.price(calls[i], SPOT, strikes[i], TIME, RATE, RATE, VOLATILITY), price[i], 1e-9);
+        }
+        assertEquals(0.6368, delta[0], 1e-4);
+        assertEquals(-0.3632, delta[1], 1e-4);
+        assertEquals(0.018762, gamma[0], 1e-6);
+        assertEquals(gamma[0], gamma[1], 1e-12);
+        assertEquals(37.524, vega[0], 1e-3);
+        assertEquals(-6.414, theta[0], 1e-3);
+        assertEquals(-1.658, theta[1], 1e-3);
+    }
+
+    @Test
+    void priceChain_SkipsNullGreeks() {
+        double[] price = new double[1];
+        BlackScholes.priceChain(SPOT, TIME, RATE, RATE, VOLATILITY, new double[]{STRIKE}, new boolean[]{true},
+                price, null, null, null, null);
+        assertEquals(10.4506, price[0], 1e-4);
+    }
+
+    @Test
+    void impliedVolatility_RecoversModelVolatility() {
+        for (double vol : new double[]{0.1, 0.2, 0.8, 2.5}) {
+            for (double strike : new double[]{80, 100, 125}) {
+                double call = BlackScholes.price(true, SPOT, strike, TIME, RATE, RATE, vol);
+                double put = BlackScholes.price(false, SPOT, strike, TIME, RATE, RATE, vol);
+                assertEquals(vol, BlackScholes.impliedVolatility(true, call, SPOT, strike, TIME, RATE, RATE), 1e-6);
+                assertEquals(vol, BlackScholes.impliedVolatility(false, put, SPOT, strike, TIME, RATE, RATE), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void impliedVolatility_OutOfRangePriceIsNaN() {
+        // a call can never be worth more than the underlying, nor less than its discounted intrinsic value
+        assertTrue(Double.isNaN(BlackScholes.impliedVolatility(true, 150, SPOT, STRIKE, TIME, RATE, RATE)));
+        assertTrue(Double.isNaN(BlackScholes.impliedVolatility(true, 1, 120, STRIKE, TIME, RATE, RATE)));
+        assertTrue(Double.isNaN(BlackScholes.impliedVolatility(true, 5, SPOT, STRIKE, 0, RATE, RATE)));
+    }
+}
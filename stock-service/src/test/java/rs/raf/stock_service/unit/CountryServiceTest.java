@@ -4,26 +4,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
-import rs.raf.stock_service.domain.entity.Country;
+import org.springframework.jdbc.core.JdbcTemplate;
 import rs.raf.stock_service.repository.CountryRepository;
 import rs.raf.stock_service.service.CountryService;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class CountryServiceTest {
 
     private CountryService countryService;
     private CountryRepository countryRepository;
+    private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void setUp() {
         countryRepository = mock(CountryRepository.class);
-        countryService = new CountryService(countryRepository);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        countryService = new CountryService(countryRepository, jdbcTemplate);
     }
 
     @Test
@@ -44,7 +47,9 @@ class CountryServiceTest {
 
         countryService.importCountries();
 
-        verify(countryRepository, times(5)).save(any(Country.class));
+        // all five exchanges in exchanges2.csv are in the USA, one batch with one country
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO country"), argThat((List<Object[]> rows) -> rows.size() == 1));
+        verify(countryRepository, never()).save(any());
     }
 
     @Test
@@ -53,7 +58,7 @@ class CountryServiceTest {
 
         countryService.importCountries();
 
-        verify(countryRepository, never()).save(any(Country.class));
+        verifyNoInteractions(jdbcTemplate);
     }
 
     @Test
@@ -77,7 +82,7 @@ class CountryServiceTest {
 
         countryService.importCountries();
 
-        verify(countryRepository, times(5)).save(any(Country.class));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> "United States".equals(rows.get(0)[0])));
     }
 
     //Trenutno imamo samo USA tako da ovo nema potrebe da postoji trenutno
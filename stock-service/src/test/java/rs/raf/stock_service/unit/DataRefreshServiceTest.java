@@ -0,0 +1,200 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import rs.raf.stock_service.domain.dto.ForexPairDto;
+import rs.raf.stock_service.domain.dto.LatestBarDto;
+import rs.raf.stock_service.domain.dto.QuoteTickDto;
+import rs.raf.stock_service.domain.dto.RefreshStatsDto;
+import rs.raf.stock_service.domain.dto.StockDto;
+import rs.raf.stock_service.domain.projection.ListingQuoteView;
+import rs.raf.stock_service.domain.projection.OptionExpiryView;
+import rs.raf.stock_service.domain.projection.StockQuoteView;
+import rs.raf.stock_service.repository.*;
+import rs.raf.stock_service.service.*;
+import rs.raf.stock_service.utils.PriceBarBuffer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DataRefreshServiceTest {
+
+    @Mock private StockRepository stockRepository;
+    @Mock private ForexPairRepository forexPairRepository;
+    @Mock private ListingPriceHistoryRepository priceHistoryRepository;
+    @Mock private PortfolioEntryRepository portfolioEntryRepository;
+    @Mock private OptionRepository optionRepository;
+    @Mock private OptionChainCache optionChainCache;
+    @Mock private PortfolioValuationService portfolioValuationService;
+    @Mock private QuoteStreamService quoteStreamService;
+    @Mock private PriceAlertService priceAlertService;
+    @Mock private StocksService stocksService;
+    @Mock private ForexService forexService;
+    @Mock private ForexCrossRateService forexCrossRateService;
+    @Mock private ListingViewTracker listingViewTracker;
+    @Mock private ListingService listingService;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+    private DataRefreshService dataRefreshService;
+
+    @BeforeEach
+    void setUp() {
+        dataRefreshService = new DataRefreshService(stockRepository, forexPairRepository, priceHistoryRepository, portfolioEntryRepository,
+                optionRepository, optionChainCache, portfolioValuationService, quoteStreamService, priceAlertService,
+                stocksService, forexService, forexCrossRateService, listingViewTracker, listingService, jdbcTemplate,
+                4, 2, 1000, 10000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataRefreshService.shutdown();
+    }
+
+    @Test
+    void refresh_WritesChangedPricesAndOnlyNewBarsInOneBatch() {
+        when(stockRepository.findAllQuotes()).thenReturn(List.of(stock(1L, "AAPL", "100"), stock(2L, "MSFT", "200")));
+        when(priceHistoryRepository.findLatestDates()).thenReturn(List.of(
+                new LatestBarDto(1L, LocalDateTime.of(2025, 1, 2, 10, 0))));
+
+        when(stocksService.getStockData("AAPL")).thenReturn(quote("101"));
+        when(stocksService.getStockData("MSFT")).thenReturn(quote("200"));
+        when(listingService.getPriceBarsFromAlphaVantage(anyString(), eq("5min"), eq("compact")))
+                .thenAnswer(inv -> bars("2025-01-02T10:05:00", "2025-01-02T10:00:00"));
+
+        RefreshStatsDto stats = dataRefreshService.refresh();
+
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO listing_price_history"),
+                any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE listing SET price = ?, volume"), anyCollection(), eq(1000),
+                any(ParameterizedPreparedStatementSetter.class));
+        // AAPL already has the 10:00 bar, MSFT has nothing stored
+        assertEquals(3, stats.getBarsWritten());
+        assertEquals(1, stats.getPricesWritten());
+        verify(portfolioValuationService).onPrice(1L, new BigDecimal("101"));
+        verify(portfolioValuationService, never()).onPrice(eq(2L), any());
+        verify(quoteStreamService).publish(argThat((QuoteTickDto tick) -> tick.getListingId() == 1L
+                && "AAPL".equals(tick.getTicker()) && tick.getVolume() == 1000));
+        verify(quoteStreamService, never()).publish(argThat((QuoteTickDto tick) -> tick.getListingId() == 2L));
+        verify(priceAlertService).onPrice(1L, new BigDecimal("101"));
+
+        assertEquals(2, stats.getFetched());
+        assertEquals(1, stats.getWriteBatches());
+        verify(stockRepository, never()).save(any());
+    }
+
+    @Test
+    void refresh_FailedFetchIsCountedAndOthersStillWritten() {
+        when(stockRepository.findAllQuotes()).thenReturn(List.of(stock(1L, "AAPL", "100"), stock(2L, "MSFT", "200")));
+        when(priceHistoryRepository.findLatestDates()).thenReturn(List.of());
+        when(stocksService.getStockData("AAPL")).thenThrow(new RuntimeException("rate limited"));
+        when(stocksService.getStockData("MSFT")).thenReturn(quote("201"));
+        when(listingService.getPriceBarsFromAlphaVantage(eq("MSFT"), any(), any())).thenReturn(bars("2025-01-02T10:05:00"));
+
+        RefreshStatsDto stats = dataRefreshService.refresh();
+
+        assertEquals(1, stats.getFetched());
+        assertEquals(1, stats.getFailed());
+        assertEquals(1, stats.getBarsWritten());
+        assertEquals(1, stats.getPricesWritten());
+    }
+
+    @Test
+    void refresh_CrossRatesForexAndFetchesBarsOnlyForViewedOrHeldPairs() {
+        when(forexPairRepository.findAllQuotes()).thenReturn(List.of(
+                forex(1L, "EUR/USD"), forex(2L, "EUR/JPY"), forex(3L, "XAU/USD")));
+        when(priceHistoryRepository.findLatestDates()).thenReturn(List.of());
+        when(forexCrossRateService.quote(anyCollection())).thenReturn(Map.of(
+                "EUR/USD", forexQuote("1.08"), "EUR/JPY", forexQuote("162.5")));
+        when(listingViewTracker.recentlyViewed()).thenReturn(Set.of());
+        when(portfolioEntryRepository.findAllHeldForexListingIds()).thenReturn(Set.of(2L));
+        when(forexService.getForexPair("XAU", "USD")).thenReturn(forexQuote("2400"));
+        when(listingService.getForexPriceBars(any(), any(), eq("5min"))).thenAnswer(inv -> bars("2025-01-02T10:05:00"));
+
+        RefreshStatsDto stats = dataRefreshService.refresh();
+
+        assertEquals(2, stats.getTriangulated());
+        assertEquals(3, stats.getPricesWritten());
+        // EUR/JPY is held, XAU/USD is not in the pivot table; nobody looks at EUR/USD
+        assertEquals(2, stats.getBarsWritten());
+        verify(listingService, never()).getForexPriceBars(eq("EUR"), eq("USD"), any());
+        verify(forexService, times(1)).getForexPair(any(), any());
+        verify(portfolioValuationService).onPrice(2L, new BigDecimal("162.5"));
+    }
+
+    @Test
+    void refreshListings_TakesHeldOptionsOffSaleAndDeletesOnlyExpiredUnusedOnes() {
+        when(priceHistoryRepository.findLatestDates()).thenReturn(List.of());
+        when(portfolioEntryRepository.findAllOptionTickersInUse()).thenReturn(Set.of("HELD"));
+        when(optionRepository.findAllExpiredBefore(any(LocalDate.class))).thenReturn(List.of(
+                option(10L, "HELD"), option(11L, "GONE")));
+
+        dataRefreshService.onApplicationReady();
+        dataRefreshService.refreshListings();
+
+        verify(optionRepository).takeOffSale(Set.of("HELD"));
+        verify(optionRepository).deleteByIdInBatch(List.of(11L));
+        verify(optionRepository, never()).findAll();
+    }
+
+    private ListingQuoteView forex(Long id, String ticker) {
+        return projections.createProjection(ListingQuoteView.class,
+                Map.of("id", id, "ticker", ticker, "price", BigDecimal.ONE));
+    }
+
+    private OptionExpiryView option(Long id, String ticker) {
+        return projections.createProjection(OptionExpiryView.class, Map.of("id", id, "ticker", ticker));
+    }
+
+    private ForexPairDto forexQuote(String price) {
+        ForexPairDto dto = new ForexPairDto();
+        dto.setPrice(new BigDecimal(price));
+        dto.setAsk(new BigDecimal(price));
+        dto.setExchangeRate(new BigDecimal(price));
+        dto.setLiquidity("Medium");
+        dto.setLastRefresh(LocalDateTime.now());
+        return dto;
+    }
+
+    private StockQuoteView stock(Long id, String ticker, String price) {
+        return projections.createProjection(StockQuoteView.class,
+                Map.of("id", id, "ticker", ticker, "price", new BigDecimal(price), "volume", 1000L));
+    }
+
+    private StockDto quote(String price) {
+        StockDto dto = new StockDto();
+        dto.setPrice(new BigDecimal(price));
+        dto.setVolume(1000);
+        return dto;
+    }
+
+    private PriceBarBuffer bars(String... dates) {
+        PriceBarBuffer bars = new PriceBarBuffer();
+        for (String date : dates) {
+            bars.add(PriceBarBuffer.toEpochSecond(LocalDateTime.parse(date)), 100_000_000L, 200_000_000L,
+                    100_000_000L, 150_000_000L, 10);
+        }
+        return bars;
+    }
+}
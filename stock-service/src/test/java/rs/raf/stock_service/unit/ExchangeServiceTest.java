@@ -6,8 +6,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import rs.raf.stock_service.domain.entity.Country;
 import rs.raf.stock_service.domain.entity.Exchange;
+import rs.raf.stock_service.domain.projection.CountryIdView;
 import rs.raf.stock_service.exceptions.ExchangesNotLoadedException;
 import rs.raf.stock_service.repository.CountryRepository;
 import rs.raf.stock_service.repository.ExchangeRepository;
@@ -17,8 +20,10 @@ import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +35,9 @@ class ExchangeServiceTest {
     @Mock
     private CountryRepository countryRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     @InjectMocks
     private ExchangeService exchangeService;
 
@@ -75,6 +83,21 @@ class ExchangeServiceTest {
     }
 
 
+    @Test
+    void importExchanges_ShouldInsertAllExchangesInOneBatchWithResolvedCountry() {
+        CountryIdView usa = new SpelAwareProxyProjectionFactory().createProjection(CountryIdView.class,
+                Map.of("id", 7L, "name", "United States"));
+        when(exchangeRepository.count()).thenReturn(0L);
+        when(countryRepository.findAllIds()).thenReturn(List.of(usa));
+
+        exchangeService.importExchanges();
+
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO exchange"), argThat((List<Object[]> rows) ->
+                rows.size() == 5 && rows.stream().allMatch(row -> Long.valueOf(7L).equals(row[3]))));
+        verify(countryRepository, never()).findByName(any());
+        verify(exchangeRepository, never()).save(any());
+    }
+
     @Test
     void getAvailableExchanges_ShouldThrowException_WhenNoExchangesLoaded() {
         when(exchangeRepository.findAll()).thenReturn(Collections.emptyList());
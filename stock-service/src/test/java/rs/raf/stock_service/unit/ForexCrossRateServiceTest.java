@@ -0,0 +1,61 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.stock_service.domain.dto.ForexPairDto;
+import rs.raf.stock_service.service.ForexCrossRateService;
+import rs.raf.stock_service.service.ForexService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForexCrossRateServiceTest {
+
+    @Mock
+    private ForexService forexService;
+
+    private ForexCrossRateService forexCrossRateService;
+
+    @BeforeEach
+    void setUp() {
+        // 20 bps: bid and ask 0.1% either side of the mid
+        forexCrossRateService = new ForexCrossRateService(forexService, "USD", 20);
+    }
+
+    @Test
+    void quote_DerivesCrossPairsFromOnePivotLookup() {
+        when(forexService.getLatestRates("USD")).thenReturn(Map.of(
+                "EUR", new BigDecimal("0.8"),
+                "JPY", new BigDecimal("120")));
+
+        Map<String, ForexPairDto> quotes = forexCrossRateService.quote(List.of("EUR/JPY", "USD/EUR", "EUR/USD"));
+
+        ForexPairDto eurJpy = quotes.get("EUR/JPY");
+        assertEquals(0, new BigDecimal("150").compareTo(eurJpy.getExchangeRate()));
+        assertEquals(0, new BigDecimal("149.85").compareTo(eurJpy.getPrice()));
+        assertEquals(0, new BigDecimal("150.15").compareTo(eurJpy.getAsk()));
+        assertEquals(0, new BigDecimal("150000").compareTo(eurJpy.getNominalValue()));
+        assertEquals(0, new BigDecimal("0.8").compareTo(quotes.get("USD/EUR").getExchangeRate()));
+        assertEquals(0, new BigDecimal("1.25").compareTo(quotes.get("EUR/USD").getExchangeRate()));
+        verify(forexService, times(1)).getLatestRates("USD");
+        verifyNoMoreInteractions(forexService);
+    }
+
+    @Test
+    void quote_LeavesOutPairsTheTableCannotPrice() {
+        when(forexService.getLatestRates("USD")).thenReturn(Map.of("EUR", new BigDecimal("0.8")));
+
+        Map<String, ForexPairDto> quotes = forexCrossRateService.quote(List.of("XAU/USD", "EURUSD", "EUR/USD"));
+
+        assertEquals(1, quotes.size());
+        assertTrue(quotes.containsKey("EUR/USD"));
+    }
+}
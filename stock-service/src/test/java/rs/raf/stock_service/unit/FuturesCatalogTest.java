@@ -0,0 +1,89 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import rs.raf.stock_service.domain.dto.FuturesContractDto;
+import rs.raf.stock_service.service.FuturesCatalog;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuturesCatalogTest {
+
+    private static final String HEADER = "contract_name,contract_size,contract_unit,maintenance_margin,type\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bundledCatalog_IsIndexedByTicker() {
+        FuturesCatalog catalog = new FuturesCatalog(new DefaultResourceLoader(), "classpath:future_data.csv", 30);
+        catalog.load();
+
+        assertTrue(catalog.size() > 0);
+        FuturesContractDto corn = catalog.findByTicker("corn", LocalDate.of(2025, 1, 10)).orElseThrow();
+        assertEquals("CORN", corn.getTicker());
+        // 1600 / (5000 * 0.10)
+        assertEquals(new BigDecimal("3.20"), corn.getPrice());
+    }
+
+    @Test
+    void settlementDate_IsThirdFridayOfFrontContractMonth() {
+        LocalDate today = LocalDate.of(2025, 1, 10);
+
+        // grains skip February, the front month at least 30 days out is March
+        assertEquals(LocalDate.of(2025, 3, 21), FuturesCatalog.settlementDate("AGRICULTURE", today, 30));
+        assertEquals(LocalDate.of(2025, 2, 21), FuturesCatalog.settlementDate("ENERGY", today, 30));
+        // February's third Friday comes before the 30 days are up, so energy rolls to March
+        assertEquals(LocalDate.of(2025, 3, 21), FuturesCatalog.settlementDate("ENERGY", LocalDate.of(2025, 2, 1), 30));
+        assertEquals(LocalDate.of(2025, 3, 21), FuturesCatalog.settlementDate("UNKNOWN", today, 30));
+    }
+
+    @Test
+    void sameContract_GetsSameDateOnEveryCall() throws IOException {
+        FuturesCatalog catalog = catalog(HEADER + "crude oil,1000,barrel,7000,ENERGY\n");
+        LocalDate today = LocalDate.of(2025, 1, 10);
+
+        LocalDate first = catalog.findByTicker("CRUDE_OIL", today).orElseThrow().getSettlementDate();
+        LocalDate second = catalog.getContracts(today).get(0).getSettlementDate();
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void reloadIfChanged_PicksUpNewFileAndKeepsOldOneWhenUnparseable() throws IOException {
+        Path file = dir.resolve("futures.csv");
+        FuturesCatalog catalog = catalog(HEADER + "corn,5000,bushel,1600,AGRICULTURE\n");
+
+        write(file, HEADER + "corn,5000,bushel,1600,AGRICULTURE\nwheat,5000,bushel,2000,AGRICULTURE\n", 2_000);
+        catalog.reloadIfChanged();
+        List<FuturesContractDto> contracts = catalog.getContracts(LocalDate.of(2025, 1, 10));
+        assertEquals(List.of("CORN", "WHEAT"), contracts.stream().map(FuturesContractDto::getTicker).toList());
+
+        write(file, HEADER + "corn,lots,bushel,1600,AGRICULTURE\n", 3_000);
+        catalog.reloadIfChanged();
+        assertEquals(2, catalog.size());
+    }
+
+    private FuturesCatalog catalog(String content) throws IOException {
+        Path file = dir.resolve("futures.csv");
+        write(file, content, 1_000);
+        FuturesCatalog catalog = new FuturesCatalog(new DefaultResourceLoader(), file.toUri().toString(), 30);
+        catalog.load();
+        return catalog;
+    }
+
+    // explicit modification times, file systems with coarse timestamps would not see a quick rewrite
+    private void write(Path file, String content, long modifiedMillis) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+}
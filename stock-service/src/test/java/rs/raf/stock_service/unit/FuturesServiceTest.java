@@ -4,31 +4,37 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import rs.raf.stock_service.domain.dto.FuturesContractDto;
 import rs.raf.stock_service.domain.entity.FuturesContract;
+import rs.raf.stock_service.exceptions.FuturesContractNotFoundException;
 import rs.raf.stock_service.repository.FuturesRepository;
+import rs.raf.stock_service.service.FuturesCatalog;
 import rs.raf.stock_service.service.FuturesService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class FuturesServiceTest {
 
+    private FuturesCatalog futuresCatalog;
     private FuturesRepository futuresRepository;
     private FuturesService futuresService;
 
     @BeforeEach
     void setUp() {
+        futuresCatalog = mock(FuturesCatalog.class);
         futuresRepository = mock(FuturesRepository.class);
-        futuresService = new FuturesService(futuresRepository);
+        futuresService = new FuturesService(futuresCatalog, futuresRepository);
     }
 
     @Test
     void testGetFuturesContractByTicker_returnsDto() {
-        FuturesContract fc = new FuturesContract();
+        FuturesContractDto fc = new FuturesContractDto();
         fc.setTicker("WHEAT");
         fc.setContractSize(100);
         fc.setContractUnit("Bushels");
@@ -36,7 +42,7 @@ class FuturesServiceTest {
         fc.setSettlementDate(LocalDate.of(2025, 6, 1));
         fc.setPrice(new BigDecimal("200"));
 
-        when(futuresRepository.findByTicker("WHEAT")).thenReturn(Optional.of(fc));
+        when(futuresCatalog.findByTicker(eq("wheat"), any())).thenReturn(Optional.of(fc));
 
         FuturesContractDto dto = futuresService.getFuturesContractByTicker("wheat");
 
@@ -47,12 +53,51 @@ class FuturesServiceTest {
 
     @Test
     void testGetFuturesContractByTicker_invalid_throwsException() {
-        when(futuresRepository.findByTicker("UNKNOWN")).thenReturn(Optional.empty());
+        when(futuresCatalog.findByTicker(eq("UNKNOWN"), any())).thenReturn(Optional.empty());
 
-        Exception ex = assertThrows(RuntimeException.class, () -> {
+        Exception ex = assertThrows(FuturesContractNotFoundException.class, () -> {
             futuresService.getFuturesContractByTicker("UNKNOWN");
         });
 
         assertTrue(ex.getMessage().contains("Futures contract not found"));
     }
+
+    @Test
+    void rollSettlementDates_movesStoredContractsToCatalogDate() {
+        LocalDate today = LocalDate.of(2025, 6, 1);
+        FuturesContract wheat = new FuturesContract();
+        wheat.setTicker("WHEAT");
+        wheat.setSettlementDate(LocalDate.of(2025, 5, 16));
+        FuturesContract corn = new FuturesContract();
+        corn.setTicker("CORN");
+        corn.setSettlementDate(LocalDate.of(2025, 7, 18));
+
+        FuturesContractDto wheatNow = new FuturesContractDto();
+        wheatNow.setSettlementDate(LocalDate.of(2025, 7, 18));
+        FuturesContractDto cornNow = new FuturesContractDto();
+        cornNow.setSettlementDate(LocalDate.of(2025, 7, 18));
+
+        when(futuresRepository.findAllFuturesContracts()).thenReturn(List.of(wheat, corn));
+        when(futuresCatalog.findByTicker("WHEAT", today)).thenReturn(Optional.of(wheatNow));
+        when(futuresCatalog.findByTicker("CORN", today)).thenReturn(Optional.of(cornNow));
+
+        assertEquals(1, futuresService.rollSettlementDates(today));
+        assertEquals(LocalDate.of(2025, 7, 18), wheat.getSettlementDate());
+        verify(futuresRepository).saveAll(List.of(wheat));
+    }
+
+    @Test
+    void rollSettlementDates_keepsContractsMissingFromCatalog() {
+        LocalDate today = LocalDate.of(2025, 6, 1);
+        FuturesContract removed = new FuturesContract();
+        removed.setTicker("OLD");
+        removed.setSettlementDate(LocalDate.of(2025, 5, 16));
+
+        when(futuresRepository.findAllFuturesContracts()).thenReturn(List.of(removed));
+        when(futuresCatalog.findByTicker("OLD", today)).thenReturn(Optional.empty());
+
+        assertEquals(0, futuresService.rollSettlementDates(today));
+        assertEquals(LocalDate.of(2025, 5, 16), removed.getSettlementDate());
+        verify(futuresRepository, never()).saveAll(any());
+    }
 }
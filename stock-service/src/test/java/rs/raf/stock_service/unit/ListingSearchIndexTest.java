@@ -0,0 +1,96 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.stock_service.domain.dto.ListingSearchEntryDto;
+import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.repository.ListingRepository;
+import rs.raf.stock_service.service.ListingSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSearchIndexTest {
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    private ListingSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ListingSearchIndex(listingRepository, 8, 3);
+        when(listingRepository.findSearchEntriesAfter(0L)).thenReturn(List.of(
+                entry(1L, "AAPL", "Apple Inc.", ListingType.STOCK),
+                entry(2L, "MSFT", "Microsoft Corporation", ListingType.STOCK),
+                entry(3L, "AAP", "Advance Auto Parts", ListingType.STOCK),
+                entry(4L, "EUR/USD", "Euro / US Dollar", ListingType.FOREX),
+                entry(5L, "CLJ25", "Crude Oil Apr 2025", ListingType.FUTURES)));
+        index.load();
+    }
+
+    @Test
+    void matchingIds_FindsSubstringsOfTickerOrNameIgnoringCase() {
+        assertEquals(List.of(2L), index.matchingIds("CROSOF"));
+        assertEquals(List.of(1L, 3L), index.matchingIds("aap"));
+        assertEquals(List.of(4L), index.matchingIds("dollar"));
+        assertEquals(List.of(), index.matchingIds("zzz"));
+    }
+
+    @Test
+    void matchingIds_ShortTermsScanAndTooManyMatchesFallBack() {
+        assertEquals(List.of(4L), index.matchingIds("/"));
+        // "o" is in four listings, more than the three an IN list is allowed to carry
+        assertNull(index.matchingIds("o"));
+    }
+
+    @Test
+    void suggest_RanksExactTickerFirstThenNameWords() {
+        List<ListingSearchEntryDto> hits = index.suggest("aap", null, 10);
+        assertEquals(List.of("AAP", "AAPL"), hits.stream().map(ListingSearchEntryDto::getTicker).toList());
+
+        List<ListingSearchEntryDto> byName = index.suggest("crude", null, 10);
+        assertEquals("CLJ25", byName.get(0).getTicker());
+
+        assertTrue(index.suggest("eur", ListingType.STOCK, 10).isEmpty());
+    }
+
+    @Test
+    void suggest_FindsExactTickerPastThePrefixCap() {
+        ListingSearchIndex crowded = new ListingSearchIndex(listingRepository, 32, 1000);
+        List<ListingSearchEntryDto> entries = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            entries.add(entry(id, String.format("AA%02d", id), "Listing " + id, ListingType.STOCK));
+        }
+        entries.add(entry(41L, "A", "Agilent Technologies", ListingType.STOCK));
+        entries.add(entry(42L, "AA", "Alcoa Corporation", ListingType.STOCK));
+        crowded.addAll(entries);
+
+        assertEquals("A", crowded.suggest("a", null, 10).get(0).getTicker());
+        assertEquals("AA", crowded.suggest("AA", ListingType.STOCK, 10).get(0).getTicker());
+        assertEquals(10, crowded.suggest("aa", null, 10).size());
+    }
+
+    @Test
+    void sync_AddsOnlyNewListings() {
+        when(listingRepository.findSearchEntriesAfter(5L)).thenReturn(List.of(
+                entry(6L, "NVDA", "NVIDIA Corporation", ListingType.STOCK)));
+
+        index.sync();
+
+        assertEquals(6, index.size());
+        assertEquals(List.of(6L), index.matchingIds("nvidia"));
+        verify(listingRepository).findSearchEntriesAfter(5L);
+    }
+
+    private ListingSearchEntryDto entry(Long id, String ticker, String name, ListingType type) {
+        return new ListingSearchEntryDto(id, ticker, name, type, "United States");
+    }
+}
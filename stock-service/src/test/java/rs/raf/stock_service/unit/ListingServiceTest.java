@@ -5,21 +5,28 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import rs.raf.stock_service.client.TwelveDataClient;
 import rs.raf.stock_service.domain.dto.*;
 import rs.raf.stock_service.domain.entity.Exchange;
 import rs.raf.stock_service.domain.entity.ListingPriceHistory;
+import rs.raf.stock_service.domain.entity.ListingPriceRollup;
 import rs.raf.stock_service.domain.entity.Stock;
 import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.domain.enums.PriceRollupResolution;
 import rs.raf.stock_service.domain.mapper.ListingMapper;
 import rs.raf.stock_service.domain.mapper.TimeSeriesMapper;
 import rs.raf.stock_service.exceptions.ListingNotFoundException;
 import rs.raf.stock_service.exceptions.UnauthorizedException;
 import rs.raf.stock_service.repository.ListingPriceHistoryRepository;
+import rs.raf.stock_service.repository.ListingPriceRollupRepository;
+import rs.raf.stock_service.repository.ForexPairRepository;
 import rs.raf.stock_service.repository.ListingRepository;
 import rs.raf.stock_service.repository.OptionRepository;
+import rs.raf.stock_service.service.ListingSearchIndex;
 import rs.raf.stock_service.service.ListingService;
+import rs.raf.stock_service.service.ListingViewTracker;
 import rs.raf.stock_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -38,9 +45,15 @@ class ListingServiceTest {
     @Mock
     private ListingRepository listingRepository;
 
+    @Mock
+    private ForexPairRepository forexPairRepository;
+
     @Mock
     private ListingPriceHistoryRepository priceHistoryRepository;
 
+    @Mock
+    private ListingPriceRollupRepository priceRollupRepository;
+
     @Mock
     private ListingMapper listingMapper;
 
@@ -59,6 +72,12 @@ class ListingServiceTest {
     @Mock
     private OptionRepository optionRepository;
 
+    @Mock
+    private ListingViewTracker listingViewTracker;
+
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
 
     @BeforeEach
     void setUp() {
@@ -169,7 +188,8 @@ class ListingServiceTest {
 
         // Mock ponašanje repozitorijuma
         when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
-        when(priceHistoryRepository.findAllByListingOrderByDateDesc(stock)).thenReturn(priceHistory);
+        when(priceHistoryRepository.findAllByListingAndDateBeforeOrderByDateDesc(eq(stock), any(), eq(PageRequest.of(0, 500))))
+                .thenReturn(priceHistory);
         when(listingMapper.toDetailsDto(stock, priceHistory)).thenReturn(expectedDto);
         when(optionRepository.findAllByUnderlyingStock(stock)).thenReturn(List.of());
 
@@ -186,11 +206,103 @@ class ListingServiceTest {
 
         // Verifikacija poziva
         verify(listingRepository, times(1)).findById(1L);
-        verify(priceHistoryRepository, times(1)).findAllByListingOrderByDateDesc(stock);
+        verify(priceHistoryRepository, times(1)).findAllByListingAndDateBeforeOrderByDateDesc(eq(stock), any(), any());
         verify(listingMapper, times(1)).toDetailsDto(stock, priceHistory);
     }
 
 
+    @Test
+    void getStoredPriceHistory_AppendsRollupsOlderThanRawBars() {
+        Stock stock = new Stock();
+        stock.setId(1L);
+
+        ListingPriceHistory raw = new ListingPriceHistory();
+        raw.setDate(LocalDateTime.of(2025, 2, 1, 9, 35));
+        raw.setClose(new BigDecimal("150.00"));
+        ListingPriceRollup daily = ListingPriceRollup.builder()
+                .listingId(1L)
+                .resolution(PriceRollupResolution.DAILY)
+                .bucket(LocalDateTime.of(2025, 1, 31, 0, 0))
+                .close(new BigDecimal("148.00"))
+                .volume(10L)
+                .build();
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(priceHistoryRepository.findAllByListingAndDateBeforeOrderByDateDesc(eq(stock), any(), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(raw));
+        when(priceHistoryRepository.findTopByListingOrderByDateAsc(stock)).thenReturn(raw);
+        when(priceRollupRepository.findAllByListingIdAndResolutionAndBucketBeforeOrderByBucketDesc(
+                1L, PriceRollupResolution.DAILY, LocalDateTime.of(2025, 2, 1, 0, 0), PageRequest.of(0, 9)))
+                .thenReturn(List.of(daily));
+
+        List<PriceHistoryDto> result = listingService.getStoredPriceHistory(1L, PriceRollupResolution.DAILY, null, 10);
+
+        assertEquals(2, result.size());
+        assertEquals(LocalDateTime.of(2025, 2, 1, 9, 35), result.get(0).getDatetime());
+        assertEquals(LocalDateTime.of(2025, 1, 31, 0, 0), result.get(1).getDatetime());
+        assertEquals(new BigDecimal("148.00"), result.get(1).getClose());
+    }
+
+    @Test
+    void getStoredPriceHistory_OnlyRollupsLeft_ServesHourlyBars() {
+        Stock stock = new Stock();
+        stock.setId(1L);
+        ListingPriceRollup hourly = ListingPriceRollup.builder()
+                .listingId(1L)
+                .resolution(PriceRollupResolution.HOURLY)
+                .bucket(LocalDateTime.of(2024, 6, 3, 15, 0))
+                .build();
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(priceHistoryRepository.findAllByListingAndDateBeforeOrderByDateDesc(eq(stock), any(), any())).thenReturn(List.of());
+        when(priceRollupRepository.findAllByListingIdAndResolutionAndBucketBeforeOrderByBucketDesc(
+                eq(1L), eq(PriceRollupResolution.HOURLY), any(), any())).thenReturn(List.of(hourly));
+
+        List<PriceHistoryDto> result = listingService.getStoredPriceHistory(1L, PriceRollupResolution.HOURLY, null, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(LocalDateTime.of(2024, 6, 3, 15, 0), result.get(0).getDatetime());
+    }
+
+    @Test
+    void getStoredPriceHistory_FullPageOfRawBars_SkipsRollups() {
+        Stock stock = new Stock();
+        stock.setId(1L);
+        LocalDateTime before = LocalDateTime.of(2025, 2, 1, 10, 0);
+        ListingPriceHistory first = new ListingPriceHistory();
+        first.setDate(LocalDateTime.of(2025, 2, 1, 9, 55));
+        ListingPriceHistory second = new ListingPriceHistory();
+        second.setDate(LocalDateTime.of(2025, 2, 1, 9, 50));
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(priceHistoryRepository.findAllByListingAndDateBeforeOrderByDateDesc(stock, before, PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+
+        List<PriceHistoryDto> result = listingService.getStoredPriceHistory(1L, PriceRollupResolution.DAILY, before, 2);
+
+        assertEquals(2, result.size());
+        verifyNoInteractions(priceRollupRepository);
+    }
+
+    @Test
+    void getStoredPriceHistory_CursorPastRawBars_ContinuesWithRollupsBeforeCursor() {
+        Stock stock = new Stock();
+        stock.setId(1L);
+        ListingPriceHistory oldestRaw = new ListingPriceHistory();
+        oldestRaw.setDate(LocalDateTime.of(2025, 2, 1, 9, 35));
+        LocalDateTime before = LocalDateTime.of(2025, 1, 20, 0, 0);
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(priceHistoryRepository.findAllByListingAndDateBeforeOrderByDateDesc(eq(stock), eq(before), any()))
+                .thenReturn(List.of());
+        when(priceHistoryRepository.findTopByListingOrderByDateAsc(stock)).thenReturn(oldestRaw);
+
+        listingService.getStoredPriceHistory(1L, PriceRollupResolution.DAILY, before, 5);
+
+        verify(priceRollupRepository).findAllByListingIdAndResolutionAndBucketBeforeOrderByBucketDesc(
+                1L, PriceRollupResolution.DAILY, before, PageRequest.of(0, 5));
+    }
+
     @Test
     void getListingDetails_ShouldThrowListingNotFoundException() {
         // Mock ponašanje repozitorijuma - ne postoji listing sa tim ID-em
@@ -0,0 +1,61 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.stock_service.domain.dto.OptionDto;
+import rs.raf.stock_service.service.OptionChainCache;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionChainCacheTest {
+
+    private final LocalDate expiry = LocalDate.of(2030, 1, 18);
+
+    @Test
+    void getChain_ReusesChainWithinSpotBucket() {
+        OptionChainCache cache = new OptionChainCache(10, 0.5);
+        AtomicInteger generated = new AtomicInteger();
+
+        cache.getChain("TST", new BigDecimal("100.00"), expiry, () -> chain(generated));
+        cache.getChain("TST", new BigDecimal("100.05"), expiry, () -> chain(generated));
+        assertEquals(1, generated.get());
+
+        cache.getChain("TST", new BigDecimal("103.00"), expiry, () -> chain(generated));
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    void getChain_EvictsLeastRecentlyUsedBeyondCapacity() {
+        OptionChainCache cache = new OptionChainCache(2, 0.5);
+        AtomicInteger generated = new AtomicInteger();
+
+        cache.getChain("A", BigDecimal.TEN, expiry, () -> chain(generated));
+        cache.getChain("B", BigDecimal.TEN, expiry, () -> chain(generated));
+        cache.getChain("A", BigDecimal.TEN, expiry, () -> chain(generated));
+        cache.getChain("C", BigDecimal.TEN, expiry, () -> chain(generated));
+        assertEquals(2, cache.size());
+
+        cache.getChain("A", BigDecimal.TEN, expiry, () -> chain(generated));
+        assertEquals(3, generated.get());
+    }
+
+    @Test
+    void evictExpired_RemovesPastExpiries() {
+        OptionChainCache cache = new OptionChainCache(10, 0.5);
+        cache.getChain("A", BigDecimal.TEN, LocalDate.of(2020, 1, 1), () -> chain(new AtomicInteger()));
+        cache.getChain("A", BigDecimal.TEN, expiry, () -> chain(new AtomicInteger()));
+
+        cache.evictExpired(LocalDate.of(2025, 1, 1));
+
+        assertEquals(1, cache.size());
+    }
+
+    private List<OptionDto> chain(AtomicInteger counter) {
+        counter.incrementAndGet();
+        return List.of(new OptionDto());
+    }
+}
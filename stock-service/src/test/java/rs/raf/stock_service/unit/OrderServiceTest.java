@@ -5,24 +5,30 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import rs.raf.stock_service.client.BankClient;
 import rs.raf.stock_service.client.UserClient;
+import rs.raf.stock_service.domain.dto.CreateOrderDto;
 import rs.raf.stock_service.domain.dto.ListingDto;
 import rs.raf.stock_service.domain.dto.OrderDto;
 import rs.raf.stock_service.domain.entity.Listing;
 import rs.raf.stock_service.domain.entity.ListingPriceHistory;
 import rs.raf.stock_service.domain.entity.Order;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
 import rs.raf.stock_service.domain.entity.Stock;
 import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.domain.enums.OrderDirection;
 import rs.raf.stock_service.domain.enums.OrderStatus;
 import rs.raf.stock_service.domain.enums.OrderType;
 import rs.raf.stock_service.domain.mapper.ListingMapper;
 import rs.raf.stock_service.domain.mapper.OrderMapper;
 import rs.raf.stock_service.exceptions.CantCancelOrderInCurrentOrderState;
+import rs.raf.stock_service.exceptions.InsufficientSharesException;
 import rs.raf.stock_service.exceptions.OrderNotFoundException;
 import rs.raf.stock_service.exceptions.UnauthorizedException;
 import rs.raf.stock_service.repository.ListingPriceHistoryRepository;
 import rs.raf.stock_service.repository.ListingRepository;
 import rs.raf.stock_service.repository.OrderRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
 import rs.raf.stock_service.service.OrderService;
+import rs.raf.stock_service.service.PortfolioService;
 import rs.raf.stock_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -61,6 +67,12 @@ public class OrderServiceTest {
     @Mock
     private ListingMapper listingMapper;
 
+    @Mock
+    private PortfolioService portfolioService;
+
+    @Mock
+    private PortfolioEntryRepository portfolioEntryRepository;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -389,6 +401,130 @@ public class OrderServiceTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void shouldReleaseLimitReservation_WhenAgentOrderIsCancelled() {
+        Long orderId = 5L;
+        Long userId = 100L;
+        String authHeader = "Bearer token";
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(userId);
+        order.setStatus(OrderStatus.APPROVED);
+        order.setIsDone(false);
+        order.setAgentOrder(true);
+        order.setLimitReserved(true);
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader(authHeader)).thenReturn(userId);
+        when(jwtTokenUtil.getUserRoleFromAuthHeader(authHeader)).thenReturn("AGENT");
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+
+        orderService.cancelOrder(orderId, authHeader);
+
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(userClient).releaseLimitReservation(orderId);
+    }
+
+    @Test
+    void shouldReleaseLimit_WhenDecliningAgentOrderWithUnknownReservation() {
+        Long orderId = 6L;
+        String authHeader = "Bearer token";
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(100L);
+        order.setStatus(OrderStatus.PENDING);
+        order.setIsDone(false);
+        order.setAgentOrder(true);
+        order.setLimitReserved(false);
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader(authHeader)).thenReturn(1L);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+
+        orderService.declineOrder(orderId, authHeader);
+
+        // the reserve response may have been lost, releasing an unknown reservation is a no-op
+        assertEquals(OrderStatus.DECLINED, order.getStatus());
+        verify(userClient).releaseLimitReservation(orderId);
+    }
+
+    @Test
+    void shouldNotReleaseLimit_WhenDecliningClientOrder() {
+        Long orderId = 6L;
+        String authHeader = "Bearer token";
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(100L);
+        order.setStatus(OrderStatus.PENDING);
+        order.setIsDone(false);
+        order.setAgentOrder(false);
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader(authHeader)).thenReturn(1L);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+
+        orderService.declineOrder(orderId, authHeader);
+
+        assertEquals(OrderStatus.DECLINED, order.getStatus());
+        verify(userClient, never()).releaseLimitReservation(any());
+    }
+
+    @Test
+    void createOrder_SellingSharesReservedForOtc_IsRejected() {
+        String authHeader = "Bearer token";
+        Stock stock = new Stock();
+        stock.setId(10L);
+        stock.setPrice(new BigDecimal("100"));
+        PortfolioEntry entry = PortfolioEntry.builder().userId(100L).listing(stock).amount(10).reservedAmount(4)
+                .averagePrice(new BigDecimal("90")).build();
+
+        CreateOrderDto dto = new CreateOrderDto();
+        dto.setListingId(10L);
+        dto.setOrderType(OrderType.MARKET);
+        dto.setQuantity(7);
+        dto.setContractSize(1);
+        dto.setOrderDirection(OrderDirection.SELL);
+        dto.setAccountNumber("111");
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader(authHeader)).thenReturn(100L);
+        when(jwtTokenUtil.getUserRoleFromAuthHeader(authHeader)).thenReturn("CLIENT");
+        when(listingRepository.findById(10L)).thenReturn(Optional.of(stock));
+        when(bankClient.getAccountBalance("111")).thenReturn(new BigDecimal("100000"));
+        when(portfolioEntryRepository.findByUserIdAndListing(100L, stock)).thenReturn(Optional.of(entry));
+
+        InsufficientSharesException e = assertThrows(InsufficientSharesException.class,
+                () -> orderService.createOrder(dto, authHeader));
+        assertTrue(e.getMessage().contains("only 6"));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void executeOrder_SharesReservedSinceApproval_DeclinesAndReleasesLimit() {
+        Stock stock = new Stock();
+        stock.setId(10L);
+        Order order = new Order();
+        order.setId(7L);
+        order.setUserId(100L);
+        order.setListing(stock);
+        order.setQuantity(5);
+        order.setContractSize(1);
+        order.setDirection(OrderDirection.SELL);
+        order.setOrderType(OrderType.MARKET);
+        order.setStatus(OrderStatus.APPROVED);
+        order.setAgentOrder(true);
+        order.setLimitReserved(true);
+
+        when(portfolioEntryRepository.findByUserIdAndListing(100L, stock)).thenReturn(Optional.of(
+                PortfolioEntry.builder().userId(100L).listing(stock).amount(5).reservedAmount(2).build()));
+
+        orderService.executeOrder(order);
+
+        assertEquals(OrderStatus.DECLINED, order.getStatus());
+        verify(userClient).releaseLimitReservation(7L);
+        verify(portfolioService, never()).updateHoldingsOnOrderExecution(any());
+        verifyNoInteractions(bankClient);
+    }
+
 //    @Test
 //    void testGetOrdersByStatus_WhenStatusIsProvided() {
 //        ListingDailyPriceInfo dailyPriceInfo = new ListingDailyPriceInfo();
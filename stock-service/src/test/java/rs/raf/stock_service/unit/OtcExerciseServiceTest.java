@@ -0,0 +1,202 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.stock_service.client.BankClient;
+import rs.raf.stock_service.domain.dto.FundsReservationDto;
+import rs.raf.stock_service.domain.dto.OtcExerciseDto;
+import rs.raf.stock_service.domain.dto.ReserveFundsDto;
+import rs.raf.stock_service.domain.entity.OtcExercise;
+import rs.raf.stock_service.domain.entity.OtcOption;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.FundsReservationStatus;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+import rs.raf.stock_service.domain.enums.OtcOptionStatus;
+import rs.raf.stock_service.exceptions.OtcExerciseException;
+import rs.raf.stock_service.exceptions.UnauthorizedActionException;
+import rs.raf.stock_service.repository.OtcExerciseRepository;
+import rs.raf.stock_service.repository.OtcOptionRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+import rs.raf.stock_service.service.OtcExerciseService;
+import rs.raf.stock_service.service.OtcShareLedger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OtcExerciseServiceTest {
+
+    @Mock
+    private OtcOptionRepository otcOptionRepository;
+    @Mock
+    private OtcExerciseRepository otcExerciseRepository;
+    @Mock
+    private PortfolioEntryRepository portfolioEntryRepository;
+    @Mock
+    private OtcShareLedger otcShareLedger;
+    @Mock
+    private BankClient bankClient;
+
+    private OtcExerciseService otcExerciseService;
+
+    private OtcOption option;
+    private OtcExercise exercise;
+
+    @BeforeEach
+    void setUp() {
+        otcExerciseService = new OtcExerciseService(otcOptionRepository, otcExerciseRepository,
+                portfolioEntryRepository, otcShareLedger, bankClient, 60000);
+
+        Stock stock = new Stock();
+        stock.setId(3L);
+        option = OtcOption.builder()
+                .id(1L)
+                .buyerId(10L)
+                .sellerId(20L)
+                .amount(5)
+                .strikePrice(new BigDecimal("100"))
+                .settlementDate(LocalDate.now())
+                .underlyingStock(stock)
+                .build();
+        exercise = OtcExercise.builder()
+                .id(7L)
+                .option(option)
+                .buyerId(10L)
+                .sellerId(20L)
+                .sellerEntryId(30L)
+                .buyerAccountNumber("acc-1")
+                .amount(5)
+                .totalPrice(new BigDecimal("500"))
+                .status(OtcExerciseStatus.STARTED)
+                .build();
+    }
+
+    private void claimed() {
+        when(otcOptionRepository.findById(1L)).thenReturn(Optional.of(option));
+        when(otcOptionRepository.claim(eq(1L), eq(OtcOptionStatus.VALID), any())).thenReturn(1);
+        when(portfolioEntryRepository.findByUserIdAndListingId(20L, 3L))
+                .thenReturn(Optional.of(PortfolioEntry.builder().id(30L).build()));
+        when(otcExerciseRepository.save(any(OtcExercise.class))).thenReturn(exercise);
+        when(otcExerciseRepository.findById(7L)).thenReturn(Optional.of(exercise));
+    }
+
+    @Test
+    void exercise_BothSidesReserved_CommitsFundsThenShares() {
+        claimed();
+        when(otcShareLedger.reserveShares(exercise)).thenReturn(true);
+        when(bankClient.reserveFunds(any(ReserveFundsDto.class))).thenReturn(funds(FundsReservationStatus.RESERVED));
+        when(otcExerciseRepository.transition(eq(7L), eq(OtcExerciseStatus.SHARES_RESERVED), eq(OtcExerciseStatus.COMMITTING), any()))
+                .thenReturn(1);
+        when(bankClient.commitFundsReservation("OTC-EX-7")).thenReturn(funds(FundsReservationStatus.COMMITTED));
+
+        otcExerciseService.exercise(1L, 10L, "acc-1");
+
+        verify(bankClient).reserveFunds(argThat(dto -> "OTC-EX-7".equals(dto.getReference())
+                && dto.getReceiverClientId().equals(20L)
+                && dto.getAmount().compareTo(new BigDecimal("500")) == 0));
+        verify(otcShareLedger).commit(7L);
+        verify(bankClient, never()).releaseFundsReservation(any());
+    }
+
+    @Test
+    void exercise_FundsRejected_CompensatesBothSides() {
+        claimed();
+        when(otcShareLedger.reserveShares(exercise)).thenAnswer(inv -> {
+            exercise.setSharesReserved(true);
+            return true;
+        });
+        when(bankClient.reserveFunds(any(ReserveFundsDto.class))).thenReturn(funds(FundsReservationStatus.REJECTED));
+        when(otcExerciseRepository.startCompensation(eq(7L), eq(OtcExerciseStatus.SHARES_RESERVED), any(), any())).thenReturn(1);
+
+        otcExerciseService.exercise(1L, 10L, "acc-1");
+
+        verify(bankClient).releaseFundsReservation("OTC-EX-7");
+        verify(otcShareLedger).compensate(7L);
+        verify(otcShareLedger, never()).commit(any());
+    }
+
+    @Test
+    void exercise_SellerSharesGone_FailsWithoutCallingBank() {
+        claimed();
+        when(otcShareLedger.reserveShares(exercise)).thenReturn(false);
+        when(otcExerciseRepository.startCompensation(eq(7L), eq(OtcExerciseStatus.STARTED), any(), any())).thenReturn(1);
+
+        otcExerciseService.exercise(1L, 10L, "acc-1");
+
+        verifyNoInteractions(bankClient);
+        verify(otcShareLedger).compensate(7L);
+    }
+
+    @Test
+    void exercise_BankCommitFails_LeavesCommittingForRecovery() {
+        claimed();
+        when(otcShareLedger.reserveShares(exercise)).thenReturn(true);
+        when(bankClient.reserveFunds(any(ReserveFundsDto.class))).thenReturn(funds(FundsReservationStatus.RESERVED));
+        when(otcExerciseRepository.transition(eq(7L), eq(OtcExerciseStatus.SHARES_RESERVED), eq(OtcExerciseStatus.COMMITTING), any()))
+                .thenReturn(1);
+        when(bankClient.commitFundsReservation("OTC-EX-7")).thenThrow(new RuntimeException("bank down"));
+
+        otcExerciseService.exercise(1L, 10L, "acc-1");
+
+        verify(otcShareLedger, never()).commit(any());
+        verify(otcShareLedger, never()).compensate(any());
+    }
+
+    @Test
+    void exercise_AlreadyClaimed_Throws() {
+        when(otcOptionRepository.findById(1L)).thenReturn(Optional.of(option));
+        when(otcOptionRepository.claim(eq(1L), eq(OtcOptionStatus.VALID), any())).thenReturn(0);
+
+        assertThrows(OtcExerciseException.class, () -> otcExerciseService.exercise(1L, 10L, "acc-1"));
+        verifyNoInteractions(otcExerciseRepository, bankClient);
+    }
+
+    @Test
+    void exercise_NotBuyer_Throws() {
+        when(otcOptionRepository.findById(1L)).thenReturn(Optional.of(option));
+
+        assertThrows(UnauthorizedActionException.class, () -> otcExerciseService.exercise(1L, 20L, "acc-1"));
+        verify(otcOptionRepository, never()).claim(any(), any(), any());
+    }
+
+    @Test
+    void recover_RetriesCommitAndCompensatesInterrupted() {
+        exercise.setStatus(OtcExerciseStatus.COMMITTING);
+        OtcExercise interrupted = OtcExercise.builder().id(8L).option(option).status(OtcExerciseStatus.STARTED).build();
+        when(otcExerciseRepository.findAllByStatusInAndUpdatedAtBefore(anyCollection(), any()))
+                .thenReturn(List.of(exercise, interrupted));
+        when(otcExerciseRepository.findById(7L)).thenReturn(Optional.of(exercise));
+        when(otcExerciseRepository.findById(8L)).thenReturn(Optional.of(interrupted));
+        when(bankClient.commitFundsReservation("OTC-EX-7")).thenReturn(funds(FundsReservationStatus.COMMITTED));
+        when(otcExerciseRepository.startCompensation(eq(8L), eq(OtcExerciseStatus.STARTED), any(), any())).thenReturn(1);
+
+        otcExerciseService.recover();
+
+        verify(otcShareLedger).commit(7L);
+        verify(otcShareLedger).compensate(8L);
+        verify(bankClient, never()).releaseFundsReservation(any());
+    }
+
+    @Test
+    void expireOptions_ExpiresInBulk() {
+        when(otcOptionRepository.expireUnused(eq(OtcOptionStatus.EXPIRED), eq(LocalDate.now()))).thenReturn(3);
+
+        otcExerciseService.expireOptions();
+
+        verify(otcOptionRepository).expireUnused(OtcOptionStatus.EXPIRED, LocalDate.now());
+    }
+
+    private FundsReservationDto funds(FundsReservationStatus status) {
+        return new FundsReservationDto("OTC-EX-7", status, new BigDecimal("500"), null, null, null);
+    }
+}
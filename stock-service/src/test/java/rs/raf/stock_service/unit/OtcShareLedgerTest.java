@@ -0,0 +1,75 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.stock_service.domain.entity.OtcExercise;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.enums.OtcExerciseStatus;
+import rs.raf.stock_service.repository.OtcExerciseRepository;
+import rs.raf.stock_service.repository.OtcOptionRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+import rs.raf.stock_service.service.OtcShareLedger;
+import rs.raf.stock_service.service.PortfolioValuationService;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OtcShareLedgerTest {
+
+    @Mock
+    private OtcExerciseRepository otcExerciseRepository;
+    @Mock
+    private OtcOptionRepository otcOptionRepository;
+    @Mock
+    private PortfolioEntryRepository portfolioEntryRepository;
+    @Mock
+    private PortfolioValuationService portfolioValuationService;
+
+    @InjectMocks
+    private OtcShareLedger otcShareLedger;
+
+    private OtcExercise exercise;
+
+    @BeforeEach
+    void setUp() {
+        exercise = OtcExercise.builder()
+                .id(7L)
+                .sellerEntryId(30L)
+                .amount(5)
+                .status(OtcExerciseStatus.STARTED)
+                .build();
+        when(otcExerciseRepository.transition(eq(7L), eq(OtcExerciseStatus.STARTED),
+                eq(OtcExerciseStatus.SHARES_RESERVED), any())).thenReturn(1);
+    }
+
+    @Test
+    void reserveShares_RefreshesValuationFromReloadedEntry() {
+        PortfolioEntry reloaded = PortfolioEntry.builder().id(30L).userId(20L).publicAmount(0).reservedAmount(5).build();
+        when(portfolioEntryRepository.reservePublic(30L, 5)).thenReturn(1);
+        when(portfolioEntryRepository.findById(30L)).thenReturn(Optional.of(reloaded));
+
+        assertTrue(otcShareLedger.reserveShares(exercise));
+
+        verify(portfolioValuationService).onEntryUpdated(reloaded);
+        assertEquals(OtcExerciseStatus.SHARES_RESERVED, exercise.getStatus());
+    }
+
+    @Test
+    void reserveShares_NotEnoughPublicShares_LeavesValuationAlone() {
+        when(portfolioEntryRepository.reservePublic(30L, 5)).thenReturn(0);
+
+        assertFalse(otcShareLedger.reserveShares(exercise));
+
+        verify(otcExerciseRepository).transition(eq(7L), eq(OtcExerciseStatus.SHARES_RESERVED),
+                eq(OtcExerciseStatus.STARTED), any());
+        verifyNoInteractions(portfolioValuationService);
+    }
+}
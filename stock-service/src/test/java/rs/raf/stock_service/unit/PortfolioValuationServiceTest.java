@@ -0,0 +1,176 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.stock_service.domain.dto.PortfolioEntryDto;
+import rs.raf.stock_service.domain.dto.PortfolioValuationDto;
+import rs.raf.stock_service.domain.entity.PortfolioEntry;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.repository.OrderRepository;
+import rs.raf.stock_service.repository.PortfolioEntryRepository;
+import rs.raf.stock_service.service.PortfolioValuationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PortfolioValuationServiceTest {
+
+    private final Long userId = 123L;
+
+    @Mock
+    private PortfolioEntryRepository portfolioEntryRepository;
+    @Mock
+    private OrderRepository orderRepository;
+
+    private PortfolioValuationService valuationService;
+    private Stock apple;
+    private Stock google;
+
+    @BeforeEach
+    void setUp() {
+        valuationService = new PortfolioValuationService(portfolioEntryRepository, orderRepository, 60_000);
+        apple = stock(1L, "AAPL", "Apple Inc.", 115);
+        google = stock(2L, "GOOGL", "Alphabet Inc.", 2200);
+    }
+
+    @Test
+    void getPositions_LoadsOnceAndComputesProfit() {
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(List.of(
+                entry(apple, 10, BigDecimal.TEN), entry(google, 5, BigDecimal.valueOf(2000))));
+
+        List<PortfolioEntryDto> result = valuationService.getPositions(userId);
+        valuationService.getPositions(userId);
+
+        assertEquals(2, result.size());
+        assertEquals("AAPL", result.get(0).getTicker());
+        assertEquals(BigDecimal.valueOf(1050), result.get(0).getProfit());
+        assertEquals("GOOGL", result.get(1).getTicker());
+        assertEquals(BigDecimal.valueOf(1000), result.get(1).getProfit());
+        verify(portfolioEntryRepository, times(1)).findAllByUserId(userId);
+    }
+
+    @Test
+    void getPositions_NoHoldings_ReturnsEmptyList() {
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(Collections.emptyList());
+
+        assertTrue(valuationService.getPositions(userId).isEmpty());
+    }
+
+    @Test
+    void onPrice_RevaluesHolders() {
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(List.of(
+                entry(apple, 10, BigDecimal.TEN), entry(google, 5, BigDecimal.valueOf(2000))));
+        valuationService.getPositions(userId);
+
+        valuationService.onPrice(apple.getId(), BigDecimal.valueOf(120));
+
+        PortfolioValuationDto valuation = valuationService.getValuation(userId);
+        assertEquals(0, valuation.getMarketValue().compareTo(BigDecimal.valueOf(1200 + 11000)));
+        assertEquals(0, valuation.getCostBasis().compareTo(BigDecimal.valueOf(100 + 10000)));
+        assertEquals(0, valuation.getUnrealizedProfit().compareTo(BigDecimal.valueOf(1100 + 1000)));
+        assertEquals(BigDecimal.valueOf(1100), valuationService.getPositions(userId).get(0).getProfit());
+    }
+
+    @Test
+    void fills_UpdatePositionsAndRealizedProfit() {
+        when(orderRepository.sumRealizedProfit(userId)).thenReturn(BigDecimal.valueOf(50));
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(List.of(entry(apple, 10, BigDecimal.TEN)));
+        valuationService.getPositions(userId);
+
+        valuationService.onEntryUpdated(entry(apple, 4, BigDecimal.TEN));
+        valuationService.onRealizedProfit(userId, BigDecimal.valueOf(25));
+        valuationService.onEntryUpdated(entry(google, 1, BigDecimal.valueOf(2100)));
+
+        PortfolioValuationDto valuation = valuationService.getValuation(userId);
+        assertEquals(0, valuation.getCostBasis().compareTo(BigDecimal.valueOf(40 + 2100)));
+        assertEquals(0, valuation.getMarketValue().compareTo(BigDecimal.valueOf(460 + 2200)));
+        assertEquals(0, valuation.getRealizedProfit().compareTo(BigDecimal.valueOf(75)));
+
+        valuationService.onEntryRemoved(userId, apple.getId());
+        valuationService.onPrice(apple.getId(), BigDecimal.valueOf(500));
+
+        valuation = valuationService.getValuation(userId);
+        assertEquals(0, valuation.getMarketValue().compareTo(BigDecimal.valueOf(2200)));
+        assertEquals(1, valuationService.getPositions(userId).size());
+    }
+
+    @Test
+    void fillsInTransaction_AppliedOnlyAfterCommit() {
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(List.of(entry(apple, 10, BigDecimal.TEN)));
+        valuationService.getPositions(userId);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            valuationService.onEntryUpdated(entry(apple, 4, BigDecimal.TEN));
+            assertEquals(10, valuationService.getPositions(userId).get(0).getAmount());
+
+            // rolled back: synchronizations are dropped without afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+            assertEquals(10, valuationService.getPositions(userId).get(0).getAmount());
+
+            TransactionSynchronizationManager.initSynchronization();
+            valuationService.onEntryUpdated(entry(apple, 4, BigDecimal.TEN));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(4, valuationService.getPositions(userId).get(0).getAmount());
+    }
+
+    @Test
+    void updatesForUnloadedUser_AreIgnored() {
+        valuationService.onEntryUpdated(entry(apple, 10, BigDecimal.TEN));
+        valuationService.onRealizedProfit(userId, BigDecimal.ONE);
+        valuationService.onPrice(apple.getId(), BigDecimal.ONE);
+
+        assertEquals(0, valuationService.size());
+        verifyNoInteractions(portfolioEntryRepository, orderRepository);
+    }
+
+    @Test
+    void evict_DropsBookAndReloadsOnNextRead() {
+        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(List.of(entry(apple, 10, BigDecimal.TEN)));
+        valuationService.getPositions(userId);
+
+        valuationService.evict(userId);
+        assertEquals(0, valuationService.size());
+
+        valuationService.getPositions(userId);
+        verify(portfolioEntryRepository, times(2)).findAllByUserId(userId);
+    }
+
+    private Stock stock(Long id, String ticker, String name, int price) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setTicker(ticker);
+        stock.setName(name);
+        stock.setPrice(BigDecimal.valueOf(price));
+        return stock;
+    }
+
+    private PortfolioEntry entry(Stock stock, int amount, BigDecimal averagePrice) {
+        return PortfolioEntry.builder()
+                .userId(userId)
+                .listing(stock)
+                .type(ListingType.STOCK)
+                .amount(amount)
+                .averagePrice(averagePrice)
+                .lastModified(LocalDateTime.now())
+                .publicAmount(0)
+                .inTheMoney(false)
+                .used(false)
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import rs.raf.stock_service.configuration.RabbitMQConfig;
+import rs.raf.stock_service.domain.dto.CreatePriceAlertDto;
+import rs.raf.stock_service.domain.dto.PriceAlertMessageDto;
+import rs.raf.stock_service.domain.entity.PriceAlert;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.PriceAlertDirection;
+import rs.raf.stock_service.exceptions.PriceAlertNotFoundException;
+import rs.raf.stock_service.repository.ListingRepository;
+import rs.raf.stock_service.repository.PriceAlertRepository;
+import rs.raf.stock_service.service.PriceAlertService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceAlertServiceTest {
+
+    @Mock
+    private PriceAlertRepository priceAlertRepository;
+    @Mock
+    private ListingRepository listingRepository;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private PriceAlertService priceAlertService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        priceAlertService = new PriceAlertService(priceAlertRepository, listingRepository, rabbitTemplate, 100, 1000);
+        Stock stock = new Stock();
+        stock.setId(1L);
+        stock.setTicker("AAPL");
+        lenient().when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        lenient().when(priceAlertRepository.save(any(PriceAlert.class))).thenAnswer(inv -> {
+            PriceAlert alert = inv.getArgument(0);
+            alert.setId(ids.incrementAndGet());
+            return alert;
+        });
+        lenient().when(priceAlertRepository.markTriggered(any(), any(), any()))
+                .thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+    }
+
+    @Test
+    void onPrice_FiresOnlyCrossedAlertsOnce() {
+        create(PriceAlertDirection.ABOVE, "190");
+        create(PriceAlertDirection.ABOVE, "200");
+        create(PriceAlertDirection.BELOW, "150");
+        create(PriceAlertDirection.BELOW, "180");
+
+        priceAlertService.onPrice(1L, new BigDecimal("190.00"));
+
+        ArgumentCaptor<Collection<Long>> fired = ArgumentCaptor.forClass(Collection.class);
+        verify(priceAlertRepository).markTriggered(fired.capture(), eq(new BigDecimal("190.00")), any());
+        assertEquals(List.of(1L), List.copyOf(fired.getValue()));
+
+        // already fired, a second update at the same price marks nothing more
+        priceAlertService.onPrice(1L, new BigDecimal("191"));
+        verify(priceAlertRepository, times(1)).markTriggered(any(), any(), any());
+
+        priceAlertService.onPrice(1L, new BigDecimal("140"));
+        verify(priceAlertRepository).markTriggered(argThat(alerts -> alerts.size() == 2), eq(new BigDecimal("140")), any());
+        // notifications go out from the outbox relay only
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void onPrice_WhenMarkingFails_AlertStaysIndexed() {
+        create(PriceAlertDirection.ABOVE, "190");
+        doThrow(new RuntimeException("db down")).doReturn(1)
+                .when(priceAlertRepository).markTriggered(any(), any(), any());
+
+        priceAlertService.onPrice(1L, new BigDecimal("195"));
+        priceAlertService.onPrice(1L, new BigDecimal("195"));
+
+        verify(priceAlertRepository, times(2)).markTriggered(eq(List.of(1L)), any(), any());
+    }
+
+    @Test
+    void notifyTriggered_MarksAlertsOnceConfirmed() {
+        PriceAlert alert = triggered(3L, PriceAlertDirection.ABOVE, "190", "190.50");
+        when(priceAlertRepository.findUnnotified(any(Pageable.class))).thenReturn(List.of(alert));
+        brokerConfirms(true);
+
+        priceAlertService.notifyTriggered();
+
+        ArgumentCaptor<PriceAlertMessageDto> message = ArgumentCaptor.forClass(PriceAlertMessageDto.class);
+        ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.PRICE_ALERT_QUEUE), message.capture(),
+                postProcessor.capture(), any(CorrelationData.class));
+        assertEquals(3L, message.getValue().getAlertId());
+        assertEquals("AAPL", message.getValue().getTicker());
+        assertEquals(PriceAlertDirection.ABOVE, message.getValue().getDirection());
+        assertEquals(new BigDecimal("190.50"), message.getValue().getTriggeredPrice());
+        assertEquals("user@test.com", message.getValue().getDestination());
+        assertEquals("price-alert-3", postProcessor.getValue()
+                .postProcessMessage(new Message(new byte[0], new MessageProperties())).getMessageProperties().getMessageId());
+        assertNotNull(alert.getNotifiedAt());
+    }
+
+    @Test
+    void notifyTriggered_NotConfirmed_StaysPending() {
+        PriceAlert first = triggered(3L, PriceAlertDirection.ABOVE, "190", "190.50");
+        PriceAlert second = triggered(4L, PriceAlertDirection.BELOW, "150", "149");
+        when(priceAlertRepository.findUnnotified(any(Pageable.class))).thenReturn(List.of(first, second));
+        brokerConfirms(false);
+
+        priceAlertService.notifyTriggered();
+
+        assertNull(first.getNotifiedAt());
+        assertNull(second.getNotifiedAt());
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void deleteAlert_RemovesItFromTheIndex() {
+        PriceAlert alert = create(PriceAlertDirection.BELOW, "150");
+        when(priceAlertRepository.findByIdAndUserId(alert.getId(), 7L)).thenReturn(Optional.of(alert));
+
+        priceAlertService.deleteAlert(7L, alert.getId());
+        priceAlertService.onPrice(1L, new BigDecimal("100"));
+
+        verify(priceAlertRepository).delete(alert);
+        verify(priceAlertRepository, never()).markTriggered(any(), any(), any());
+    }
+
+    @Test
+    void deleteAlert_OfAnotherUser_IsNotFound() {
+        when(priceAlertRepository.findByIdAndUserId(5L, 7L)).thenReturn(Optional.empty());
+
+        assertThrows(PriceAlertNotFoundException.class, () -> priceAlertService.deleteAlert(7L, 5L));
+    }
+
+    private void brokerConfirms(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(4);
+            correlation.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    private PriceAlert triggered(Long id, PriceAlertDirection direction, String target, String price) {
+        return PriceAlert.builder()
+                .id(id)
+                .userId(7L)
+                .email("user@test.com")
+                .listingId(1L)
+                .ticker("AAPL")
+                .direction(direction)
+                .targetPrice(new BigDecimal(target))
+                .active(false)
+                .triggeredAt(LocalDateTime.now())
+                .triggeredPrice(new BigDecimal(price))
+                .build();
+    }
+
+    private PriceAlert create(PriceAlertDirection direction, String target) {
+        priceAlertService.createAlert(7L, "user@test.com", new CreatePriceAlertDto(1L, direction, new BigDecimal(target)));
+        ArgumentCaptor<PriceAlert> saved = ArgumentCaptor.forClass(PriceAlert.class);
+        verify(priceAlertRepository, atLeastOnce()).save(saved.capture());
+        return saved.getValue();
+    }
+}
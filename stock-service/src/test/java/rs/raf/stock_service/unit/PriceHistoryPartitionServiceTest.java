@@ -0,0 +1,92 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.stock_service.service.PriceHistoryPartitionService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PriceHistoryPartitionServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private PriceHistoryPartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PriceHistoryPartitionService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                true, 2, 3, 24);
+    }
+
+    @Test
+    void prepare_ReplacesPlainTableWithMonthlyPartitions() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM pg_partitioned_table"), eq(Integer.class)))
+                .thenReturn(0);
+
+        service.prepare(YearMonth.of(2025, 5));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE listing_price_history RENAME TO listing_price_history_legacy");
+        order.verify(jdbcTemplate).execute(contains("PARTITION BY RANGE (date)"));
+        order.verify(jdbcTemplate).execute("DROP TABLE listing_price_history_legacy");
+        // three months back for the raw window, two ahead
+        verify(jdbcTemplate, atLeastOnce()).execute("CREATE TABLE IF NOT EXISTS listing_price_history_p202502 " +
+                "PARTITION OF listing_price_history FOR VALUES FROM ('2025-02-01') TO ('2025-03-01')");
+        verify(jdbcTemplate, atLeastOnce()).execute(startsWith("CREATE TABLE IF NOT EXISTS listing_price_history_p202507 "));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS listing_price_history_p202501 "));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS listing_price_history_p202508 "));
+    }
+
+    @Test
+    void prepare_OtherDatabaseKeepsPlainTable() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        service.prepare(YearMonth.of(2025, 5));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void maintain_RollsUpAndDropsOnlyPartitionsPastRetention() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT c.relname FROM pg_inherits"), eq(String.class))).thenReturn(List.of(
+                "listing_price_history_default", "listing_price_history_p202501",
+                "listing_price_history_p202502", "listing_price_history_p202505"));
+
+        service.maintain(YearMonth.of(2025, 5));
+
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.of(2025, 2, 1, 0, 0));
+        verify(jdbcTemplate).update(matches(".*date_trunc\\('hour'.*FROM listing_price_history_p202501 .*"),
+                eq("HOURLY"), eq(cutoff));
+        verify(jdbcTemplate).update(matches(".*date_trunc\\('day'.*FROM listing_price_history_p202501 .*"),
+                eq("DAILY"), eq(cutoff));
+        verify(jdbcTemplate).execute("DROP TABLE listing_price_history_p202501");
+        verify(jdbcTemplate, never()).execute("DROP TABLE listing_price_history_p202502");
+        verify(jdbcTemplate, never()).execute("DROP TABLE listing_price_history_p202505");
+
+        verify(jdbcTemplate).update("DELETE FROM listing_price_history_default WHERE date < ?", cutoff);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM listing_price_rollup"), eq("HOURLY"),
+                eq(Timestamp.valueOf(LocalDateTime.of(2023, 5, 1, 0, 0))));
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
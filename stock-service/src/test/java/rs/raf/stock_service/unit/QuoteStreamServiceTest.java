@@ -0,0 +1,165 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import rs.raf.stock_service.domain.dto.QuoteTickDto;
+import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.exceptions.QuoteStreamFullException;
+import rs.raf.stock_service.repository.ListingRepository;
+import rs.raf.stock_service.service.QuoteStreamService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteStreamServiceTest {
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    private QuoteStreamService quoteStreamService;
+
+    @BeforeEach
+    void setUp() {
+        quoteStreamService = new QuoteStreamService(listingRepository, 2, 60000, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        quoteStreamService.shutdown();
+    }
+
+    @Test
+    void subscribe_SendsCurrentQuotesThenOnlySubscribedListings() throws Exception {
+        when(listingRepository.findAllById(anyCollection())).thenReturn(List.of(stock(1L, "100")));
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        quoteStreamService.subscribe(List.of(1L), emitter);
+        emitter.awaitPrice(new BigDecimal("100"));
+        quoteStreamService.publish(tick(2L, "50"));
+        quoteStreamService.publish(tick(1L, "101"));
+
+        emitter.awaitPrice(new BigDecimal("101"));
+        assertEquals(List.of(new BigDecimal("100"), new BigDecimal("101")), emitter.prices());
+        assertTrue(emitter.ticks.stream().allMatch(tick -> tick.getListingId() == 1L));
+    }
+
+    @Test
+    void publish_SlowSubscriberGetsLatestPriceOnly() throws Exception {
+        when(listingRepository.findAllById(anyCollection())).thenReturn(List.of(stock(1L, "100")));
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(blocked);
+
+        quoteStreamService.subscribe(List.of(1L), emitter);
+        // the sender is stuck writing the first quote while these arrive
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        for (int price = 101; price <= 105; price++) {
+            quoteStreamService.publish(tick(1L, Integer.toString(price)));
+        }
+        blocked.countDown();
+
+        emitter.awaitPrice(new BigDecimal("105"));
+        assertEquals(List.of(new BigDecimal("100"), new BigDecimal("105")), emitter.prices());
+    }
+
+    @Test
+    void subscribe_TooManyListings_IsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> quoteStreamService.subscribe(Set.of(1L, 2L, 3L, 4L), new RecordingEmitter(null)));
+        assertEquals(0, quoteStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_MaxSubscribersOpen_IsRejectedUntilOneCloses() {
+        RecordingEmitter first = new RecordingEmitter(null);
+        quoteStreamService.subscribe(List.of(1L), first);
+        quoteStreamService.subscribe(List.of(1L), new RecordingEmitter(null));
+
+        assertThrows(QuoteStreamFullException.class,
+                () -> quoteStreamService.subscribe(List.of(1L), new RecordingEmitter(null)));
+        assertEquals(2, quoteStreamService.getSubscriberCount());
+
+        first.closed();
+        quoteStreamService.subscribe(List.of(1L), new RecordingEmitter(null));
+        assertEquals(2, quoteStreamService.getSubscriberCount());
+    }
+
+    private Stock stock(Long id, String price) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setTicker("AAPL");
+        stock.setPrice(new BigDecimal(price));
+        return stock;
+    }
+
+    private QuoteTickDto tick(Long listingId, String price) {
+        return QuoteTickDto.builder().listingId(listingId).price(new BigDecimal(price)).build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<QuoteTickDto> ticks = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blockFirstSend;
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private Runnable completionCallback;
+
+        private RecordingEmitter(CountDownLatch blockFirstSend) {
+            this.blockFirstSend = blockFirstSend;
+        }
+
+        // without a servlet container the emitter never completes, the test calls back itself
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            super.onCompletion(callback);
+            this.completionCallback = callback;
+        }
+
+        private void closed() {
+            completionCallback.run();
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (blockFirstSend != null && ticks.isEmpty()) {
+                try {
+                    blockFirstSend.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof QuoteTickDto tick) {
+                    ticks.add(tick);
+                }
+            }
+        }
+
+        private List<BigDecimal> prices() {
+            return ticks.stream().map(QuoteTickDto::getPrice).toList();
+        }
+
+        private void awaitPrice(BigDecimal price) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!prices().contains(price) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // give a wrongly queued extra tick the chance to show up
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.stock_service.bootstrap.SnapshotCodec;
+import rs.raf.stock_service.bootstrap.SnapshotData;
+import rs.raf.stock_service.domain.entity.Exchange;
+import rs.raf.stock_service.domain.entity.ForexPair;
+import rs.raf.stock_service.domain.entity.Stock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotCodecTest {
+
+    @Test
+    void roundTrip_PreservesListingsAndHistory() throws IOException {
+        Exchange exchange = new Exchange();
+        exchange.setMic("NASDAQ");
+
+        Stock stock = new Stock();
+        stock.setTicker("DADA");
+        stock.setName("Dada Nexus");
+        stock.setExchange(exchange);
+        stock.setPrice(new BigDecimal("154.2300"));
+        stock.setChange(new BigDecimal("-1.05"));
+        stock.setVolume(123456L);
+        stock.setOutstandingShares(1_000_000L);
+        stock.setMarketCap(new BigDecimal("154230000.00"));
+        stock.setMaintenanceMargin(new BigDecimal("77.115"));
+
+        ForexPair pair = new ForexPair();
+        pair.setTicker("USD/EUR");
+        pair.setBaseCurrency("USD");
+        pair.setQuoteCurrency("EUR");
+        pair.setExchangeRate(new BigDecimal("0.9213"));
+        pair.setLiquidity("High");
+        pair.setPrice(new BigDecimal("0.9213"));
+        pair.setLastRefresh(LocalDateTime.of(2025, 3, 1, 10, 15, 30));
+
+        SnapshotData data = new SnapshotData();
+        data.getStocks().add(stock);
+        data.getForexPairs().add(pair);
+        data.getHistory().add(new SnapshotData.HistoryRow(1, LocalDateTime.of(2025, 3, 1, 10, 5),
+                new BigDecimal("0.92"), new BigDecimal("0.93"), new BigDecimal("0.94"), new BigDecimal("0.91"),
+                new BigDecimal("0.01"), null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotCodec.write(data, out);
+        SnapshotData read = SnapshotCodec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        Stock readStock = read.getStocks().get(0);
+        assertEquals("DADA", readStock.getTicker());
+        assertEquals("NASDAQ", readStock.getExchange().getMic());
+        assertEquals(new BigDecimal("154.2300"), readStock.getPrice());
+        assertEquals(123456L, readStock.getVolume());
+        assertNull(readStock.getDividendYield());
+
+        ForexPair readPair = read.getForexPairs().get(0);
+        assertEquals("USD/EUR", readPair.getTicker());
+        assertNull(readPair.getName());
+        assertEquals(pair.getLastRefresh(), readPair.getLastRefresh());
+
+        SnapshotData.HistoryRow row = read.getHistory().get(0);
+        assertEquals(1, row.getListingIndex());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 5), row.getDate());
+        assertEquals(new BigDecimal("0.93"), row.getClose());
+        assertNull(row.getVolume());
+    }
+
+    @Test
+    void roundTrip_KeepsDecimalsLongerThan127Bytes() throws IOException {
+        BigDecimal wide = new BigDecimal(BigInteger.ONE.shiftLeft(200 * 8), 4);
+        SnapshotData data = new SnapshotData();
+        Stock stock = new Stock();
+        stock.setTicker("WIDE");
+        stock.setVolume(0L);
+        stock.setOutstandingShares(0L);
+        stock.setMarketCap(wide);
+        data.getStocks().add(stock);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        SnapshotCodec.write(data, buffer);
+        SnapshotData read = SnapshotCodec.read(new ByteArrayInputStream(buffer.toByteArray()));
+
+        assertEquals(wide, read.getStocks().get(0).getMarketCap());
+    }
+
+    @Test
+    void write_RejectsDecimalTooLongForLengthByte() {
+        SnapshotData data = new SnapshotData();
+        Stock stock = new Stock();
+        stock.setTicker("HUGE");
+        stock.setVolume(0L);
+        stock.setOutstandingShares(0L);
+        stock.setMarketCap(new BigDecimal(BigInteger.ONE.shiftLeft(255 * 8)));
+        data.getStocks().add(stock);
+
+        assertThrows(IOException.class, () -> SnapshotCodec.write(data, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void read_RejectsForeignFile() {
+        byte[] notGzip = {1, 2, 3, 4};
+        assertThrows(IOException.class, () -> SnapshotCodec.read(new ByteArrayInputStream(notGzip)));
+    }
+}
@@ -5,19 +5,30 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import rs.raf.stock_service.domain.dto.OptionDto;
 import rs.raf.stock_service.domain.dto.StockOptionDto;
 import rs.raf.stock_service.domain.entity.Option;
+import rs.raf.stock_service.domain.entity.Stock;
 import rs.raf.stock_service.domain.enums.OptionType;
 import rs.raf.stock_service.domain.mapper.StockOptionMapper;
+import rs.raf.stock_service.exceptions.OptionNotFoundException;
+import rs.raf.stock_service.repository.ListingRepository;
 import rs.raf.stock_service.repository.OptionRepository;
+import rs.raf.stock_service.service.OptionChainCache;
+import rs.raf.stock_service.service.OptionService;
 import rs.raf.stock_service.service.StockOptionService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class StockOptionServiceTest {
@@ -28,6 +39,15 @@ class StockOptionServiceTest {
     @Mock
     private StockOptionMapper stockOptionMapper;
 
+    @Mock
+    private ListingRepository listingRepository;
+
+    @Mock
+    private OptionService optionService;
+
+    @Mock
+    private OptionChainCache optionChainCache;
+
     @InjectMocks
     private StockOptionService stockOptionService;
 
@@ -48,6 +68,7 @@ class StockOptionServiceTest {
         mockOption.setOptionType(OptionType.CALL);
         mockOption.setSettlementDate(settlementDate);
         mockOption.setOnSale(true);
+        mockOption.setTicker("TST250615C00015000");
 
         StockOptionDto expectedDto = new StockOptionDto(
                 new BigDecimal("150"),
@@ -84,4 +105,76 @@ class StockOptionServiceTest {
         verify(optionRepository, times(1)).findByUnderlyingStockIdAndSettlementDate(stockId, settlementDate);
         verifyNoInteractions(stockOptionMapper);
     }
+
+    @Test
+    void getStockOptionsByDate_GeneratesChainAndHidesHeldContracts() {
+        Stock stock = new Stock();
+        stock.setId(1L);
+        stock.setTicker("TST");
+        stock.setPrice(new BigDecimal("100"));
+        LocalDate expiry = OptionService.expiryDates(LocalDate.now()).get(0);
+
+        OptionDto free = generated("TSTFREE");
+        OptionDto held = generated("TSTHELD");
+        Option heldOption = new Option();
+        heldOption.setTicker("TSTHELD");
+        heldOption.setOnSale(false);
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(optionRepository.findByUnderlyingStockIdAndSettlementDate(1L, expiry)).thenReturn(List.of(heldOption));
+        when(optionChainCache.getChain(eq("TST"), eq(stock.getPrice()), eq(expiry), any())).thenReturn(List.of(free, held));
+        StockOptionDto freeDto = new StockOptionDto();
+        when(stockOptionMapper.toDto(free)).thenReturn(freeDto);
+
+        List<StockOptionDto> result = stockOptionService.getStockOptionsByDate(1L, expiry);
+
+        assertEquals(List.of(freeDto), result);
+        verify(stockOptionMapper, never()).toDto(held);
+    }
+
+    @Test
+    void getOrCreateOption_StoresGeneratedContract() {
+        Stock stock = new Stock();
+        stock.setTicker("TST");
+        stock.setPrice(new BigDecimal("100"));
+        LocalDate expiry = OptionService.expiryDates(LocalDate.now()).get(0);
+        String ticker = "TST" + expiry.format(DateTimeFormatter.ofPattern("yyMMdd")) + "C00010000";
+        OptionDto contract = generated(ticker);
+        Option entity = new Option();
+        StockOptionDto expected = new StockOptionDto();
+
+        when(optionRepository.findByTicker(ticker)).thenReturn(Optional.empty());
+        when(listingRepository.findByTicker("TST")).thenReturn(Optional.of(stock));
+        when(optionChainCache.getChain(eq("TST"), eq(stock.getPrice()), eq(expiry), any())).thenReturn(List.of(contract));
+        when(stockOptionMapper.toEntity(contract, stock)).thenReturn(entity);
+        when(optionRepository.save(entity)).thenReturn(entity);
+        when(stockOptionMapper.toDto(entity)).thenReturn(expected);
+
+        assertEquals(expected, stockOptionService.getOrCreateOption(ticker.toLowerCase()));
+        verify(optionRepository).save(entity);
+    }
+
+    @Test
+    void getOrCreateOption_UnknownContract_Throws() {
+        when(optionRepository.findByTicker("XYZ")).thenReturn(Optional.empty());
+
+        assertThrows(OptionNotFoundException.class, () -> stockOptionService.getOrCreateOption("XYZ"));
+        verify(optionRepository, never()).save(any());
+    }
+
+    @Test
+    void getOrCreateOption_ExpiryNotInChain_Throws() {
+        when(optionRepository.findByTicker("TST300118C00010000")).thenReturn(Optional.empty());
+
+        assertThrows(OptionNotFoundException.class, () -> stockOptionService.getOrCreateOption("TST300118C00010000"));
+        verify(listingRepository, never()).findByTicker(any());
+        verify(optionRepository, never()).save(any());
+    }
+
+    private OptionDto generated(String ticker) {
+        OptionDto dto = new OptionDto();
+        dto.setTicker(ticker);
+        dto.setOptionType(OptionType.CALL);
+        return dto;
+    }
 }
@@ -12,19 +12,23 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import rs.raf.stock_service.client.AlphavantageClient;
 import rs.raf.stock_service.client.TwelveDataClient;
+import rs.raf.stock_service.domain.dto.ListingSearchEntryDto;
 import rs.raf.stock_service.domain.dto.StockDto;
 import rs.raf.stock_service.domain.dto.StockSearchDto;
 import rs.raf.stock_service.domain.entity.Exchange;
+import rs.raf.stock_service.domain.enums.ListingType;
 import rs.raf.stock_service.exceptions.StockNotFoundException;
 import rs.raf.stock_service.exceptions.SymbolSearchException;
 import rs.raf.stock_service.service.ExchangeService;
+import rs.raf.stock_service.service.ListingSearchIndex;
 import rs.raf.stock_service.service.StocksService;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class StocksServiceTest {
@@ -38,6 +42,8 @@ public class StocksServiceTest {
     private StocksService stockService;
     @Mock
     private ExchangeService exchangeService;
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
 
     @BeforeEach
     void setUp() {
@@ -150,4 +156,29 @@ public class StocksServiceTest {
     }
 
 
+    @Test
+    public void testSearchByTicker_ListedStockIsAnsweredLocally() {
+        when(listingSearchIndex.suggest("aap", ListingType.STOCK, 10)).thenReturn(List.of(
+                new ListingSearchEntryDto(1L, "AAPL", "Apple Inc.", ListingType.STOCK, "United States")));
+
+        List<StockSearchDto> results = stockService.searchByTicker("aap");
+
+        assertEquals(1, results.size());
+        assertEquals("AAPL", results.get(0).getTicker());
+        assertEquals("United States", results.get(0).getRegion());
+        assertEquals("0.8000", results.get(0).getMatchScore());
+        verifyNoInteractions(alphavantageClient);
+    }
+
+    @Test
+    public void testSearchByTicker_RemoteResultIsCached() {
+        when(alphavantageClient.searchByTicker("TSLA")).thenReturn(
+                "{ \"bestMatches\": [ { \"1. symbol\": \"TSLA\", \"2. name\": \"Tesla Inc\" } ] }");
+
+        stockService.searchByTicker("TSLA");
+        List<StockSearchDto> results = stockService.searchByTicker("tsla");
+
+        assertEquals("TSLA", results.get(0).getTicker());
+        verify(alphavantageClient, times(1)).searchByTicker(any());
+    }
 }
@@ -0,0 +1,132 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import rs.raf.stock_service.client.BankClient;
+import rs.raf.stock_service.domain.dto.PendingTaxDto;
+import rs.raf.stock_service.domain.dto.TaxDto;
+import rs.raf.stock_service.domain.dto.TaxSettlementResultDto;
+import rs.raf.stock_service.domain.dto.TaxSettlementSummaryDto;
+import rs.raf.stock_service.domain.enums.TaxSettlementStatus;
+import rs.raf.stock_service.domain.enums.TaxStatus;
+import rs.raf.stock_service.repository.OrderRepository;
+import rs.raf.stock_service.service.TaxSettlementService;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaxSettlementServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private BankClient bankClient;
+
+    private TaxSettlementService taxSettlementService;
+
+    @BeforeEach
+    void setUp() {
+        taxSettlementService = new TaxSettlementService(orderRepository, bankClient, 2, 100);
+    }
+
+    @Test
+    void settle_SumsPerAccountAcrossPagesAndMarksSettledOrdersPaid() {
+        when(orderRepository.findPendingTaxes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new PendingTaxDto(1L, "acc-1", 10L, new BigDecimal("1.50"), null),
+                new PendingTaxDto(2L, "acc-2", 20L, new BigDecimal("4.00"), null)));
+        when(orderRepository.findPendingTaxes(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                new PendingTaxDto(5L, "acc-1", 10L, new BigDecimal("2.50"), null)));
+        when(bankClient.settleTaxes(anyList())).thenAnswer(invocation -> {
+            List<TaxDto> taxes = invocation.getArgument(0);
+            return List.of(
+                    new TaxSettlementResultDto("acc-1", TaxSettlementStatus.SETTLED, new BigDecimal("4.00"), 7L, null,
+                            taxes.get(0).getSettlementId()),
+                    new TaxSettlementResultDto("acc-2", TaxSettlementStatus.INSUFFICIENT_FUNDS, null, null,
+                            "Insufficient funds", taxes.get(1).getSettlementId()));
+        });
+
+        TaxSettlementSummaryDto summary = taxSettlementService.settle();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaxDto>> request = ArgumentCaptor.forClass(List.class);
+        verify(bankClient, times(1)).settleTaxes(request.capture());
+        assertEquals(2, request.getValue().size());
+        TaxDto first = request.getValue().get(0);
+        assertEquals("acc-1", first.getSenderAccountNumber());
+        assertEquals(10L, first.getClientId());
+        assertEquals(0, first.getAmount().compareTo(new BigDecimal("4.00")));
+        assertEquals("USD", first.getCurrencyCode());
+        assertNotNull(first.getSettlementId());
+        assertNotEquals(first.getSettlementId(), request.getValue().get(1).getSettlementId());
+        verify(orderRepository).assignTaxSettlement(List.of(1L, 5L), first.getSettlementId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> paid = ArgumentCaptor.forClass(Collection.class);
+        verify(orderRepository).updateTaxStatus(paid.capture(), eq(TaxStatus.PAID));
+        assertEquals(List.of(1L, 5L), List.copyOf(paid.getValue()));
+
+        assertEquals(1, summary.getSettledAccounts());
+        assertEquals(2, summary.getSettledOrders());
+        assertEquals(1, summary.getUnsettledAccounts());
+    }
+
+    @Test
+    void settle_BankFailureLeavesOrdersPending() {
+        when(orderRepository.findPendingTaxes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new PendingTaxDto(1L, "acc-1", 10L, BigDecimal.ONE, null)));
+        when(bankClient.settleTaxes(anyList())).thenThrow(new RuntimeException("bank down"));
+
+        TaxSettlementSummaryDto summary = taxSettlementService.settle();
+
+        verify(orderRepository, never()).updateTaxStatus(any(), any());
+        assertEquals(1, summary.getUnsettledAccounts());
+    }
+
+    @Test
+    void settle_RetryResendsStoredSettlementIdPerGroup() {
+        when(orderRepository.findPendingTaxes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new PendingTaxDto(1L, "acc-1", 10L, BigDecimal.ONE, "settlement-1"),
+                new PendingTaxDto(2L, "acc-1", 10L, BigDecimal.TEN, null)));
+        when(bankClient.settleTaxes(anyList())).thenAnswer(invocation -> {
+            List<TaxDto> taxes = invocation.getArgument(0);
+            return List.of(
+                    new TaxSettlementResultDto("acc-1", TaxSettlementStatus.SETTLED, BigDecimal.ONE, 7L, null,
+                            taxes.get(0).getSettlementId()),
+                    new TaxSettlementResultDto("acc-1", TaxSettlementStatus.INSUFFICIENT_FUNDS, null, null, null,
+                            taxes.get(1).getSettlementId()));
+        });
+
+        TaxSettlementSummaryDto summary = taxSettlementService.settle();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaxDto>> request = ArgumentCaptor.forClass(List.class);
+        verify(bankClient).settleTaxes(request.capture());
+        assertEquals("settlement-1", request.getValue().get(0).getSettlementId());
+        assertEquals(0, request.getValue().get(0).getAmount().compareTo(BigDecimal.ONE));
+        verify(orderRepository, never()).assignTaxSettlement(eq(List.of(1L)), any());
+        verify(orderRepository).assignTaxSettlement(eq(List.of(2L)), anyString());
+        verify(orderRepository).updateTaxStatus(List.of(1L), TaxStatus.PAID);
+        assertEquals(1, summary.getSettledAccounts());
+        assertEquals(1, summary.getUnsettledAccounts());
+    }
+
+    @Test
+    void settle_NothingPending_DoesNotCallBank() {
+        when(orderRepository.findPendingTaxes(eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        taxSettlementService.settle();
+
+        verifyNoInteractions(bankClient);
+    }
+}
@@ -0,0 +1,98 @@
+package rs.raf.stock_service.unit;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.stock_service.utils.PriceBarBuffer;
+import rs.raf.stock_service.utils.TimeSeriesDecoder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeSeriesDecoderTest {
+
+    @Test
+    void decode_AlphaVantageIntraday() {
+        String json = "{\"Meta Data\": {\"1. Information\": \"Intraday\", \"2. Symbol\": \"AAPL\"}," +
+                "\"Time Series (5min)\": {" +
+                "\"2025-01-02 10:05:00\": {\"1. open\": \"243.1200\", \"2. high\": \"243.5000\", " +
+                "\"3. low\": \"242.9000\", \"4. close\": \"243.0100\", \"5. volume\": \"123456\"}," +
+                "\"2025-01-02 10:00:00\": {\"1. open\": \"242.0000\", \"2. high\": \"243.2000\", " +
+                "\"3. low\": \"241.8000\", \"4. close\": \"243.1200\", \"5. volume\": \"98765\"}}}";
+        PriceBarBuffer bars = new PriceBarBuffer(1);
+        Map<String, String> meta = new HashMap<>();
+
+        assertEquals(2, TimeSeriesDecoder.decode(json, bars, meta));
+
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 5), bars.dateTime(0));
+        assertEquals(new BigDecimal("243.12"), bars.open(0));
+        assertEquals(new BigDecimal("243.5"), bars.high(0));
+        assertEquals(new BigDecimal("243.01"), bars.close(0));
+        assertEquals(123456L, bars.volume(0));
+        assertEquals(24_312_000_000L, bars.scaledOpen(0));
+        assertEquals(new BigDecimal("-0.11"), bars.change(0));
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 0), bars.dateTime(1));
+        assertEquals("AAPL", meta.get("2. Symbol"));
+    }
+
+    @Test
+    void decode_AlphaVantageForexWithoutVolume() {
+        String json = "{\"Meta Data\": {\"2. From Symbol\": \"EUR\", \"3. To Symbol\": \"USD\"}," +
+                "\"Time Series FX (5min)\": {\"2025-01-02 10:05:00\": {\"1. open\": \"1.03512\", " +
+                "\"2. high\": \"1.03600\", \"3. low\": \"1.03400\", \"4. close\": \"1.03555\"}}}";
+        PriceBarBuffer bars = new PriceBarBuffer();
+
+        TimeSeriesDecoder.decode(json, bars, null);
+
+        assertEquals(1, bars.size());
+        assertEquals(new BigDecimal("1.03512"), bars.open(0));
+        assertEquals(0L, bars.volume(0));
+    }
+
+    @Test
+    void decode_TwelveDataValuesArray() {
+        String json = "{\"meta\": {\"symbol\": \"AAPL\", \"interval\": \"1day\"}, \"values\": [" +
+                "{\"datetime\": \"2024-12-31\", \"open\": \"252.44\", \"high\": \"253.28\", " +
+                "\"low\": \"249.43\", \"close\": \"250.42\", \"volume\": \"39480700\"}], \"status\": \"ok\"}";
+        PriceBarBuffer bars = new PriceBarBuffer();
+
+        TimeSeriesDecoder.decode(json, bars, null);
+
+        assertEquals(LocalDateTime.of(2024, 12, 31, 0, 0), bars.dateTime(0));
+        assertEquals(new BigDecimal("250.42"), bars.close(0));
+        assertEquals(39_480_700L, bars.volume(0));
+    }
+
+    @Test
+    void decode_ApiErrorsAndMissingSeries() {
+        PriceBarBuffer bars = new PriceBarBuffer();
+
+        IllegalArgumentException alphaVantage = assertThrows(IllegalArgumentException.class,
+                () -> TimeSeriesDecoder.decode("{\"Error Message\": \"Invalid API call\"}", bars, null));
+        assertTrue(alphaVantage.getMessage().contains("Invalid API call"));
+
+        IllegalArgumentException twelveData = assertThrows(IllegalArgumentException.class,
+                () -> TimeSeriesDecoder.decode("{\"code\": 400, \"message\": \"bad symbol\", \"status\": \"error\"}", bars, null));
+        assertTrue(twelveData.getMessage().contains("bad symbol"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TimeSeriesDecoder.decode("{\"Note\": \"rate limit\"}", bars, null));
+    }
+
+    @Test
+    void retainAfter_KeepsOnlyNewerBarsInOrder() {
+        PriceBarBuffer bars = new PriceBarBuffer(1);
+        long base = PriceBarBuffer.toEpochSecond(LocalDateTime.of(2025, 1, 2, 10, 0));
+        bars.add(base + 600, 3, 3, 3, 3, 3);
+        bars.add(base + 300, 2, 2, 2, 2, 2);
+        bars.add(base, 1, 1, 1, 1, 1);
+
+        bars.retainAfter(base);
+
+        assertEquals(2, bars.size());
+        assertEquals(base + 600, bars.epochSecond(0));
+        assertEquals(base + 300, bars.epochSecond(1));
+    }
+}
@@ -8,16 +8,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import rs.raf.stock_service.client.UserClient;
 import rs.raf.stock_service.domain.dto.CreateOtcOfferDto;
 import rs.raf.stock_service.domain.dto.OtcOfferDto;
+import rs.raf.stock_service.domain.dto.UserNameDto;
 import rs.raf.stock_service.domain.entity.OtcOffer;
 import rs.raf.stock_service.domain.entity.PortfolioEntry;
 import rs.raf.stock_service.domain.entity.Stock;
+import rs.raf.stock_service.domain.enums.OtcOfferEventType;
 import rs.raf.stock_service.domain.enums.OtcOfferStatus;
 import rs.raf.stock_service.domain.mapper.OtcOfferMapper;
 import rs.raf.stock_service.exceptions.InvalidPublicAmountException;
+import rs.raf.stock_service.exceptions.OtcOfferConflictException;
 import rs.raf.stock_service.exceptions.PortfolioEntryNotFoundException;
 import rs.raf.stock_service.exceptions.UnauthorizedActionException;
+import rs.raf.stock_service.repository.OtcOfferEventRepository;
 import rs.raf.stock_service.repository.OtcOfferRepository;
 import rs.raf.stock_service.repository.PortfolioEntryRepository;
 import rs.raf.stock_service.service.OtcService;
@@ -25,9 +32,9 @@ import rs.raf.stock_service.service.OtcService;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +52,12 @@ public class OtcOfferServiceTest {
     @Mock
     private OtcOfferMapper otcOfferMapper;
 
+    @Mock
+    private UserClient userClient;
+
+    @Mock
+    private OtcOfferEventRepository otcOfferEventRepository;
+
     @InjectMocks
     private OtcService otcService;
 
@@ -86,6 +99,8 @@ public class OtcOfferServiceTest {
 
         assertNotNull(result);
         verify(otcOfferRepository).save(any(OtcOffer.class));
+        verify(otcOfferEventRepository).save(argThat(event -> event.getType() == OtcOfferEventType.CREATED
+                && event.getOfferVersion() == 0L && event.getAmount() == 50));
         verify(otcOfferMapper).toDto(any(OtcOffer.class), eq(buyerId));
     }
 
@@ -118,12 +133,14 @@ public class OtcOfferServiceTest {
 
         when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
 
-        otcService.acceptOffer(1L, buyerId);
+        otcService.acceptOffer(1L, buyerId, null);
 
         assertEquals(OtcOfferStatus.ACCEPTED, offer.getStatus());
         assertEquals(buyerId, offer.getLastModifiedById());
         assertNotNull(offer.getLastModified());
-        verify(otcOfferRepository).save(offer);
+        verify(otcOfferRepository).saveAndFlush(offer);
+        verify(otcOfferEventRepository).save(argThat(event -> event.getType() == OtcOfferEventType.ACCEPTED
+                && event.getActorId().equals(buyerId)));
     }
 
     @Test
@@ -138,7 +155,7 @@ public class OtcOfferServiceTest {
 
         when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
 
-        assertThrows(UnauthorizedActionException.class, () -> otcService.acceptOffer(1L, buyerId));
+        assertThrows(UnauthorizedActionException.class, () -> otcService.acceptOffer(1L, buyerId, null));
         verify(otcOfferRepository, never()).save(any());
     }
 
@@ -154,11 +171,11 @@ public class OtcOfferServiceTest {
 
         when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
 
-        otcService.rejectOffer(1L, sellerId);
+        otcService.rejectOffer(1L, sellerId, null);
 
         assertEquals(OtcOfferStatus.REJECTED, offer.getStatus());
         assertEquals(sellerId, offer.getLastModifiedById());
-        verify(otcOfferRepository).save(offer);
+        verify(otcOfferRepository).saveAndFlush(offer);
     }
 
     @Test
@@ -181,9 +198,9 @@ public class OtcOfferServiceTest {
 
         when(otcOfferRepository.findById(offerId)).thenReturn(Optional.of(offer));
 
-        otcService.updateOffer(offerId, buyerId, dto);
+        otcService.updateOffer(offerId, buyerId, dto, null);
 
-        verify(otcOfferRepository).save(argThat(updated ->
+        verify(otcOfferRepository).saveAndFlush(argThat(updated ->
                 updated.getAmount() == 10 &&
                         updated.getPricePerStock().equals(dto.getPricePerStock()) &&
                         updated.getPremium().equals(dto.getPremium()) &&
@@ -207,8 +224,60 @@ public class OtcOfferServiceTest {
 
         when(otcOfferRepository.findById(offerId)).thenReturn(Optional.of(offer));
 
-        assertThrows(UnauthorizedActionException.class, () -> otcService.updateOffer(offerId, buyerId, dto));
-        verify(otcOfferRepository, never()).save(any());
+        assertThrows(UnauthorizedActionException.class, () -> otcService.updateOffer(offerId, buyerId, dto, null));
+        verify(otcOfferRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testUpdateOffer_staleVersion_conflictWithoutChanges() {
+        OtcOffer offer = OtcOffer.builder()
+                .id(1L)
+                .buyerId(buyerId)
+                .sellerId(sellerId)
+                .lastModifiedById(sellerId)
+                .status(OtcOfferStatus.PENDING)
+                .version(3L)
+                .build();
+
+        when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
+
+        assertThrows(OtcOfferConflictException.class, () -> otcService.updateOffer(1L, buyerId, dto, 2L));
+        verify(otcOfferRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(otcOfferEventRepository);
+    }
+
+    @Test
+    public void testAcceptOffer_concurrentWrite_reportedAsConflict() {
+        OtcOffer offer = OtcOffer.builder()
+                .id(1L)
+                .buyerId(buyerId)
+                .sellerId(sellerId)
+                .lastModifiedById(sellerId)
+                .status(OtcOfferStatus.PENDING)
+                .version(3L)
+                .build();
+
+        when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
+        when(otcOfferRepository.saveAndFlush(offer))
+                .thenThrow(new ObjectOptimisticLockingFailureException(OtcOffer.class, 1L));
+
+        assertThrows(OtcOfferConflictException.class, () -> otcService.acceptOffer(1L, buyerId, 3L));
+        verifyNoInteractions(otcOfferEventRepository);
+    }
+
+    @Test
+    public void testAcceptOffer_notPending_refused() {
+        OtcOffer offer = OtcOffer.builder()
+                .id(1L)
+                .buyerId(buyerId)
+                .sellerId(sellerId)
+                .lastModifiedById(sellerId)
+                .status(OtcOfferStatus.REJECTED)
+                .build();
+
+        when(otcOfferRepository.findById(1L)).thenReturn(Optional.of(offer));
+
+        assertThrows(UnauthorizedActionException.class, () -> otcService.acceptOffer(1L, buyerId, null));
     }
 
     @Test
@@ -242,10 +311,12 @@ public class OtcOfferServiceTest {
                 .lastModified(LocalDateTime.now().minusMinutes(1))
                 .build();
 
-        List<OtcOffer> offers = Arrays.asList(offer1, offer2, offer3);
-
-        when(otcOfferRepository.findAllByStatus(OtcOfferStatus.PENDING)).thenReturn(offers);
-
+        when(otcOfferRepository.findSellerInbox(eq(OtcOfferStatus.PENDING), eq(userId), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(offer2));
+        when(otcOfferRepository.findBuyerInbox(eq(OtcOfferStatus.PENDING), eq(userId), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(offer3, offer1));
+        when(userClient.getUserNames(Set.of(200L, 300L, 400L))).thenReturn(List.of(
+                new UserNameDto(200L, "Pera", "Peric"), new UserNameDto(300L, "Mika", "Mikic")));
 
         when(otcOfferMapper.toDto(any(OtcOffer.class), eq(userId)))
                 .thenAnswer(invocation -> {
@@ -258,11 +329,10 @@ public class OtcOfferServiceTest {
                             .settlementDate(o.getSettlementDate())
                             .status(o.getStatus())
                             .canInteract(!o.getLastModifiedById().equals(userId))
-                            .name("Mock User")
                             .build();
                 });
 
-        List<OtcOfferDto> result = otcService.getAllActiveOffersForUser(userId);
+        List<OtcOfferDto> result = otcService.getAllActiveOffersForUser(userId, null, null, 10);
 
         assertEquals(3, result.size());
         assertEquals(3L, result.get(0).getId()); // najskorije
@@ -272,5 +342,56 @@ public class OtcOfferServiceTest {
         assertFalse(result.get(0).getCanInteract()); // user je poslednji menjao
         assertTrue(result.get(1).getCanInteract());
         assertTrue(result.get(2).getCanInteract());
+
+        assertEquals("Unknown User", result.get(0).getName());
+        assertEquals("Mika Mikic", result.get(1).getName());
+        assertEquals("Pera Peric", result.get(2).getName());
+        verify(userClient, times(1)).getUserNames(any());
+    }
+
+    @Test
+    public void testGetAllActiveOffersForUser_mergesSidesAndCutsAtLimit() {
+        Long userId = 100L;
+        LocalDateTime cursor = LocalDateTime.now();
+        OtcOffer newer = OtcOffer.builder().id(7L).buyerId(userId).sellerId(200L).lastModifiedById(200L)
+                .status(OtcOfferStatus.PENDING).lastModified(cursor.minusMinutes(1)).build();
+        OtcOffer older = OtcOffer.builder().id(6L).buyerId(300L).sellerId(userId).lastModifiedById(300L)
+                .status(OtcOfferStatus.PENDING).lastModified(cursor.minusMinutes(2)).build();
+
+        when(otcOfferRepository.findSellerInbox(OtcOfferStatus.PENDING, userId, cursor, 8L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(older));
+        when(otcOfferRepository.findBuyerInbox(OtcOfferStatus.PENDING, userId, cursor, 8L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(newer));
+        when(userClient.getUserNames(Set.of(200L))).thenThrow(new RuntimeException("user-service down"));
+        when(otcOfferMapper.toDto(newer, userId)).thenReturn(OtcOfferDto.builder().id(7L).build());
+
+        List<OtcOfferDto> result = otcService.getAllActiveOffersForUser(userId, cursor, 8L, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(7L, result.get(0).getId());
+        assertEquals("Unknown User", result.get(0).getName());
+    }
+
+    @Test
+    public void testGetAllActiveOffersForUser_offerWithoutLastModifiedGoesLast() {
+        Long userId = 100L;
+        OtcOffer undated = OtcOffer.builder().id(9L).buyerId(userId).sellerId(200L).lastModifiedById(200L)
+                .status(OtcOfferStatus.PENDING).build();
+        OtcOffer dated = OtcOffer.builder().id(5L).buyerId(300L).sellerId(userId).lastModifiedById(300L)
+                .status(OtcOfferStatus.PENDING).lastModified(LocalDateTime.now().minusMinutes(1)).build();
+
+        when(otcOfferRepository.findSellerInbox(eq(OtcOfferStatus.PENDING), eq(userId), any(), any(), any()))
+                .thenReturn(List.of(dated));
+        when(otcOfferRepository.findBuyerInbox(eq(OtcOfferStatus.PENDING), eq(userId), any(), any(), any()))
+                .thenReturn(List.of(undated));
+        when(userClient.getUserNames(any())).thenReturn(List.of());
+        when(otcOfferMapper.toDto(any(OtcOffer.class), eq(userId)))
+                .thenAnswer(invocation -> OtcOfferDto.builder().id(((OtcOffer) invocation.getArgument(0)).getId()).build());
+
+        List<OtcOfferDto> result = otcService.getAllActiveOffersForUser(userId, null, null, 10);
+
+        assertEquals(2, result.size());
+        assertEquals(5L, result.get(0).getId());
+        assertEquals(9L, result.get(1).getId());
     }
 }
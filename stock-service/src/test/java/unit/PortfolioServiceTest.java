@@ -12,16 +12,22 @@ import rs.raf.stock_service.domain.dto.PublicStockDto;
 import rs.raf.stock_service.domain.dto.SetPublicAmountDto;
 import rs.raf.stock_service.domain.entity.*;
 import rs.raf.stock_service.domain.enums.ListingType;
+import rs.raf.stock_service.exceptions.InsufficientSharesException;
 import rs.raf.stock_service.exceptions.InvalidListingTypeException;
 import rs.raf.stock_service.exceptions.InvalidPublicAmountException;
 import rs.raf.stock_service.exceptions.PortfolioEntryNotFoundException;
 import rs.raf.stock_service.service.PortfolioService;
+import rs.raf.stock_service.service.PortfolioValuationService;
+import rs.raf.stock_service.utils.JwtTokenUtil;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import rs.raf.stock_service.domain.enums.OrderDirection;
 import rs.raf.stock_service.domain.mapper.PortfolioMapper;
 import rs.raf.stock_service.repository.ListingPriceHistoryRepository;
+import rs.raf.stock_service.repository.OrderRepository;
+import rs.raf.stock_service.domain.dto.TaxGetResponseDto;
+import rs.raf.stock_service.domain.enums.TaxStatus;
 import rs.raf.stock_service.repository.PortfolioEntryRepository;
 
 import java.math.BigDecimal;
@@ -52,6 +58,12 @@ public class PortfolioServiceTest {
 
     @Mock
     private UserClient userClient;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private JwtTokenUtil jwtTokenUtil;
+    @Mock
+    private PortfolioValuationService portfolioValuationService;
 
 
     private void initialiseStock() {
@@ -94,6 +106,7 @@ public class PortfolioServiceTest {
         portfolioService.updateHoldingsOnOrderExecution(order);
 
         verify(portfolioEntryRepository).save(any(PortfolioEntry.class));
+        verify(portfolioValuationService).onEntryUpdated(any(PortfolioEntry.class));
     }
 
     @Test
@@ -162,83 +175,94 @@ public class PortfolioServiceTest {
         portfolioService.updateHoldingsOnOrderExecution(order);
 
         verify(portfolioEntryRepository).delete(existing);
+        verify(portfolioValuationService).onEntryRemoved(userId, stock.getId());
     }
 
-    private Order buildOrder(OrderDirection direction, int qty, int contractSize, BigDecimal price) {
-        initialiseStock();
-        Order order = new Order();
-        order.setUserId(userId);
-        order.setListing(stock);
-        order.setQuantity(qty);
-        order.setContractSize(contractSize);
-        order.setPricePerUnit(price);
-        order.setDirection(direction);
-        order.setIsDone(true);
-        return order;
-    }
-
-
-   @Test
-    void testGetPortfolio_userHasHoldings_shouldReturnMappedDtos() {
+    @Test
+    void testUpdateHoldings_sellOrder_keepsSharesReservedForOtc() {
         initialiseStock();
-        initialiseGOOGLStock();
-
-        stock.setPrice(BigDecimal.valueOf(115));
-        stock2.setPrice(BigDecimal.valueOf(2200));
-
-        PortfolioEntry entry1 = PortfolioEntry.builder()
+        PortfolioEntry existing = PortfolioEntry.builder()
                 .userId(userId)
                 .listing(stock)
-                .type(ListingType.STOCK)
                 .amount(10)
-                .averagePrice(BigDecimal.TEN)
-                .lastModified(LocalDateTime.now())
-                .publicAmount(0)
-                .inTheMoney(false)
-                .used(false)
+                .publicAmount(5)
+                .reservedAmount(4)
+                .averagePrice(BigDecimal.valueOf(100))
                 .build();
 
-        PortfolioEntry entry2 = PortfolioEntry.builder()
-                .userId(userId)
-                .listing(stock2)
-                .type(ListingType.STOCK)
-                .amount(5)
-                .averagePrice(BigDecimal.valueOf(2000))
-                .lastModified(LocalDateTime.now())
-                .publicAmount(0)
-                .inTheMoney(true)
-                .used(false)
-                .build();
+        Order order = buildOrder(OrderDirection.SELL, 6, 1, BigDecimal.valueOf(100));
+
+        when(portfolioEntryRepository.findByUserIdAndListing(userId, stock))
+                .thenReturn(Optional.of(existing));
 
-        List<PortfolioEntry> entries = List.of(entry1, entry2);
+        portfolioService.updateHoldingsOnOrderExecution(order);
 
-        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(entries);
-        List<PortfolioEntryDto> result = portfolioService.getPortfolioForUser(userId);
+        verify(portfolioEntryRepository, never()).delete(any());
+        verify(portfolioEntryRepository).save(argThat(entry ->
+                entry.getAmount() == 4 && entry.getReservedAmount() == 4 && entry.getPublicAmount() == 0
+        ));
+    }
 
-        assertEquals(2, result.size());
+    @Test
+    void testUpdateHoldings_sellOrderIntoReservedShares_throws() {
+        initialiseStock();
+        PortfolioEntry existing = PortfolioEntry.builder()
+                .userId(userId)
+                .listing(stock)
+                .amount(10)
+                .reservedAmount(4)
+                .averagePrice(BigDecimal.valueOf(100))
+                .build();
 
-        PortfolioEntryDto dto1 = result.get(0);
-        assertEquals("AAPL", dto1.getTicker());
-        assertEquals(BigDecimal.valueOf(1050), dto1.getProfit());
+        Order order = buildOrder(OrderDirection.SELL, 10, 1, BigDecimal.valueOf(100));
 
-        PortfolioEntryDto dto2 = result.get(1);
-        assertEquals("GOOGL", dto2.getTicker());
-        assertEquals(BigDecimal.valueOf(1000), dto2.getProfit());
+        when(portfolioEntryRepository.findByUserIdAndListing(userId, stock))
+                .thenReturn(Optional.of(existing));
 
-        verify(portfolioEntryRepository).findAllByUserId(userId);
+        assertThrows(InsufficientSharesException.class, () -> portfolioService.updateHoldingsOnOrderExecution(order));
+        assertEquals(10, existing.getAmount());
+        verify(portfolioEntryRepository, never()).save(any());
+        verify(portfolioEntryRepository, never()).delete(any());
     }
 
+    private Order buildOrder(OrderDirection direction, int qty, int contractSize, BigDecimal price) {
+        initialiseStock();
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setListing(stock);
+        order.setQuantity(qty);
+        order.setContractSize(contractSize);
+        order.setPricePerUnit(price);
+        order.setDirection(direction);
+        order.setIsDone(true);
+        return order;
+    }
 
 
     @Test
-    void testGetPortfolio_userHasNoHoldings_shouldReturnEmptyList() {
-        when(portfolioEntryRepository.findAllByUserId(userId)).thenReturn(Collections.emptyList());
+    void testGetPortfolio_delegatesToValuationService() {
+        List<PortfolioEntryDto> positions = List.of(PortfolioEntryDto.builder().ticker("AAPL").build());
+        when(portfolioValuationService.getPositions(userId)).thenReturn(positions);
 
         List<PortfolioEntryDto> result = portfolioService.getPortfolioForUser(userId);
 
-        assertTrue(result.isEmpty());
-        verify(portfolioEntryRepository).findAllByUserId(userId);
-        verifyNoInteractions(portfolioEntryMapper);
+        assertSame(positions, result);
+        verifyNoInteractions(portfolioEntryRepository);
+    }
+
+    @Test
+    void testGetTaxes_usesAggregateQueries() {
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(userId);
+        when(orderRepository.sumTaxAmount(eq(userId), eq(TaxStatus.PENDING), any(), any()))
+                .thenReturn(new BigDecimal("15.00"));
+        when(orderRepository.sumTaxAmount(eq(userId), eq(TaxStatus.PAID), any(), any()))
+                .thenReturn(new BigDecimal("120.00"));
+
+        TaxGetResponseDto result = portfolioService.getTaxes("Bearer token");
+
+        assertEquals(new BigDecimal("15.00"), result.getUnpaidForThisMonth());
+        assertEquals(new BigDecimal("120.00"), result.getPaidForThisYear());
+        verify(orderRepository, never()).findAllByUserId(any());
     }
 
     @Test
@@ -316,6 +340,30 @@ public class PortfolioServiceTest {
         });
     }
 
+    @Test
+    void testSetPublicAmount_exceedsAmountNotReserved() {
+        PortfolioEntry entry = PortfolioEntry.builder()
+                .userId(userId)
+                .listing(stock)
+                .type(ListingType.STOCK)
+                .amount(40)
+                .publicAmount(0)
+                .reservedAmount(10)
+                .build();
+
+        when(portfolioEntryRepository.findByUserIdAndId(userId, 1L))
+                .thenReturn(Optional.of(entry));
+
+        assertThrows(InvalidPublicAmountException.class,
+                () -> portfolioService.setPublicAmount(userId, new SetPublicAmountDto(1L, 35)));
+        verify(portfolioEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void testBuilder_defaultsReservedAmountToZero() {
+        assertEquals(0, PortfolioEntry.builder().amount(1).build().getReservedAmount());
+    }
+
     @Test
     void testGetAllPublicStocks_shouldReturnBasicFields() {
         initialiseStock();
@@ -1,17 +1,72 @@
 package rs.raf.user_service.configuration;
 
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import rs.raf.user_service.messaging.RetryPolicy;
+import rs.raf.user_service.messaging.RetryableQueues;
+import rs.raf.user_service.messaging.RetryingMessageRecoverer;
 
 @Configuration
 public class RabbitMQConfig {
+    public static final String VERIFICATION_DECISION_QUEUE = "verification-decision";
+    public static final String VERIFICATION_RESULT_QUEUE = "verification-result";
+
+    @Bean
+    public RetryPolicy messagingRetryPolicy(@Value("${messaging.retry.max-attempts:3}") int maxAttempts,
+                                            @Value("${messaging.retry.initial-delay-ms:1000}") long initialDelay,
+                                            @Value("${messaging.retry.multiplier:5}") double multiplier,
+                                            @Value("${messaging.retry.max-delay-ms:60000}") long maxDelay) {
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay);
+    }
+
+    // consumed by bank-service, declared here as well so decisions are routable before it starts
+    @Bean
+    public Declarables verificationDecisionQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare(VERIFICATION_DECISION_QUEUE, messagingRetryPolicy);
+    }
+
+    @Bean
+    public Declarables verificationResultQueue(RetryPolicy messagingRetryPolicy) {
+        return RetryableQueues.declare(VERIFICATION_RESULT_QUEUE, messagingRetryPolicy);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        Jackson2JsonMessageConverter messageConverter = new Jackson2JsonMessageConverter();
+        // message ids let consumers drop redelivered messages they already handled
+        messageConverter.setCreateMessageIds(true);
+        return messageConverter;
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // unroutable messages come back as returns instead of being dropped (needs publisher-returns)
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               RabbitTemplate rabbitTemplate,
+                                                                               RetryPolicy messagingRetryPolicy) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(new RetryingMessageRecoverer(rabbitTemplate, messagingRetryPolicy))
+                .build());
+        return factory;
+    }
 }
@@ -16,7 +16,9 @@ import org.springframework.web.bind.annotation.*;
 import rs.raf.user_service.domain.dto.*;
 import rs.raf.user_service.exceptions.ActuaryLimitNotFoundException;
 import rs.raf.user_service.exceptions.EmployeeNotFoundException;
+import rs.raf.user_service.exceptions.LimitReservationNotFoundException;
 import rs.raf.user_service.exceptions.UserNotAgentException;
+import rs.raf.user_service.service.ActuaryLimitReservationService;
 import rs.raf.user_service.service.ActuaryService;
 
 import javax.validation.Valid;
@@ -28,6 +30,7 @@ import javax.validation.Valid;
 public class ActuaryController {
 
     private final ActuaryService actuaryService;
+    private final ActuaryLimitReservationService actuaryLimitReservationService;
 
     @PreAuthorize("hasRole('SUPERVISOR')")
     @PutMapping("change-limit/{id}")
@@ -122,4 +125,45 @@ public class ActuaryController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
+
+    @PreAuthorize("hasRole('SUPERVISOR')")
+    @PostMapping("{agentId}/reservations")
+    @Operation(summary = "Reserve part of the agent's daily limit for an order.",
+            description = "Atomically adds the amount to the used limit if it fits. Returns status REJECTED if it does not; repeated calls for the same order return the existing reservation. Called by stock-service on the agent's behalf, agents cannot reserve (or override) their own limit.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reservation result returned."),
+            @ApiResponse(responseCode = "404", description = "Agent limit not found.")
+    })
+    public ResponseEntity<?> reserveLimit(@PathVariable Long agentId, @Valid @RequestBody ReserveLimitDto reserveLimitDto) {
+        try {
+            return ResponseEntity.ok(actuaryLimitReservationService.reserve(agentId, reserveLimitDto));
+        } catch (ActuaryLimitNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('SUPERVISOR')")
+    @PostMapping("reservations/{orderId}/commit")
+    @Operation(summary = "Commit the limit reservation of an executed order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reservation committed (or already completed)."),
+            @ApiResponse(responseCode = "404", description = "Reservation not found.")
+    })
+    public ResponseEntity<?> commitReservation(@PathVariable Long orderId) {
+        try {
+            return ResponseEntity.ok(actuaryLimitReservationService.commit(orderId));
+        } catch (LimitReservationNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('SUPERVISOR')")
+    @PostMapping("reservations/{orderId}/release")
+    @Operation(summary = "Release the limit reservation of a cancelled, declined or failed order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reservation released, already completed, or recorded as released if there was none.")
+    })
+    public ResponseEntity<?> releaseReservation(@PathVariable Long orderId) {
+        return ResponseEntity.ok(actuaryLimitReservationService.release(orderId));
+    }
 }
@@ -15,8 +15,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
 import rs.raf.user_service.domain.dto.UserDto;
+import rs.raf.user_service.domain.dto.UserNameDto;
 import rs.raf.user_service.service.UserService;
 import javax.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/users")
@@ -36,6 +38,14 @@ public class UserController {
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(userService.listUsers(pageable));
     }
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    @GetMapping("/names")
+    @Operation(summary = "Get names of users", description = "Returns first and last names for the given client or employee ids. Unknown ids are omitted.")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Names retrieved successfully")})
+    public ResponseEntity<List<UserNameDto>> getUserNames(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUserNames(ids));
+    }
+
     //Ne koristiti, setovanje role-a za zaposlenog je prebaceno u update employee. Klijent nam jos uvek nema setovanje role, uvek je CLIENT
     //Verovatno ce biti obrisano
     @PreAuthorize("hasRole('ADMIN')")
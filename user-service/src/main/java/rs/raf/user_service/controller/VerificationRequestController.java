@@ -1,6 +1,5 @@
 package rs.raf.user_service.controller;
 
-import feign.FeignException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -123,17 +122,28 @@ public class VerificationRequestController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            boolean success = verificationRequestService.processApproval(requestId, authHeader);
-
-            return success
-                    ? ResponseEntity.ok("Request approved.")
-                    : ResponseEntity.badRequest().body(new ErrorMessageDto("Request not found or already processed"));
-        } catch (FeignException.BadRequest e) {
-            return ResponseEntity.badRequest().body(new ErrorMessageDto(e.getMessage()));
-        }
+        boolean success = verificationRequestService.processApproval(requestId, authHeader);
 
+        return success
+                ? ResponseEntity.ok("Request approved.")
+                : ResponseEntity.badRequest().body(new ErrorMessageDto("Request not found or already processed"));
+    }
 
+    @Operation(summary = "Get verification request status", description = "Returns the decision for a verification request and whether bank-service has carried it out.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Verification request not found")
+    })
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping("/status/{requestId}")
+    public ResponseEntity<?> getRequestStatus(
+            @PathVariable Long requestId,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            return ResponseEntity.ok(verificationRequestService.getRequestStatus(requestId, authHeader));
+        } catch (VerificationNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorMessageDto(e.getMessage()));
+        }
     }
 
 }
@@ -1,18 +1,15 @@
 package rs.raf.user_service.domain.dto;
 
 import lombok.AllArgsConstructor;
-import lombok.Getter;
+import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 import java.math.BigDecimal;
 
-@Getter
-@Setter
-@AllArgsConstructor
+@Data
 @NoArgsConstructor
-public class OrderDto {
-
+@AllArgsConstructor
+public class ActuaryProfitDto {
     private Long userId;
     private BigDecimal profit;
 }
@@ -0,0 +1,24 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveLimitDto {
+    @NotNull
+    private Long orderId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    // set when a supervisor approves an order over the remaining limit
+    private boolean override;
+}
@@ -0,0 +1,16 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.user_service.domain.enums.VerificationType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationDecisionMessageDto {
+    private Long verificationRequestId;
+    private VerificationType verificationType;
+    private Long targetId;
+    private boolean approved;
+}
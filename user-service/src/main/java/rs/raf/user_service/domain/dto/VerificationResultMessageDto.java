@@ -0,0 +1,14 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationResultMessageDto {
+    private Long verificationRequestId;
+    private boolean success;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.user_service.domain.enums.VerificationExecutionStatus;
+import rs.raf.user_service.domain.enums.VerificationStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationStatusDto {
+    private Long id;
+    private VerificationStatus status;
+    private VerificationExecutionStatus executionStatus;
+    private String executionMessage;
+}
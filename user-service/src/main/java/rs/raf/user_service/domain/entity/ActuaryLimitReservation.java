@@ -0,0 +1,45 @@
+package rs.raf.user_service.domain.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import rs.raf.user_service.domain.enums.LimitReservationStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Part of an agent's daily limit held for one order. The amount is added to the used limit when
+ * reserved; committing keeps it there and releasing gives it back, unless the daily reset already did.
+ */
+@Entity
+@Table(name = "actuary_limit_reservations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_limit_reservation_order", columnNames = "orderId"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActuaryLimitReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long employeeId;
+
+    private Long orderId;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private LimitReservationStatus status;
+
+    // the daily used limit the amount was added to
+    private LocalDate reservedOn;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -5,13 +5,14 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
+import javax.persistence.*;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_auth_token_token", columnList = "token"),
+        @Index(name = "idx_auth_token_expires_at", columnList = "expiresAt")
+})
 @AllArgsConstructor
 @RequiredArgsConstructor
 @SuperBuilder
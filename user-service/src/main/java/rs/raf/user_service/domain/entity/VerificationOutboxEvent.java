@@ -0,0 +1,39 @@
+package rs.raf.user_service.domain.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import rs.raf.user_service.domain.enums.VerificationType;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A verification decision waiting to be published to bank-service. Rows are written in the same
+ * transaction as the request status change and published afterwards by the outbox publisher.
+ */
+@Entity
+@Table(name = "verification_outbox", indexes = @Index(columnList = "publishedAt, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerificationOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long verificationRequestId;
+
+    @Enumerated(EnumType.STRING)
+    private VerificationType verificationType;
+
+    private Long targetId;
+
+    private boolean approved;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+}
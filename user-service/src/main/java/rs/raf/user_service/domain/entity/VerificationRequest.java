@@ -3,6 +3,7 @@ package rs.raf.user_service.domain.entity;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import rs.raf.user_service.domain.enums.VerificationExecutionStatus;
 import rs.raf.user_service.domain.enums.VerificationStatus;
 import rs.raf.user_service.domain.enums.VerificationType;
 
@@ -11,6 +12,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_verification_user_status_expiration", columnList = "userId, status, expirationTime"),
+        @Index(name = "idx_verification_status_expiration", columnList = "status, expirationTime")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -36,4 +41,9 @@ public class VerificationRequest {
     private LocalDateTime createdAt;
 
     private String details;
+
+    @Enumerated(EnumType.STRING)
+    private VerificationExecutionStatus executionStatus; // set once a decision is sent to bank-service
+
+    private String executionMessage;
 }
@@ -0,0 +1,6 @@
+package rs.raf.user_service.domain.enums;
+
+public enum LimitReservationStatus {
+    RESERVED, COMMITTED, RELEASED,
+    REJECTED // returned when the limit would be exceeded, never stored
+}
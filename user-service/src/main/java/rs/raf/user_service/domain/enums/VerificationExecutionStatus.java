@@ -0,0 +1,7 @@
+package rs.raf.user_service.domain.enums;
+
+public enum VerificationExecutionStatus {
+    QUEUED,
+    COMPLETED,
+    FAILED
+}
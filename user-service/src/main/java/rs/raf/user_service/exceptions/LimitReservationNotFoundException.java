@@ -0,0 +1,7 @@
+package rs.raf.user_service.exceptions;
+
+public class LimitReservationNotFoundException extends RuntimeException {
+    public LimitReservationNotFoundException(Long orderId) {
+        super("Limit reservation for order " + orderId + " not found.");
+    }
+}
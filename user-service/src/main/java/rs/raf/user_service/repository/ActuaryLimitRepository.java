@@ -1,11 +1,37 @@
 package rs.raf.user_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.entity.ActuaryLimit;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 public interface ActuaryLimitRepository extends JpaRepository<ActuaryLimit, Long> {
     Optional<ActuaryLimit> findByEmployeeId(Long employeeId);
 
+    boolean existsByEmployeeId(Long employeeId);
+
+    // check and consume in one statement, so concurrent reservations cannot both pass
+    @Modifying
+    @Query("UPDATE actuary_limits l SET l.usedLimit = COALESCE(l.usedLimit, 0) + :amount " +
+            "WHERE l.employee.id = :employeeId AND COALESCE(l.usedLimit, 0) + :amount <= l.limitAmount")
+    int consumeWithinLimit(@Param("employeeId") Long employeeId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE actuary_limits l SET l.usedLimit = COALESCE(l.usedLimit, 0) + :amount WHERE l.employee.id = :employeeId")
+    int consume(@Param("employeeId") Long employeeId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE actuary_limits l SET l.usedLimit = CASE WHEN l.usedLimit > :amount THEN l.usedLimit - :amount ELSE 0 END " +
+            "WHERE l.employee.id = :employeeId")
+    int giveBack(@Param("employeeId") Long employeeId, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE actuary_limits l SET l.usedLimit = 0 WHERE l.usedLimit IS NULL OR l.usedLimit <> 0")
+    int resetAllUsedLimits();
 }
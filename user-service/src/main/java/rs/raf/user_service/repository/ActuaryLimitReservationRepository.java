@@ -0,0 +1,23 @@
+package rs.raf.user_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rs.raf.user_service.domain.entity.ActuaryLimitReservation;
+import rs.raf.user_service.domain.enums.LimitReservationStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ActuaryLimitReservationRepository extends JpaRepository<ActuaryLimitReservation, Long> {
+
+    Optional<ActuaryLimitReservation> findByOrderId(Long orderId);
+
+    // only a held reservation can move on, which makes commit and release safe to repeat
+    @Modifying
+    @Query("UPDATE ActuaryLimitReservation r SET r.status = :status, r.updatedAt = :now " +
+            "WHERE r.orderId = :orderId AND r.status = rs.raf.user_service.domain.enums.LimitReservationStatus.RESERVED")
+    int completeReserved(@Param("orderId") Long orderId, @Param("status") LimitReservationStatus status,
+                         @Param("now") LocalDateTime now);
+}
@@ -1,11 +1,17 @@
 package rs.raf.user_service.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import rs.raf.user_service.domain.entity.AuthToken;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AuthTokenRepository extends JpaRepository<AuthToken, Long> {
     Optional<AuthToken> findByToken(String token);
 
+    @Query("SELECT t.id FROM AuthToken t WHERE t.expiresAt < :cutoff")
+    List<Long> findExpiredIds(@Param("cutoff") Long cutoff, Pageable pageable);
 }
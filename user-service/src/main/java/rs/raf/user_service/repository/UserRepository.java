@@ -3,8 +3,13 @@ package rs.raf.user_service.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rs.raf.user_service.domain.dto.UserNameDto;
 import rs.raf.user_service.domain.entity.BaseUser;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<BaseUser, Long> {
@@ -19,4 +24,9 @@ public interface UserRepository extends JpaRepository<BaseUser, Long> {
     boolean existsByEmail(String email);
 
     Optional<BaseUser> findByJmbg(String jmbg);
+
+    // clients and employees share one table, so a single query resolves both
+    @Query("SELECT new rs.raf.user_service.domain.dto.UserNameDto(u.id, u.firstName, u.lastName) " +
+            "FROM BaseUser u WHERE u.id IN :ids")
+    List<UserNameDto> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package rs.raf.user_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rs.raf.user_service.domain.entity.VerificationOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface VerificationOutboxEventRepository extends JpaRepository<VerificationOutboxEvent, Long> {
+
+    @Query("SELECT e FROM VerificationOutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<VerificationOutboxEvent> findUnpublished(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM VerificationOutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
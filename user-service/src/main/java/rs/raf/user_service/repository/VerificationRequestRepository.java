@@ -1,10 +1,13 @@
 package rs.raf.user_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.entity.VerificationRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,5 +22,15 @@ public interface VerificationRequestRepository extends JpaRepository<Verificatio
     @Query("SELECT v FROM VerificationRequest v WHERE v.id = :id AND v.userId = :userId AND v.status = 'PENDING' AND v.expirationTime > CURRENT_TIMESTAMP")
     Optional<VerificationRequest> findActiveRequest(@Param("id") Long id, @Param("userId") Long userId);
 
+    Optional<VerificationRequest> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT MIN(v.expirationTime) FROM VerificationRequest v WHERE v.status = 'PENDING' AND v.expirationTime <= :now")
+    Optional<LocalDateTime> findOldestExpiredPending(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE VerificationRequest v SET v.status = 'EXPIRED' WHERE v.status = 'PENDING' AND v.expirationTime >= :from AND v.expirationTime <= :to")
+    int expirePending(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
 }
 
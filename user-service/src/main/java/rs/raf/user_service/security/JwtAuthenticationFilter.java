@@ -5,7 +5,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import rs.raf.user_service.utils.JwtTokenUtil;
@@ -16,7 +15,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /*
         Class is called on every Http request/response to check validity of token.
@@ -37,18 +35,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         String token = getJwtFromRequest(request);
 
-        if (token != null && jwtTokenUtil.validateToken(token)) {
-            Claims claims = jwtTokenUtil.getClaimsFromToken(token);
-            String email = claims.getSubject();
+        Claims claims = token != null ? jwtTokenUtil.getVerifiedClaims(token) : null;
 
+        if (claims != null) {
+            String email = claims.getSubject();
+            Long userId = claims.get("userId", Long.class);
             String role = claims.get("role", String.class);
             GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role.toUpperCase());
             List<GrantedAuthority> authorities = List.of(authority);
 
-            UserDetails userDetails = new org.springframework.security.core.userdetails.User(email, "", authorities);
+            JwtPrincipal principal = new JwtPrincipal(email, userId, role, authorities);
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, authorities);
+                    principal, null, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
@@ -59,7 +58,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
-        System.out.println(bearerToken);
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
@@ -0,0 +1,28 @@
+package rs.raf.user_service.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal built once per request from the verified token, so services can read the caller's
+ * id and role without parsing the Authorization header again.
+ */
+@Getter
+public class JwtPrincipal extends User {
+
+    private final Long userId;
+    private final String role;
+
+    public JwtPrincipal(String email, Long userId, String role, Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", authorities);
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public String getEmail() {
+        return getUsername();
+    }
+}
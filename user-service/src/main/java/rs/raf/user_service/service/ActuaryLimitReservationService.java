@@ -0,0 +1,103 @@
+package rs.raf.user_service.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.user_service.domain.dto.LimitReservationDto;
+import rs.raf.user_service.domain.dto.ReserveLimitDto;
+import rs.raf.user_service.domain.entity.ActuaryLimitReservation;
+import rs.raf.user_service.domain.enums.LimitReservationStatus;
+import rs.raf.user_service.exceptions.ActuaryLimitNotFoundException;
+import rs.raf.user_service.exceptions.LimitReservationNotFoundException;
+import rs.raf.user_service.repository.ActuaryLimitRepository;
+import rs.raf.user_service.repository.ActuaryLimitReservationRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Reserve/commit/release of an agent's daily limit, one reservation per order. Reserving adds the
+ * amount to the used limit with a conditional update, so the limit holds under concurrent orders.
+ * Committing (order executed) keeps the amount consumed; releasing (order cancelled, declined or
+ * failed) gives it back if it was reserved against today's limit.
+ * <p>
+ * Both reserve and release are idempotent by order id, so a caller that does not know whether its
+ * reservation went through can always release. Releasing an order without a reservation records it as
+ * released, and a reserve that arrives after that is answered with the released reservation.
+ */
+@Service
+@AllArgsConstructor
+public class ActuaryLimitReservationService {
+
+    private final ActuaryLimitRepository actuaryLimitRepository;
+    private final ActuaryLimitReservationRepository reservationRepository;
+
+    @Transactional
+    public LimitReservationDto reserve(Long employeeId, ReserveLimitDto dto) {
+        Optional<ActuaryLimitReservation> existing = reservationRepository.findByOrderId(dto.getOrderId());
+        if (existing.isPresent()) {
+            return toDto(existing.get());
+        }
+
+        int updated = dto.isOverride()
+                ? actuaryLimitRepository.consume(employeeId, dto.getAmount())
+                : actuaryLimitRepository.consumeWithinLimit(employeeId, dto.getAmount());
+        if (updated == 0) {
+            if (!actuaryLimitRepository.existsByEmployeeId(employeeId)) {
+                throw new ActuaryLimitNotFoundException(employeeId);
+            }
+            return new LimitReservationDto(dto.getOrderId(), employeeId, dto.getAmount(), LimitReservationStatus.REJECTED);
+        }
+
+        ActuaryLimitReservation reservation = ActuaryLimitReservation.builder()
+                .employeeId(employeeId)
+                .orderId(dto.getOrderId())
+                .amount(dto.getAmount())
+                .status(LimitReservationStatus.RESERVED)
+                .reservedOn(LocalDate.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        return toDto(reservationRepository.save(reservation));
+    }
+
+    @Transactional
+    public LimitReservationDto commit(Long orderId) {
+        ActuaryLimitReservation reservation = reservationRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new LimitReservationNotFoundException(orderId));
+        if (reservationRepository.completeReserved(orderId, LimitReservationStatus.COMMITTED, LocalDateTime.now()) == 1) {
+            reservation.setStatus(LimitReservationStatus.COMMITTED);
+        }
+        return toDto(reservation);
+    }
+
+    @Transactional
+    public LimitReservationDto release(Long orderId) {
+        Optional<ActuaryLimitReservation> existing = reservationRepository.findByOrderId(orderId);
+        if (existing.isEmpty()) {
+            return toDto(reservationRepository.save(ActuaryLimitReservation.builder()
+                    .orderId(orderId)
+                    .amount(BigDecimal.ZERO)
+                    .status(LimitReservationStatus.RELEASED)
+                    .reservedOn(LocalDate.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build()));
+        }
+
+        ActuaryLimitReservation reservation = existing.get();
+        if (reservationRepository.completeReserved(orderId, LimitReservationStatus.RELEASED, LocalDateTime.now()) == 1) {
+            reservation.setStatus(LimitReservationStatus.RELEASED);
+            // the midnight reset already cleared amounts reserved on earlier days
+            if (LocalDate.now().equals(reservation.getReservedOn())) {
+                actuaryLimitRepository.giveBack(reservation.getEmployeeId(), reservation.getAmount());
+            }
+        }
+        return toDto(reservation);
+    }
+
+    private LimitReservationDto toDto(ActuaryLimitReservation reservation) {
+        return new LimitReservationDto(reservation.getOrderId(), reservation.getEmployeeId(), reservation.getAmount(),
+                reservation.getStatus());
+    }
+}
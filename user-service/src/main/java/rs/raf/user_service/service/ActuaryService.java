@@ -1,6 +1,7 @@
 package rs.raf.user_service.service;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,9 +22,12 @@ import rs.raf.user_service.repository.EmployeeRepository;
 import rs.raf.user_service.specification.EmployeeSearchSpecification;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class ActuaryService {
@@ -52,18 +56,16 @@ public class ActuaryService {
 
         Page<ActuaryDto> actuaryDtoPage = employeeRepository.findAll(spec, pageable).map(ActuaryMapper::toActuaryDto);
 
-        List<OrderDto> orderDtos = stockClient.getAll();
-
-        for (OrderDto orderDto : orderDtos) {
-            ActuaryDto actuaryDto = actuaryDtoPage.getContent().stream()
-                    .filter(actuary -> actuary.getId().equals(orderDto.getUserId()))
-                    .findFirst()
-                    .orElse(null);
-            if (actuaryDto == null) {
-                System.out.println("Greska actuaryDto je null");
-                continue;
-            }
-            actuaryDto.setProfit(actuaryDto.getProfit().add(orderDto.getProfit()));
+        if (actuaryDtoPage.isEmpty())
+            return actuaryDtoPage;
+
+        // one aggregated request for the actuaries on this page instead of every sell order in the system
+        Map<Long, ActuaryDto> byId = actuaryDtoPage.getContent().stream()
+                .collect(Collectors.toMap(ActuaryDto::getId, Function.identity()));
+        for (ActuaryProfitDto profit : stockClient.getProfitByUsers(byId.keySet())) {
+            ActuaryDto actuaryDto = byId.get(profit.getUserId());
+            if (actuaryDto != null && profit.getProfit() != null)
+                actuaryDto.setProfit(profit.getProfit());
         }
         return actuaryDtoPage;
     }
@@ -114,12 +116,8 @@ public class ActuaryService {
     //U ponoc
     @Scheduled(cron = "0 0 0 * * *")
     public void resetDailyLimits() {
-        List<ActuaryLimit> limits = actuaryLimitRepository.findAll();
-        for (ActuaryLimit limit : limits) {
-            limit.setUsedLimit(BigDecimal.ZERO);
-        }
-        System.out.println("Daily used limits have been reset.");
-        actuaryLimitRepository.saveAll(limits);
+        int reset = actuaryLimitRepository.resetAllUsedLimits();
+        log.info("Daily used limits have been reset for {} actuaries", reset);
     }
 
 }
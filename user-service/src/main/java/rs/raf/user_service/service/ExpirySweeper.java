@@ -0,0 +1,85 @@
+package rs.raf.user_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import rs.raf.user_service.repository.AuthTokenRepository;
+import rs.raf.user_service.repository.VerificationRequestRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves expired PENDING verification requests to EXPIRED and prunes auth tokens that expired longer
+ * than the retention period ago. Requests are expired one time bucket at a time and tokens are deleted
+ * in id batches, so each statement stays short and holds row locks only briefly.
+ */
+@Slf4j
+@Service
+public class ExpirySweeper {
+
+    private final VerificationRequestRepository verificationRequestRepository;
+    private final AuthTokenRepository authTokenRepository;
+    private final Duration bucket;
+    private final long tokenRetentionMillis;
+    private final int tokenBatchSize;
+
+    public ExpirySweeper(VerificationRequestRepository verificationRequestRepository,
+                         AuthTokenRepository authTokenRepository,
+                         @Value("${expiry.sweep.bucket-minutes:60}") long bucketMinutes,
+                         @Value("${expiry.sweep.token-retention-ms:86400000}") long tokenRetentionMillis,
+                         @Value("${expiry.sweep.token-batch-size:500}") int tokenBatchSize) {
+        this.verificationRequestRepository = verificationRequestRepository;
+        this.authTokenRepository = authTokenRepository;
+        this.bucket = Duration.ofMinutes(bucketMinutes);
+        this.tokenRetentionMillis = tokenRetentionMillis;
+        this.tokenBatchSize = tokenBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${expiry.sweep.interval-ms:60000}")
+    public void sweep() {
+        expireVerificationRequests(LocalDateTime.now());
+        pruneAuthTokens(System.currentTimeMillis());
+    }
+
+    public int expireVerificationRequests(LocalDateTime now) {
+        LocalDateTime from = verificationRequestRepository.findOldestExpiredPending(now).orElse(null);
+        if (from == null) {
+            return 0;
+        }
+
+        int expired = 0;
+        while (from.isBefore(now)) {
+            LocalDateTime to = from.plus(bucket).isBefore(now) ? from.plus(bucket) : now;
+            expired += verificationRequestRepository.expirePending(from, to);
+            from = to;
+        }
+
+        if (expired > 0) {
+            log.info("Expired {} pending verification requests", expired);
+        }
+        return expired;
+    }
+
+    public int pruneAuthTokens(long nowMillis) {
+        long cutoff = nowMillis - tokenRetentionMillis;
+        int deleted = 0;
+
+        List<Long> ids;
+        do {
+            ids = authTokenRepository.findExpiredIds(cutoff, PageRequest.of(0, tokenBatchSize));
+            if (!ids.isEmpty()) {
+                authTokenRepository.deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+            }
+        } while (ids.size() == tokenBatchSize);
+
+        if (deleted > 0) {
+            log.info("Deleted {} expired auth tokens", deleted);
+        }
+        return deleted;
+    }
+}
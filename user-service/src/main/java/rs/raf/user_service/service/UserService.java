@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
 import rs.raf.user_service.domain.dto.UserDto;
+import rs.raf.user_service.domain.dto.UserNameDto;
 import rs.raf.user_service.domain.entity.ActuaryLimit;
 import rs.raf.user_service.domain.entity.BaseUser;
 import rs.raf.user_service.domain.entity.Employee;
@@ -17,6 +18,8 @@ import rs.raf.user_service.repository.PermissionRepository;
 import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 @AllArgsConstructor
@@ -61,6 +64,12 @@ public class UserService {
     }
 
 
+    public List<UserNameDto> getUserNames(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            return List.of();
+        return userRepository.findNamesByIdIn(ids);
+    }
+
     public Page<UserDto> listUsers(Pageable pageable) {
         Page<BaseUser> usersPage = userRepository.findAll(pageable);
         return userRepository.findAll(pageable)
@@ -0,0 +1,95 @@
+package rs.raf.user_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.user_service.configuration.RabbitMQConfig;
+import rs.raf.user_service.domain.dto.VerificationDecisionMessageDto;
+import rs.raf.user_service.domain.entity.VerificationOutboxEvent;
+import rs.raf.user_service.repository.VerificationOutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relays verification decisions from the outbox table to bank-service. A row counts as published only
+ * once the broker confirmed the message and did not return it as unroutable. Delivery is
+ * at-least-once: a crash between the confirm and the commit resends the batch, and bank-service drops
+ * duplicates by verification request id. Published rows are deleted after the retention period.
+ */
+@Slf4j
+@Service
+public class VerificationOutboxPublisher {
+
+    private final VerificationOutboxEventRepository verificationOutboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final long retentionHours;
+
+    public VerificationOutboxPublisher(VerificationOutboxEventRepository verificationOutboxEventRepository,
+                                       RabbitTemplate rabbitTemplate,
+                                       @Value("${verification.outbox.batch-size:100}") int batchSize,
+                                       @Value("${verification.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMillis,
+                                       @Value("${verification.outbox.retention-hours:168}") long retentionHours) {
+        this.verificationOutboxEventRepository = verificationOutboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${verification.outbox.publish-interval-ms:500}")
+    @Transactional
+    public void publishPending() {
+        List<VerificationOutboxEvent> events = verificationOutboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+
+        for (VerificationOutboxEvent event : events) {
+            // keep the rest of the batch for the next run, order per request is preserved by id
+            if (!publish(event)) {
+                return;
+            }
+            event.setPublishedAt(LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${verification.outbox.prune-interval-ms:3600000}")
+    @Transactional
+    public void prunePublished() {
+        int deleted = verificationOutboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Deleted {} published verification outbox events", deleted);
+        }
+    }
+
+    private boolean publish(VerificationOutboxEvent event) {
+        CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+        try {
+            rabbitTemplate.convertAndSend("", RabbitMQConfig.VERIFICATION_DECISION_QUEUE, new VerificationDecisionMessageDto(
+                    event.getVerificationRequestId(), event.getVerificationType(), event.getTargetId(), event.isApproved()),
+                    correlation);
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+            // a returned message is set before the confirm completes
+            if (confirm.isAck() && correlation.getReturned() == null) {
+                return true;
+            }
+            log.warn("Verification decision {} was not accepted by the broker ({}), will retry",
+                    event.getVerificationRequestId(),
+                    correlation.getReturned() != null ? "unroutable" : confirm.getReason());
+        } catch (AmqpException | ExecutionException | TimeoutException e) {
+            log.warn("Failed to publish verification decision {}, will retry", event.getVerificationRequestId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -4,26 +4,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import rs.raf.user_service.client.BankClient;
-import rs.raf.user_service.domain.dto.CardRequestDto;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.dto.CreateVerificationRequestDto;
+import rs.raf.user_service.domain.dto.VerificationResultMessageDto;
+import rs.raf.user_service.domain.dto.VerificationStatusDto;
+import rs.raf.user_service.domain.entity.VerificationOutboxEvent;
 import rs.raf.user_service.domain.entity.VerificationRequest;
+import rs.raf.user_service.domain.enums.VerificationExecutionStatus;
 import rs.raf.user_service.domain.enums.VerificationStatus;
 import rs.raf.user_service.domain.enums.VerificationType;
 import rs.raf.user_service.exceptions.RejectNonPendingRequestException;
 import rs.raf.user_service.exceptions.VerificationNotFoundException;
+import rs.raf.user_service.repository.VerificationOutboxEventRepository;
 import rs.raf.user_service.repository.VerificationRequestRepository;
 import rs.raf.user_service.utils.JwtTokenUtil;
 
-import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @AllArgsConstructor
 @Service
 public class VerificationRequestService {
+    private static final Set<VerificationType> BANK_VERIFICATION_TYPES = EnumSet.of(
+            VerificationType.CHANGE_LIMIT, VerificationType.PAYMENT, VerificationType.TRANSFER, VerificationType.CARD_REQUEST);
+
     private final VerificationRequestRepository verificationRequestRepository;
-    private final BankClient bankClient;
+    private final VerificationOutboxEventRepository verificationOutboxEventRepository;
     private final JwtTokenUtil jwtTokenUtil;
     private ObjectMapper objectMapper;
 
@@ -58,6 +66,7 @@ public class VerificationRequestService {
         }).orElse(false);
     }
 
+    @Transactional
     public boolean processApproval(Long requestId, String authHeader) {
         Long clientIdFromToken = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
@@ -65,19 +74,13 @@ public class VerificationRequestService {
                 .orElseThrow(() -> new IllegalStateException("Verification request not found"));
 
         request.setStatus(VerificationStatus.APPROVED);
-        verificationRequestRepository.save(request);
-
-        switch (request.getVerificationType()) {
-            case CHANGE_LIMIT -> bankClient.changeAccountLimit(request.getTargetId());//radi
-            case PAYMENT -> bankClient.confirmPayment(request.getTargetId());//radi
-            case TRANSFER -> bankClient.confirmTransfer(request.getTargetId());
-            case CARD_REQUEST -> bankClient.approveCardRequest(request.getTargetId());//radi
-        }
+        queueDecision(request, true);
 
         return true;
     }
 
 
+    @Transactional
     public void denyVerificationRequest(Long requestId, String authHeader) {
         Long clientIdFromToken = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
@@ -88,14 +91,45 @@ public class VerificationRequestService {
             throw new RejectNonPendingRequestException();
 
         request.setStatus(VerificationStatus.DENIED);
-        verificationRequestRepository.save(request);
+        queueDecision(request, false);
+    }
+
+    public VerificationStatusDto getRequestStatus(Long requestId, String authHeader) {
+        Long clientIdFromToken = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
-        switch (request.getVerificationType()) {
-            case CHANGE_LIMIT -> bankClient.rejectChangeAccountLimit(request.getTargetId());
-            case PAYMENT -> bankClient.rejectConfirmPayment(request.getTargetId());
-            case TRANSFER -> bankClient.rejectConfirmTransfer(request.getTargetId());
-            case CARD_REQUEST -> bankClient.rejectApproveCardRequest(request.getTargetId());
+        VerificationRequest request = verificationRequestRepository.findByIdAndUserId(requestId, clientIdFromToken)
+                .orElseThrow(() -> new VerificationNotFoundException(requestId));
+
+        return new VerificationStatusDto(request.getId(), request.getStatus(),
+                request.getExecutionStatus(), request.getExecutionMessage());
+    }
+
+    @Transactional
+    public void applyExecutionResult(VerificationResultMessageDto result) {
+        verificationRequestRepository.findById(result.getVerificationRequestId()).ifPresent(request -> {
+            request.setExecutionStatus(result.isSuccess()
+                    ? VerificationExecutionStatus.COMPLETED
+                    : VerificationExecutionStatus.FAILED);
+            request.setExecutionMessage(result.getMessage());
+            verificationRequestRepository.save(request);
+        });
+    }
+
+    /**
+     * Bank-side work is not done inline: the decision is written to the outbox in the same transaction
+     * as the status change and delivered to bank-service by {@link VerificationOutboxPublisher}.
+     */
+    private void queueDecision(VerificationRequest request, boolean approved) {
+        if (BANK_VERIFICATION_TYPES.contains(request.getVerificationType())) {
+            request.setExecutionStatus(VerificationExecutionStatus.QUEUED);
+            verificationOutboxEventRepository.save(VerificationOutboxEvent.builder()
+                    .verificationRequestId(request.getId())
+                    .verificationType(request.getVerificationType())
+                    .targetId(request.getTargetId())
+                    .approved(approved)
+                    .build());
         }
+        verificationRequestRepository.save(request);
     }
 
     public boolean calledFromMobile(String userAgent) {
@@ -0,0 +1,19 @@
+package rs.raf.user_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+import rs.raf.user_service.configuration.RabbitMQConfig;
+import rs.raf.user_service.domain.dto.VerificationResultMessageDto;
+
+@Service
+@RequiredArgsConstructor
+public class VerificationResultProcessor {
+
+    private final VerificationRequestService verificationRequestService;
+
+    @RabbitListener(queues = RabbitMQConfig.VERIFICATION_RESULT_QUEUE)
+    public void processResult(VerificationResultMessageDto result) {
+        verificationRequestService.applyExecutionResult(result);
+    }
+}
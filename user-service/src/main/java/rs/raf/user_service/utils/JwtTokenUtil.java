@@ -1,6 +1,7 @@
 package rs.raf.user_service.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -15,7 +16,9 @@ import java.util.List;
 public class JwtTokenUtil {
 
     private static final Key secret = Keys.hmacShaKeyFor("si-2024-banka-3-tajni-kljuc-za-jwt-generisanje-tokena-mora-biti-512-bitova-valjda-je-dovoljno".getBytes());
+    private static final JwtParser parser = Jwts.parserBuilder().setSigningKey(secret).build();
     private final long expiration = 86400000;
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10_000);
 
     public String generateToken(String email, Long id, String role) {
         return Jwts.builder()
@@ -32,23 +35,34 @@ public class JwtTokenUtil {
         return getClaimsFromToken(token).getSubject();
     }
 
+    /**
+     * Verifies the token signature on first use only; later calls with the same token are served
+     * from {@link VerifiedTokenCache} until the token expires.
+     */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokenCache.put(token, claims);
+        }
+        return claims;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Returns the verified claims, or {@code null} when the token is malformed, forged or expired.
+     */
+    public Claims getVerifiedClaims(String token) {
         try {
-            getClaimsFromToken(token);
-            return true;
+            return getClaimsFromToken(token);
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
+    public boolean validateToken(String token) {
+        return getVerifiedClaims(token) != null;
+    }
+
     public Long getUserIdFromAuthHeader(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new SecurityException("Invalid or missing Authorization header");
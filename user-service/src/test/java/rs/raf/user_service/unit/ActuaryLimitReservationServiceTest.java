@@ -0,0 +1,180 @@
+package rs.raf.user_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import rs.raf.user_service.domain.dto.LimitReservationDto;
+import rs.raf.user_service.domain.dto.ReserveLimitDto;
+import rs.raf.user_service.domain.entity.ActuaryLimitReservation;
+import rs.raf.user_service.domain.enums.LimitReservationStatus;
+import rs.raf.user_service.exceptions.ActuaryLimitNotFoundException;
+import rs.raf.user_service.repository.ActuaryLimitRepository;
+import rs.raf.user_service.repository.ActuaryLimitReservationRepository;
+import rs.raf.user_service.service.ActuaryLimitReservationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ActuaryLimitReservationServiceTest {
+
+    @Mock
+    private ActuaryLimitRepository actuaryLimitRepository;
+
+    @Mock
+    private ActuaryLimitReservationRepository reservationRepository;
+
+    @InjectMocks
+    private ActuaryLimitReservationService reservationService;
+
+    private final BigDecimal amount = new BigDecimal("500");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(reservationRepository.save(any(ActuaryLimitReservation.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void reserve_WithinLimit_ConsumesAndStoresReservation() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.empty());
+        when(actuaryLimitRepository.consumeWithinLimit(1L, amount)).thenReturn(1);
+
+        LimitReservationDto result = reservationService.reserve(1L, new ReserveLimitDto(10L, amount, false));
+
+        assertEquals(LimitReservationStatus.RESERVED, result.getStatus());
+        verify(reservationRepository).save(argThat(r -> r.getOrderId().equals(10L)
+                && r.getStatus() == LimitReservationStatus.RESERVED
+                && LocalDate.now().equals(r.getReservedOn())));
+        verify(actuaryLimitRepository, never()).consume(any(), any());
+    }
+
+    @Test
+    void reserve_OverLimit_IsRejectedWithoutReservation() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.empty());
+        when(actuaryLimitRepository.consumeWithinLimit(1L, amount)).thenReturn(0);
+        when(actuaryLimitRepository.existsByEmployeeId(1L)).thenReturn(true);
+
+        LimitReservationDto result = reservationService.reserve(1L, new ReserveLimitDto(10L, amount, false));
+
+        assertEquals(LimitReservationStatus.REJECTED, result.getStatus());
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void reserve_Override_ConsumesUnconditionally() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.empty());
+        when(actuaryLimitRepository.consume(1L, amount)).thenReturn(1);
+
+        LimitReservationDto result = reservationService.reserve(1L, new ReserveLimitDto(10L, amount, true));
+
+        assertEquals(LimitReservationStatus.RESERVED, result.getStatus());
+        verify(actuaryLimitRepository, never()).consumeWithinLimit(any(), any());
+    }
+
+    @Test
+    void reserve_UnknownAgent_Throws() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.empty());
+        when(actuaryLimitRepository.existsByEmployeeId(1L)).thenReturn(false);
+
+        assertThrows(ActuaryLimitNotFoundException.class,
+                () -> reservationService.reserve(1L, new ReserveLimitDto(10L, amount, false)));
+    }
+
+    @Test
+    void reserve_Repeated_ReturnsExistingWithoutConsumingAgain() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(reservation(LocalDate.now())));
+
+        LimitReservationDto result = reservationService.reserve(1L, new ReserveLimitDto(10L, amount, false));
+
+        assertEquals(LimitReservationStatus.RESERVED, result.getStatus());
+        verifyNoInteractions(actuaryLimitRepository);
+    }
+
+    @Test
+    void commit_MarksCommittedAndKeepsLimitConsumed() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(reservation(LocalDate.now())));
+        when(reservationRepository.completeReserved(eq(10L), eq(LimitReservationStatus.COMMITTED), any())).thenReturn(1);
+
+        LimitReservationDto result = reservationService.commit(10L);
+
+        assertEquals(LimitReservationStatus.COMMITTED, result.getStatus());
+        verifyNoInteractions(actuaryLimitRepository);
+    }
+
+    @Test
+    void release_TodaysReservation_GivesAmountBack() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(reservation(LocalDate.now())));
+        when(reservationRepository.completeReserved(eq(10L), eq(LimitReservationStatus.RELEASED), any())).thenReturn(1);
+
+        LimitReservationDto result = reservationService.release(10L);
+
+        assertEquals(LimitReservationStatus.RELEASED, result.getStatus());
+        verify(actuaryLimitRepository).giveBack(1L, amount);
+    }
+
+    @Test
+    void release_ReservationFromBeforeReset_DoesNotGiveBack() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(reservation(LocalDate.now().minusDays(1))));
+        when(reservationRepository.completeReserved(eq(10L), eq(LimitReservationStatus.RELEASED), any())).thenReturn(1);
+
+        reservationService.release(10L);
+
+        verify(actuaryLimitRepository, never()).giveBack(any(), any());
+    }
+
+    @Test
+    void release_AlreadyCompleted_IsNoOp() {
+        ActuaryLimitReservation committed = reservation(LocalDate.now());
+        committed.setStatus(LimitReservationStatus.COMMITTED);
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(committed));
+        when(reservationRepository.completeReserved(eq(10L), eq(LimitReservationStatus.RELEASED), any())).thenReturn(0);
+
+        LimitReservationDto result = reservationService.release(10L);
+
+        assertEquals(LimitReservationStatus.COMMITTED, result.getStatus());
+        verify(actuaryLimitRepository, never()).giveBack(any(), any());
+    }
+
+    @Test
+    void release_Unknown_RecordsReleasedTombstone() {
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.empty());
+
+        LimitReservationDto result = reservationService.release(10L);
+
+        assertEquals(LimitReservationStatus.RELEASED, result.getStatus());
+        verify(reservationRepository).save(argThat(r -> r.getOrderId().equals(10L)
+                && r.getStatus() == LimitReservationStatus.RELEASED
+                && r.getAmount().signum() == 0));
+        verify(actuaryLimitRepository, never()).giveBack(any(), any());
+    }
+
+    @Test
+    void reserve_AfterRelease_ConsumesNothing() {
+        ActuaryLimitReservation released = reservation(LocalDate.now());
+        released.setStatus(LimitReservationStatus.RELEASED);
+        when(reservationRepository.findByOrderId(10L)).thenReturn(Optional.of(released));
+
+        LimitReservationDto result = reservationService.reserve(1L, new ReserveLimitDto(10L, amount, false));
+
+        assertEquals(LimitReservationStatus.RELEASED, result.getStatus());
+        verify(actuaryLimitRepository, never()).consumeWithinLimit(any(), any());
+        verify(actuaryLimitRepository, never()).consume(any(), any());
+    }
+
+    private ActuaryLimitReservation reservation(LocalDate reservedOn) {
+        return ActuaryLimitReservation.builder()
+                .employeeId(1L)
+                .orderId(10L)
+                .amount(amount)
+                .status(LimitReservationStatus.RESERVED)
+                .reservedOn(reservedOn)
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import rs.raf.user_service.client.BankClient;
 import rs.raf.user_service.client.StockClient;
 import rs.raf.user_service.domain.dto.ActuaryDto;
 import rs.raf.user_service.domain.dto.ActuaryLimitDto;
+import rs.raf.user_service.domain.dto.ActuaryProfitDto;
 import rs.raf.user_service.domain.dto.EmployeeDto;
 import rs.raf.user_service.domain.entity.ActuaryLimit;
 import rs.raf.user_service.domain.entity.Employee;
@@ -272,26 +273,35 @@ public class ActuaryServiceTest {
         );
     }
 
+    @Test
+    void testFindActuaries_FillsProfitFromOneAggregatedCall() {
+        Employee supervisor = new Employee();
+        supervisor.setId(3L);
+        supervisor.setRole(adminRole);
+        when(employeeRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(agentEmployee, supervisor)));
+        when(stockClient.getProfitByUsers(Set.of(1L, 3L)))
+                .thenReturn(List.of(new ActuaryProfitDto(1L, BigDecimal.valueOf(250))));
+
+        Page<ActuaryDto> result = actuaryService.findActuaries(PageRequest.of(0, 10));
+
+        assertEquals(BigDecimal.valueOf(250), result.getContent().get(0).getProfit());
+        assertEquals(BigDecimal.ZERO, result.getContent().get(1).getProfit());
+        verify(stockClient, times(1)).getProfitByUsers(any());
+    }
+
     // resetDailyLimits() -----------------------------------------------------------------------------------------
 
     @Test
     void testResetDailyLimits_Success() {
-        // Ovde testiramo "scheduled" metodu koja svakodnevno resetuje limit
-        ActuaryLimit limit1 = new ActuaryLimit();
-        limit1.setUsedLimit(BigDecimal.valueOf(100));
-
-        ActuaryLimit limit2 = new ActuaryLimit();
-        limit2.setUsedLimit(BigDecimal.valueOf(200));
-
-        List<ActuaryLimit> limits = List.of(limit1, limit2);
-        when(actuaryLimitRepository.findAll()).thenReturn(limits);
+        // Ovde testiramo "scheduled" metodu koja svakodnevno resetuje limit, sada jednim UPDATE-om
+        when(actuaryLimitRepository.resetAllUsedLimits()).thenReturn(2);
 
         actuaryService.resetDailyLimits();
 
-        assertEquals(BigDecimal.ZERO, limit1.getUsedLimit());
-        assertEquals(BigDecimal.ZERO, limit2.getUsedLimit());
-        // Proveravamo da li je sve snimljeno
-        verify(actuaryLimitRepository, times(1)).saveAll(limits);
+        verify(actuaryLimitRepository, times(1)).resetAllUsedLimits();
+        verify(actuaryLimitRepository, never()).findAll();
+        verify(actuaryLimitRepository, never()).saveAll(any());
     }
 
 }
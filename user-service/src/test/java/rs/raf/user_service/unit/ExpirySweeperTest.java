@@ -0,0 +1,75 @@
+package rs.raf.user_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import rs.raf.user_service.repository.AuthTokenRepository;
+import rs.raf.user_service.repository.VerificationRequestRepository;
+import rs.raf.user_service.service.ExpirySweeper;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpirySweeperTest {
+
+    @Mock
+    private VerificationRequestRepository verificationRequestRepository;
+
+    @Mock
+    private AuthTokenRepository authTokenRepository;
+
+    private ExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new ExpirySweeper(verificationRequestRepository, authTokenRepository, 60, 1000, 2);
+    }
+
+    @Test
+    void expireVerificationRequests_WalksHourlyBucketsUpToNow() {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 30);
+        LocalDateTime oldest = now.minusMinutes(150);
+        when(verificationRequestRepository.findOldestExpiredPending(now)).thenReturn(Optional.of(oldest));
+        when(verificationRequestRepository.expirePending(any(), any())).thenReturn(2);
+
+        int expired = sweeper.expireVerificationRequests(now);
+
+        assertEquals(6, expired);
+        verify(verificationRequestRepository).expirePending(oldest, oldest.plusHours(1));
+        verify(verificationRequestRepository).expirePending(oldest.plusHours(1), oldest.plusHours(2));
+        verify(verificationRequestRepository).expirePending(oldest.plusHours(2), now);
+    }
+
+    @Test
+    void expireVerificationRequests_NothingExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        when(verificationRequestRepository.findOldestExpiredPending(now)).thenReturn(Optional.empty());
+
+        assertEquals(0, sweeper.expireVerificationRequests(now));
+        verify(verificationRequestRepository, never()).expirePending(any(), any());
+    }
+
+    @Test
+    void pruneAuthTokens_DeletesInBatchesUntilExhausted() {
+        when(authTokenRepository.findExpiredIds(eq(4000L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), Collections.emptyList());
+
+        int deleted = sweeper.pruneAuthTokens(5000L);
+
+        assertEquals(3, deleted);
+        verify(authTokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(authTokenRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(authTokenRepository, times(2)).findExpiredIds(eq(4000L), any(Pageable.class));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import rs.raf.user_service.security.JwtAuthenticationFilter;
+import rs.raf.user_service.security.JwtPrincipal;
 import rs.raf.user_service.utils.JwtTokenUtil;
 
 import javax.servlet.FilterChain;
@@ -34,11 +35,10 @@ public class JwtAuthenticationFilterTest {
         String email = "employee@example.com";
         String token = "validTokenEmployee";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
         DefaultClaims claims = new DefaultClaims();
         claims.setSubject(email);
         claims.put("role", "ROLE_EMPLOYEE");
-        when(jwtTokenUtil.getClaimsFromToken(token)).thenReturn(claims);
+        when(jwtTokenUtil.getVerifiedClaims(token)).thenReturn(claims);
 
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer " + token);
@@ -58,11 +58,11 @@ public class JwtAuthenticationFilterTest {
         String email = "client@example.com";
         String token = "validTokenClient";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
         DefaultClaims claims = new DefaultClaims();
         claims.setSubject(email);
         claims.put("role", "ROLE_CLIENT");
-        when(jwtTokenUtil.getClaimsFromToken(token)).thenReturn(claims);
+        claims.put("userId", 7L);
+        when(jwtTokenUtil.getVerifiedClaims(token)).thenReturn(claims);
 
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer " + token);
@@ -72,8 +72,10 @@ public class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilter(request, response, filterChain);
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        assertEquals(email, userDetails.getUsername());
+        JwtPrincipal principal = (JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(email, principal.getUsername());
+        assertEquals(7L, principal.getUserId());
+        assertEquals("ROLE_CLIENT", principal.getRole());
         verify(filterChain, times(1)).doFilter(request, response);
     }
 
@@ -81,7 +83,7 @@ public class JwtAuthenticationFilterTest {
     public void testDoFilter_InvalidToken() throws ServletException, IOException {
         String token = "invalidToken";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(false);
+        when(jwtTokenUtil.getVerifiedClaims(token)).thenReturn(null);
 
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer " + token);
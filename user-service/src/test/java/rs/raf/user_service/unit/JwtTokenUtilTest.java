@@ -0,0 +1,56 @@
+package rs.raf.user_service.unit;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import rs.raf.user_service.utils.JwtTokenUtil;
+import rs.raf.user_service.utils.VerifiedTokenCache;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JwtTokenUtilTest {
+
+    private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+
+    @Test
+    public void testGetClaimsFromToken_VerifiesOncePerToken() {
+        String token = jwtTokenUtil.generateToken("client@example.com", 5L, "CLIENT");
+
+        Claims first = jwtTokenUtil.getClaimsFromToken(token);
+        Claims second = jwtTokenUtil.getClaimsFromToken(token);
+
+        assertSame(first, second);
+        assertEquals(5L, jwtTokenUtil.getUserIdFromAuthHeader("Bearer " + token));
+    }
+
+    @Test
+    public void testGetVerifiedClaims_TamperedToken() {
+        String token = jwtTokenUtil.generateToken("client@example.com", 5L, "CLIENT");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtTokenUtil.getVerifiedClaims(tampered));
+        assertFalse(jwtTokenUtil.validateToken(tampered));
+        assertTrue(jwtTokenUtil.validateToken(token));
+    }
+
+    @Test
+    public void testVerifiedTokenCache_DropsExpiredEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1);
+        Claims expired = mock(Claims.class);
+        when(expired.getExpiration()).thenReturn(new Date(System.currentTimeMillis() - 1000));
+        Claims valid = mock(Claims.class);
+        when(valid.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+
+        cache.put("expired", expired);
+        cache.put("valid", valid);
+        cache.put("overflow", valid);
+
+        assertNull(cache.get("expired"));
+        assertSame(valid, cache.get("valid"));
+        assertNull(cache.get("overflow"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
+import rs.raf.user_service.domain.dto.UserNameDto;
 import rs.raf.user_service.domain.entity.Employee;
 import rs.raf.user_service.domain.entity.Role;
 import rs.raf.user_service.repository.AuthTokenRepository;
@@ -18,6 +19,7 @@ import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import rs.raf.user_service.service.UserService;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +48,19 @@ class UserServiceTest {
 
     // Uklonjena je metoda setUp() koja je ručno otvarala mokove.
 
+    @Test
+    void getUserNames_ResolvesAllIdsInOneQuery() {
+        List<Long> ids = List.of(1L, 2L);
+        when(userRepository.findNamesByIdIn(ids)).thenReturn(List.of(
+                new UserNameDto(1L, "Petar", "Petrovic"), new UserNameDto(2L, "Jovan", "Jovanovic")));
+
+        List<UserNameDto> names = userService.getUserNames(ids);
+
+        assertEquals(2, names.size());
+        verify(userRepository, times(1)).findNamesByIdIn(ids);
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     void getUserRole_UserExists_ReturnsRoleName() {
         Long userId = 1L;
@@ -0,0 +1,144 @@
+package rs.raf.user_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import rs.raf.user_service.configuration.RabbitMQConfig;
+import rs.raf.user_service.domain.dto.VerificationDecisionMessageDto;
+import rs.raf.user_service.domain.entity.VerificationOutboxEvent;
+import rs.raf.user_service.domain.enums.VerificationType;
+import rs.raf.user_service.repository.VerificationOutboxEventRepository;
+import rs.raf.user_service.service.VerificationOutboxPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VerificationOutboxPublisherTest {
+
+    @Mock
+    private VerificationOutboxEventRepository verificationOutboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private VerificationOutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new VerificationOutboxPublisher(verificationOutboxEventRepository, rabbitTemplate, 100, 1000, 168);
+    }
+
+    @Test
+    void publishPending_SendsDecisionsAndMarksThemPublished() {
+        VerificationOutboxEvent event = event(1L, 10L, true);
+        when(verificationOutboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(List.of(event));
+        brokerConfirms(true);
+
+        publisher.publishPending();
+
+        ArgumentCaptor<VerificationDecisionMessageDto> captor = ArgumentCaptor.forClass(VerificationDecisionMessageDto.class);
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.VERIFICATION_DECISION_QUEUE), captor.capture(),
+                any(CorrelationData.class));
+        assertEquals(10L, captor.getValue().getVerificationRequestId());
+        assertEquals(VerificationType.PAYMENT, captor.getValue().getVerificationType());
+        assertTrue(captor.getValue().isApproved());
+        assertNotNull(event.getPublishedAt());
+    }
+
+    @Test
+    void publishPending_BrokerDown_LeavesRemainingEventsForNextRun() {
+        VerificationOutboxEvent first = event(1L, 10L, true);
+        VerificationOutboxEvent second = event(2L, 11L, false);
+        when(verificationOutboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(List.of(first, second));
+        doAnswer(invocation -> confirm(invocation.getArgument(3), true))
+                .doThrow(new AmqpConnectException(new RuntimeException("down")))
+                .when(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.VERIFICATION_DECISION_QUEUE), any(Object.class),
+                        any(CorrelationData.class));
+
+        publisher.publishPending();
+
+        assertNotNull(first.getPublishedAt());
+        assertNull(second.getPublishedAt());
+    }
+
+    @Test
+    void publishPending_Nacked_StaysUnpublished() {
+        VerificationOutboxEvent event = event(1L, 10L, true);
+        when(verificationOutboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(List.of(event));
+        brokerConfirms(false);
+
+        publisher.publishPending();
+
+        assertNull(event.getPublishedAt());
+    }
+
+    @Test
+    void publishPending_Unroutable_StaysUnpublished() {
+        VerificationOutboxEvent first = event(1L, 10L, true);
+        VerificationOutboxEvent second = event(2L, 11L, false);
+        when(verificationOutboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(List.of(first, second));
+        doAnswer(invocation -> {
+            // no queue bound: the broker returns the message and still acks it
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+                    312, "NO_ROUTE", "", RabbitMQConfig.VERIFICATION_DECISION_QUEUE));
+            return confirm(correlation, true);
+        }).when(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.VERIFICATION_DECISION_QUEUE), any(Object.class),
+                any(CorrelationData.class));
+
+        publisher.publishPending();
+
+        assertNull(first.getPublishedAt());
+        assertNull(second.getPublishedAt());
+        verify(rabbitTemplate, times(1)).convertAndSend(eq(""), eq(RabbitMQConfig.VERIFICATION_DECISION_QUEUE),
+                any(Object.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void prunePublished_DeletesRowsPastRetention() {
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(verificationOutboxEventRepository.deletePublishedBefore(captor.capture())).thenReturn(3);
+
+        publisher.prunePublished();
+
+        LocalDateTime expected = LocalDateTime.now().minusHours(168);
+        assertTrue(captor.getValue().isAfter(expected.minusMinutes(1)) && captor.getValue().isBefore(expected.plusMinutes(1)));
+    }
+
+    private void brokerConfirms(boolean ack) {
+        doAnswer(invocation -> confirm(invocation.getArgument(3), ack))
+                .when(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.VERIFICATION_DECISION_QUEUE), any(Object.class),
+                        any(CorrelationData.class));
+    }
+
+    private Object confirm(CorrelationData correlation, boolean ack) {
+        correlation.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+        return null;
+    }
+
+    private VerificationOutboxEvent event(Long id, Long requestId, boolean approved) {
+        return VerificationOutboxEvent.builder()
+                .id(id)
+                .verificationRequestId(requestId)
+                .verificationType(VerificationType.PAYMENT)
+                .targetId(100L + id)
+                .approved(approved)
+                .build();
+    }
+}
@@ -1,20 +1,24 @@
 package rs.raf.user_service.unit;
 
 
-import feign.FeignException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import rs.raf.user_service.client.BankClient;
+import org.mockito.ArgumentCaptor;
 import rs.raf.user_service.domain.dto.CreateVerificationRequestDto;
+import rs.raf.user_service.domain.dto.VerificationResultMessageDto;
+import rs.raf.user_service.domain.dto.VerificationStatusDto;
+import rs.raf.user_service.domain.entity.VerificationOutboxEvent;
 import rs.raf.user_service.domain.entity.VerificationRequest;
+import rs.raf.user_service.domain.enums.VerificationExecutionStatus;
 import rs.raf.user_service.domain.enums.VerificationStatus;
 import rs.raf.user_service.domain.enums.VerificationType;
 import rs.raf.user_service.exceptions.RejectNonPendingRequestException;
 import rs.raf.user_service.exceptions.VerificationNotFoundException;
+import rs.raf.user_service.repository.VerificationOutboxEventRepository;
 import rs.raf.user_service.repository.VerificationRequestRepository;
 import rs.raf.user_service.service.VerificationRequestService;
 import rs.raf.user_service.utils.JwtTokenUtil;
@@ -32,7 +36,7 @@ public class VerificationRequestServiceTest {
     private VerificationRequestRepository verificationRequestRepository;
 
     @Mock
-    private BankClient bankClient;
+    private VerificationOutboxEventRepository verificationOutboxEventRepository;
 
     @Mock
     private JwtTokenUtil jwtTokenUtil;
@@ -60,8 +64,74 @@ public class VerificationRequestServiceTest {
 
         assertTrue(result);
         assertEquals(VerificationStatus.APPROVED, mockRequest.getStatus());
+        assertEquals(VerificationExecutionStatus.QUEUED, mockRequest.getExecutionStatus());
         verify(verificationRequestRepository, times(1)).save(mockRequest);
-        verify(bankClient, times(1)).changeAccountLimit(mockRequest.getTargetId());
+
+        ArgumentCaptor<VerificationOutboxEvent> captor = ArgumentCaptor.forClass(VerificationOutboxEvent.class);
+        verify(verificationOutboxEventRepository).save(captor.capture());
+        assertEquals(requestId, captor.getValue().getVerificationRequestId());
+        assertEquals(VerificationType.CHANGE_LIMIT, captor.getValue().getVerificationType());
+        assertEquals(10L, captor.getValue().getTargetId());
+        assertTrue(captor.getValue().isApproved());
+    }
+
+    @Test
+    void processApproval_NonBankType_DoesNotQueueDecision() {
+        VerificationRequest request = new VerificationRequest();
+        request.setId(5L);
+        request.setUserId(2L);
+        request.setStatus(VerificationStatus.PENDING);
+        request.setVerificationType(VerificationType.LOGIN);
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(2L);
+        when(verificationRequestRepository.findActiveRequest(5L, 2L)).thenReturn(Optional.of(request));
+
+        assertTrue(verificationRequestService.processApproval(5L, "Bearer token"));
+
+        assertNull(request.getExecutionStatus());
+        verify(verificationRequestRepository).save(request);
+        verifyNoInteractions(verificationOutboxEventRepository);
+    }
+
+    @Test
+    void getRequestStatus_ReturnsExecutionStatus() {
+        VerificationRequest request = new VerificationRequest();
+        request.setId(7L);
+        request.setUserId(2L);
+        request.setStatus(VerificationStatus.APPROVED);
+        request.setExecutionStatus(VerificationExecutionStatus.FAILED);
+        request.setExecutionMessage("Insufficient funds");
+
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(2L);
+        when(verificationRequestRepository.findByIdAndUserId(7L, 2L)).thenReturn(Optional.of(request));
+
+        VerificationStatusDto status = verificationRequestService.getRequestStatus(7L, "Bearer token");
+
+        assertEquals(VerificationStatus.APPROVED, status.getStatus());
+        assertEquals(VerificationExecutionStatus.FAILED, status.getExecutionStatus());
+        assertEquals("Insufficient funds", status.getExecutionMessage());
+    }
+
+    @Test
+    void getRequestStatus_OtherUsersRequest_Throws() {
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(2L);
+        when(verificationRequestRepository.findByIdAndUserId(7L, 2L)).thenReturn(Optional.empty());
+
+        assertThrows(VerificationNotFoundException.class,
+                () -> verificationRequestService.getRequestStatus(7L, "Bearer token"));
+    }
+
+    @Test
+    void applyExecutionResult_UpdatesRequest() {
+        VerificationRequest request = new VerificationRequest();
+        request.setId(7L);
+        request.setExecutionStatus(VerificationExecutionStatus.QUEUED);
+        when(verificationRequestRepository.findById(7L)).thenReturn(Optional.of(request));
+
+        verificationRequestService.applyExecutionResult(new VerificationResultMessageDto(7L, true, null));
+
+        assertEquals(VerificationExecutionStatus.COMPLETED, request.getExecutionStatus());
+        verify(verificationRequestRepository).save(request);
     }
 
     @Test
@@ -142,8 +212,7 @@ public class VerificationRequestServiceTest {
         assertThrows(IllegalStateException.class, () ->
                 verificationRequestService.processApproval(2L, "Bearer abc"));
 
-        verify(bankClient, never()).confirmPayment(anyLong());
-        verify(bankClient, never()).confirmTransfer(anyLong());
+        verifyNoInteractions(verificationOutboxEventRepository);
         verify(verificationRequestRepository, never()).save(any());
     }
 
@@ -229,7 +298,10 @@ public class VerificationRequestServiceTest {
 
         assertEquals(VerificationStatus.DENIED, request.getStatus());
         verify(verificationRequestRepository, times(1)).save(request);
-        verify(bankClient, times(1)).rejectChangeAccountLimit(request.getTargetId());
+
+        ArgumentCaptor<VerificationOutboxEvent> captor = ArgumentCaptor.forClass(VerificationOutboxEvent.class);
+        verify(verificationOutboxEventRepository).save(captor.capture());
+        assertFalse(captor.getValue().isApproved());
     }
 
     @Test
@@ -252,7 +324,7 @@ public class VerificationRequestServiceTest {
                 () -> verificationRequestService.denyVerificationRequest(requestId, authHeader));
 
         verify(verificationRequestRepository, never()).save(request);
-        verify(bankClient, never()).rejectConfirmPayment(anyLong());
+        verifyNoInteractions(verificationOutboxEventRepository);
     }
 
     @Test